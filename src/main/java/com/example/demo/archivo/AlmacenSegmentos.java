@@ -0,0 +1,341 @@
+package com.example.demo.archivo;
+
+import com.example.demo.archivo.SegmentoArchivo.Bloque;
+import com.example.demo.model.AtencionMedica;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Archivo frío en ficheros de segmento (ver SegmentoArchivo) para las atenciones que ya no necesitan estar
+// en Oracle. Las escrituras se serializan y solo añaden al final del segmento activo, que se rota al
+// superar el tamaño máximo. El índice disperso (una entrada por bloque) se publica copiando la lista,
+// así que las lecturas no bloquean y solo ven bloques ya sincronizados a disco.
+//
+// El directorio tiene que ser compartido por todas las instancias: lo que está aquí ya no está en la tabla.
+// Cada instancia escribe solo en su subdirectorio (el nombre del nodo, protegido con un cerrojo de fichero)
+// y antes de leer incorpora los bloques que las demás hayan añadido a los suyos, como mucho una vez por
+// intervalo de refresco: durante ese intervalo una atención que otra instancia acaba de pasar de la tabla
+// a sus segmentos puede no aparecer.
+//
+// Si una caída deja un bloque escrito pero la transacción que borraba las filas de la tabla no confirmó,
+// esas atenciones se vuelven a escribir en el siguiente ciclo: las lecturas quitan duplicados por id.
+public class AlmacenSegmentos implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenSegmentos.class);
+    private static final String PREFIJO = "segmento-";
+    private static final String EXTENSION = ".dat";
+    private static final String CERROJO = ".nodo.lock";
+
+    static final Comparator<AtencionMedica> MAS_RECIENTES_PRIMERO =
+            Comparator.comparing(AtencionMedica::getFechaAtencion).thenComparing(AtencionMedica::getId).reversed();
+
+    private final Path directorio;
+    private final Path propio;
+    private final long tamanoMaximoSegmento;
+    private final int registrosPorBloque;
+
+    // Segmentos de esta instancia, protegidos por this
+    private final List<SegmentoArchivo> segmentos = new ArrayList<>();
+    private SegmentoArchivo activo;
+    private FileLock cerrojo;
+    private volatile List<Bloque> bloques = List.of();
+
+    // Segmentos de las demás instancias, protegidos por ajenos
+    private final Map<Path, SegmentoArchivo> ajenos = new HashMap<>();
+    private volatile List<Bloque> bloquesAjenos = List.of();
+    private final long intervaloRefrescoNanos;
+    private volatile long ultimoRefresco;
+
+    private Counter bloquesLeidos;
+
+    public AlmacenSegmentos(Path directorio, String nodo, long tamanoMaximoSegmento, int registrosPorBloque,
+                            long intervaloRefrescoMs) {
+        this.directorio = directorio;
+        this.propio = directorio.resolve(nodo);
+        this.tamanoMaximoSegmento = tamanoMaximoSegmento;
+        this.registrosPorBloque = registrosPorBloque;
+        this.intervaloRefrescoNanos = intervaloRefrescoMs * 1_000_000;
+        this.ultimoRefresco = System.nanoTime() - intervaloRefrescoNanos;
+    }
+
+    public synchronized void abrir() throws IOException {
+        Files.createDirectories(propio);
+        FileChannel canalCerrojo = FileChannel.open(propio.resolve(CERROJO), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            cerrojo = canalCerrojo.tryLock();
+        } catch (OverlappingFileLockException e) {
+            cerrojo = null;
+        }
+        if (cerrojo == null) {
+            canalCerrojo.close();
+            throw new IllegalStateException("Otra instancia ya escribe en " + propio + ": el nombre de nodo debe ser único");
+        }
+        List<Bloque> leidos = new ArrayList<>();
+        for (Path ruta : segmentosEn(propio)) {
+            segmentos.add(SegmentoArchivo.abrir(ruta, leidos));
+        }
+        activo = segmentos.isEmpty() ? nuevoSegmento() : segmentos.get(segmentos.size() - 1);
+        bloques = List.copyOf(leidos);
+        refrescar();
+        log.info("Archivo de segmentos abierto en {}: {} segmentos propios, {} bloques propios y {} de otras instancias",
+                propio, segmentos.size(), leidos.size(), bloquesAjenos.size());
+    }
+
+    public synchronized void cerrar() throws IOException {
+        for (SegmentoArchivo segmento : segmentos) {
+            segmento.close();
+        }
+        segmentos.clear();
+        bloques = List.of();
+        synchronized (ajenos) {
+            for (SegmentoArchivo segmento : ajenos.values()) {
+                segmento.close();
+            }
+            ajenos.clear();
+            bloquesAjenos = List.of();
+        }
+        if (cerrojo != null) {
+            cerrojo.channel().close();
+            cerrojo = null;
+        }
+    }
+
+    // Incorpora los segmentos y bloques nuevos de las demás instancias. Si nada ha cambiado cuesta un
+    // listado por subdirectorio y un tamaño por fichero
+    public void refrescar() {
+        synchronized (ajenos) {
+            ultimoRefresco = System.nanoTime();
+            List<Bloque> nuevos = new ArrayList<>();
+            try {
+                List<Path> nodos;
+                try (Stream<Path> entradas = Files.list(directorio)) {
+                    nodos = entradas.filter(Files::isDirectory).filter(ruta -> !ruta.equals(propio)).sorted().toList();
+                }
+                for (Path nodo : nodos) {
+                    for (Path ruta : segmentosEn(nodo)) {
+                        SegmentoArchivo segmento = ajenos.get(ruta);
+                        if (segmento != null) {
+                            segmento.actualizar(nuevos);
+                        } else {
+                            segmento = SegmentoArchivo.abrirAjeno(ruta, nuevos);
+                            if (segmento != null) {
+                                ajenos.put(ruta, segmento);
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el archivo de segmentos en " + directorio, e);
+            }
+            if (!nuevos.isEmpty()) {
+                List<Bloque> todos = new ArrayList<>(bloquesAjenos.size() + nuevos.size());
+                todos.addAll(bloquesAjenos);
+                todos.addAll(nuevos);
+                bloquesAjenos = List.copyOf(todos);
+            }
+        }
+    }
+
+    // refrescar() si el último fue hace más del intervalo. Los hilos que llegan a la vez esperan al que
+    // refresca y no repiten el listado
+    private void refrescarSiToca() {
+        if (System.nanoTime() - ultimoRefresco < intervaloRefrescoNanos) {
+            return;
+        }
+        synchronized (ajenos) {
+            if (System.nanoTime() - ultimoRefresco >= intervaloRefrescoNanos) {
+                refrescar();
+            }
+        }
+    }
+
+    // Añade las atenciones en bloques ordenados por id (rangos de id estrechos por bloque) y vuelve cuando
+    // están en disco y visibles para las lecturas
+    public synchronized void escribir(List<AtencionMedica> atenciones) throws IOException {
+        if (atenciones.isEmpty()) {
+            return;
+        }
+        List<AtencionMedica> ordenadas = new ArrayList<>(atenciones);
+        ordenadas.sort(Comparator.comparing(AtencionMedica::getId));
+
+        List<Bloque> nuevos = new ArrayList<>();
+        for (int inicio = 0; inicio < ordenadas.size(); inicio += registrosPorBloque) {
+            if (activo.getTamano() >= tamanoMaximoSegmento) {
+                activo.sincronizar();
+                activo = nuevoSegmento();
+            }
+            nuevos.add(activo.anadir(ordenadas.subList(inicio, Math.min(ordenadas.size(), inicio + registrosPorBloque))));
+        }
+        activo.sincronizar();
+
+        List<Bloque> todos = new ArrayList<>(bloques.size() + nuevos.size());
+        todos.addAll(bloques);
+        todos.addAll(nuevos);
+        bloques = List.copyOf(todos);
+    }
+
+    public Optional<AtencionMedica> buscarPorId(long id) {
+        refrescarSiToca();
+        Optional<AtencionMedica> propia = buscarPorId(bloques, id);
+        return propia.isPresent() ? propia : buscarPorId(bloquesAjenos, id);
+    }
+
+    // Igualdad sobre id, pacienteId, medicoId o estado, los mismos filtros que admiten los listados.
+    // Por estado la máscara de la cabecera solo descarta los bloques sin ninguna atención en ese estado, y
+    // casi todos mezclan Realizada y Cancelada: en la práctica es un recorrido completo del archivo
+    public List<AtencionMedica> buscar(String atributo, Object valor) {
+        if (valor == null) {
+            return List.of();
+        }
+        return switch (atributo) {
+            case "id" -> buscarPorId(((Number) valor).longValue()).map(List::of).orElse(List.of());
+            case "pacienteId" -> {
+                long pacienteId = ((Number) valor).longValue();
+                yield recorrer(bloque -> bloque.puedeContenerPaciente(pacienteId),
+                        atencion -> atencion.getPacienteId() == pacienteId);
+            }
+            case "medicoId" -> {
+                long medicoId = ((Number) valor).longValue();
+                yield recorrer(bloque -> bloque.puedeContenerMedico(medicoId),
+                        atencion -> atencion.getMedicoId() == medicoId);
+            }
+            case "estado" -> recorrer(bloque -> bloque.puedeContenerEstado((String) valor),
+                    atencion -> valor.equals(atencion.getEstado()));
+            default -> throw new IllegalArgumentException("Filtro no admitido en el archivo: " + atributo);
+        };
+    }
+
+    // Atenciones del paciente anteriores a (fechaCursor, idCursor), más recientes primero; sin cursor, desde el principio
+    public List<AtencionMedica> historia(long pacienteId, LocalDateTime fechaCursor, Long idCursor, int limite) {
+        List<AtencionMedica> candidatas = recorrer(
+                bloque -> bloque.puedeContenerPaciente(pacienteId)
+                        && (fechaCursor == null || bloque.empiezaAntesDe(fechaCursor)),
+                atencion -> atencion.getPacienteId() == pacienteId
+                        && (fechaCursor == null || anteriorA(atencion, fechaCursor, idCursor)));
+        candidatas.sort(MAS_RECIENTES_PRIMERO);
+        return candidatas.size() > limite ? new ArrayList<>(candidatas.subList(0, limite)) : candidatas;
+    }
+
+    // Todas las atenciones de los segmentos, bloque a bloque y con los duplicados de una reescritura
+    public void recorrerTodo(Consumer<AtencionMedica> visitante) {
+        refrescarSiToca();
+        for (List<Bloque> indice : List.of(bloques, bloquesAjenos)) {
+            for (Bloque bloque : indice) {
+                leer(bloque).forEach(visitante);
+            }
+        }
+    }
+
+    static boolean anteriorA(AtencionMedica atencion, LocalDateTime fecha, Long id) {
+        int comparacion = atencion.getFechaAtencion().compareTo(fecha);
+        return comparacion < 0 || (comparacion == 0 && atencion.getId() < id);
+    }
+
+    int getBloques() {
+        return bloques.size() + bloquesAjenos.size();
+    }
+
+    private Optional<AtencionMedica> buscarPorId(List<Bloque> indice, long id) {
+        for (int i = indice.size() - 1; i >= 0; i--) {
+            Bloque bloque = indice.get(i);
+            if (bloque.puedeContenerId(id)) {
+                for (AtencionMedica atencion : leer(bloque)) {
+                    if (atencion.getId() == id) {
+                        return Optional.of(atencion);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<AtencionMedica> recorrer(Predicate<Bloque> candidato, Predicate<AtencionMedica> coincide) {
+        refrescarSiToca();
+        Map<Long, AtencionMedica> porId = new LinkedHashMap<>();
+        for (List<Bloque> indice : List.of(bloques, bloquesAjenos)) {
+            for (Bloque bloque : indice) {
+                if (candidato.test(bloque)) {
+                    for (AtencionMedica atencion : leer(bloque)) {
+                        if (coincide.test(atencion)) {
+                            porId.putIfAbsent(atencion.getId(), atencion);
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(porId.values());
+    }
+
+    private static List<Path> segmentosEn(Path nodo) throws IOException {
+        try (Stream<Path> ficheros = Files.list(nodo)) {
+            return ficheros.filter(ruta -> ruta.getFileName().toString().startsWith(PREFIJO)
+                            && ruta.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private List<AtencionMedica> leer(Bloque bloque) {
+        if (bloquesLeidos != null) {
+            bloquesLeidos.increment();
+        }
+        return bloque.segmento().leer(bloque);
+    }
+
+    private SegmentoArchivo nuevoSegmento() throws IOException {
+        Path ruta = propio.resolve(String.format("%s%06d%s", PREFIJO, segmentos.size() + 1, EXTENSION));
+        SegmentoArchivo segmento = SegmentoArchivo.crear(ruta);
+        segmentos.add(segmento);
+        return segmento;
+    }
+
+    private synchronized long tamanoTotal() {
+        long total = 0;
+        for (SegmentoArchivo segmento : segmentos) {
+            total += segmento.getTamano();
+        }
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("atenciones.archivo.segmentos.bloques", this, AlmacenSegmentos::getBloques)
+                .description("Bloques en el índice disperso del archivo de segmentos, de todas las instancias")
+                .register(registry);
+        Gauge.builder("atenciones.archivo.segmentos.registros", this,
+                        almacen -> almacen.bloques.stream().mapToLong(Bloque::registros).sum()
+                                + almacen.bloquesAjenos.stream().mapToLong(Bloque::registros).sum())
+                .description("Atenciones guardadas en los segmentos, duplicados incluidos")
+                .register(registry);
+        Gauge.builder("atenciones.archivo.segmentos.bytes", this, AlmacenSegmentos::tamanoTotal)
+                .description("Tamaño en disco de los segmentos escritos por esta instancia")
+                .baseUnit("bytes")
+                .register(registry);
+        bloquesLeidos = Counter.builder("atenciones.archivo.segmentos.bloques-leidos")
+                .description("Bloques descomprimidos para responder lecturas")
+                .register(registry);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.archivo;
+
+import com.example.demo.event.EntidadModificadaEvent;
+import com.example.demo.event.Tabla;
+import com.example.demo.event.TipoCambio;
+import com.example.demo.repository.ArchivoAtencionesQueries;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Mantiene pequeña atenciones_medicas: las atenciones Realizadas o Canceladas con fecha anterior al
+// horizonte pasan a atenciones_medicas_archivo en trozos de una transacción cada uno, para no retener
+// bloqueos ni generar un undo enorme. Las Programadas nunca se archivan, por antiguas que sean.
+// No publica AtencionMedicaModificadaEvent: la atención no cambia, solo de tabla, y ni el outbox ni el
+// rollup diario deben verla como una baja. Sí publica un EntidadModificadaEvent sin id por trozo para
+// que los ETag y la caché de respuestas dejen de servir listados que aún la incluyen. El rollup, el
+// almacén columnar y los sketches la siguen contando: recalculan y recorren también el archivo.
+public class ArchivadorAtenciones implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivadorAtenciones.class);
+
+    private final ArchivoAtencionesQueries queries;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration horizonte;
+    private final int tamanoTrozo;
+    private final int maximoTrozosPorCiclo;
+
+    private Counter archivadas;
+    private Counter errores;
+    private Timer duracionTrozo;
+
+    public ArchivadorAtenciones(ArchivoAtencionesQueries queries, TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher, Duration horizonte, int tamanoTrozo,
+                                int maximoTrozosPorCiclo) {
+        this.queries = queries;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.horizonte = horizonte;
+        this.tamanoTrozo = tamanoTrozo;
+        this.maximoTrozosPorCiclo = maximoTrozosPorCiclo;
+    }
+
+    @Scheduled(initialDelayString = "${atenciones.archivo.inicial-ms:60000}",
+               fixedDelayString = "${atenciones.archivo.intervalo-ms:3600000}")
+    public void archivar() {
+        // El límite se fija al empezar el ciclo para que todos los trozos usen el mismo corte
+        LocalDateTime anteriorA = LocalDateTime.now().minus(horizonte);
+        int total = 0;
+        for (int trozos = 0; trozos < maximoTrozosPorCiclo; trozos++) {
+            int movidas = archivarTrozo(anteriorA);
+            total += movidas;
+            if (movidas < tamanoTrozo) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Archivadas {} atenciones anteriores a {}", total, anteriorA);
+        }
+    }
+
+    int archivarTrozo(LocalDateTime anteriorA) {
+        long inicio = System.nanoTime();
+        Integer movidas;
+        try {
+            movidas = transactionTemplate.execute(status -> {
+                List<Long> ids = queries.bloquearArchivables(anteriorA, tamanoTrozo);
+                if (!ids.isEmpty()) {
+                    queries.mover(ids, LocalDateTime.now());
+                    eventPublisher.publishEvent(new EntidadModificadaEvent(Tabla.ATENCIONES_MEDICAS, null, TipoCambio.ARCHIVADO));
+                }
+                return ids.size();
+            });
+        } catch (RuntimeException e) {
+            if (errores != null) {
+                errores.increment();
+            }
+            log.warn("No se pudo archivar el trozo, se reintentará en el próximo ciclo: {}", e.getMessage());
+            return 0;
+        }
+        if (movidas == null || movidas == 0) {
+            return 0;
+        }
+        if (archivadas != null) {
+            archivadas.increment(movidas);
+            duracionTrozo.record(Duration.ofNanos(System.nanoTime() - inicio));
+        }
+        return movidas;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        archivadas = Counter.builder("atenciones.archivo.movidas")
+                .description("Atenciones movidas de atenciones_medicas a atenciones_medicas_archivo")
+                .register(registry);
+        errores = Counter.builder("atenciones.archivo.errores")
+                .description("Trozos que fallaron y se revirtieron")
+                .register(registry);
+        duracionTrozo = Timer.builder("atenciones.archivo.trozo")
+                .description("Duración de cada trozo: bloqueo, copia y borrado")
+                .register(registry);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.archivo;
+
+import com.example.demo.event.EntidadModificadaEvent;
+import com.example.demo.event.Tabla;
+import com.example.demo.event.TipoCambio;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.ArchivoAtencionesQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Pasa las atenciones que llevan más de la retención en atenciones_medicas_archivo a los ficheros de
+// segmento y las borra de la tabla, en trozos de una transacción. El bloque se sincroniza a disco antes
+// del DELETE: si el commit falla, la fila sigue en la tabla y el bloque queda duplicado, nunca perdido.
+// Varias instancias pueden compactar a la vez: SKIP LOCKED reparte las filas y cada una escribe en su
+// subdirectorio del almacenamiento compartido, que las demás leen. Como ArchivadorAtenciones, publica un
+// EntidadModificadaEvent sin id por trozo para invalidar los listados con ?incluirArchivo=true.
+public class CompactadorArchivo {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactadorArchivo.class);
+
+    private final ArchivoAtencionesQueries queries;
+    private final AlmacenSegmentos almacen;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retencionTabla;
+    private final int tamanoTrozo;
+    private final int maximoTrozosPorCiclo;
+
+    public CompactadorArchivo(ArchivoAtencionesQueries queries, AlmacenSegmentos almacen,
+                              TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                              Duration retencionTabla, int tamanoTrozo, int maximoTrozosPorCiclo) {
+        this.queries = queries;
+        this.almacen = almacen;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retencionTabla = retencionTabla;
+        this.tamanoTrozo = tamanoTrozo;
+        this.maximoTrozosPorCiclo = maximoTrozosPorCiclo;
+    }
+
+    @Scheduled(initialDelayString = "${atenciones.archivo.segmentos.inicial-ms:120000}",
+               fixedDelayString = "${atenciones.archivo.segmentos.intervalo-ms:3600000}")
+    public void compactar() {
+        LocalDateTime archivadaAntesDe = LocalDateTime.now().minus(retencionTabla);
+        int total = 0;
+        for (int trozos = 0; trozos < maximoTrozosPorCiclo; trozos++) {
+            int movidas = compactarTrozo(archivadaAntesDe);
+            total += movidas;
+            if (movidas < tamanoTrozo) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Pasadas {} atenciones archivadas a los ficheros de segmento", total);
+        }
+    }
+
+    int compactarTrozo(LocalDateTime archivadaAntesDe) {
+        try {
+            Integer movidas = transactionTemplate.execute(status -> {
+                List<AtencionMedica> atenciones = queries.bloquearParaSegmentos(archivadaAntesDe, tamanoTrozo);
+                if (atenciones.isEmpty()) {
+                    return 0;
+                }
+                try {
+                    almacen.escribir(atenciones);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e.getMessage(), e);
+                }
+                queries.borrarArchivadas(atenciones.stream().map(AtencionMedica::getId).toList());
+                eventPublisher.publishEvent(new EntidadModificadaEvent(Tabla.ATENCIONES_MEDICAS, null, TipoCambio.ARCHIVADO));
+                return atenciones.size();
+            });
+            return movidas == null ? 0 : movidas;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo pasar el trozo a los segmentos, se reintentará en el próximo ciclo: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.example.demo.archivo;
+
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.ValoresCanonicos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Un fichero de segmento del archivo frío: cabecera de fichero y bloques de atenciones comprimidos con
+// Deflater, siempre añadidos al final. Cada bloque lleva delante una cabecera fija con lo necesario para
+// descartarlo sin descomprimirlo (rango de ids y de fechas, filtros de Bloom de paciente y médico y los
+// estados presentes); esas cabeceras son el índice disperso que AlmacenSegmentos mantiene en memoria.
+//
+// Cabecera de bloque (CABECERA_BLOQUE bytes):
+//   int longitud comprimida | int longitud original | int registros | int crc32 de los datos comprimidos
+//   long idMin | long idMax | long fechaMin | long fechaMax (segundos UTC)
+//   long[PALABRAS_BLOOM] pacientes | long[PALABRAS_BLOOM] médicos | int máscara de estados
+//
+// Las lecturas van sobre el fichero mapeado en memoria; tras cada escritura se vuelve a mapear y el mapa
+// anterior lo libera el GC. Al abrir se comprueba el crc de todos los bloques y el fichero se trunca en el
+// primero incompleto o dañado (caída durante la escritura, o un fallo de disco en un bloque ya escrito):
+// lo que sigue no se puede publicar sin arriesgarse a leer datos corruptos. Cada fichero lo escribe una sola instancia; las demás lo abren con abrirAjeno y van leyendo
+// los bloques que se le añaden.
+final class SegmentoArchivo implements Closeable {
+
+    static final int MAGIA = 0x41545347;
+    static final int VERSION = 1;
+    static final int CABECERA_FICHERO = 8;
+    static final int PALABRAS_BLOOM = 16;
+    static final int CABECERA_BLOQUE = 4 * 4 + 8 * 4 + 8 * PALABRAS_BLOOM * 2 + 4;
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentoArchivo.class);
+    private static final int ESTADO_DESCONOCIDO = 1 << 31;
+
+    // Entrada del índice disperso: dónde está el bloque y qué puede contener
+    record Bloque(SegmentoArchivo segmento, long posicion, int longitudComprimida, int longitudOriginal,
+                  int registros, long idMin, long idMax, long fechaMin, long fechaMax,
+                  long[] pacientes, long[] medicos, int estados) {
+
+        boolean puedeContenerId(long id) {
+            return id >= idMin && id <= idMax;
+        }
+
+        boolean puedeContenerPaciente(long pacienteId) {
+            return contiene(pacientes, pacienteId);
+        }
+
+        boolean puedeContenerMedico(long medicoId) {
+            return contiene(medicos, medicoId);
+        }
+
+        boolean puedeContenerEstado(String estado) {
+            return (estados & bitEstado(estado)) != 0;
+        }
+
+        boolean empiezaAntesDe(LocalDateTime fecha) {
+            return fechaMin <= fecha.toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+
+    private final Path ruta;
+    private final FileChannel canal;
+    private long tamano;
+    private volatile MappedByteBuffer mapa;
+
+    private SegmentoArchivo(Path ruta, FileChannel canal, long tamano) throws IOException {
+        this.ruta = ruta;
+        this.canal = canal;
+        this.tamano = tamano;
+        this.mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+    }
+
+    static SegmentoArchivo crear(Path ruta) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_FICHERO).putInt(MAGIA).putInt(VERSION).flip();
+        escribirCompleto(canal, cabecera, 0);
+        canal.force(true);
+        return new SegmentoArchivo(ruta, canal, CABECERA_FICHERO);
+    }
+
+    // Recorre las cabeceras de bloque y las añade a bloques; trunca lo que quede tras el último bloque
+    // completo con crc correcto
+    static SegmentoArchivo abrir(Path ruta, List<Bloque> bloques) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long tamanoFichero = canal.size();
+        if (!cabeceraValida(canal, tamanoFichero)) {
+            canal.close();
+            throw new IOException("No es un segmento de archivo válido: " + ruta);
+        }
+
+        SegmentoArchivo segmento = new SegmentoArchivo(ruta, canal, tamanoFichero);
+        long posicion = segmento.leerBloques(CABECERA_FICHERO, tamanoFichero, true, bloques);
+        if (posicion < tamanoFichero) {
+            log.warn("Segmento {} truncado en la posición {}: se descartan {} bytes tras el último bloque válido",
+                    ruta, posicion, tamanoFichero - posicion);
+            canal.truncate(posicion);
+            canal.force(true);
+            segmento.tamano = posicion;
+            segmento.mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, posicion);
+        }
+        return segmento;
+    }
+
+    // Segmento que escribe otra instancia: solo lectura y sin truncar, porque lo que sigue al último bloque
+    // completo puede ser un bloque que la otra instancia todavía está escribiendo. Devuelve null si el
+    // fichero aún no tiene cabecera completa
+    static SegmentoArchivo abrirAjeno(Path ruta, List<Bloque> bloques) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ);
+        long tamanoFichero = canal.size();
+        if (!cabeceraValida(canal, tamanoFichero)) {
+            canal.close();
+            return null;
+        }
+        SegmentoArchivo segmento = new SegmentoArchivo(ruta, canal, CABECERA_FICHERO);
+        segmento.actualizar(bloques);
+        return segmento;
+    }
+
+    // Añade a bloques los bloques completos que otra instancia ha escrito desde la última llamada. Se
+    // comprueba el crc de cada uno antes de publicarlo: un bloque que no cuadra se vuelve a intentar después
+    synchronized void actualizar(List<Bloque> bloques) throws IOException {
+        long tamanoFichero = canal.size();
+        if (tamanoFichero <= tamano) {
+            return;
+        }
+        mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanoFichero);
+        tamano = leerBloques(tamano, tamanoFichero, true, bloques);
+    }
+
+    private long leerBloques(long desde, long hasta, boolean verificar, List<Bloque> bloques) throws IOException {
+        long posicion = desde;
+        ByteBuffer buffer = ByteBuffer.allocate(CABECERA_BLOQUE);
+        while (posicion + CABECERA_BLOQUE <= hasta) {
+            buffer.clear();
+            canal.read(buffer, posicion);
+            Bloque bloque = leerCabecera(this, posicion, buffer.flip());
+            long fin = posicion + CABECERA_BLOQUE + bloque.longitudComprimida();
+            if (bloque.longitudComprimida() <= 0 || fin > hasta || (verificar && !crcCorrecto(bloque))) {
+                break;
+            }
+            bloques.add(bloque);
+            posicion = fin;
+        }
+        return posicion;
+    }
+
+    private static boolean cabeceraValida(FileChannel canal, long tamanoFichero) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_FICHERO);
+        return tamanoFichero >= CABECERA_FICHERO && canal.read(cabecera, 0) >= CABECERA_FICHERO
+                && cabecera.getInt(0) == MAGIA && cabecera.getInt(4) == VERSION;
+    }
+
+    // Escribe un bloque al final sin sincronizar: el bloque no debe publicarse hasta llamar a sincronizar()
+    synchronized Bloque anadir(List<AtencionMedica> atenciones) throws IOException {
+        byte[] original = codificar(atenciones);
+        byte[] comprimido = comprimir(original);
+        CRC32 crc = new CRC32();
+        crc.update(comprimido);
+
+        long idMin = Long.MAX_VALUE;
+        long idMax = Long.MIN_VALUE;
+        long fechaMin = Long.MAX_VALUE;
+        long fechaMax = Long.MIN_VALUE;
+        long[] pacientes = new long[PALABRAS_BLOOM];
+        long[] medicos = new long[PALABRAS_BLOOM];
+        int estados = 0;
+        for (AtencionMedica atencion : atenciones) {
+            idMin = Math.min(idMin, atencion.getId());
+            idMax = Math.max(idMax, atencion.getId());
+            long fecha = atencion.getFechaAtencion().toEpochSecond(ZoneOffset.UTC);
+            fechaMin = Math.min(fechaMin, fecha);
+            fechaMax = Math.max(fechaMax, fecha);
+            marcar(pacientes, atencion.getPacienteId());
+            marcar(medicos, atencion.getMedicoId());
+            estados |= bitEstado(atencion.getEstado());
+        }
+
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_BLOQUE)
+                .putInt(comprimido.length).putInt(original.length).putInt(atenciones.size()).putInt((int) crc.getValue())
+                .putLong(idMin).putLong(idMax).putLong(fechaMin).putLong(fechaMax);
+        for (long palabra : pacientes) {
+            cabecera.putLong(palabra);
+        }
+        for (long palabra : medicos) {
+            cabecera.putLong(palabra);
+        }
+        cabecera.putInt(estados).flip();
+
+        long posicion = tamano;
+        escribirCompleto(canal, cabecera, posicion);
+        escribirCompleto(canal, ByteBuffer.wrap(comprimido), posicion + CABECERA_BLOQUE);
+        tamano = posicion + CABECERA_BLOQUE + comprimido.length;
+        return new Bloque(this, posicion, comprimido.length, original.length, atenciones.size(),
+                idMin, idMax, fechaMin, fechaMax, pacientes, medicos, estados);
+    }
+
+    // Lleva a disco lo escrito y vuelve a mapear el fichero para que los lectores vean los bloques nuevos
+    synchronized void sincronizar() throws IOException {
+        canal.force(false);
+        if (mapa.capacity() != tamano) {
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+        }
+    }
+
+    List<AtencionMedica> leer(Bloque bloque) {
+        MappedByteBuffer vista = mapa;
+        byte[] comprimido = comprimido(vista, bloque);
+        if (!crcCorrecto(vista, bloque, comprimido)) {
+            throw new IllegalStateException("Bloque dañado en " + ruta + " posición " + bloque.posicion());
+        }
+        try {
+            return decodificar(descomprimir(comprimido, bloque.longitudOriginal()), bloque.registros());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el bloque en " + ruta + " posición " + bloque.posicion(), e);
+        }
+    }
+
+    private boolean crcCorrecto(Bloque bloque) {
+        MappedByteBuffer vista = mapa;
+        return crcCorrecto(vista, bloque, comprimido(vista, bloque));
+    }
+
+    private static byte[] comprimido(MappedByteBuffer vista, Bloque bloque) {
+        byte[] comprimido = new byte[bloque.longitudComprimida()];
+        vista.get((int) (bloque.posicion() + CABECERA_BLOQUE), comprimido);
+        return comprimido;
+    }
+
+    private static boolean crcCorrecto(MappedByteBuffer vista, Bloque bloque, byte[] comprimido) {
+        CRC32 crc = new CRC32();
+        crc.update(comprimido);
+        return (int) crc.getValue() == leerCrc(vista, bloque.posicion());
+    }
+
+    synchronized long getTamano() {
+        return tamano;
+    }
+
+    Path getRuta() {
+        return ruta;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private static int leerCrc(MappedByteBuffer vista, long posicion) {
+        return vista.getInt((int) posicion + 12);
+    }
+
+    private static Bloque leerCabecera(SegmentoArchivo segmento, long posicion, ByteBuffer buffer) {
+        int longitudComprimida = buffer.getInt();
+        int longitudOriginal = buffer.getInt();
+        int registros = buffer.getInt();
+        buffer.getInt();
+        long idMin = buffer.getLong();
+        long idMax = buffer.getLong();
+        long fechaMin = buffer.getLong();
+        long fechaMax = buffer.getLong();
+        long[] pacientes = new long[PALABRAS_BLOOM];
+        for (int i = 0; i < PALABRAS_BLOOM; i++) {
+            pacientes[i] = buffer.getLong();
+        }
+        long[] medicos = new long[PALABRAS_BLOOM];
+        for (int i = 0; i < PALABRAS_BLOOM; i++) {
+            medicos[i] = buffer.getLong();
+        }
+        int estados = buffer.getInt();
+        return new Bloque(segmento, posicion, longitudComprimida, longitudOriginal, registros,
+                idMin, idMax, fechaMin, fechaMax, pacientes, medicos, estados);
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        long actual = posicion;
+        while (buffer.hasRemaining()) {
+            actual += canal.write(buffer, actual);
+        }
+    }
+
+    static byte[] codificar(List<AtencionMedica> atenciones) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(atenciones.size() * 256);
+        DataOutputStream salida = new DataOutputStream(bytes);
+        for (AtencionMedica atencion : atenciones) {
+            salida.writeLong(atencion.getId());
+            salida.writeLong(atencion.getPacienteId());
+            salida.writeLong(atencion.getMedicoId());
+            salida.writeLong(atencion.getFechaAtencion().toEpochSecond(ZoneOffset.UTC));
+            salida.writeInt(atencion.getFechaAtencion().getNano());
+            escribirTexto(salida, atencion.getMotivoConsulta());
+            escribirTexto(salida, atencion.getDiagnostico());
+            escribirTexto(salida, atencion.getTratamiento());
+            escribirTexto(salida, atencion.getObservaciones());
+            escribirTexto(salida, atencion.getEstado());
+        }
+        salida.flush();
+        return bytes.toByteArray();
+    }
+
+    static List<AtencionMedica> decodificar(byte[] datos, int registros) throws IOException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos));
+        List<AtencionMedica> atenciones = new ArrayList<>(registros);
+        for (int i = 0; i < registros; i++) {
+            long id = entrada.readLong();
+            long pacienteId = entrada.readLong();
+            long medicoId = entrada.readLong();
+            LocalDateTime fecha = LocalDateTime.ofEpochSecond(entrada.readLong(), entrada.readInt(), ZoneOffset.UTC);
+            AtencionMedica atencion = new AtencionMedica(pacienteId, medicoId, fecha, leerTexto(entrada),
+                    leerTexto(entrada), leerTexto(entrada), leerTexto(entrada), ValoresCanonicos.canonico(leerTexto(entrada)));
+            atencion.setId(id);
+            atenciones.add(atencion);
+        }
+        return atenciones;
+    }
+
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(datos);
+            deflater.finish();
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, datos.length / 3));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                salida.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return salida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] descomprimir(byte[] comprimido, int longitudOriginal) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(comprimido);
+            byte[] original = new byte[longitudOriginal];
+            int leidos = 0;
+            while (leidos < longitudOriginal && !inflater.finished()) {
+                int n = inflater.inflate(original, leidos, longitudOriginal - leidos);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                leidos += n;
+            }
+            if (leidos != longitudOriginal) {
+                throw new IOException("Longitud descomprimida " + leidos + ", se esperaban " + longitudOriginal);
+            }
+            return original;
+        } catch (DataFormatException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Filtro de Bloom de 1024 bits con dos posiciones por valor: con los registros por bloque por defecto
+    // deja pasar en torno a un 5 % de bloques que no contienen el paciente o médico buscado
+    static void marcar(long[] bits, long valor) {
+        long h = mezclar(valor);
+        int total = bits.length * 64;
+        int a = (int) ((h & 0x7FFFFFFFL) % total);
+        int b = (int) (((h >>> 32) & 0x7FFFFFFFL) % total);
+        bits[a >>> 6] |= 1L << a;
+        bits[b >>> 6] |= 1L << b;
+    }
+
+    static boolean contiene(long[] bits, long valor) {
+        long h = mezclar(valor);
+        int total = bits.length * 64;
+        int a = (int) ((h & 0x7FFFFFFFL) % total);
+        int b = (int) (((h >>> 32) & 0x7FFFFFFFL) % total);
+        return (bits[a >>> 6] & (1L << a)) != 0 && (bits[b >>> 6] & (1L << b)) != 0;
+    }
+
+    private static long mezclar(long valor) {
+        long h = valor;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int bitEstado(String estado) {
+        int indice = ValoresCanonicos.ESTADOS_ATENCION.indexOf(estado);
+        return indice >= 0 ? 1 << indice : ESTADO_DESCONOCIDO;
+    }
+}
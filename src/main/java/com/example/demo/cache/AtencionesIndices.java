@@ -0,0 +1,240 @@
+package com.example.demo.cache;
+
+import com.example.demo.colecciones.LongObjectHashMap;
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.AtencionMedicaScan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índices secundarios en memoria (atenciones.indices.enabled): paciente -> ids de sus atenciones y
+// médico -> ids de sus atenciones, como long[] ordenados dentro de mapas de claves primitivas.
+// Los arrays no se modifican nunca: cada alta o baja publica uno nuevo, así que un lector puede seguir
+// usando el que obtuvo después de soltar el lock.
+// Solo es correcto con una única instancia: se mantiene con los eventos de esta JVM, así que las altas y
+// cambios hechos en otra instancia no aparecen aquí hasta el siguiente arranque.
+public class AtencionesIndices {
+
+    private static final Logger log = LoggerFactory.getLogger(AtencionesIndices.class);
+    private static final long[] VACIO = new long[0];
+    private static final long REINTENTO_INICIAL_MS = 5_000;
+    private static final long REINTENTO_MAXIMO_MS = 300_000;
+
+    private final AtencionMedicaScan atencionMedicaScan;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por lock
+    private final LongObjectHashMap<long[]> porPaciente;
+    private final LongObjectHashMap<long[]> porMedico;
+    // null cuando ya cargó y entre un intento fallido y el siguiente (como en AtencionesColumnares)
+    private List<AtencionMedicaModificadaEvent> pendientes = new ArrayList<>();
+    private volatile boolean cargado;
+
+    public AtencionesIndices(AtencionMedicaScan atencionMedicaScan, int clavesEsperadas) {
+        this.atencionMedicaScan = atencionMedicaScan;
+        this.porPaciente = new LongObjectHashMap<>(clavesEsperadas);
+        this.porMedico = new LongObjectHashMap<>(clavesEsperadas / 10);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        Thread.ofVirtual().name("atenciones-indices").start(this::cargarConReintentos);
+    }
+
+    // Mientras no carga, AtencionMedicaService consulta la base de datos directamente
+    private void cargarConReintentos() {
+        long espera = REINTENTO_INICIAL_MS;
+        while (!cargar()) {
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            espera = Math.min(espera * 2, REINTENTO_MAXIMO_MS);
+        }
+    }
+
+    // El recorrido llega ordenado por cualquier cosa: se acumula sin ordenar y se ordena cada array al final
+    boolean cargar() {
+        long inicio = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (pendientes == null) {
+                pendientes = new ArrayList<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LongObjectHashMap<long[]> pacientes = new LongObjectHashMap<>(1024);
+        LongObjectHashMap<long[]> medicos = new LongObjectHashMap<>(128);
+        try {
+            atencionMedicaScan.recorrer((id, pacienteId, medicoId, fecha, estado) -> {
+                acumular(pacientes, pacienteId, id);
+                acumular(medicos, medicoId, id);
+            });
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron cargar los índices de atenciones, se reintentará", e);
+            lock.writeLock().lock();
+            try {
+                pendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            publicar(pacientes, porPaciente);
+            publicar(medicos, porMedico);
+            // Posteriores a la lectura o repetidos: aplicarlos deja cada id en su última posición
+            for (AtencionMedicaModificadaEvent evento : pendientes) {
+                aplicar(evento);
+            }
+            pendientes = null;
+            cargado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índices de atenciones cargados: {} pacientes, {} médicos en {} ms", porPaciente.size(),
+                porMedico.size(), (System.nanoTime() - inicio) / 1_000_000);
+        return true;
+    }
+
+    // Durante la carga cada valor es un array con hueco y su primera posición guarda el número de ids
+    private static void acumular(LongObjectHashMap<long[]> indice, long clave, long id) {
+        if (clave == 0) {
+            return;
+        }
+        long[] ids = indice.get(clave);
+        if (ids == null) {
+            ids = new long[4];
+            indice.put(clave, ids);
+        } else if (ids[0] + 1 == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            indice.put(clave, ids);
+        }
+        ids[(int) ++ids[0]] = id;
+    }
+
+    private static void publicar(LongObjectHashMap<long[]> origen, LongObjectHashMap<long[]> destino) {
+        destino.clear();
+        origen.forEach((clave, ids) -> {
+            long[] ordenados = Arrays.copyOfRange(ids, 1, (int) ids[0] + 1);
+            Arrays.sort(ordenados);
+            destino.put(clave, ordenados);
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alModificar(AtencionMedicaModificadaEvent evento) {
+        lock.writeLock().lock();
+        try {
+            if (pendientes != null) {
+                pendientes.add(evento);
+            } else if (cargado) {
+                aplicar(evento);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    // Ids ordenados de las atenciones del paciente; no modificar el array devuelto
+    public long[] getIdsPorPaciente(long pacienteId) {
+        return leer(porPaciente, pacienteId);
+    }
+
+    public long[] getIdsPorMedico(long medicoId) {
+        return leer(porMedico, medicoId);
+    }
+
+    private long[] leer(LongObjectHashMap<long[]> indice, long clave) {
+        lock.readLock().lock();
+        try {
+            long[] ids = indice.get(clave);
+            return ids != null ? ids : VACIO;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bajo el write lock. Con anterior y actual se mueve el id solo si cambió el paciente o el médico
+    private void aplicar(AtencionMedicaModificadaEvent evento) {
+        AtencionMedica anterior = evento.getAnterior();
+        AtencionMedica actual = evento.getActual();
+        long id = evento.getId();
+        mover(porPaciente, anterior != null ? valor(anterior.getPacienteId()) : 0,
+                actual != null ? valor(actual.getPacienteId()) : 0, id);
+        mover(porMedico, anterior != null ? valor(anterior.getMedicoId()) : 0,
+                actual != null ? valor(actual.getMedicoId()) : 0, id);
+    }
+
+    private static void mover(LongObjectHashMap<long[]> indice, long claveAnterior, long claveActual, long id) {
+        if (claveAnterior == claveActual && claveAnterior != 0) {
+            // Sin cambio de clave basta con asegurar que está (p. ej. un upsert repetido tras la carga)
+            agregar(indice, claveActual, id);
+            return;
+        }
+        quitar(indice, claveAnterior, id);
+        agregar(indice, claveActual, id);
+    }
+
+    private static void agregar(LongObjectHashMap<long[]> indice, long clave, long id) {
+        if (clave == 0) {
+            return;
+        }
+        long[] ids = indice.get(clave);
+        if (ids == null) {
+            indice.put(clave, new long[] {id});
+            return;
+        }
+        int posicion = Arrays.binarySearch(ids, id);
+        if (posicion >= 0) {
+            return;
+        }
+        int insercion = -posicion - 1;
+        long[] nuevos = new long[ids.length + 1];
+        System.arraycopy(ids, 0, nuevos, 0, insercion);
+        nuevos[insercion] = id;
+        System.arraycopy(ids, insercion, nuevos, insercion + 1, ids.length - insercion);
+        indice.put(clave, nuevos);
+    }
+
+    private static void quitar(LongObjectHashMap<long[]> indice, long clave, long id) {
+        long[] ids = clave != 0 ? indice.get(clave) : null;
+        if (ids == null) {
+            return;
+        }
+        int posicion = Arrays.binarySearch(ids, id);
+        if (posicion < 0) {
+            return;
+        }
+        if (ids.length == 1) {
+            indice.remove(clave);
+            return;
+        }
+        long[] nuevos = new long[ids.length - 1];
+        System.arraycopy(ids, 0, nuevos, 0, posicion);
+        System.arraycopy(ids, posicion + 1, nuevos, posicion, ids.length - posicion - 1);
+        indice.put(clave, nuevos);
+    }
+
+    private static long valor(Long id) {
+        return id != null ? id : 0;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.EntidadModificadaEvent;
+import com.example.demo.event.Tabla;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Respuestas GET ya serializadas (bytes), acotadas por número de entradas y por bytes totales (LRU).
+// Un cambio en una entidad borra su detalle y los listados de su tabla; el resto de entradas se mantiene.
+// Un cambio sin id (archivado por trozos) borra todas las de la tabla. Cada entrada caduca además a
+// los ttl de guardarse.
+// Solo para una instancia: las invalidaciones llegan por eventos de esta JVM, así que con varias una
+// escritura en otra instancia no borra nada aquí y lo guardado se sirve hasta que caduque.
+public class RespuestaCache implements MeterBinder {
+
+    // id == null: listado completo de la tabla. variante: Accept y cabeceras de host que cambian los enlaces
+    public record Clave(Tabla tabla, Long id, String variante) {
+    }
+
+    public record Respuesta(byte[] cuerpo, String contentType) {
+    }
+
+    private record Entrada(Respuesta respuesta, long expiraNanos) {
+    }
+
+    private final VersionesTabla versiones;
+    private final int maximoEntradas;
+    private final long maximoBytes;
+    private final long ttlNanos;
+    private final LinkedHashMap<Clave, Entrada> entradas = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    public RespuestaCache(VersionesTabla versiones, int maximoEntradas, long maximoBytes, long ttlNanos) {
+        this.versiones = versiones;
+        this.maximoEntradas = maximoEntradas;
+        this.maximoBytes = maximoBytes;
+        this.ttlNanos = ttlNanos;
+    }
+
+    public synchronized Respuesta obtener(Clave clave) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && System.nanoTime() - entrada.expiraNanos() >= 0) {
+            entradas.remove(clave);
+            bytes -= entrada.respuesta().cuerpo().length;
+            entrada = null;
+        }
+        (entrada != null ? aciertos : fallos).incrementAndGet();
+        return entrada != null ? entrada.respuesta() : null;
+    }
+
+    // Solo se guarda si la tabla no cambió mientras se generaba la respuesta (versionLeida)
+    public synchronized void guardar(Clave clave, Respuesta respuesta, long versionLeida) {
+        if (versiones.getVersion(clave.tabla()) != versionLeida || respuesta.cuerpo().length > maximoBytes) {
+            return;
+        }
+        Entrada anterior = entradas.put(clave, new Entrada(respuesta, System.nanoTime() + ttlNanos));
+        if (anterior != null) {
+            bytes -= anterior.respuesta().cuerpo().length;
+        }
+        bytes += respuesta.cuerpo().length;
+
+        Iterator<Entrada> eldest = entradas.values().iterator();
+        while (entradas.size() > maximoEntradas || bytes > maximoBytes) {
+            bytes -= eldest.next().respuesta().cuerpo().length;
+            eldest.remove();
+        }
+    }
+
+    // Igual que VersionesTabla: al publicarse el cambio y otra vez al terminar la transacción
+    @EventListener
+    public void alModificar(EntidadModificadaEvent evento) {
+        invalidar(evento.getTabla(), evento.getId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void alCompletar(EntidadModificadaEvent evento) {
+        invalidar(evento.getTabla(), evento.getId());
+    }
+
+    synchronized void invalidar(Tabla tabla, Long id) {
+        Iterator<Map.Entry<Clave, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Clave, Entrada> entrada = it.next();
+            Clave clave = entrada.getKey();
+            if (clave.tabla() == tabla && (id == null || clave.id() == null || clave.id().equals(id))) {
+                bytes -= entrada.getValue().respuesta().cuerpo().length;
+                it.remove();
+                invalidaciones.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized int getEntradas() {
+        return entradas.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("atenciones.respuestas.cache.aciertos", aciertos, AtomicLong::get)
+                .description("GET servidos desde bytes ya serializados")
+                .register(registry);
+        FunctionCounter.builder("atenciones.respuestas.cache.fallos", fallos, AtomicLong::get)
+                .description("GET cacheables que tuvieron que pasar por el controlador")
+                .register(registry);
+        FunctionCounter.builder("atenciones.respuestas.cache.invalidaciones", invalidaciones, AtomicLong::get)
+                .description("Entradas eliminadas por escrituras")
+                .register(registry);
+        Gauge.builder("atenciones.respuestas.cache.bytes", this, RespuestaCache::getBytes)
+                .description("Bytes retenidos en la caché de respuestas")
+                .register(registry);
+        Gauge.builder("atenciones.respuestas.cache.entradas", this, RespuestaCache::getEntradas)
+                .description("Entradas en la caché de respuestas")
+                .register(registry);
+    }
+}
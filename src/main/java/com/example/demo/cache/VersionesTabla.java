@@ -0,0 +1,40 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.EntidadModificadaEvent;
+import com.example.demo.event.Tabla;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Contador de cambios por tabla, usado como validador de caché (ETag) sin leer los datos.
+// Se incrementa al publicarse el cambio (antes del commit) y otra vez al terminar la transacción:
+// así una lectura que vio la versión intermedia nunca comparte ETag con los datos ya confirmados.
+@Component
+public class VersionesTabla {
+
+    // Distinto en cada arranque e instancia para que un ETag antiguo nunca coincida tras reiniciar
+    private final long epoca = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+    private final AtomicLongArray versiones = new AtomicLongArray(Tabla.values().length);
+
+    public long getEpoca() {
+        return epoca;
+    }
+
+    public long getVersion(Tabla tabla) {
+        return versiones.get(tabla.ordinal());
+    }
+
+    @EventListener
+    public void alModificar(EntidadModificadaEvent evento) {
+        versiones.incrementAndGet(evento.getTabla().ordinal());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void alCompletar(EntidadModificadaEvent evento) {
+        versiones.incrementAndGet(evento.getTabla().ordinal());
+    }
+}
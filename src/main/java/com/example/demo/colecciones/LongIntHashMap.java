@@ -0,0 +1,170 @@
+package com.example.demo.colecciones;
+
+import java.util.Arrays;
+
+// Mapa long -> int de direccionamiento abierto (sondeo lineal) sin objetos por entrada ni boxing.
+// La clave 0 marca una celda libre, así que no se admite como clave (los ids de la base empiezan en 1).
+// No es thread-safe: quien lo comparte debe sincronizar.
+public class LongIntHashMap {
+
+    private static final double CARGA_MAXIMA = 0.6;
+
+    private long[] claves;
+    private int[] valores;
+    private int tamano;
+    private int umbral;
+
+    public LongIntHashMap(int capacidadEsperada) {
+        int celdas = Integer.highestOneBit(Math.max(4, (int) (capacidadEsperada / CARGA_MAXIMA)) - 1) << 1;
+        asignar(celdas);
+    }
+
+    // valorAusente si la clave no está
+    public int get(long clave, int valorAusente) {
+        int mascara = claves.length - 1;
+        for (int i = indice(clave, mascara); ; i = (i + 1) & mascara) {
+            long actual = claves[i];
+            if (actual == clave) {
+                return valores[i];
+            }
+            if (actual == 0) {
+                return valorAusente;
+            }
+        }
+    }
+
+    public boolean containsKey(long clave) {
+        int mascara = claves.length - 1;
+        for (int i = indice(clave, mascara); ; i = (i + 1) & mascara) {
+            long actual = claves[i];
+            if (actual == clave) {
+                return true;
+            }
+            if (actual == 0) {
+                return false;
+            }
+        }
+    }
+
+    public void put(long clave, int valor) {
+        validar(clave);
+        int mascara = claves.length - 1;
+        for (int i = indice(clave, mascara); ; i = (i + 1) & mascara) {
+            if (claves[i] == clave) {
+                valores[i] = valor;
+                return;
+            }
+            if (claves[i] == 0) {
+                claves[i] = clave;
+                valores[i] = valor;
+                if (++tamano > umbral) {
+                    redimensionar();
+                }
+                return;
+            }
+        }
+    }
+
+    // Suma delta al valor (0 si no estaba) y devuelve el resultado
+    public int addTo(long clave, int delta) {
+        validar(clave);
+        int mascara = claves.length - 1;
+        for (int i = indice(clave, mascara); ; i = (i + 1) & mascara) {
+            if (claves[i] == clave) {
+                return valores[i] += delta;
+            }
+            if (claves[i] == 0) {
+                claves[i] = clave;
+                valores[i] = delta;
+                if (++tamano > umbral) {
+                    redimensionar();
+                }
+                return delta;
+            }
+        }
+    }
+
+    // Borrado con desplazamiento hacia atrás: no deja lápidas que alarguen los sondeos
+    public boolean remove(long clave) {
+        int mascara = claves.length - 1;
+        int i = indice(clave, mascara);
+        while (claves[i] != clave) {
+            if (claves[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        int libre = i;
+        for (int j = (libre + 1) & mascara; claves[j] != 0; j = (j + 1) & mascara) {
+            int ideal = indice(claves[j], mascara);
+            // j puede ocupar la celda libre si su posición ideal no está entre libre (exclusive) y j
+            if (((j - ideal) & mascara) >= ((j - libre) & mascara)) {
+                claves[libre] = claves[j];
+                valores[libre] = valores[j];
+                libre = j;
+            }
+        }
+        claves[libre] = 0;
+        valores[libre] = 0;
+        tamano--;
+        return true;
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(valores, 0);
+        tamano = 0;
+    }
+
+    @FunctionalInterface
+    public interface Visitante {
+        void visitar(long clave, int valor);
+    }
+
+    public void forEach(Visitante visitante) {
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                visitante.visitar(claves[i], valores[i]);
+            }
+        }
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        int[] valoresAnteriores = valores;
+        asignar(claves.length * 2);
+        int mascara = claves.length - 1;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            long clave = clavesAnteriores[i];
+            if (clave != 0) {
+                int j = indice(clave, mascara);
+                while (claves[j] != 0) {
+                    j = (j + 1) & mascara;
+                }
+                claves[j] = clave;
+                valores[j] = valoresAnteriores[i];
+            }
+        }
+    }
+
+    private void asignar(int celdas) {
+        claves = new long[celdas];
+        valores = new int[celdas];
+        umbral = (int) (celdas * CARGA_MAXIMA);
+    }
+
+    private static int indice(long clave, int mascara) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private static void validar(long clave) {
+        if (clave == 0) {
+            throw new IllegalArgumentException("La clave 0 está reservada");
+        }
+    }
+}
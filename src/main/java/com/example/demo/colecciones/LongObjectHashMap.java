@@ -0,0 +1,133 @@
+package com.example.demo.colecciones;
+
+import java.util.Arrays;
+
+// Mapa long -> V de direccionamiento abierto (sondeo lineal), sin boxing de las claves.
+// Igual que LongIntHashMap, la clave 0 marca una celda libre. No es thread-safe.
+public class LongObjectHashMap<V> {
+
+    private static final double CARGA_MAXIMA = 0.6;
+
+    private long[] claves;
+    private Object[] valores;
+    private int tamano;
+    private int umbral;
+
+    public LongObjectHashMap(int capacidadEsperada) {
+        int celdas = Integer.highestOneBit(Math.max(4, (int) (capacidadEsperada / CARGA_MAXIMA)) - 1) << 1;
+        asignar(celdas);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long clave) {
+        int mascara = claves.length - 1;
+        for (int i = indice(clave, mascara); ; i = (i + 1) & mascara) {
+            long actual = claves[i];
+            if (actual == clave) {
+                return (V) valores[i];
+            }
+            if (actual == 0) {
+                return null;
+            }
+        }
+    }
+
+    public void put(long clave, V valor) {
+        if (clave == 0) {
+            throw new IllegalArgumentException("La clave 0 está reservada");
+        }
+        int mascara = claves.length - 1;
+        for (int i = indice(clave, mascara); ; i = (i + 1) & mascara) {
+            if (claves[i] == clave) {
+                valores[i] = valor;
+                return;
+            }
+            if (claves[i] == 0) {
+                claves[i] = clave;
+                valores[i] = valor;
+                if (++tamano > umbral) {
+                    redimensionar();
+                }
+                return;
+            }
+        }
+    }
+
+    // Borrado con desplazamiento hacia atrás, como en LongIntHashMap
+    public boolean remove(long clave) {
+        int mascara = claves.length - 1;
+        int i = indice(clave, mascara);
+        while (claves[i] != clave) {
+            if (claves[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        int libre = i;
+        for (int j = (libre + 1) & mascara; claves[j] != 0; j = (j + 1) & mascara) {
+            int ideal = indice(claves[j], mascara);
+            if (((j - ideal) & mascara) >= ((j - libre) & mascara)) {
+                claves[libre] = claves[j];
+                valores[libre] = valores[j];
+                libre = j;
+            }
+        }
+        claves[libre] = 0;
+        valores[libre] = null;
+        tamano--;
+        return true;
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(valores, null);
+        tamano = 0;
+    }
+
+    @FunctionalInterface
+    public interface Visitante<V> {
+        void visitar(long clave, V valor);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitante<V> visitante) {
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                visitante.visitar(claves[i], (V) valores[i]);
+            }
+        }
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        Object[] valoresAnteriores = valores;
+        asignar(claves.length * 2);
+        int mascara = claves.length - 1;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            long clave = clavesAnteriores[i];
+            if (clave != 0) {
+                int j = indice(clave, mascara);
+                while (claves[j] != 0) {
+                    j = (j + 1) & mascara;
+                }
+                claves[j] = clave;
+                valores[j] = valoresAnteriores[i];
+            }
+        }
+    }
+
+    private void asignar(int celdas) {
+        claves = new long[celdas];
+        valores = new Object[celdas];
+        umbral = (int) (celdas * CARGA_MAXIMA);
+    }
+
+    private static int indice(long clave, int mascara) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
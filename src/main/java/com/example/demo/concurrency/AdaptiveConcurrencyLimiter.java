@@ -0,0 +1,161 @@
+package com.example.demo.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Límite de concurrencia adaptativo estilo gradiente: compara la latencia reciente (ventana corta)
+// con la latencia de referencia (media móvil larga). Si la latencia sube por encima de la tolerancia
+// el límite baja; si se mantiene, el límite crece en sqrt(límite) por ventana.
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    public enum Prioridad {
+        ESCRITURA(1.0),
+        LECTURA(0.9),
+        LECTURA_MASIVA(0.7);
+
+        // Fracción del límite a la que puede llegar cada prioridad: las lecturas masivas se rechazan
+        // antes y dejan margen libre para las escrituras
+        private final double fraccion;
+
+        Prioridad(double fraccion) {
+            this.fraccion = fraccion;
+        }
+    }
+
+    private static final int MUESTRAS_MINIMAS_VENTANA = 10;
+    private static final double VENTANAS_RTT_LARGO = 100.0;
+    private static final double SUAVIZADO = 0.2;
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final double tolerancia;
+    private final long ventanaNanos;
+
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final Map<Prioridad, LongAdder> rechazos = new EnumMap<>(Prioridad.class);
+    private volatile double limite;
+    private volatile double rttLargoNanos;
+    private volatile double rttCortoNanos;
+
+    // Estado de la ventana actual, protegido por this
+    private long sumaVentanaNanos;
+    private int muestrasVentana;
+    private int maxEnCursoVentana;
+    private long inicioVentana = System.nanoTime();
+
+    public AdaptiveConcurrencyLimiter(int limiteInicial, int limiteMinimo, int limiteMaximo,
+            double tolerancia, long ventanaMs) {
+        this.limite = limiteInicial;
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.tolerancia = tolerancia;
+        this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+        for (Prioridad prioridad : Prioridad.values()) {
+            rechazos.put(prioridad, new LongAdder());
+        }
+    }
+
+    public boolean intentarAdquirir(Prioridad prioridad) {
+        int tope = Math.max(1, (int) (limite * prioridad.fraccion));
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= tope) {
+                rechazos.get(prioridad).increment();
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // muestraValida=false para peticiones cuya duración no refleja la carga (errores, asíncronas)
+    public void liberar(long rttNanos, boolean muestraValida) {
+        int enCursoAlTerminar = enCurso.getAndDecrement();
+        if (muestraValida) {
+            registrarMuestra(rttNanos, enCursoAlTerminar);
+        }
+    }
+
+    private synchronized void registrarMuestra(long rttNanos, int enCursoAlTerminar) {
+        sumaVentanaNanos += rttNanos;
+        muestrasVentana++;
+        maxEnCursoVentana = Math.max(maxEnCursoVentana, enCursoAlTerminar);
+
+        long ahora = System.nanoTime();
+        if (muestrasVentana < MUESTRAS_MINIMAS_VENTANA || ahora - inicioVentana < ventanaNanos) {
+            return;
+        }
+
+        double rttCorto = (double) sumaVentanaNanos / muestrasVentana;
+        int maxEnCurso = maxEnCursoVentana;
+        sumaVentanaNanos = 0;
+        muestrasVentana = 0;
+        maxEnCursoVentana = 0;
+        inicioVentana = ahora;
+
+        actualizarLimite(rttCorto, maxEnCurso);
+    }
+
+    private void actualizarLimite(double rttCorto, int maxEnCurso) {
+        rttCortoNanos = rttCorto;
+        double rttLargo = rttLargoNanos == 0
+                ? rttCorto
+                : rttLargoNanos + (rttCorto - rttLargoNanos) * (2.0 / (VENTANAS_RTT_LARGO + 1));
+        // Tras una degradación larga la referencia queda alta; se deja bajar para volver a detectar colas
+        if (rttLargo / rttCorto > 2.0) {
+            rttLargo *= 0.95;
+        }
+        rttLargoNanos = rttLargo;
+
+        double actual = limite;
+        // Si la aplicación no está usando el límite no hay evidencia para subirlo
+        if (maxEnCurso < actual / 2) {
+            return;
+        }
+
+        double gradiente = Math.max(0.5, Math.min(1.0, tolerancia * rttLargo / rttCorto));
+        double nuevo = actual * gradiente + Math.sqrt(actual);
+        nuevo = actual * (1 - SUAVIZADO) + nuevo * SUAVIZADO;
+        limite = Math.max(limiteMinimo, Math.min(limiteMaximo, nuevo));
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    public long getRechazos(Prioridad prioridad) {
+        return rechazos.get(prioridad).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("atenciones.concurrencia.limite", this, AdaptiveConcurrencyLimiter::getLimite)
+                .description("Límite de concurrencia aprendido")
+                .register(registry);
+        Gauge.builder("atenciones.concurrencia.en.curso", enCurso, AtomicInteger::get)
+                .register(registry);
+        Gauge.builder("atenciones.concurrencia.rtt.largo", this, limiter -> limiter.rttLargoNanos / 1e6)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("atenciones.concurrencia.rtt.corto", this, limiter -> limiter.rttCortoNanos / 1e6)
+                .baseUnit("milliseconds")
+                .register(registry);
+        rechazos.forEach((prioridad, contador) -> FunctionCounter
+                .builder("atenciones.concurrencia.rechazos", contador, LongAdder::sum)
+                .tag("prioridad", prioridad.name().toLowerCase())
+                .register(registry));
+    }
+}
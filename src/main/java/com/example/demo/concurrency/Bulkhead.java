@@ -0,0 +1,107 @@
+package com.example.demo.concurrency;
+
+import com.example.demo.exception.BulkheadFullException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Semáforo con espera acotada que limita cuántas peticiones usan la base de datos a la vez
+public class Bulkhead implements MeterBinder {
+
+    private final String nombre;
+    private final int permisos;
+    private final long esperaMaximaNanos;
+    private final Semaphore semaforo;
+    private final AtomicInteger enEspera = new AtomicInteger();
+    private final LongAdder rechazos = new LongAdder();
+    private volatile Timer tiempoEspera;
+
+    public Bulkhead(String nombre, int permisos, long esperaMaximaMs) {
+        this.nombre = nombre;
+        this.permisos = permisos;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        this.semaforo = new Semaphore(permisos, true);
+    }
+
+    public void adquirir() {
+        if (semaforo.tryAcquire()) {
+            registrarEspera(0L);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        enEspera.incrementAndGet();
+        boolean adquirido;
+        try {
+            adquirido = semaforo.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            adquirido = false;
+        } finally {
+            enEspera.decrementAndGet();
+        }
+        registrarEspera(System.nanoTime() - inicio);
+
+        if (!adquirido) {
+            rechazos.increment();
+            BulkheadFullException rechazo =
+                    new BulkheadFullException("Se agotó la espera por una conexión a la base de datos (" + nombre + ")");
+            BulkheadRechazoInterceptor.anotar(rechazo);
+            throw rechazo;
+        }
+    }
+
+    public void liberar() {
+        semaforo.release();
+    }
+
+    public int getPermisos() {
+        return permisos;
+    }
+
+    public int getPermisosDisponibles() {
+        return semaforo.availablePermits();
+    }
+
+    public int getEnEspera() {
+        return enEspera.get();
+    }
+
+    public long getRechazos() {
+        return rechazos.sum();
+    }
+
+    private void registrarEspera(long nanos) {
+        Timer timer = tiempoEspera;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        tiempoEspera = Timer.builder("atenciones.bulkhead.espera")
+                .description("Tiempo en cola antes de obtener un permiso del bulkhead")
+                .tag("bulkhead", nombre)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        Gauge.builder("atenciones.bulkhead.en.espera", enEspera, AtomicInteger::get)
+                .description("Peticiones esperando un permiso")
+                .tag("bulkhead", nombre)
+                .register(registry);
+        Gauge.builder("atenciones.bulkhead.permisos.disponibles", semaforo, Semaphore::availablePermits)
+                .tag("bulkhead", nombre)
+                .register(registry);
+        FunctionCounter.builder("atenciones.bulkhead.rechazos", rechazos, LongAdder::sum)
+                .description("Peticiones rechazadas por agotar la espera máxima")
+                .tag("bulkhead", nombre)
+                .register(registry);
+    }
+}
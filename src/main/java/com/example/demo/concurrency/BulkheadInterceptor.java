@@ -0,0 +1,32 @@
+package com.example.demo.concurrency;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+public class BulkheadInterceptor implements MethodInterceptor {
+
+    // Un servicio que llama a otro servicio ya tiene el permiso (y la conexión) del primero
+    private static final ThreadLocal<Boolean> DENTRO = new ThreadLocal<>();
+
+    private final Bulkhead bulkhead;
+
+    public BulkheadInterceptor(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (DENTRO.get() != null) {
+            return invocation.proceed();
+        }
+
+        bulkhead.adquirir();
+        DENTRO.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            DENTRO.remove();
+            bulkhead.liberar();
+        }
+    }
+}
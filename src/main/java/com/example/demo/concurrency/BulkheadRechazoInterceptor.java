@@ -0,0 +1,40 @@
+package com.example.demo.concurrency;
+
+import com.example.demo.exception.BulkheadFullException;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// Va delante de los controladores. Sus métodos capturan Exception para responder 500 con enlaces, y con
+// ello también el BulkheadFullException de los servicios; Bulkhead.adquirir anota aquí el rechazo y al
+// volver el controlador se relanza para que GlobalExceptionHandler responda 503 con Retry-After
+public class BulkheadRechazoInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<BulkheadFullException[]> RECHAZO = new ThreadLocal<>();
+
+    // Se queda con el primero: es el que dejó a la petición sin conexión
+    static void anotar(BulkheadFullException rechazo) {
+        BulkheadFullException[] anotado = RECHAZO.get();
+        if (anotado != null && anotado[0] == null) {
+            anotado[0] = rechazo;
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (RECHAZO.get() != null) {
+            return invocation.proceed();
+        }
+
+        BulkheadFullException[] anotado = new BulkheadFullException[1];
+        RECHAZO.set(anotado);
+        try {
+            Object resultado = invocation.proceed();
+            if (anotado[0] != null) {
+                throw anotado[0];
+            }
+            return resultado;
+        } finally {
+            RECHAZO.remove();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca un método de lectura cuyas llamadas concurrentes idénticas comparten un único cálculo.
+// Cualquier otro método del mismo bean invocado a través del proxy se trata como escritura e
+// invalida los resultados retenidos.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesced {
+}
@@ -0,0 +1,179 @@
+package com.example.demo.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cola acotada con un único hilo escritor que agrupa los elementos en lotes: escribe en cuanto junta
+// loteMaximo elementos o cuando pasan esperaMs desde el primero del lote. Cada llamante recibe su
+// resultado solo después de que su lote se confirmó. Si un lote falla se reintenta elemento a elemento
+// para que un registro malo no arrastre a los demás.
+public class GroupCommitQueue<T, R> implements MeterBinder {
+
+    @FunctionalInterface
+    public interface EscritorLote<T, R> {
+        // Devuelve un resultado por elemento, en el mismo orden
+        List<R> escribir(List<T> elementos) throws Exception;
+    }
+
+    private record Pendiente<T, R>(T elemento, CompletableFuture<R> resultado) {
+    }
+
+    private final String nombre;
+    private final EscritorLote<T, R> escritor;
+    private final BlockingQueue<Pendiente<T, R>> cola;
+    private final int loteMaximo;
+    private final long esperaNanos;
+
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder elementos = new LongAdder();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    private volatile boolean activo = true;
+    private Thread hilo;
+
+    public GroupCommitQueue(String nombre, EscritorLote<T, R> escritor, int capacidad, int loteMaximo, long esperaMs) {
+        this.nombre = nombre;
+        this.escritor = escritor;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.loteMaximo = loteMaximo;
+        this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMs);
+    }
+
+    public synchronized void iniciar() {
+        if (hilo == null) {
+            hilo = Thread.ofPlatform().name(nombre).daemon().start(this::escribirMientrasActivo);
+        }
+    }
+
+    // Deja de aceptar elementos y espera a que se escriba lo que ya estaba en la cola
+    public void cerrar() throws InterruptedException {
+        activo = false;
+        Thread actual;
+        synchronized (this) {
+            actual = hilo;
+        }
+        if (actual != null) {
+            actual.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    // El futuro falla con RejectedExecutionException si la cola está llena: mejor rechazar enseguida
+    // que dejar al llamante esperando detrás de miles de escrituras
+    public CompletableFuture<R> encolar(T elemento) {
+        CompletableFuture<R> resultado = new CompletableFuture<>();
+        if (!activo || !cola.offer(new Pendiente<>(elemento, resultado))) {
+            rechazos.increment();
+            resultado.completeExceptionally(new RejectedExecutionException("Cola de escritura " + nombre + " llena"));
+        }
+        return resultado;
+    }
+
+    private void escribirMientrasActivo() {
+        List<Pendiente<T, R>> lote = new ArrayList<>(loteMaximo);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Pendiente<T, R> primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                long limite = System.nanoTime() + esperaNanos;
+                while (lote.size() < loteMaximo) {
+                    if (cola.drainTo(lote, loteMaximo - lote.size()) > 0) {
+                        continue;
+                    }
+                    long restante = limite - System.nanoTime();
+                    Pendiente<T, R> siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : null;
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+                // Los que el llamante dejó de esperar (plazo agotado o hilo interrumpido) no se escriben
+                lote.removeIf(pendiente -> pendiente.resultado().isCancelled());
+                if (!lote.isEmpty()) {
+                    escribir(lote);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lote.clear();
+            }
+        }
+        // Lo que llegó mientras se cerraba no se va a escribir
+        cola.drainTo(lote);
+        for (Pendiente<T, R> pendiente : lote) {
+            pendiente.resultado().completeExceptionally(
+                    new RejectedExecutionException("Cola de escritura " + nombre + " cerrada"));
+        }
+    }
+
+    private void escribir(List<Pendiente<T, R>> lote) {
+        List<T> contenido = new ArrayList<>(lote.size());
+        for (Pendiente<T, R> pendiente : lote) {
+            contenido.add(pendiente.elemento());
+        }
+        try {
+            List<R> resultados = escritor.escribir(contenido);
+            lotes.increment();
+            elementos.add(lote.size());
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).resultado().complete(resultados.get(i));
+            }
+        } catch (Throwable e) {
+            if (lote.size() == 1) {
+                fallos.increment();
+                lote.get(0).resultado().completeExceptionally(e);
+                return;
+            }
+            for (Pendiente<T, R> pendiente : lote) {
+                escribir(List.of(pendiente));
+            }
+        }
+    }
+
+    public int getEnCola() {
+        return cola.size();
+    }
+
+    public long getLotes() {
+        return lotes.sum();
+    }
+
+    public long getElementos() {
+        return elementos.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("atenciones.group.commit.en.cola", this, GroupCommitQueue::getEnCola)
+                .tag("cola", nombre)
+                .register(registry);
+        FunctionCounter.builder("atenciones.group.commit.lotes", lotes, LongAdder::sum)
+                .tag("cola", nombre)
+                .register(registry);
+        FunctionCounter.builder("atenciones.group.commit.elementos", elementos, LongAdder::sum)
+                .description("Elementos confirmados; elementos / lotes es el tamaño medio de lote")
+                .tag("cola", nombre)
+                .register(registry);
+        FunctionCounter.builder("atenciones.group.commit.rechazos", rechazos, LongAdder::sum)
+                .tag("cola", nombre)
+                .register(registry);
+        FunctionCounter.builder("atenciones.group.commit.fallos", fallos, LongAdder::sum)
+                .tag("cola", nombre)
+                .register(registry);
+    }
+}
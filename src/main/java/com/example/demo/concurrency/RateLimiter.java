@@ -0,0 +1,169 @@
+package com.example.demo.concurrency;
+
+import com.example.demo.event.Tabla;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token bucket por cliente y por controlador, en su forma GCRA: cada bucket es un único AtomicLong con el
+// instante teórico en que volvería a estar lleno, y consumir un token es un compareAndSet. Los buckets se
+// reparten en tramos (ConcurrentHashMap independientes) para acotar la memoria por tramo y purgar por partes.
+// Si un tramo se llena, sus clientes nuevos comparten un único bucket de desborde: muchas IPs distintas
+// no pueden saltarse el límite agotando la memoria de buckets.
+public class RateLimiter implements MeterBinder {
+
+    public record Cuota(double porSegundo, int rafaga) {
+    }
+
+    // Por debajo de esta fracción de la ráfaga la petición se cuenta como "cerca del límite"
+    private static final double FRACCION_CERCA_LIMITE = 0.1;
+
+    // Clave del bucket de desborde de cada tramo; ni una IP ni una cabecera HTTP pueden contener '\0'
+    private static final String DESBORDE = "\0desborde";
+
+    private final Map<Tabla, Limite> limites = new EnumMap<>(Tabla.class);
+    private final int maximoPorTramo;
+    private final long inactividadNanos;
+
+    public RateLimiter(Map<Tabla, Cuota> cuotas, int tramos, int maximoBuckets, long inactividadMs) {
+        int potencia = Integer.highestOneBit(Math.max(1, tramos - 1)) << 1;
+        this.maximoPorTramo = Math.max(1, maximoBuckets / potencia);
+        this.inactividadNanos = TimeUnit.MILLISECONDS.toNanos(inactividadMs);
+        cuotas.forEach((tabla, cuota) -> limites.put(tabla, new Limite(cuota, potencia)));
+    }
+
+    // 0 si la petición pasa; si no, los nanosegundos que faltan para el siguiente token
+    public long intentar(Tabla tabla, String cliente) {
+        return intentar(tabla, cliente, System.nanoTime());
+    }
+
+    long intentar(Tabla tabla, String cliente, long ahora) {
+        Limite limite = limites.get(tabla);
+        if (limite == null) {
+            return 0;
+        }
+        AtomicLong bucket = limite.bucket(cliente, ahora);
+
+        while (true) {
+            long lleno = bucket.get();
+            long nuevo = (lleno - ahora > 0 ? lleno : ahora) + limite.intervaloNanos;
+            long ocupado = nuevo - ahora;
+            if (ocupado > limite.toleranciaNanos) {
+                limite.rechazos.increment();
+                return ocupado - limite.toleranciaNanos;
+            }
+            if (bucket.compareAndSet(lleno, nuevo)) {
+                if (limite.toleranciaNanos - ocupado < limite.umbralCercaNanos) {
+                    limite.cercaLimite.increment();
+                }
+                return 0;
+            }
+        }
+    }
+
+    // Un bucket inactivo más de inactividadMs está lleno: quitarlo equivale a recrearlo en la siguiente petición
+    @Scheduled(fixedDelayString = "${atenciones.rate-limit.purga-ms:30000}")
+    public void purgarInactivos() {
+        long ahora = System.nanoTime();
+        for (Limite limite : limites.values()) {
+            for (Map<String, AtomicLong> tramo : limite.tramos) {
+                purgar(tramo, ahora);
+            }
+        }
+    }
+
+    private void purgar(Map<String, AtomicLong> tramo, long ahora) {
+        tramo.entrySet().removeIf(entrada -> ahora - entrada.getValue().get() > inactividadNanos);
+    }
+
+    public int getBuckets() {
+        int total = 0;
+        for (Limite limite : limites.values()) {
+            for (Map<String, AtomicLong> tramo : limite.tramos) {
+                total += tramo.size();
+            }
+        }
+        return total;
+    }
+
+    public long getRechazos(Tabla tabla) {
+        return limites.get(tabla).rechazos.sum();
+    }
+
+    public long getCercaLimite(Tabla tabla) {
+        return limites.get(tabla).cercaLimite.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("atenciones.rate.limit.buckets", this, RateLimiter::getBuckets)
+                .description("Buckets de clientes activos")
+                .register(registry);
+        limites.forEach((tabla, limite) -> {
+            String ruta = tabla.name().toLowerCase();
+            FunctionCounter.builder("atenciones.rate.limit.rechazos", limite.rechazos, LongAdder::sum)
+                    .tag("ruta", ruta)
+                    .register(registry);
+            FunctionCounter.builder("atenciones.rate.limit.cerca.limite", limite.cercaLimite, LongAdder::sum)
+                    .description("Peticiones aceptadas con menos del 10% de la ráfaga disponible")
+                    .tag("ruta", ruta)
+                    .register(registry);
+            FunctionCounter.builder("atenciones.rate.limit.saturados", limite.saturados, LongAdder::sum)
+                    .description("Peticiones contadas en el bucket de desborde porque el tramo estaba lleno")
+                    .tag("ruta", ruta)
+                    .register(registry);
+        });
+    }
+
+    private final class Limite {
+
+        final long intervaloNanos;
+        final long toleranciaNanos;
+        final long umbralCercaNanos;
+        final List<ConcurrentHashMap<String, AtomicLong>> tramos;
+        final LongAdder rechazos = new LongAdder();
+        final LongAdder cercaLimite = new LongAdder();
+        final LongAdder saturados = new LongAdder();
+
+        Limite(Cuota cuota, int cantidadTramos) {
+            this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / cuota.porSegundo());
+            this.toleranciaNanos = intervaloNanos * cuota.rafaga();
+            this.umbralCercaNanos = (long) (toleranciaNanos * FRACCION_CERCA_LIMITE);
+            List<ConcurrentHashMap<String, AtomicLong>> nuevos = new ArrayList<>(cantidadTramos);
+            for (int i = 0; i < cantidadTramos; i++) {
+                nuevos.add(new ConcurrentHashMap<>());
+            }
+            this.tramos = List.copyOf(nuevos);
+        }
+
+        // La lectura no bloquea; solo el alta de un cliente nuevo pasa por computeIfAbsent.
+        // El de desborde del tramo si sigue lleno después de purgarlo (demasiados clientes distintos)
+        AtomicLong bucket(String cliente, long ahora) {
+            int hash = cliente.hashCode();
+            ConcurrentHashMap<String, AtomicLong> tramo = tramos.get((hash ^ (hash >>> 16)) & (tramos.size() - 1));
+            AtomicLong bucket = tramo.get(cliente);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (tramo.size() >= maximoPorTramo) {
+                purgar(tramo, ahora);
+                if (tramo.size() >= maximoPorTramo) {
+                    saturados.increment();
+                    return tramo.computeIfAbsent(DESBORDE, c -> new AtomicLong(ahora));
+                }
+            }
+            return tramo.computeIfAbsent(cliente, c -> new AtomicLong(ahora));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.concurrency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Agrupa llamadas concurrentes con la misma clave en una sola ejecución. Opcionalmente retiene el
+// resultado durante un micro-TTL; invalidar() descarta lo retenido y lo que está en vuelo.
+public class SingleFlight {
+
+    @FunctionalInterface
+    public interface Llamada {
+        Object ejecutar() throws Throwable;
+    }
+
+    private static final class Vuelo {
+        final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        final long generacion;
+        volatile long expiraNanos;
+
+        Vuelo(long generacion) {
+            this.generacion = generacion;
+        }
+    }
+
+    private final ConcurrentHashMap<Object, Vuelo> vuelos = new ConcurrentHashMap<>();
+    private final AtomicLong generacion = new AtomicLong();
+    private final LongAdder ejecuciones = new LongAdder();
+    private final LongAdder agrupadas = new LongAdder();
+    private final LongAdder aciertosTtl = new LongAdder();
+
+    public Object ejecutar(Object clave, long ttlNanos, Llamada llamada) throws Throwable {
+        while (true) {
+            Vuelo nuevo = new Vuelo(generacion.get());
+            Vuelo existente = vuelos.putIfAbsent(clave, nuevo);
+
+            if (existente == null) {
+                return liderar(clave, nuevo, ttlNanos, llamada);
+            }
+
+            if (existente.resultado.isDone()) {
+                if (System.nanoTime() - existente.expiraNanos >= 0) {
+                    vuelos.remove(clave, existente);
+                    continue;
+                }
+                aciertosTtl.increment();
+            } else {
+                agrupadas.increment();
+            }
+            return esperar(existente);
+        }
+    }
+
+    public void invalidar() {
+        // Las llamadas que ya esperan un vuelo reciben su resultado; las nuevas empiezan otro
+        generacion.incrementAndGet();
+        vuelos.clear();
+    }
+
+    public long getEjecuciones() {
+        return ejecuciones.sum();
+    }
+
+    public long getAgrupadas() {
+        return agrupadas.sum();
+    }
+
+    public long getAciertosTtl() {
+        return aciertosTtl.sum();
+    }
+
+    private Object liderar(Object clave, Vuelo vuelo, long ttlNanos, Llamada llamada) throws Throwable {
+        ejecuciones.increment();
+        Object valor;
+        try {
+            valor = llamada.ejecutar();
+        } catch (Throwable t) {
+            vuelos.remove(clave, vuelo);
+            vuelo.resultado.completeExceptionally(t);
+            throw t;
+        }
+
+        // Un resultado calculado antes de una escritura no se retiene para llamadas posteriores
+        if (ttlNanos > 0 && vuelo.generacion == generacion.get()) {
+            vuelo.expiraNanos = System.nanoTime() + ttlNanos;
+            vuelo.resultado.complete(valor);
+        } else {
+            vuelos.remove(clave, vuelo);
+            vuelo.resultado.complete(valor);
+        }
+        return valor;
+    }
+
+    private Object esperar(Vuelo vuelo) throws Throwable {
+        try {
+            return vuelo.resultado.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
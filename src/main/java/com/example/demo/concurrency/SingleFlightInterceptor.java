@@ -0,0 +1,81 @@
+package com.example.demo.concurrency;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+// Los métodos @Coalesced se agrupan; los demás invalidan los resultados guardados al terminar, salvo las
+// lecturas sin agrupar, marcadas con @Transactional(readOnly = true) en el método o en la clase
+public class SingleFlightInterceptor implements MethodInterceptor {
+
+    private enum Tipo { AGRUPADA, LECTURA, ESCRITURA }
+
+    private record Clave(Method metodo, Object[] argumentos) {
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof Clave clave
+                    && metodo.equals(clave.metodo)
+                    && Arrays.equals(argumentos, clave.argumentos);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * metodo.hashCode() + Arrays.hashCode(argumentos);
+        }
+    }
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ConcurrentHashMap<Method, Tipo> tipos = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final UnaryOperator<Object> copia;
+
+    // copia se aplica al resultado compartido para cada llamada, también la que lo ejecutó
+    public SingleFlightInterceptor(long ttlNanos, UnaryOperator<Object> copia) {
+        this.ttlNanos = ttlNanos;
+        this.copia = copia;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method metodo = invocation.getMethod();
+        if (metodo.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        Tipo tipo = tipos.computeIfAbsent(metodo, SingleFlightInterceptor::tipo);
+        if (tipo == Tipo.LECTURA) {
+            return invocation.proceed();
+        }
+        if (tipo == Tipo.ESCRITURA) {
+            try {
+                return invocation.proceed();
+            } finally {
+                singleFlight.invalidar();
+            }
+        }
+
+        return copia.apply(singleFlight.ejecutar(new Clave(metodo, invocation.getArguments()), ttlNanos,
+                invocation::proceed));
+    }
+
+    private static Tipo tipo(Method metodo) {
+        if (AnnotatedElementUtils.hasAnnotation(metodo, Coalesced.class)) {
+            return Tipo.AGRUPADA;
+        }
+        Transactional transaccion = AnnotatedElementUtils.findMergedAnnotation(metodo, Transactional.class);
+        if (transaccion == null) {
+            transaccion = AnnotatedElementUtils.findMergedAnnotation(metodo.getDeclaringClass(), Transactional.class);
+        }
+        return transaccion != null && transaccion.readOnly() ? Tipo.LECTURA : Tipo.ESCRITURA;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+}
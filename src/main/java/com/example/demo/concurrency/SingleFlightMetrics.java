@@ -0,0 +1,54 @@
+package com.example.demo.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+// Crea un interceptor por servicio y publica sus contadores. Los interceptores se crean mientras se
+// inicializan los servicios, que puede ser antes o después de que exista el MeterRegistry.
+public class SingleFlightMetrics implements MeterBinder {
+
+    private final long ttlNanos;
+    private final UnaryOperator<Object> copia;
+    private final Map<String, SingleFlightInterceptor> interceptores = new LinkedHashMap<>();
+    private MeterRegistry registry;
+
+    public SingleFlightMetrics(long ttlNanos, UnaryOperator<Object> copia) {
+        this.ttlNanos = ttlNanos;
+        this.copia = copia;
+    }
+
+    public synchronized SingleFlightInterceptor crearInterceptor(String servicio) {
+        SingleFlightInterceptor interceptor = new SingleFlightInterceptor(ttlNanos, copia);
+        interceptores.put(servicio, interceptor);
+        if (registry != null) {
+            registrar(registry, servicio, interceptor.getSingleFlight());
+        }
+        return interceptor;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        interceptores.forEach((servicio, interceptor) -> registrar(registry, servicio, interceptor.getSingleFlight()));
+    }
+
+    private void registrar(MeterRegistry registry, String servicio, SingleFlight singleFlight) {
+        FunctionCounter.builder("atenciones.single.flight.ejecuciones", singleFlight, SingleFlight::getEjecuciones)
+                .description("Lecturas ejecutadas contra la base de datos")
+                .tag("servicio", servicio)
+                .register(registry);
+        FunctionCounter.builder("atenciones.single.flight.agrupadas", singleFlight, SingleFlight::getAgrupadas)
+                .description("Lecturas que esperaron una ejecución idéntica en vuelo")
+                .tag("servicio", servicio)
+                .register(registry);
+        FunctionCounter.builder("atenciones.single.flight.aciertos", singleFlight, SingleFlight::getAciertosTtl)
+                .description("Lecturas servidas desde el resultado retenido durante el micro-TTL")
+                .tag("servicio", servicio)
+                .register(registry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.config;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Instala un Advice delante de los existentes en los beans seleccionados. Los repositorios de
+// Spring Data y los servicios @Transactional ya son proxies, así que se reutiliza el proxy.
+// Entre los Advice instalados así manda el orden: el de menor orden queda por fuera.
+// No implementa Ordered a propósito: así se ejecuta después del auto-proxy de Spring.
+public class AdviceInstallingBeanPostProcessor implements BeanPostProcessor {
+
+    private final int orden;
+    private final Predicate<Object> candidato;
+    private final Function<String, Advice> fabricaAdvice;
+
+    public AdviceInstallingBeanPostProcessor(int orden, Predicate<Object> candidato,
+            Function<String, Advice> fabricaAdvice) {
+        this.orden = orden;
+        this.candidato = candidato;
+        this.fabricaAdvice = fabricaAdvice;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!candidato.test(bean)) {
+            return bean;
+        }
+
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(fabricaAdvice.apply(beanName));
+        advisor.setOrder(orden);
+
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvisor(indiceInsercion(advised.getAdvisors()), advisor);
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvisor(advisor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private int indiceInsercion(Advisor[] existentes) {
+        int indice = 0;
+        while (indice < existentes.length
+                && existentes[indice] instanceof Ordered ordenado
+                && ordenado.getOrder() <= orden) {
+            indice++;
+        }
+        return indice;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import com.example.demo.archivo.ArchivadorAtenciones;
+import com.example.demo.repository.ArchivoAtencionesQueries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+// Mueve filas entre tablas: solo se activa de forma explícita con atenciones.archivo.enabled=true.
+// La tabla de archivo y las lecturas con ?incluirArchivo=true existen siempre.
+@Configuration
+@ConditionalOnProperty(name = "atenciones.archivo.enabled", havingValue = "true")
+public class ArchivoConfig {
+
+    @Bean
+    public ArchivadorAtenciones archivadorAtenciones(ArchivoAtencionesQueries archivoAtencionesQueries,
+                                                     PlatformTransactionManager transactionManager,
+                                                     ApplicationEventPublisher eventPublisher,
+                                                     @Value("${atenciones.archivo.horizonte-dias:365}") int horizonteDias,
+                                                     @Value("${atenciones.archivo.trozo:500}") int tamanoTrozo,
+                                                     @Value("${atenciones.archivo.maximo-trozos-por-ciclo:200}") int maximoTrozos) {
+        if (horizonteDias < 1) {
+            throw new IllegalArgumentException("atenciones.archivo.horizonte-dias debe ser al menos 1");
+        }
+        return new ArchivadorAtenciones(archivoAtencionesQueries, new TransactionTemplate(transactionManager),
+                eventPublisher, Duration.ofDays(horizonteDias), tamanoTrozo, maximoTrozos);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.config.HypermediaMappingInformation;
+
+import java.util.List;
+
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public BinaryHalConverters binaryHalConverters(ObjectMapper objectMapper,
+                                                   List<HypermediaMappingInformation> hipermedia) {
+        return new BinaryHalConverters(objectMapper, hipermedia);
+    }
+}
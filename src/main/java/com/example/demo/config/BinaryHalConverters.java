@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.config.HypermediaMappingInformation;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Spring MVC registra CBOR y Smile por estar en el classpath, pero con un ObjectMapper sin el módulo HAL
+// (los enlaces saldrían como "links": [...]). Spring HATEOAS no tiene un conversor HAL propio del que
+// copiar: registra su ObjectMapper por tipo dentro del conversor JSON. Por eso se parte del ObjectMapper de
+// la aplicación con la factoría binaria y se le aplica la misma configuración HAL (módulo y
+// HandlerInstantiator) que Spring HATEOAS aplica al JSON.
+public class BinaryHalConverters implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final HypermediaMappingInformation hal;
+
+    public BinaryHalConverters(ObjectMapper objectMapper, List<HypermediaMappingInformation> hipermedia) {
+        this.objectMapper = objectMapper;
+        this.hal = hipermedia.stream()
+                .filter(info -> info.getMediaTypes().contains(MediaTypes.HAL_JSON))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Spring HATEOAS no tiene HAL habilitado"));
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        // Al final: sin Accept explícito se sigue respondiendo JSON
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                hal.configureObjectMapper(objectMapper.copyWith(new CBORFactory()))));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                hal.configureObjectMapper(objectMapper.copyWith(new SmileFactory()))));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import com.example.demo.concurrency.Bulkhead;
+import com.example.demo.concurrency.BulkheadInterceptor;
+import com.example.demo.concurrency.BulkheadRechazoInterceptor;
+import com.example.demo.controller.AtencionMedicaController;
+import com.example.demo.controller.MedicoController;
+import com.example.demo.controller.PacienteController;
+import com.example.demo.service.AtencionMedicaService;
+import com.example.demo.service.HistoriaClinicaService;
+import com.example.demo.service.MedicoService;
+import com.example.demo.service.PacienteService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Con spring.threads.virtual.enabled=true Tomcat atiende cada petición en un hilo virtual y ya no
+// limita la concurrencia; el bulkhead la limita delante de la base de datos. Se aplica en la frontera
+// transaccional de los servicios porque es ahí donde se toma la conexión del pool. Con hilos de plataforma
+// el pool de Tomcat ya hace de límite, así que solo se instala con hilos virtuales.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class BulkheadConfig {
+
+    @Bean
+    public static Bulkhead databaseBulkhead(
+            @Value("${atenciones.bulkhead.permisos:${spring.datasource.hikari.maximum-pool-size:10}}") int permisos,
+            @Value("${atenciones.bulkhead.espera-maxima-ms:5000}") long esperaMaximaMs) {
+        return new Bulkhead("database", permisos, esperaMaximaMs);
+    }
+
+    @Bean
+    public static AdviceInstallingBeanPostProcessor databaseBulkheadPostProcessor(Bulkhead databaseBulkhead) {
+        BulkheadInterceptor interceptor = new BulkheadInterceptor(databaseBulkhead);
+        return new AdviceInstallingBeanPostProcessor(200,
+                bean -> bean instanceof AtencionMedicaService
+                        || bean instanceof PacienteService
+                        || bean instanceof MedicoService
+                        || bean instanceof HistoriaClinicaService,
+                beanName -> interceptor);
+    }
+
+    // Los controladores capturan Exception y convertirían el rechazo en un 500: ver BulkheadRechazoInterceptor
+    @Bean
+    public static AdviceInstallingBeanPostProcessor bulkheadRechazoPostProcessor() {
+        BulkheadRechazoInterceptor interceptor = new BulkheadRechazoInterceptor();
+        return new AdviceInstallingBeanPostProcessor(0,
+                bean -> bean instanceof AtencionMedicaController
+                        || bean instanceof PacienteController
+                        || bean instanceof MedicoController,
+                beanName -> interceptor);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import com.example.demo.estadisticas.AtencionesColumnares;
+import com.example.demo.repository.AtencionMedicaScan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Opcional: sin atenciones.columnar.enabled=true las estadísticas se calculan en la base
+@Configuration
+@ConditionalOnProperty(name = "atenciones.columnar.enabled", havingValue = "true")
+public class ColumnarConfig {
+
+    @Bean
+    public AtencionesColumnares atencionesColumnares(
+            AtencionMedicaScan atencionMedicaScan,
+            @Value("${atenciones.columnar.capacidad-inicial:100000}") int capacidadInicial) {
+        return new AtencionesColumnares(atencionMedicaScan, capacidadInicial);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import com.example.demo.concurrency.AdaptiveConcurrencyLimiter;
+import com.example.demo.filter.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "atenciones.limite.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+            @Value("${atenciones.limite.inicial:20}") int limiteInicial,
+            @Value("${atenciones.limite.minimo:4}") int limiteMinimo,
+            @Value("${atenciones.limite.maximo:200}") int limiteMaximo,
+            @Value("${atenciones.limite.tolerancia:1.5}") double tolerancia,
+            @Value("${atenciones.limite.ventana-ms:250}") long ventanaMs) {
+        return new AdaptiveConcurrencyLimiter(limiteInicial, limiteMinimo, limiteMaximo, tolerancia, ventanaMs);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+            @Value("${atenciones.limite.retry-after-segundos:1}") long retryAfterSegundos) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registro = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(adaptiveConcurrencyLimiter, retryAfterSegundos));
+        registro.addUrlPatterns("/atenciones-medicas/*", "/pacientes/*", "/medicos/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.VersionesTabla;
+import com.example.demo.filter.ConditionalGetFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Opcional: sin atenciones.http-cache.enabled=true no hay ETag ni 304.
+// Activarlo solo con una instancia (ver ConditionalGetFilter)
+@Configuration
+@ConditionalOnProperty(name = "atenciones.http-cache.enabled", havingValue = "true")
+public class ConditionalGetConfig {
+
+    // Antes del limitador de concurrencia: un 304 no consume permisos
+    @Bean
+    public FilterRegistrationBean<ConditionalGetFilter> conditionalGetFilter(
+            VersionesTabla versionesTabla,
+            @Value("${atenciones.http-cache.max-age-segundos:0}") long maxAgeSegundos) {
+        FilterRegistrationBean<ConditionalGetFilter> registro = new FilterRegistrationBean<>(
+                new ConditionalGetFilter(versionesTabla, "private, max-age=" + maxAgeSegundos + ", must-revalidate"));
+        registro.addUrlPatterns("/atenciones-medicas/*", "/pacientes/*", "/medicos/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registro;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.config;
+
+import com.example.demo.service.AtencionMedicaGroupCommit;
+import com.example.demo.service.AtencionMedicaService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Opcional: sin atenciones.group-commit.enabled=true cada alta confirma su propia transacción
+@Configuration
+@ConditionalOnProperty(name = "atenciones.group-commit.enabled", havingValue = "true")
+public class GroupCommitConfig {
+
+    @Bean(initMethod = "iniciar", destroyMethod = "cerrar")
+    public AtencionMedicaGroupCommit atencionMedicaGroupCommit(
+            AtencionMedicaService atencionMedicaService,
+            @Value("${atenciones.group-commit.capacidad-cola:5000}") int capacidad,
+            @Value("${atenciones.group-commit.lote-maximo:100}") int loteMaximo,
+            @Value("${atenciones.group-commit.espera-ms:5}") long esperaMs,
+            @Value("${atenciones.group-commit.limite-ms:5000}") long limiteMs) {
+        return new AtencionMedicaGroupCommit(atencionMedicaService, capacidad, loteMaximo, esperaMs, limiteMs);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    // Rellena los IN hasta la siguiente potencia de 2 (con tope de 1000 en Oracle) para que las cargas
+    // por lotes reutilicen unas pocas sentencias en la caché de cursores en vez de una por tamaño
+    @Bean
+    public HibernatePropertiesCustomizer inClauseParameterPadding() {
+        return propiedades -> propiedades.put("hibernate.query.in_clause_parameter_padding", "true");
+    }
+}
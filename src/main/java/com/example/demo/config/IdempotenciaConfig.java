@@ -0,0 +1,48 @@
+package com.example.demo.config;
+
+import com.example.demo.filter.IdempotencyKeyFilter;
+import com.example.demo.idempotencia.EnMemoriaIdempotencyStore;
+import com.example.demo.idempotencia.IdempotencyStore;
+import com.example.demo.idempotencia.JdbcIdempotencyStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "atenciones.idempotencia.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotenciaConfig {
+
+    // "jdbc" comparte las claves entre instancias en la tabla idempotencia_claves
+    @Bean
+    @ConditionalOnMissingBean(IdempotencyStore.class)
+    public IdempotencyStore idempotencyStore(@Value("${atenciones.idempotencia.almacen:memoria}") String tipo,
+                                             @Value("${atenciones.idempotencia.ttl-segundos:86400}") long ttlSegundos,
+                                             @Value("${atenciones.idempotencia.reserva-segundos:60}") long reservaSegundos,
+                                             @Value("${atenciones.idempotencia.max-entradas:10000}") int maximoEntradas,
+                                             ObjectProvider<DataSource> dataSource) {
+        if ("jdbc".equals(tipo)) {
+            return new JdbcIdempotencyStore(dataSource.getObject(), Duration.ofSeconds(ttlSegundos),
+                    Duration.ofSeconds(reservaSegundos));
+        }
+        return new EnMemoriaIdempotencyStore(Duration.ofSeconds(ttlSegundos).toNanos(),
+                Duration.ofSeconds(reservaSegundos).toNanos(), maximoEntradas);
+    }
+
+    // Después de las cachés de GET y antes del limitador: un reintento repetido no ocupa un permiso
+    @Bean
+    public FilterRegistrationBean<IdempotencyKeyFilter> idempotencyKeyFilter(IdempotencyStore idempotencyStore) {
+        FilterRegistrationBean<IdempotencyKeyFilter> registro = new FilterRegistrationBean<>(
+                new IdempotencyKeyFilter(idempotencyStore));
+        registro.addUrlPatterns("/atenciones-medicas/*", "/pacientes/*", "/medicos/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 8);
+        return registro;
+    }
+}
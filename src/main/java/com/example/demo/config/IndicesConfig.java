@@ -0,0 +1,22 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.AtencionesIndices;
+import com.example.demo.repository.AtencionMedicaScan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Opcional: sin atenciones.indices.enabled=true las búsquedas por paciente y médico van a la base.
+// Activarlo solo con una instancia (ver AtencionesIndices)
+@Configuration
+@ConditionalOnProperty(name = "atenciones.indices.enabled", havingValue = "true")
+public class IndicesConfig {
+
+    @Bean
+    public AtencionesIndices atencionesIndices(
+            AtencionMedicaScan atencionMedicaScan,
+            @Value("${atenciones.indices.pacientes-esperados:100000}") int pacientesEsperados) {
+        return new AtencionesIndices(atencionMedicaScan, pacientesEsperados);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.config;
+
+import com.example.demo.filter.JfrRequestFilter;
+import com.example.demo.jfr.RepositoryJfrInterceptor;
+import com.example.demo.repository.AtencionMedicaRepository;
+import com.example.demo.repository.MedicoRepository;
+import com.example.demo.repository.PacienteRepository;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    public FilterRegistrationBean<JfrRequestFilter> jfrRequestFilter() {
+        FilterRegistrationBean<JfrRequestFilter> registro = new FilterRegistrationBean<>(new JfrRequestFilter());
+        registro.addUrlPatterns("/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registro;
+    }
+
+    // Static para que el post-procesador no obligue a instanciar esta configuración antes de tiempo
+    @Bean
+    public static AdviceInstallingBeanPostProcessor repositoryJfrPostProcessor() {
+        return new AdviceInstallingBeanPostProcessor(300,
+                bean -> bean instanceof AtencionMedicaRepository
+                        || bean instanceof PacienteRepository
+                        || bean instanceof MedicoRepository,
+                RepositoryJfrInterceptor::new);
+    }
+}
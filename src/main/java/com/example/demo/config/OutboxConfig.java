@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import com.example.demo.outbox.ArchivoOutboxSink;
+import com.example.demo.outbox.EnMemoriaOutboxSink;
+import com.example.demo.outbox.OutboxRelay;
+import com.example.demo.outbox.OutboxSink;
+import com.example.demo.repository.OutboxRelayQueries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Opcional: el relay marca como procesado lo que entrega, así que solo se activa con un destino
+// elegido a propósito. Sin él las filas del outbox esperan en la tabla a que un relay las drene.
+@Configuration
+@ConditionalOnProperty(name = "atenciones.outbox.relay.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    // Un bean OutboxSink propio (cola, HTTP...) sustituye a estos. memoria solo sirve para pruebas:
+    // lo entregado se descarta al superar la capacidad
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink outboxSink(@Value("${atenciones.outbox.sink:}") String tipo,
+                                 @Value("${atenciones.outbox.archivo:outbox-atenciones.jsonl}") String archivo,
+                                 @Value("${atenciones.outbox.memoria.capacidad:10000}") int capacidad) {
+        return switch (tipo) {
+            case "archivo" -> new ArchivoOutboxSink(Path.of(archivo));
+            case "memoria" -> new EnMemoriaOutboxSink(capacidad);
+            default -> throw new IllegalArgumentException("atenciones.outbox.sink debe ser memoria o archivo (o "
+                    + "definir un bean OutboxSink) con el relay activo: '" + tipo + "'");
+        };
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxRelayQueries outboxRelayQueries,
+                                   OutboxSink outboxSink,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${atenciones.outbox.lote:200}") int tamanoLote,
+                                   @Value("${atenciones.outbox.gracia-ms:60000}") long graciaMs,
+                                   @Value("${atenciones.outbox.barrido-completo-cada:100}") int barridoCompletoCada,
+                                   @Value("${atenciones.outbox.retencion-horas:168}") long retencionHoras) {
+        return new OutboxRelay(outboxRelayQueries, outboxSink, new TransactionTemplate(transactionManager),
+                tamanoLote, Duration.ofMillis(graciaMs), barridoCompletoCada, Duration.ofHours(retencionHoras));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import com.example.demo.concurrency.RateLimiter;
+import com.example.demo.concurrency.RateLimiter.Cuota;
+import com.example.demo.event.Tabla;
+import com.example.demo.filter.RateLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Opcional: sin atenciones.rate-limit.enabled=true no se limita. Los buckets son por cliente y la clave
+// por defecto es la IP remota: detrás de un proxy o balanceador todas las peticiones traen la suya, así
+// que hay que fijar atenciones.rate-limit.cabecera-cliente o todos los clientes comparten un bucket
+@Configuration
+@ConditionalOnProperty(name = "atenciones.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(
+            @Value("${atenciones.rate-limit.atenciones-medicas.por-segundo:50}") double atencionesPorSegundo,
+            @Value("${atenciones.rate-limit.atenciones-medicas.rafaga:100}") int atencionesRafaga,
+            @Value("${atenciones.rate-limit.pacientes.por-segundo:50}") double pacientesPorSegundo,
+            @Value("${atenciones.rate-limit.pacientes.rafaga:100}") int pacientesRafaga,
+            @Value("${atenciones.rate-limit.medicos.por-segundo:50}") double medicosPorSegundo,
+            @Value("${atenciones.rate-limit.medicos.rafaga:100}") int medicosRafaga,
+            @Value("${atenciones.rate-limit.tramos:64}") int tramos,
+            @Value("${atenciones.rate-limit.max-buckets:100000}") int maximoBuckets,
+            @Value("${atenciones.rate-limit.inactividad-ms:300000}") long inactividadMs) {
+        Map<Tabla, Cuota> cuotas = new EnumMap<>(Tabla.class);
+        cuotas.put(Tabla.ATENCIONES_MEDICAS, new Cuota(atencionesPorSegundo, atencionesRafaga));
+        cuotas.put(Tabla.PACIENTES, new Cuota(pacientesPorSegundo, pacientesRafaga));
+        cuotas.put(Tabla.MEDICOS, new Cuota(medicosPorSegundo, medicosRafaga));
+        return new RateLimiter(cuotas, tramos, maximoBuckets, inactividadMs);
+    }
+
+    // Justo después de JFR: cuenta todas las peticiones, también las que luego resuelven las cachés.
+    // Sin cabecera-cliente la clave es la IP remota. Solo debe configurarse si hay delante un gateway que
+    // fija esa cabecera y descarta la que mande el cliente; si no, cada cliente elige su propio bucket
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            RateLimiter rateLimiter,
+            @Value("${atenciones.rate-limit.cabecera-cliente:}") String cabeceraCliente) {
+        FilterRegistrationBean<RateLimitFilter> registro = new FilterRegistrationBean<>(
+                new RateLimitFilter(rateLimiter, cabeceraCliente));
+        registro.addUrlPatterns("/atenciones-medicas/*", "/pacientes/*", "/medicos/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        return registro;
+    }
+}
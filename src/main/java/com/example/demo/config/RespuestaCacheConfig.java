@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.RespuestaCache;
+import com.example.demo.cache.VersionesTabla;
+import com.example.demo.filter.RespuestaCacheFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.concurrent.TimeUnit;
+
+// Opcional: sin atenciones.respuesta-cache.enabled=true cada GET pasa por el controlador.
+// Activarlo solo con una instancia (ver RespuestaCache); ttl-ms acota lo que dura una respuesta vieja
+@Configuration
+@ConditionalOnProperty(name = "atenciones.respuesta-cache.enabled", havingValue = "true")
+public class RespuestaCacheConfig {
+
+    @Bean
+    public RespuestaCache respuestaCache(
+            VersionesTabla versionesTabla,
+            @Value("${atenciones.respuesta-cache.max-entradas:1000}") int maximoEntradas,
+            @Value("${atenciones.respuesta-cache.max-bytes:16777216}") long maximoBytes,
+            @Value("${atenciones.respuesta-cache.ttl-ms:30000}") long ttlMs) {
+        return new RespuestaCache(versionesTabla, maximoEntradas, maximoBytes, TimeUnit.MILLISECONDS.toNanos(ttlMs));
+    }
+
+    // Después del GET condicional (un 304 no necesita el cuerpo) y antes del limitador de concurrencia
+    @Bean
+    public FilterRegistrationBean<RespuestaCacheFilter> respuestaCacheFilter(
+            RespuestaCache respuestaCache,
+            VersionesTabla versionesTabla,
+            @Value("${atenciones.respuesta-cache.max-bytes-entrada:262144}") int maximoBytesEntrada) {
+        FilterRegistrationBean<RespuestaCacheFilter> registro = new FilterRegistrationBean<>(
+                new RespuestaCacheFilter(respuestaCache, versionesTabla, maximoBytesEntrada));
+        registro.addUrlPatterns("/atenciones-medicas/*", "/pacientes/*", "/medicos/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 7);
+        return registro;
+    }
+}
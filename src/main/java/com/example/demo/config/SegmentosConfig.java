@@ -0,0 +1,79 @@
+package com.example.demo.config;
+
+import com.example.demo.archivo.AlmacenSegmentos;
+import com.example.demo.archivo.CompactadorArchivo;
+import com.example.demo.repository.ArchivoAtencionesQueries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Tercer nivel del archivo: de atenciones_medicas_archivo a ficheros de segmento comprimidos.
+// Solo con atenciones.archivo.segmentos.enabled=true; sin él las archivadas se quedan en la tabla.
+// El directorio es obligatorio, absoluto y ya montado: las filas pasadas a segmentos se borran de Oracle,
+// así que un disco local o efímero de una sola instancia perdería atenciones o las escondería a las demás
+@Configuration
+@ConditionalOnProperty(name = "atenciones.archivo.segmentos.enabled", havingValue = "true")
+public class SegmentosConfig {
+
+    // Los segmentos se mapean enteros con un único MappedByteBuffer, que no pasa de 2 GB
+    private static final long TAMANO_MAXIMO_SEGMENTO_MB = 1024;
+
+    @Bean(initMethod = "abrir", destroyMethod = "cerrar")
+    public AlmacenSegmentos almacenSegmentos(
+            @Value("${atenciones.archivo.segmentos.directorio:}") String directorio,
+            @Value("${atenciones.archivo.segmentos.nodo:}") String nodo,
+            @Value("${atenciones.archivo.segmentos.tamano-mb:256}") long tamanoMb,
+            @Value("${atenciones.archivo.segmentos.registros-por-bloque:128}") int registrosPorBloque,
+            @Value("${atenciones.archivo.segmentos.refresco-ms:1000}") long refrescoMs) {
+        if (tamanoMb < 1 || tamanoMb > TAMANO_MAXIMO_SEGMENTO_MB) {
+            throw new IllegalArgumentException(
+                    "atenciones.archivo.segmentos.tamano-mb debe estar entre 1 y " + TAMANO_MAXIMO_SEGMENTO_MB);
+        }
+        if (registrosPorBloque < 1) {
+            throw new IllegalArgumentException("atenciones.archivo.segmentos.registros-por-bloque debe ser al menos 1");
+        }
+        if (refrescoMs < 0) {
+            throw new IllegalArgumentException("atenciones.archivo.segmentos.refresco-ms no puede ser negativo");
+        }
+        Path compartido = Path.of(directorio);
+        if (directorio.isBlank() || !compartido.isAbsolute() || !Files.isDirectory(compartido)) {
+            throw new IllegalArgumentException("atenciones.archivo.segmentos.directorio debe ser la ruta absoluta de un "
+                    + "directorio compartido por todas las instancias y ya existente: '" + directorio + "'");
+        }
+        String nombreNodo = nodo.isBlank() ? nombreHost() : nodo;
+        if (!nombreNodo.matches("[A-Za-z0-9._-]+") || nombreNodo.startsWith(".")) {
+            throw new IllegalArgumentException("atenciones.archivo.segmentos.nodo no es un nombre de directorio válido: " + nombreNodo);
+        }
+        return new AlmacenSegmentos(compartido, nombreNodo, tamanoMb * 1024 * 1024, registrosPorBloque, refrescoMs);
+    }
+
+    private static String nombreHost() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("No se pudo obtener el nombre del host: indique atenciones.archivo.segmentos.nodo", e);
+        }
+    }
+
+    @Bean
+    public CompactadorArchivo compactadorArchivo(ArchivoAtencionesQueries archivoAtencionesQueries,
+                                                 AlmacenSegmentos almacenSegmentos,
+                                                 PlatformTransactionManager transactionManager,
+                                                 ApplicationEventPublisher eventPublisher,
+                                                 @Value("${atenciones.archivo.segmentos.retencion-tabla-dias:30}") int retencionDias,
+                                                 @Value("${atenciones.archivo.segmentos.trozo:2000}") int tamanoTrozo,
+                                                 @Value("${atenciones.archivo.segmentos.maximo-trozos-por-ciclo:100}") int maximoTrozos) {
+        return new CompactadorArchivo(archivoAtencionesQueries, almacenSegmentos,
+                new TransactionTemplate(transactionManager), eventPublisher, Duration.ofDays(retencionDias), tamanoTrozo, maximoTrozos);
+    }
+}
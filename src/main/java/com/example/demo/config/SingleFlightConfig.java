@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import com.example.demo.concurrency.SingleFlightMetrics;
+import com.example.demo.service.AtencionMedicaService;
+import com.example.demo.service.CopiasCoalesced;
+import com.example.demo.service.MedicoService;
+import com.example.demo.service.PacienteService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class SingleFlightConfig {
+
+    // Cada llamada recibe su copia separada: el resultado compartido nunca sale del single-flight
+    @Bean
+    public static SingleFlightMetrics singleFlightMetrics(@Value("${atenciones.single-flight.ttl-ms:0}") long ttlMs) {
+        return new SingleFlightMetrics(TimeUnit.MILLISECONDS.toNanos(ttlMs), CopiasCoalesced::copiar);
+    }
+
+    // Orden 100: por fuera del bulkhead, así las llamadas agrupadas no ocupan permisos mientras esperan
+    @Bean
+    public static AdviceInstallingBeanPostProcessor singleFlightPostProcessor(SingleFlightMetrics singleFlightMetrics) {
+        return new AdviceInstallingBeanPostProcessor(100,
+                bean -> bean instanceof AtencionMedicaService
+                        || bean instanceof PacienteService
+                        || bean instanceof MedicoService,
+                singleFlightMetrics::crearInterceptor);
+    }
+}
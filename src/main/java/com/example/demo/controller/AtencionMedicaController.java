@@ -1,21 +1,44 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.AtencionMedicaConEmbebidos;
+import com.example.demo.model.AtencionMedicaResumen;
+import com.example.demo.model.AtencionesFiltradas;
+import com.example.demo.model.Medico;
+import com.example.demo.model.Paciente;
+import com.example.demo.model.ValoresCanonicos;
+import com.example.demo.repository.AtencionMedicaFiltroQuery.Criterios;
+import com.example.demo.service.AtencionArchivoService;
+import com.example.demo.service.AtencionMedicaGroupCommit;
 import com.example.demo.service.AtencionMedicaService;
+import com.example.demo.service.EstadisticasService;
+import com.example.demo.service.EstadisticasService.Granularidad;
+import com.example.demo.service.MedicoService;
+import com.example.demo.service.PacienteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
@@ -25,13 +48,65 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 @CrossOrigin(origins = "*")
 public class AtencionMedicaController {
 
+    // ?view=summary: listados con solo fecha, paciente, médico y estado
+    private static final String VISTA_RESUMEN = "summary";
+
+    // Campos admitidos en ?fields= y atributo que necesita cada enlace
+    static final Set<String> CAMPOS = Set.of("id", "pacienteId", "medicoId", "fechaAtencion", "motivoConsulta",
+            "diagnostico", "tratamiento", "observaciones", "estado");
+    static final Map<String, String> ATRIBUTO_POR_REL = Map.of("self", "id", "atenciones-paciente", "pacienteId",
+            "atenciones-medico", "medicoId", "atenciones-estado", "estado");
+
+    // ?embed=: recursos relacionados que se pueden incluir en _embedded
+    private static final Set<String> EMBEBIBLES = Set.of("paciente", "medico");
+
     @Autowired
     private AtencionMedicaService atencionMedicaService;
 
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private AtencionArchivoService atencionArchivoService;
+
+    // Solo existe con atenciones.group-commit.enabled=true
+    @Autowired(required = false)
+    private AtencionMedicaGroupCommit atencionMedicaGroupCommit;
+
     // GET - Obtener todas las atenciones médicas 
     @GetMapping
-    public ResponseEntity<CollectionModel<EntityModel<AtencionMedica>>> getAllAtenciones() {
+    public ResponseEntity<?> getAllAtenciones(@RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String embed) {
         try {
+            Set<String> embebidos = parseEmbed(embed);
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                CollectionModel<EntityModel<Map<String, Object>>> parciales =
+                        parcialesConLinks(atencionMedicaService.getCampos(seleccion.getColumnas(), null, null), seleccion);
+                if (seleccion.incluyeEnlaces()) {
+                    parciales.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, fields, null)).withSelfRel());
+                }
+                return ResponseEntity.ok(parciales);
+            }
+
+            if (VISTA_RESUMEN.equals(view)) {
+                CollectionModel<EntityModel<AtencionMedicaResumen>> resumen =
+                        resumenConLinks(atencionMedicaService.getAllAtencionesResumen());
+                resumen.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(view, null, null)).withSelfRel());
+                resumen.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
+                        .withRel("vista-completa"));
+                resumen.add(
+                        linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
+                return ResponseEntity.ok(resumen);
+            }
+
             List<AtencionMedica> atenciones = atencionMedicaService.getAllAtenciones();
 
             List<EntityModel<AtencionMedica>> atencionesConLinks = atenciones.stream()
@@ -39,20 +114,21 @@ public class AtencionMedicaController {
                         EntityModel<AtencionMedica> resource = EntityModel.of(atencion);
 
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionById(atencion.getId())).withSelfRel());
+                                .getAtencionById(atencion.getId(), null, null)).withSelfRel());
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionesByPacienteId(atencion.getPacienteId())).withRel("atenciones-paciente"));
+                                .getAtencionesByPacienteId(atencion.getPacienteId(), null, null, null, null)).withRel("atenciones-paciente"));
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionesByMedicoId(atencion.getMedicoId())).withRel("atenciones-medico"));
+                                .getAtencionesByMedicoId(atencion.getMedicoId(), null, null, null, null)).withRel("atenciones-medico"));
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionesByEstado(atencion.getEstado())).withRel("atenciones-estado"));
+                                .getAtencionesByEstado(atencion.getEstado(), null, null, null, null)).withRel("atenciones-estado"));
                         return resource;
                     })
                     .collect(Collectors.toList());
 
-            CollectionModel<EntityModel<AtencionMedica>> collection = CollectionModel.of(atencionesConLinks);
+            CollectionModel<?> collection = embebidos.isEmpty() ? CollectionModel.of(atencionesConLinks)
+                    : CollectionModel.of(conEmbebidos(atencionesConLinks, embebidos));
 
-            collection.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withSelfRel());
+            collection.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withSelfRel());
             collection.add(
                     linkTo(methodOn(AtencionMedicaController.class).createAtencion(null)).withRel("crear-atencion"));
             collection.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
@@ -60,6 +136,8 @@ public class AtencionMedicaController {
                     linkTo(methodOn(AtencionMedicaController.class).cargarDatosEjemplo()).withRel("cargar-ejemplos"));
 
             return ResponseEntity.ok(collection);
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -67,34 +145,65 @@ public class AtencionMedicaController {
 
     // GET - Obtener atención por ID 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getAtencionById(@PathVariable Long id) {
+    public ResponseEntity<?> getAtencionById(@PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String embed) {
         try {
+            Set<String> embebidos = parseEmbed(embed);
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                List<Map<String, Object>> filas = atencionMedicaService.getCampos(seleccion.getColumnas(), "id", id);
+                if (filas.isEmpty()) {
+                    filas = atencionArchivoService.getCampos(seleccion.getColumnas(), "id", id);
+                }
+                if (!filas.isEmpty()) {
+                    return ResponseEntity.ok(atencionParcial(filas.get(0), seleccion));
+                }
+                Map<String, String> response = new HashMap<>();
+                response.put("mensaje", "No se encontró la atención médica con ID: " + id);
+                EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
+                        .withRel("todas-atenciones"));
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
+            }
+
             Optional<AtencionMedica> atencion = atencionMedicaService.getAtencionById(id);
+            // Las archivadas se sirven igual, pero son de solo lectura: sin enlaces de actualizar/eliminar
+            boolean archivada = false;
+            if (atencion.isEmpty()) {
+                atencion = atencionArchivoService.getAtencionById(id);
+                archivada = atencion.isPresent();
+            }
 
             if (atencion.isPresent()) {
                 EntityModel<AtencionMedica> resource = EntityModel.of(atencion.get());
 
                 
-                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionById(id)).withSelfRel());
+                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionById(id, null, null)).withSelfRel());
 
                 
-                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones())
+                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
                         .withRel("todas-atenciones"));
-                resource.add(linkTo(methodOn(AtencionMedicaController.class).updateAtencion(id, null))
-                        .withRel("actualizar-atencion"));
-                resource.add(linkTo(methodOn(AtencionMedicaController.class).deleteAtencion(id))
-                        .withRel("eliminar-atencion"));
+                if (!archivada) {
+                    resource.add(linkTo(methodOn(AtencionMedicaController.class).updateAtencion(id, null))
+                            .withRel("actualizar-atencion"));
+                    resource.add(linkTo(methodOn(AtencionMedicaController.class).deleteAtencion(id))
+                            .withRel("eliminar-atencion"));
+                }
                 resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                        .getAtencionesByPacienteId(atencion.get().getPacienteId())).withRel("atenciones-paciente"));
+                        .getAtencionesByPacienteId(atencion.get().getPacienteId(), null, null, null, null)).withRel("atenciones-paciente"));
                 resource.add(linkTo(
-                        methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(atencion.get().getMedicoId()))
+                        methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(atencion.get().getMedicoId(), null, null, null, null))
                         .withRel("atenciones-medico"));
                 resource.add(linkTo(
-                        methodOn(AtencionMedicaController.class).getAtencionesByEstado(atencion.get().getEstado()))
+                        methodOn(AtencionMedicaController.class).getAtencionesByEstado(atencion.get().getEstado(), null, null, null, null))
                         .withRel("atenciones-estado"));
                 resource.add(
                         linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
 
+                if (!embebidos.isEmpty()) {
+                    return ResponseEntity.ok(conEmbebidos(List.of(resource), embebidos).get(0));
+                }
                 return ResponseEntity.ok(resource);
             } else {
                 Map<String, String> response = new HashMap<>();
@@ -102,18 +211,20 @@ public class AtencionMedicaController {
                 
                 
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones())
+                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
                         .withRel("todas-atenciones"));
                 errorResource.add(linkTo(methodOn(AtencionMedicaController.class).createAtencion(null))
                         .withRel("crear-atencion"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al buscar la atención médica: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -137,30 +248,43 @@ public class AtencionMedicaController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            AtencionMedica nuevaAtencion = atencionMedicaService.createAtencion(atencionMedica);
+            AtencionMedica nuevaAtencion = atencionMedicaGroupCommit != null
+                    ? atencionMedicaGroupCommit.crear(atencionMedica)
+                    : atencionMedicaService.createAtencion(atencionMedica);
 
             // Crear recurso con enlaces HATEOAS
             EntityModel<AtencionMedica> resource = EntityModel.of(nuevaAtencion);
-            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionById(nuevaAtencion.getId()))
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionById(nuevaAtencion.getId(), null, null))
                     .withSelfRel());
             resource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             resource.add(linkTo(methodOn(AtencionMedicaController.class).updateAtencion(nuevaAtencion.getId(), null))
                     .withRel("actualizar-atencion"));
             resource.add(linkTo(
-                    methodOn(AtencionMedicaController.class).getAtencionesByPacienteId(nuevaAtencion.getPacienteId()))
+                    methodOn(AtencionMedicaController.class).getAtencionesByPacienteId(nuevaAtencion.getPacienteId(), null, null, null, null))
                     .withRel("atenciones-paciente"));
             resource.add(linkTo(
-                    methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(nuevaAtencion.getMedicoId()))
+                    methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(nuevaAtencion.getMedicoId(), null, null, null, null))
                     .withRel("atenciones-medico"));
 
             return ResponseEntity.status(HttpStatus.CREATED).body(resource);
+        } catch (RejectedExecutionException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Servicio sobrecargado, intente nuevamente en unos segundos");
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(errorResource);
+        } catch (InterruptedException e) {
+            // Apagado o petición abandonada mientras se esperaba al lote: el alta se cancela
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al crear la atención médica: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -174,23 +298,23 @@ public class AtencionMedicaController {
 
             if (atencionActualizada != null) {
                 EntityModel<AtencionMedica> resource = EntityModel.of(atencionActualizada);
-                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionById(id)).withSelfRel());
-                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones())
+                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionById(id, null, null)).withSelfRel());
+                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
                         .withRel("todas-atenciones"));
                 resource.add(linkTo(methodOn(AtencionMedicaController.class).deleteAtencion(id))
                         .withRel("eliminar-atencion"));
                 resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                        .getAtencionesByPacienteId(atencionActualizada.getPacienteId()))
+                        .getAtencionesByPacienteId(atencionActualizada.getPacienteId(), null, null, null, null))
                         .withRel("atenciones-paciente"));
                 resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                        .getAtencionesByMedicoId(atencionActualizada.getMedicoId())).withRel("atenciones-medico"));
+                        .getAtencionesByMedicoId(atencionActualizada.getMedicoId(), null, null, null, null)).withRel("atenciones-medico"));
 
                 return ResponseEntity.ok(resource);
             } else {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró la atención médica con ID: " + id);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones())
+                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
                         .withRel("todas-atenciones"));
                 errorResource.add(linkTo(methodOn(AtencionMedicaController.class).createAtencion(null))
                         .withRel("crear-atencion"));
@@ -201,7 +325,7 @@ public class AtencionMedicaController {
             response.put("error", "Error al actualizar la atención médica: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -216,7 +340,7 @@ public class AtencionMedicaController {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "Atención médica eliminada correctamente");
                 EntityModel<Map<String, String>> resource = EntityModel.of(response);
-                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones())
+                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
                         .withRel("todas-atenciones"));
                 resource.add(linkTo(methodOn(AtencionMedicaController.class).createAtencion(null))
                         .withRel("crear-atencion"));
@@ -227,7 +351,7 @@ public class AtencionMedicaController {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró la atención médica con ID: " + id);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones())
+                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
                         .withRel("todas-atenciones"));
                 errorResource.add(linkTo(methodOn(AtencionMedicaController.class).createAtencion(null))
                         .withRel("crear-atencion"));
@@ -238,121 +362,285 @@ public class AtencionMedicaController {
             response.put("error", "Error al eliminar la atención médica: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
 
     // GET - Obtener atenciones por paciente 
     @GetMapping("/paciente/{pacienteId}")
-    public ResponseEntity<?> getAtencionesByPacienteId(@PathVariable Long pacienteId) {
+    public ResponseEntity<?> getAtencionesByPacienteId(@PathVariable Long pacienteId,
+            @RequestParam(required = false) String view, @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) Boolean incluirArchivo) {
         try {
-            List<AtencionMedica> atenciones = atencionMedicaService.getAtencionesByPacienteId(pacienteId);
+            Set<String> embebidos = parseEmbed(embed);
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                Set<String> columnas = columnasConId(seleccion, incluirArchivo);
+                CollectionModel<EntityModel<Map<String, Object>>> parciales =
+                        parcialesConLinks(conArchivo(atencionMedicaService.getCampos(columnas, "pacienteId", pacienteId),
+                                incluirArchivo, () -> atencionArchivoService.getCampos(columnas, "pacienteId", pacienteId), fila -> fila.get("id")),
+                                seleccion);
+                if (seleccion.incluyeEnlaces()) {
+                    parciales.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByPacienteId(pacienteId, null, fields, null, incluirArchivo))
+                            .withSelfRel());
+                }
+                return ResponseEntity.ok(parciales);
+            }
+
+            if (VISTA_RESUMEN.equals(view)) {
+                CollectionModel<EntityModel<AtencionMedicaResumen>> resumen =
+                        resumenConLinks(conArchivo(atencionMedicaService.getAtencionesResumenByPacienteId(pacienteId),
+                                incluirArchivo, () -> atencionArchivoService.getAtencionesResumenByPacienteId(pacienteId), AtencionMedicaResumen::id));
+                resumen.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByPacienteId(pacienteId, view, null, null, incluirArchivo))
+                        .withSelfRel());
+                resumen.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByPacienteId(pacienteId, null, null, null, incluirArchivo))
+                        .withRel("vista-completa"));
+                return ResponseEntity.ok(resumen);
+            }
+
+            List<AtencionMedica> atenciones = conArchivo(atencionMedicaService.getAtencionesByPacienteId(pacienteId),
+                    incluirArchivo, () -> atencionArchivoService.getAtencionesByPacienteId(pacienteId), AtencionMedica::getId);
 
             List<EntityModel<AtencionMedica>> atencionesConLinks = atenciones.stream()
                     .map(atencion -> {
                         EntityModel<AtencionMedica> resource = EntityModel.of(atencion);
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionById(atencion.getId())).withSelfRel());
+                                .getAtencionById(atencion.getId(), null, null)).withSelfRel());
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionesByMedicoId(atencion.getMedicoId())).withRel("atenciones-medico"));
+                                .getAtencionesByMedicoId(atencion.getMedicoId(), null, null, null, null)).withRel("atenciones-medico"));
                         return resource;
                     })
                     .collect(Collectors.toList());
 
-            CollectionModel<EntityModel<AtencionMedica>> collection = CollectionModel.of(atencionesConLinks);
-            collection.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByPacienteId(pacienteId))
+            CollectionModel<?> collection = embebidos.isEmpty() ? CollectionModel.of(atencionesConLinks)
+                    : CollectionModel.of(conEmbebidos(atencionesConLinks, embebidos));
+            collection.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByPacienteId(pacienteId, null, null, null, incluirArchivo))
                     .withSelfRel());
             collection.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             collection.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
 
             return ResponseEntity.ok(collection);
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al buscar atenciones del paciente: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
 
     // GET - Obtener atenciones por médico 
     @GetMapping("/medico/{medicoId}")
-    public ResponseEntity<?> getAtencionesByMedicoId(@PathVariable Long medicoId) {
+    public ResponseEntity<?> getAtencionesByMedicoId(@PathVariable Long medicoId,
+            @RequestParam(required = false) String view, @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) Boolean incluirArchivo) {
         try {
-            List<AtencionMedica> atenciones = atencionMedicaService.getAtencionesByMedicoId(medicoId);
+            Set<String> embebidos = parseEmbed(embed);
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                Set<String> columnas = columnasConId(seleccion, incluirArchivo);
+                CollectionModel<EntityModel<Map<String, Object>>> parciales =
+                        parcialesConLinks(conArchivo(atencionMedicaService.getCampos(columnas, "medicoId", medicoId),
+                                incluirArchivo, () -> atencionArchivoService.getCampos(columnas, "medicoId", medicoId), fila -> fila.get("id")),
+                                seleccion);
+                if (seleccion.incluyeEnlaces()) {
+                    parciales.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(medicoId, null, fields, null, incluirArchivo))
+                            .withSelfRel());
+                }
+                return ResponseEntity.ok(parciales);
+            }
+
+            if (VISTA_RESUMEN.equals(view)) {
+                CollectionModel<EntityModel<AtencionMedicaResumen>> resumen =
+                        resumenConLinks(conArchivo(atencionMedicaService.getAtencionesResumenByMedicoId(medicoId),
+                                incluirArchivo, () -> atencionArchivoService.getAtencionesResumenByMedicoId(medicoId), AtencionMedicaResumen::id));
+                resumen.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(medicoId, view, null, null, incluirArchivo))
+                        .withSelfRel());
+                resumen.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(medicoId, null, null, null, incluirArchivo))
+                        .withRel("vista-completa"));
+                return ResponseEntity.ok(resumen);
+            }
+
+            List<AtencionMedica> atenciones = conArchivo(atencionMedicaService.getAtencionesByMedicoId(medicoId),
+                    incluirArchivo, () -> atencionArchivoService.getAtencionesByMedicoId(medicoId), AtencionMedica::getId);
 
             List<EntityModel<AtencionMedica>> atencionesConLinks = atenciones.stream()
                     .map(atencion -> {
                         EntityModel<AtencionMedica> resource = EntityModel.of(atencion);
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionById(atencion.getId())).withSelfRel());
+                                .getAtencionById(atencion.getId(), null, null)).withSelfRel());
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionesByPacienteId(atencion.getPacienteId())).withRel("atenciones-paciente"));
+                                .getAtencionesByPacienteId(atencion.getPacienteId(), null, null, null, null)).withRel("atenciones-paciente"));
                         return resource;
                     })
                     .collect(Collectors.toList());
 
-            CollectionModel<EntityModel<AtencionMedica>> collection = CollectionModel.of(atencionesConLinks);
+            CollectionModel<?> collection = embebidos.isEmpty() ? CollectionModel.of(atencionesConLinks)
+                    : CollectionModel.of(conEmbebidos(atencionesConLinks, embebidos));
             collection.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(medicoId)).withSelfRel());
+                    linkTo(methodOn(AtencionMedicaController.class).getAtencionesByMedicoId(medicoId, null, null, null, incluirArchivo))
+                    .withSelfRel());
             collection.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             collection.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
 
             return ResponseEntity.ok(collection);
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al buscar atenciones del médico: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
 
     // GET - Obtener atenciones por estado 
     @GetMapping("/estado/{estado}")
-    public ResponseEntity<?> getAtencionesByEstado(@PathVariable String estado) {
+    public ResponseEntity<?> getAtencionesByEstado(@PathVariable String estado,
+            @RequestParam(required = false) String view, @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) Boolean incluirArchivo) {
         try {
-            if (!estado.equals("Programada") && !estado.equals("Realizada") && !estado.equals("Cancelada")) {
+            Set<String> embebidos = parseEmbed(embed);
+            if (!ValoresCanonicos.ESTADOS_ATENCION.contains(estado)) {
                 Map<String, String> response = new HashMap<>();
                 response.put("error", "Estado no válido. Debe ser: Programada, Realizada o Cancelada");
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones())
+                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null))
                         .withRel("todas-atenciones"));
                 return ResponseEntity.badRequest().body(errorResource);
             }
 
-            List<AtencionMedica> atenciones = atencionMedicaService.getAtencionesByEstado(estado);
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                Set<String> columnas = columnasConId(seleccion, incluirArchivo);
+                CollectionModel<EntityModel<Map<String, Object>>> parciales =
+                        parcialesConLinks(conArchivo(atencionMedicaService.getCampos(columnas, "estado", estado),
+                                incluirArchivo, () -> atencionArchivoService.getCampos(columnas, "estado", estado), fila -> fila.get("id")),
+                                seleccion);
+                if (seleccion.incluyeEnlaces()) {
+                    parciales.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado(estado, null, fields, null, incluirArchivo))
+                            .withSelfRel());
+                }
+                return ResponseEntity.ok(parciales);
+            }
+
+            if (VISTA_RESUMEN.equals(view)) {
+                CollectionModel<EntityModel<AtencionMedicaResumen>> resumen =
+                        resumenConLinks(conArchivo(atencionMedicaService.getAtencionesResumenByEstado(estado),
+                                incluirArchivo, () -> atencionArchivoService.getAtencionesResumenByEstado(estado), AtencionMedicaResumen::id));
+                resumen.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado(estado, view, null, null, incluirArchivo))
+                        .withSelfRel());
+                resumen.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado(estado, null, null, null, incluirArchivo))
+                        .withRel("vista-completa"));
+                return ResponseEntity.ok(resumen);
+            }
+
+            List<AtencionMedica> atenciones = conArchivo(atencionMedicaService.getAtencionesByEstado(estado),
+                    incluirArchivo, () -> atencionArchivoService.getAtencionesByEstado(estado), AtencionMedica::getId);
 
             List<EntityModel<AtencionMedica>> atencionesConLinks = atenciones.stream()
                     .map(atencion -> {
                         EntityModel<AtencionMedica> resource = EntityModel.of(atencion);
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionById(atencion.getId())).withSelfRel());
+                                .getAtencionById(atencion.getId(), null, null)).withSelfRel());
                         resource.add(linkTo(methodOn(AtencionMedicaController.class)
-                                .getAtencionesByPacienteId(atencion.getPacienteId())).withRel("atenciones-paciente"));
+                                .getAtencionesByPacienteId(atencion.getPacienteId(), null, null, null, null)).withRel("atenciones-paciente"));
                         return resource;
                     })
                     .collect(Collectors.toList());
 
-            CollectionModel<EntityModel<AtencionMedica>> collection = CollectionModel.of(atencionesConLinks);
+            CollectionModel<?> collection = embebidos.isEmpty() ? CollectionModel.of(atencionesConLinks)
+                    : CollectionModel.of(conEmbebidos(atencionesConLinks, embebidos));
             collection
-                    .add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado(estado)).withSelfRel());
+                    .add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado(estado, null, null, null, incluirArchivo))
+                    .withSelfRel());
             collection.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             collection.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
 
             return ResponseEntity.ok(collection);
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al buscar atenciones por estado: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
+        }
+    }
+
+    // GET - Búsqueda combinando paciente, médico, estado y rango de fechas (hasta exclusivo), ordenada por
+    // fecha y paginada por cursor. Si algún criterio no lo cubre el índice elegido se informa en
+    // filtrosResiduales; con estricto=true esa combinación se rechaza
+    @GetMapping("/filtrar")
+    public ResponseEntity<?> getAtencionesFiltradas(
+            @RequestParam(required = false) Long pacienteId,
+            @RequestParam(required = false) Long medicoId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "desc") String orden,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite,
+            @RequestParam(defaultValue = "false") boolean estricto) {
+        try {
+            if (estado != null && !ValoresCanonicos.ESTADOS_ATENCION.contains(estado)) {
+                throw new IllegalArgumentException("Estado no válido. Debe ser: Programada, Realizada o Cancelada");
+            }
+            if (!orden.equals("asc") && !orden.equals("desc")) {
+                throw new IllegalArgumentException("orden debe ser asc o desc");
+            }
+            if (desde != null && hasta != null && !desde.isBefore(hasta)) {
+                throw new IllegalArgumentException("desde debe ser anterior a hasta");
+            }
+
+            Criterios criterios = new Criterios(pacienteId, medicoId, estado,
+                    desde != null ? desde.atStartOfDay() : null, hasta != null ? hasta.atStartOfDay() : null);
+            AtencionesFiltradas pagina = atencionMedicaService.filtrar(criterios, orden.equals("asc"), cursor, limite, estricto);
+
+            List<EntityModel<AtencionMedica>> atencionesConLinks = pagina.atenciones().stream()
+                    .map(atencion -> EntityModel.of(atencion, linkTo(methodOn(AtencionMedicaController.class)
+                            .getAtencionById(atencion.getId(), null, null)).withSelfRel()))
+                    .collect(Collectors.toList());
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("atenciones", atencionesConLinks);
+            response.put("indice", pagina.indice());
+            response.put("filtrosResiduales", pagina.filtrosResiduales());
+            response.put("siguienteCursor", pagina.siguienteCursor());
+
+            EntityModel<Map<String, Object>> resource = EntityModel.of(response);
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesFiltradas(
+                    pacienteId, medicoId, estado, desde, hasta, orden, cursor, limite, estricto)).withSelfRel());
+            if (pagina.siguienteCursor() != null) {
+                resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesFiltradas(
+                        pacienteId, medicoId, estado, desde, hasta, orden, pagina.siguienteCursor(), limite, estricto))
+                        .withRel("siguiente"));
+            }
+            resource.add(
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
+            return ResponseEntity.ok(resource);
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al filtrar atenciones: " + e.getMessage());
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -361,10 +649,12 @@ public class AtencionMedicaController {
     @GetMapping("/estadisticas")
     public ResponseEntity<?> getEstadisticas() {
         try {
-            Long total = (long) atencionMedicaService.getAllAtenciones().size();
-            Long realizadas = atencionMedicaService.countAtencionesByEstado("Realizada");
-            Long programadas = atencionMedicaService.countAtencionesByEstado("Programada");
-            Long canceladas = atencionMedicaService.countAtencionesByEstado("Cancelada");
+            // Incluye las archivadas, igual que /estadisticas/series y /estadisticas/columnares
+            Map<String, Long> conteos = estadisticasService.getConteosPorEstado();
+            Long total = conteos.get("total");
+            Long realizadas = conteos.getOrDefault("Realizada", 0L);
+            Long programadas = conteos.getOrDefault("Programada", 0L);
+            Long canceladas = conteos.getOrDefault("Cancelada", 0L);
 
             Map<String, Object> estadisticas = new HashMap<>();
             estadisticas.put("total", total);
@@ -382,12 +672,12 @@ public class AtencionMedicaController {
             EntityModel<Map<String, Object>> resource = EntityModel.of(estadisticas);
             resource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withSelfRel());
             resource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
-            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado("Realizada"))
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado("Realizada", null, null, null, null))
                     .withRel("atenciones-realizadas"));
-            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado("Programada"))
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado("Programada", null, null, null, null))
                     .withRel("atenciones-programadas"));
-            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado("Cancelada"))
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionesByEstado("Cancelada", null, null, null, null))
                     .withRel("atenciones-canceladas"));
 
             return ResponseEntity.ok(resource);
@@ -396,7 +686,126 @@ public class AtencionMedicaController {
             response.put("error", "Error al calcular estadísticas: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
+        }
+    }
+
+    // GET - Serie temporal de atenciones desde el rollup diario (sin recorrer atenciones_medicas).
+    // Por defecto los últimos 30 días; hasta es exclusivo
+    @GetMapping("/estadisticas/series")
+    public ResponseEntity<?> getEstadisticasSeries(
+            @RequestParam(defaultValue = "dia") String granularidad,
+            @RequestParam(required = false) Long medicoId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            Granularidad nivel = Granularidad.parse(granularidad);
+            if (estado != null && !ValoresCanonicos.ESTADOS_ATENCION.contains(estado)) {
+                throw new IllegalArgumentException("Estado no válido. Debe ser: Programada, Realizada o Cancelada");
+            }
+            LocalDate fin = hasta != null ? hasta : LocalDate.now().plusDays(1);
+            LocalDate inicio = desde != null ? desde : fin.minusDays(30);
+            if (!inicio.isBefore(fin)) {
+                throw new IllegalArgumentException("desde debe ser anterior a hasta");
+            }
+
+            Map<String, Object> series = new LinkedHashMap<>();
+            series.put("granularidad", nivel.name().toLowerCase());
+            series.put("desde", inicio.toString());
+            series.put("hasta", fin.toString());
+            if (medicoId != null) {
+                series.put("medicoId", medicoId);
+            }
+            if (estado != null) {
+                series.put("estado", estado);
+            }
+            series.put("series", estadisticasService.getSerie(nivel, inicio, fin, medicoId, estado));
+
+            EntityModel<Map<String, Object>> resource = EntityModel.of(series);
+            resource.add(linkTo(methodOn(AtencionMedicaController.class)
+                    .getEstadisticasSeries(granularidad, medicoId, estado, desde, hasta)).withSelfRel());
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
+            if (medicoId != null) {
+                resource.add(linkTo(methodOn(AtencionMedicaController.class)
+                        .getAtencionesByMedicoId(medicoId, null, null, null, null)).withRel("atenciones-medico"));
+            }
+            return ResponseEntity.ok(resource);
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al calcular la serie de estadísticas: " + e.getMessage());
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
+        }
+    }
+
+    // GET - Estadísticas aproximadas en memoria (pacientes distintos por médico y médicos con más
+    // atenciones del mes), con sus cotas de error
+    @GetMapping("/estadisticas/aproximadas")
+    public ResponseEntity<?> getEstadisticasAproximadas(
+            @RequestParam(required = false) Long medicoId,
+            @RequestParam(defaultValue = "10") int top) {
+        try {
+            if (top < 1 || top > 100) {
+                throw new IllegalArgumentException("top debe estar entre 1 y 100");
+            }
+            EntityModel<Map<String, Object>> resource = EntityModel.of(estadisticasService.getAproximadas(medicoId, top));
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticasAproximadas(medicoId, top))
+                    .withSelfRel());
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
+            resource.add(linkTo(methodOn(AtencionMedicaController.class)
+                    .getEstadisticasSeries("dia", medicoId, null, null, null)).withRel("series"));
+            return ResponseEntity.ok(resource);
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al calcular las estadísticas aproximadas: " + e.getMessage());
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
+        }
+    }
+
+    // GET - Conteos por estado, hora del día y médico desde el almacén columnar en memoria
+    // (atenciones.columnar.enabled). hasta es exclusivo
+    @GetMapping("/estadisticas/columnares")
+    public ResponseEntity<?> getEstadisticasColumnares(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long medicoId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(defaultValue = "10") int topMedicos) {
+        try {
+            if (topMedicos < 0 || topMedicos > 1000) {
+                throw new IllegalArgumentException("topMedicos debe estar entre 0 y 1000");
+            }
+            Optional<Map<String, Object>> columnares =
+                    estadisticasService.getColumnares(desde, hasta, medicoId, estado, topMedicos);
+            if (columnares.isEmpty()) {
+                Map<String, String> response = new HashMap<>();
+                response.put("error", "El almacén columnar no está activo o todavía se está cargando");
+                EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+                errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResource);
+            }
+
+            EntityModel<Map<String, Object>> resource = EntityModel.of(columnares.get());
+            resource.add(linkTo(methodOn(AtencionMedicaController.class)
+                    .getEstadisticasColumnares(desde, hasta, medicoId, estado, topMedicos)).withSelfRel());
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
+            return ResponseEntity.ok(resource);
+        } catch (IllegalArgumentException e) {
+            return parametroNoValido(e);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al calcular las estadísticas columnares: " + e.getMessage());
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("estadisticas"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -445,7 +854,7 @@ public class AtencionMedicaController {
 
             EntityModel<Map<String, String>> resource = EntityModel.of(response);
             resource.add(linkTo(methodOn(AtencionMedicaController.class).cargarDatosEjemplo()).withSelfRel());
-            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("ver-atenciones"));
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("ver-atenciones"));
             resource.add(
                     linkTo(methodOn(AtencionMedicaController.class).getEstadisticas()).withRel("ver-estadisticas"));
             resource.add(
@@ -458,8 +867,133 @@ public class AtencionMedicaController {
             response.put("error", "Error al cargar datos de ejemplo: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
             errorResource.add(
-                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones()).withRel("todas-atenciones"));
+                    linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
-}
\ No newline at end of file
+
+    private CollectionModel<EntityModel<AtencionMedicaResumen>> resumenConLinks(List<AtencionMedicaResumen> atenciones) {
+        List<EntityModel<AtencionMedicaResumen>> atencionesConLinks = atenciones.stream()
+                .map(atencion -> EntityModel.of(atencion,
+                        linkTo(methodOn(AtencionMedicaController.class).getAtencionById(atencion.id(), null, null)).withSelfRel()))
+                .collect(Collectors.toList());
+        return CollectionModel.of(atencionesConLinks);
+    }
+
+    // Atención con solo los campos de ?fields= y solo los enlaces pedidos
+    private EntityModel<Map<String, Object>> atencionParcial(Map<String, Object> fila, FieldSelection seleccion) {
+        EntityModel<Map<String, Object>> resource = EntityModel.of(seleccion.recortar(fila));
+        if (seleccion.incluyeRel("self")) {
+            resource.add(linkTo(methodOn(AtencionMedicaController.class).getAtencionById((Long) fila.get("id"), null, null))
+                    .withSelfRel());
+        }
+        if (seleccion.incluyeRel("atenciones-paciente")) {
+            resource.add(linkTo(methodOn(AtencionMedicaController.class)
+                    .getAtencionesByPacienteId((Long) fila.get("pacienteId"), null, null, null, null)).withRel("atenciones-paciente"));
+        }
+        if (seleccion.incluyeRel("atenciones-medico")) {
+            resource.add(linkTo(methodOn(AtencionMedicaController.class)
+                    .getAtencionesByMedicoId((Long) fila.get("medicoId"), null, null, null, null)).withRel("atenciones-medico"));
+        }
+        if (seleccion.incluyeRel("atenciones-estado")) {
+            resource.add(linkTo(methodOn(AtencionMedicaController.class)
+                    .getAtencionesByEstado((String) fila.get("estado"), null, null, null, null)).withRel("atenciones-estado"));
+        }
+        return resource;
+    }
+
+    private CollectionModel<EntityModel<Map<String, Object>>> parcialesConLinks(List<Map<String, Object>> filas,
+            FieldSelection seleccion) {
+        return CollectionModel.of(filas.stream()
+                .map(fila -> atencionParcial(fila, seleccion))
+                .collect(Collectors.toList()));
+    }
+
+    // ?incluirArchivo=true: las atenciones archivadas van detrás de las activas. Las dos lecturas van en
+    // transacciones distintas y un lote del archivador puede confirmarse entre ambas: se deduplica por id
+    // y gana la fila activa
+    private static <T> List<T> conArchivo(List<T> activas, Boolean incluirArchivo, Supplier<List<T>> archivadas,
+            Function<T, Object> id) {
+        if (!Boolean.TRUE.equals(incluirArchivo)) {
+            return activas;
+        }
+        Map<Object, T> porId = new LinkedHashMap<>();
+        activas.forEach(fila -> porId.put(id.apply(fila), fila));
+        archivadas.get().forEach(fila -> porId.putIfAbsent(id.apply(fila), fila));
+        return new ArrayList<>(porId.values());
+    }
+
+    // Con ?incluirArchivo=true se lee también el id para poder deduplicar; recortar lo quita si no se pidió
+    private static Set<String> columnasConId(FieldSelection seleccion, Boolean incluirArchivo) {
+        if (!Boolean.TRUE.equals(incluirArchivo) || seleccion.getColumnas().contains("id")) {
+            return seleccion.getColumnas();
+        }
+        Set<String> columnas = new LinkedHashSet<>(seleccion.getColumnas());
+        columnas.add("id");
+        return columnas;
+    }
+
+    private ResponseEntity<?> parametroNoValido(IllegalArgumentException e) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", e.getMessage());
+        EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+        errorResource.add(
+                linkTo(methodOn(AtencionMedicaController.class).getAllAtenciones(null, null, null)).withRel("todas-atenciones"));
+        return ResponseEntity.badRequest().body(errorResource);
+    }
+
+    private Set<String> parseEmbed(String embed) {
+        Set<String> embebidos = new LinkedHashSet<>();
+        if (embed == null) {
+            return embebidos;
+        }
+        for (String token : embed.split(",")) {
+            String rel = token.trim();
+            if (!rel.isEmpty() && !EMBEBIBLES.contains(rel)) {
+                throw new IllegalArgumentException("Valor no válido en embed: " + rel + ". Debe ser: paciente o medico");
+            }
+            if (!rel.isEmpty()) {
+                embebidos.add(rel);
+            }
+        }
+        return embebidos;
+    }
+
+    // Pacientes y médicos se cargan con una consulta por tipo para toda la página, no una por fila
+    private List<AtencionMedicaConEmbebidos> conEmbebidos(List<EntityModel<AtencionMedica>> recursos,
+            Set<String> embebidos) {
+        Map<Long, Paciente> pacientes = Map.of();
+        Map<Long, Medico> medicos = Map.of();
+        if (embebidos.contains("paciente") && !recursos.isEmpty()) {
+            pacientes = pacienteService.getPacientesByIds(recursos.stream()
+                    .map(recurso -> recurso.getContent().getPacienteId())
+                    .distinct()
+                    .collect(Collectors.toList()));
+        }
+        if (embebidos.contains("medico") && !recursos.isEmpty()) {
+            medicos = medicoService.getMedicosByIds(recursos.stream()
+                    .map(recurso -> recurso.getContent().getMedicoId())
+                    .distinct()
+                    .collect(Collectors.toList()));
+        }
+
+        List<AtencionMedicaConEmbebidos> resultado = new ArrayList<>(recursos.size());
+        for (EntityModel<AtencionMedica> recurso : recursos) {
+            AtencionMedicaConEmbebidos atencion = new AtencionMedicaConEmbebidos(recurso.getContent());
+            atencion.add(recurso.getLinks());
+
+            Paciente paciente = pacientes.get(recurso.getContent().getPacienteId());
+            if (paciente != null) {
+                atencion.embeber("paciente", EntityModel.of(paciente,
+                        linkTo(methodOn(PacienteController.class).getPacienteById(paciente.getId(), null)).withSelfRel()));
+            }
+            Medico medico = medicos.get(recurso.getContent().getMedicoId());
+            if (medico != null) {
+                atencion.embeber("medico", EntityModel.of(medico,
+                        linkTo(methodOn(MedicoController.class).getMedicoById(medico.getId(), null)).withSelfRel()));
+            }
+            resultado.add(atencion);
+        }
+        return resultado;
+    }
+}
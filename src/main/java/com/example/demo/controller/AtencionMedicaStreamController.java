@@ -0,0 +1,33 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.ValoresCanonicos;
+import com.example.demo.sse.AtencionesChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/atenciones-medicas")
+@CrossOrigin(origins = "*")
+public class AtencionMedicaStreamController {
+
+    @Autowired
+    private AtencionesChangeFeed atencionesChangeFeed;
+
+    // GET - Stream SSE de cambios (creado, actualizado, estado-cambiado, eliminado) en lugar de sondear el listado.
+    // Con Last-Event-ID reanuda desde el último evento recibido; el evento "reinicio" pide recargar el listado.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAtenciones(@RequestParam(required = false) Long medicoId,
+                                       @RequestParam(required = false) String estado,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // El stream solo produce text/event-stream, así que el error no lleva cuerpo HATEOAS
+        if (estado != null && !ValoresCanonicos.ESTADOS_ATENCION.contains(estado)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Estado no válido. Debe ser: Programada, Realizada o Cancelada");
+        }
+        return atencionesChangeFeed.suscribir(medicoId, estado, lastEventId);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.controller;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Selección de campos de ?fields=nombre,rut,_links.self. Los nombres se validan contra una lista fija
+// de atributos, las columnas se llevan al SELECT y los enlaces solo se generan para las rels pedidas:
+// "_links" pide todas, "_links.<rel>" una concreta y sin ninguna de las dos no se genera ninguna.
+public final class FieldSelection {
+
+    private static final String ENLACES = "_links";
+
+    private final Set<String> campos;
+    private final Set<String> rels;
+    private final Set<String> columnas;
+
+    private FieldSelection(Set<String> campos, Set<String> rels, Set<String> columnas) {
+        this.campos = campos;
+        this.rels = rels;
+        this.columnas = columnas;
+    }
+
+    // atributoPorRel: atributo que necesita cada rel para construir su enlace (self -> id, ...)
+    public static FieldSelection parse(String fields, Set<String> camposValidos, Map<String, String> atributoPorRel) {
+        Set<String> campos = new LinkedHashSet<>();
+        Set<String> rels = new LinkedHashSet<>();
+
+        for (String token : fields.split(",")) {
+            String campo = token.trim();
+            if (campo.isEmpty()) {
+                continue;
+            }
+            if (campo.equals(ENLACES)) {
+                rels.addAll(atributoPorRel.keySet());
+            } else if (campo.startsWith(ENLACES + ".")) {
+                String rel = campo.substring(ENLACES.length() + 1);
+                if (!atributoPorRel.containsKey(rel)) {
+                    throw new IllegalArgumentException("Enlace no válido en fields: " + rel
+                            + ". Enlaces disponibles: " + atributoPorRel.keySet());
+                }
+                rels.add(rel);
+            } else if (camposValidos.contains(campo)) {
+                campos.add(campo);
+            } else {
+                throw new IllegalArgumentException("Campo no válido en fields: " + campo
+                        + ". Campos disponibles: " + camposValidos);
+            }
+        }
+        if (campos.isEmpty() && rels.isEmpty()) {
+            throw new IllegalArgumentException("El parámetro fields no contiene campos");
+        }
+
+        Set<String> columnas = new LinkedHashSet<>(campos);
+        for (String rel : rels) {
+            columnas.add(atributoPorRel.get(rel));
+        }
+        return new FieldSelection(Collections.unmodifiableSet(campos), Collections.unmodifiableSet(rels),
+                Collections.unmodifiableSet(columnas));
+    }
+
+    // Columnas a seleccionar: los campos pedidos más los que hacen falta para los enlaces pedidos
+    public Set<String> getColumnas() {
+        return columnas;
+    }
+
+    public boolean incluyeRel(String rel) {
+        return rels.contains(rel);
+    }
+
+    public boolean incluyeEnlaces() {
+        return !rels.isEmpty();
+    }
+
+    // Deja en la fila solo los campos pedidos, en el orden pedido
+    public Map<String, Object> recortar(Map<String, Object> fila) {
+        if (campos.size() == columnas.size() && fila.size() == campos.size()) {
+            return fila;
+        }
+        Map<String, Object> recortada = new LinkedHashMap<>(campos.size() * 2);
+        for (String campo : campos) {
+            recortada.put(campo, fila.get(campo));
+        }
+        return recortada;
+    }
+}
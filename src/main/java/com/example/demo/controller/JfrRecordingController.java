@@ -0,0 +1,94 @@
+package com.example.demo.controller;
+
+import com.example.demo.jfr.JfrRecordingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
+
+@RestController
+@RequestMapping("/admin/jfr")
+public class JfrRecordingController {
+
+    @Autowired
+    private JfrRecordingService jfrRecordingService;
+
+    // GET - Estado de la grabación JFR
+    @GetMapping
+    public ResponseEntity<?> getEstadoGrabacion() {
+        EntityModel<Map<String, Object>> resource = EntityModel.of(jfrRecordingService.getEstado());
+        resource.add(linkTo(methodOn(JfrRecordingController.class).getEstadoGrabacion()).withSelfRel());
+        resource.add(linkTo(methodOn(JfrRecordingController.class).iniciarGrabacion(null)).withRel("iniciar-grabacion"));
+        resource.add(linkTo(methodOn(JfrRecordingController.class).detenerGrabacion()).withRel("detener-grabacion"));
+        return ResponseEntity.ok(resource);
+    }
+
+    // POST - Iniciar una grabación acotada en duración y tamaño
+    @PostMapping("/iniciar")
+    public ResponseEntity<?> iniciarGrabacion(@RequestParam(required = false) Long duracionSegundos) {
+        try {
+            if (!jfrRecordingService.iniciarGrabacion(duracionSegundos)) {
+                Map<String, String> response = new HashMap<>();
+                response.put("error", "Ya existe una grabación JFR en curso");
+                EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+                errorResource.add(linkTo(methodOn(JfrRecordingController.class).detenerGrabacion())
+                        .withRel("detener-grabacion"));
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResource);
+            }
+
+            EntityModel<Map<String, Object>> resource = EntityModel.of(jfrRecordingService.getEstado());
+            resource.add(linkTo(methodOn(JfrRecordingController.class).getEstadoGrabacion()).withSelfRel());
+            resource.add(linkTo(methodOn(JfrRecordingController.class).detenerGrabacion()).withRel("detener-grabacion"));
+            return ResponseEntity.status(HttpStatus.CREATED).body(resource);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al iniciar la grabación JFR: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // POST - Detener la grabación y descargar el archivo .jfr
+    @PostMapping("/detener")
+    public ResponseEntity<?> detenerGrabacion() {
+        try {
+            Path archivo = jfrRecordingService.detenerGrabacion();
+            if (archivo == null) {
+                Map<String, String> response = new HashMap<>();
+                response.put("mensaje", "No hay una grabación JFR en curso");
+                EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+                errorResource.add(linkTo(methodOn(JfrRecordingController.class).iniciarGrabacion(null))
+                        .withRel("iniciar-grabacion"));
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
+            }
+
+            // Un StreamingResponseBody dentro de ResponseEntity<?> no llega a su handler; el recurso se
+            // copia a la respuesta por partes y al cerrarse el stream se borra el archivo temporal
+            long tamano = Files.size(archivo);
+            InputStreamResource cuerpo = new InputStreamResource(
+                    Files.newInputStream(archivo, StandardOpenOption.DELETE_ON_CLOSE));
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .contentLength(tamano)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + archivo.getFileName() + "\"")
+                    .body(cuerpo);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al detener la grabación JFR: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.controller;
 import com.example.demo.model.Medico;
 import com.example.demo.service.MedicoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
@@ -10,10 +11,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
@@ -26,10 +30,30 @@ public class MedicoController {
     @Autowired
     private MedicoService medicoService;
     
+    @Value("${atenciones.multi-get.maximo-ids:5000}")
+    private int maximoIds;
+    
+    // Campos admitidos en ?fields= y atributo que necesita cada enlace
+    static final Set<String> CAMPOS = Set.of("id", "rut", "nombre", "edad", "genero", "telefono", "correo", "direccion", "especialidad");
+    static final Map<String, String> ATRIBUTO_POR_REL = Map.of("self", "id", "medico-rut", "rut");
+    
     // GET - Obtener todos los médicos 
     @GetMapping
-    public ResponseEntity<CollectionModel<EntityModel<Medico>>> getAllMedicos() {
+    public ResponseEntity<?> getAllMedicos(@RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                List<EntityModel<Map<String, Object>>> parciales = medicoService.getCampos(seleccion.getColumnas(), null, null).stream()
+                    .map(fila -> medicoParcial(fila, seleccion))
+                    .collect(Collectors.toList());
+                
+                CollectionModel<EntityModel<Map<String, Object>>> collection = CollectionModel.of(parciales);
+                if (seleccion.incluyeEnlaces()) {
+                    collection.add(linkTo(methodOn(MedicoController.class).getAllMedicos(fields)).withSelfRel());
+                }
+                return ResponseEntity.ok(collection);
+            }
+            
             List<Medico> medicos = medicoService.getAllMedicos();
             
             List<EntityModel<Medico>> medicosConLinks = medicos.stream()
@@ -37,56 +61,114 @@ public class MedicoController {
                     EntityModel<Medico> resource = EntityModel.of(medico);
 
                     resource.add(linkTo(methodOn(MedicoController.class)
-                        .getMedicoById(medico.getId())).withSelfRel());
+                        .getMedicoById(medico.getId(), null)).withSelfRel());
 
                     resource.add(linkTo(methodOn(MedicoController.class)
-                        .getMedicoByRut(medico.getRut())).withRel("medico-rut"));
+                        .getMedicoByRut(medico.getRut(), null)).withRel("medico-rut"));
                     return resource;
                 })
                 .collect(Collectors.toList());
             
             CollectionModel<EntityModel<Medico>> collection = CollectionModel.of(medicosConLinks);
 
-            collection.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withSelfRel());
+            collection.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withSelfRel());
             collection.add(linkTo(methodOn(MedicoController.class).createMedico(null)).withRel("crear-medico"));
             collection.add(linkTo(methodOn(MedicoController.class).cargarMedicosEjemplo()).withRel("cargar-ejemplos"));
             
             return ResponseEntity.ok(collection);
+        } catch (IllegalArgumentException e) {
+            return camposNoValidos(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    // GET - Obtener varios médicos por ID (?ids=1,2,3), en el orden pedido y marcando los no encontrados
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getMedicosByIds(@RequestParam List<Long> ids) {
+        try {
+            if (ids.isEmpty() || ids.size() > maximoIds || ids.contains(null)) {
+                Map<String, String> response = new HashMap<>();
+                response.put("error", "Debe indicar entre 1 y " + maximoIds + " IDs numéricos");
+                EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
+                return ResponseEntity.badRequest().body(errorResource);
+            }
+            
+            Map<Long, Medico> encontrados = medicoService.getMedicosByIds(ids);
+            
+            List<Map<String, Object>> resultados = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Map<String, Object> resultado = new LinkedHashMap<>();
+                resultado.put("id", id);
+                Medico medico = encontrados.get(id);
+                resultado.put("encontrado", medico != null);
+                if (medico != null) {
+                    resultado.put("medico", medico);
+                }
+                resultados.add(resultado);
+            }
+            
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("solicitados", ids.size());
+            response.put("noEncontrados", resultados.stream().filter(r -> !(Boolean) r.get("encontrado")).count());
+            response.put("resultados", resultados);
+            
+            EntityModel<Map<String, Object>> resource = EntityModel.of(response);
+            resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
+            
+            return ResponseEntity.ok(resource);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al buscar los médicos: " + e.getMessage());
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
+        }
+    }
+    
     // GET - Obtener médico por ID 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getMedicoById(@PathVariable Long id) {
+    public ResponseEntity<?> getMedicoById(@PathVariable Long id,
+                                           @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                List<Map<String, Object>> filas = medicoService.getCampos(seleccion.getColumnas(), "id", id);
+                if (!filas.isEmpty()) {
+                    return ResponseEntity.ok(medicoParcial(filas.get(0), seleccion));
+                }
+                return medicoNoEncontrado("No se encontró el médico con ID: " + id);
+            }
+            
             Optional<Medico> medico = medicoService.getMedicoById(id);
             
             if (medico.isPresent()) {
                 EntityModel<Medico> resource = EntityModel.of(medico.get());
                 
-                resource.add(linkTo(methodOn(MedicoController.class).getMedicoById(id)).withSelfRel());
+                resource.add(linkTo(methodOn(MedicoController.class).getMedicoById(id, null)).withSelfRel());
                 
-                resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+                resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
                 resource.add(linkTo(methodOn(MedicoController.class).updateMedico(id, null)).withRel("actualizar-medico"));
                 resource.add(linkTo(methodOn(MedicoController.class).deleteMedico(id)).withRel("eliminar-medico"));
-                resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut(medico.get().getRut())).withRel("medico-rut"));
+                resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut(medico.get().getRut(), null)).withRel("medico-rut"));
                 
                 return ResponseEntity.ok(resource);
             } else {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró el médico con ID: " + id);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
                 errorResource.add(linkTo(methodOn(MedicoController.class).createMedico(null)).withRel("crear-medico"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
+        } catch (IllegalArgumentException e) {
+            return camposNoValidos(e);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al buscar el médico: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -98,23 +180,23 @@ public class MedicoController {
             Medico nuevoMedico = medicoService.createMedico(medico);
             
             EntityModel<Medico> resource = EntityModel.of(nuevoMedico);
-            resource.add(linkTo(methodOn(MedicoController.class).getMedicoById(nuevoMedico.getId())).withSelfRel());
-            resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+            resource.add(linkTo(methodOn(MedicoController.class).getMedicoById(nuevoMedico.getId(), null)).withSelfRel());
+            resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
             resource.add(linkTo(methodOn(MedicoController.class).updateMedico(nuevoMedico.getId(), null)).withRel("actualizar-medico"));
-            resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut(nuevoMedico.getRut())).withRel("medico-rut"));
+            resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut(nuevoMedico.getRut(), null)).withRel("medico-rut"));
             
             return ResponseEntity.status(HttpStatus.CREATED).body(resource);
         } catch (RuntimeException e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
             return ResponseEntity.badRequest().body(errorResource);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al crear el médico: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -128,17 +210,17 @@ public class MedicoController {
             
             if (medicoActualizado != null) {
                 EntityModel<Medico> resource = EntityModel.of(medicoActualizado);
-                resource.add(linkTo(methodOn(MedicoController.class).getMedicoById(id)).withSelfRel());
-                resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+                resource.add(linkTo(methodOn(MedicoController.class).getMedicoById(id, null)).withSelfRel());
+                resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
                 resource.add(linkTo(methodOn(MedicoController.class).deleteMedico(id)).withRel("eliminar-medico"));
-                resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut(medicoActualizado.getRut())).withRel("medico-rut"));
+                resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut(medicoActualizado.getRut(), null)).withRel("medico-rut"));
                 
                 return ResponseEntity.ok(resource);
             } else {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró el médico con ID: " + id);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
                 errorResource.add(linkTo(methodOn(MedicoController.class).createMedico(null)).withRel("crear-medico"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
@@ -146,7 +228,7 @@ public class MedicoController {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al actualizar el médico: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -161,14 +243,14 @@ public class MedicoController {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "Médico eliminado correctamente");
                 EntityModel<Map<String, String>> resource = EntityModel.of(response);
-                resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+                resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
                 resource.add(linkTo(methodOn(MedicoController.class).createMedico(null)).withRel("crear-medico"));
                 return ResponseEntity.ok(resource);
             } else {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró el médico con ID: " + id);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
                 errorResource.add(linkTo(methodOn(MedicoController.class).createMedico(null)).withRel("crear-medico"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
@@ -176,22 +258,32 @@ public class MedicoController {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al eliminar el médico: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
     
     // GET - Buscar médico por RUT 
     @GetMapping("/rut/{rut}")
-    public ResponseEntity<?> getMedicoByRut(@PathVariable String rut) {
+    public ResponseEntity<?> getMedicoByRut(@PathVariable String rut,
+                                            @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                List<Map<String, Object>> filas = medicoService.getCampos(seleccion.getColumnas(), "rut", rut);
+                if (!filas.isEmpty()) {
+                    return ResponseEntity.ok(medicoParcial(filas.get(0), seleccion));
+                }
+                return medicoNoEncontrado("No se encontró médico con RUT: " + rut);
+            }
+            
             Optional<Medico> medico = medicoService.getMedicoByRut(rut);
             
             if (medico.isPresent()) {
                 EntityModel<Medico> resource = EntityModel.of(medico.get());
-                resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut(rut)).withSelfRel());
-                resource.add(linkTo(methodOn(MedicoController.class).getMedicoById(medico.get().getId())).withRel("medico-id"));
-                resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+                resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut(rut, null)).withSelfRel());
+                resource.add(linkTo(methodOn(MedicoController.class).getMedicoById(medico.get().getId(), null)).withRel("medico-id"));
+                resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
                 resource.add(linkTo(methodOn(MedicoController.class).updateMedico(medico.get().getId(), null)).withRel("actualizar-medico"));
                 
                 return ResponseEntity.ok(resource);
@@ -199,15 +291,17 @@ public class MedicoController {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró médico con RUT: " + rut);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+                errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
                 errorResource.add(linkTo(methodOn(MedicoController.class).createMedico(null)).withRel("crear-medico"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
+        } catch (IllegalArgumentException e) {
+            return camposNoValidos(e);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al buscar médico: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -238,7 +332,7 @@ public class MedicoController {
             
             EntityModel<Map<String, String>> resource = EntityModel.of(response);
             resource.add(linkTo(methodOn(MedicoController.class).cargarMedicosEjemplo()).withSelfRel());
-            resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("ver-medicos"));
+            resource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("ver-medicos"));
             resource.add(linkTo(methodOn(MedicoController.class).createMedico(null)).withRel("crear-medico"));
             
             return ResponseEntity.ok(resource);
@@ -247,8 +341,37 @@ public class MedicoController {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al cargar médicos de ejemplo: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos()).withRel("todos-medicos"));
+            errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
-}
\ No newline at end of file
+    
+    // Médico con solo los campos de ?fields= y solo los enlaces pedidos
+    private EntityModel<Map<String, Object>> medicoParcial(Map<String, Object> fila, FieldSelection seleccion) {
+        EntityModel<Map<String, Object>> resource = EntityModel.of(seleccion.recortar(fila));
+        if (seleccion.incluyeRel("self")) {
+            resource.add(linkTo(methodOn(MedicoController.class).getMedicoById((Long) fila.get("id"), null)).withSelfRel());
+        }
+        if (seleccion.incluyeRel("medico-rut")) {
+            resource.add(linkTo(methodOn(MedicoController.class).getMedicoByRut((String) fila.get("rut"), null)).withRel("medico-rut"));
+        }
+        return resource;
+    }
+    
+    private ResponseEntity<?> medicoNoEncontrado(String mensaje) {
+        Map<String, String> response = new HashMap<>();
+        response.put("mensaje", mensaje);
+        EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+        errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
+        errorResource.add(linkTo(methodOn(MedicoController.class).createMedico(null)).withRel("crear-medico"));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
+    }
+    
+    private ResponseEntity<?> camposNoValidos(IllegalArgumentException e) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", e.getMessage());
+        EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+        errorResource.add(linkTo(methodOn(MedicoController.class).getAllMedicos(null)).withRel("todos-medicos"));
+        return ResponseEntity.badRequest().body(errorResource);
+    }
+}
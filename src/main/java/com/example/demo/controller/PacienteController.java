@@ -1,8 +1,11 @@
 package com.example.demo.controller;
 
+import com.example.demo.model.HistoriaClinica;
 import com.example.demo.model.Paciente;
+import com.example.demo.service.HistoriaClinicaService;
 import com.example.demo.service.PacienteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
@@ -10,10 +13,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
@@ -26,10 +32,33 @@ public class PacienteController {
     @Autowired
     private PacienteService pacienteService;
     
+    @Value("${atenciones.multi-get.maximo-ids:5000}")
+    private int maximoIds;
+    
+    @Autowired
+    private HistoriaClinicaService historiaClinicaService;
+    
+    // Campos admitidos en ?fields= y atributo que necesita cada enlace
+    static final Set<String> CAMPOS = Set.of("id", "rut", "nombre", "edad", "genero", "telefono", "correo", "direccion");
+    static final Map<String, String> ATRIBUTO_POR_REL = Map.of("self", "id", "paciente-rut", "rut", "historia", "id");
+    
     // GET - Obtener todos los pacientes 
     @GetMapping
-    public ResponseEntity<CollectionModel<EntityModel<Paciente>>> getAllPacientes() {
+    public ResponseEntity<?> getAllPacientes(@RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                List<EntityModel<Map<String, Object>>> parciales = pacienteService.getCampos(seleccion.getColumnas(), null, null).stream()
+                    .map(fila -> pacienteParcial(fila, seleccion))
+                    .collect(Collectors.toList());
+                
+                CollectionModel<EntityModel<Map<String, Object>>> collection = CollectionModel.of(parciales);
+                if (seleccion.incluyeEnlaces()) {
+                    collection.add(linkTo(methodOn(PacienteController.class).getAllPacientes(fields)).withSelfRel());
+                }
+                return ResponseEntity.ok(collection);
+            }
+            
             List<Paciente> pacientes = pacienteService.getAllPacientes();
             
             List<EntityModel<Paciente>> pacientesConLinks = pacientes.stream()
@@ -37,56 +66,115 @@ public class PacienteController {
                     EntityModel<Paciente> resource = EntityModel.of(paciente);
                     
                     resource.add(linkTo(methodOn(PacienteController.class)
-                        .getPacienteById(paciente.getId())).withSelfRel());
+                        .getPacienteById(paciente.getId(), null)).withSelfRel());
                     
                     resource.add(linkTo(methodOn(PacienteController.class)
-                        .getPacienteByRut(paciente.getRut())).withRel("paciente-rut"));
+                        .getPacienteByRut(paciente.getRut(), null)).withRel("paciente-rut"));
                     return resource;
                 })
                 .collect(Collectors.toList());
             
             CollectionModel<EntityModel<Paciente>> collection = CollectionModel.of(pacientesConLinks);
             // Collection links
-            collection.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withSelfRel());
+            collection.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withSelfRel());
             collection.add(linkTo(methodOn(PacienteController.class).createPaciente(null)).withRel("crear-paciente"));
             collection.add(linkTo(methodOn(PacienteController.class).cargarPacientesEjemplo()).withRel("cargar-ejemplos"));
             
             return ResponseEntity.ok(collection);
+        } catch (IllegalArgumentException e) {
+            return camposNoValidos(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    // GET - Obtener varios pacientes por ID (?ids=1,2,3), en el orden pedido y marcando los no encontrados
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getPacientesByIds(@RequestParam List<Long> ids) {
+        try {
+            if (ids.isEmpty() || ids.size() > maximoIds || ids.contains(null)) {
+                Map<String, String> response = new HashMap<>();
+                response.put("error", "Debe indicar entre 1 y " + maximoIds + " IDs numéricos");
+                EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
+                return ResponseEntity.badRequest().body(errorResource);
+            }
+            
+            Map<Long, Paciente> encontrados = pacienteService.getPacientesByIds(ids);
+            
+            List<Map<String, Object>> resultados = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Map<String, Object> resultado = new LinkedHashMap<>();
+                resultado.put("id", id);
+                Paciente paciente = encontrados.get(id);
+                resultado.put("encontrado", paciente != null);
+                if (paciente != null) {
+                    resultado.put("paciente", paciente);
+                }
+                resultados.add(resultado);
+            }
+            
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("solicitados", ids.size());
+            response.put("noEncontrados", resultados.stream().filter(r -> !(Boolean) r.get("encontrado")).count());
+            response.put("resultados", resultados);
+            
+            EntityModel<Map<String, Object>> resource = EntityModel.of(response);
+            resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
+            
+            return ResponseEntity.ok(resource);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al buscar los pacientes: " + e.getMessage());
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
+        }
+    }
+    
     // GET - Obtener paciente por ID 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getPacienteById(@PathVariable Long id) {
+    public ResponseEntity<?> getPacienteById(@PathVariable Long id,
+                                             @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                List<Map<String, Object>> filas = pacienteService.getCampos(seleccion.getColumnas(), "id", id);
+                if (!filas.isEmpty()) {
+                    return ResponseEntity.ok(pacienteParcial(filas.get(0), seleccion));
+                }
+                return pacienteNoEncontrado("No se encontró el paciente con ID: " + id);
+            }
+            
             Optional<Paciente> paciente = pacienteService.getPacienteById(id);
             
             if (paciente.isPresent()) {
                 EntityModel<Paciente> resource = EntityModel.of(paciente.get());
                 
-                resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(id)).withSelfRel());
+                resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(id, null)).withSelfRel());
                 
-                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
                 resource.add(linkTo(methodOn(PacienteController.class).updatePaciente(id, null)).withRel("actualizar-paciente"));
                 resource.add(linkTo(methodOn(PacienteController.class).deletePaciente(id)).withRel("eliminar-paciente"));
-                resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut(paciente.get().getRut())).withRel("paciente-rut"));
+                resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut(paciente.get().getRut(), null)).withRel("paciente-rut"));
+                resource.add(linkTo(methodOn(PacienteController.class).getHistoriaPaciente(id, null, 20)).withRel("historia"));
                 
                 return ResponseEntity.ok(resource);
             } else {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró el paciente con ID: " + id);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
                 errorResource.add(linkTo(methodOn(PacienteController.class).createPaciente(null)).withRel("crear-paciente"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
+        } catch (IllegalArgumentException e) {
+            return camposNoValidos(e);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al buscar el paciente: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -99,23 +187,23 @@ public class PacienteController {
             
             // Crear recurso con enlaces HATEOAS
             EntityModel<Paciente> resource = EntityModel.of(nuevoPaciente);
-            resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(nuevoPaciente.getId())).withSelfRel());
-            resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+            resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(nuevoPaciente.getId(), null)).withSelfRel());
+            resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
             resource.add(linkTo(methodOn(PacienteController.class).updatePaciente(nuevoPaciente.getId(), null)).withRel("actualizar-paciente"));
-            resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut(nuevoPaciente.getRut())).withRel("paciente-rut"));
+            resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut(nuevoPaciente.getRut(), null)).withRel("paciente-rut"));
             
             return ResponseEntity.status(HttpStatus.CREATED).body(resource);
         } catch (RuntimeException e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
             return ResponseEntity.badRequest().body(errorResource);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al crear el paciente: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -129,17 +217,17 @@ public class PacienteController {
             
             if (pacienteActualizado != null) {
                 EntityModel<Paciente> resource = EntityModel.of(pacienteActualizado);
-                resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(id)).withSelfRel());
-                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+                resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(id, null)).withSelfRel());
+                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
                 resource.add(linkTo(methodOn(PacienteController.class).deletePaciente(id)).withRel("eliminar-paciente"));
-                resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut(pacienteActualizado.getRut())).withRel("paciente-rut"));
+                resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut(pacienteActualizado.getRut(), null)).withRel("paciente-rut"));
                 
                 return ResponseEntity.ok(resource);
             } else {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró el paciente con ID: " + id);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
                 errorResource.add(linkTo(methodOn(PacienteController.class).createPaciente(null)).withRel("crear-paciente"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
@@ -147,7 +235,7 @@ public class PacienteController {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al actualizar el paciente: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -162,14 +250,14 @@ public class PacienteController {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "Paciente eliminado correctamente");
                 EntityModel<Map<String, String>> resource = EntityModel.of(response);
-                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
                 resource.add(linkTo(methodOn(PacienteController.class).createPaciente(null)).withRel("crear-paciente"));
                 return ResponseEntity.ok(resource);
             } else {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró el paciente con ID: " + id);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
                 errorResource.add(linkTo(methodOn(PacienteController.class).createPaciente(null)).withRel("crear-paciente"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
@@ -177,22 +265,32 @@ public class PacienteController {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al eliminar el paciente: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
     
     // GET - Buscar paciente por RUT 
     @GetMapping("/rut/{rut}")
-    public ResponseEntity<?> getPacienteByRut(@PathVariable String rut) {
+    public ResponseEntity<?> getPacienteByRut(@PathVariable String rut,
+                                              @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                FieldSelection seleccion = FieldSelection.parse(fields, CAMPOS, ATRIBUTO_POR_REL);
+                List<Map<String, Object>> filas = pacienteService.getCampos(seleccion.getColumnas(), "rut", rut);
+                if (!filas.isEmpty()) {
+                    return ResponseEntity.ok(pacienteParcial(filas.get(0), seleccion));
+                }
+                return pacienteNoEncontrado("No se encontró paciente con RUT: " + rut);
+            }
+            
             Optional<Paciente> paciente = pacienteService.getPacienteByRut(rut);
             
             if (paciente.isPresent()) {
                 EntityModel<Paciente> resource = EntityModel.of(paciente.get());
-                resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut(rut)).withSelfRel());
-                resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(paciente.get().getId())).withRel("paciente-id"));
-                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+                resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut(rut, null)).withSelfRel());
+                resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(paciente.get().getId(), null)).withRel("paciente-id"));
+                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
                 resource.add(linkTo(methodOn(PacienteController.class).updatePaciente(paciente.get().getId(), null)).withRel("actualizar-paciente"));
                 
                 return ResponseEntity.ok(resource);
@@ -200,15 +298,63 @@ public class PacienteController {
                 Map<String, String> response = new HashMap<>();
                 response.put("mensaje", "No se encontró paciente con RUT: " + rut);
                 EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
                 errorResource.add(linkTo(methodOn(PacienteController.class).createPaciente(null)).withRel("crear-paciente"));
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
             }
+        } catch (IllegalArgumentException e) {
+            return camposNoValidos(e);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al buscar paciente: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
+        }
+    }
+    
+    // GET - Historia clínica: paciente, atenciones (más recientes primero) y médicos en una sola respuesta
+    @GetMapping("/{id}/historia")
+    public ResponseEntity<?> getHistoriaPaciente(@PathVariable Long id,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int limite) {
+        try {
+            Optional<HistoriaClinica> historia = historiaClinicaService.getHistoria(id, cursor, limite);
+            
+            if (historia.isPresent()) {
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("paciente", historia.get().paciente());
+                response.put("atenciones", historia.get().atenciones());
+                response.put("medicos", historia.get().medicos());
+                response.put("siguienteCursor", historia.get().siguienteCursor());
+                
+                EntityModel<Map<String, Object>> resource = EntityModel.of(response);
+                resource.add(linkTo(methodOn(PacienteController.class).getHistoriaPaciente(id, cursor, limite)).withSelfRel());
+                if (historia.get().siguienteCursor() != null) {
+                    resource.add(linkTo(methodOn(PacienteController.class).getHistoriaPaciente(id, historia.get().siguienteCursor(), limite)).withRel("siguiente"));
+                }
+                resource.add(linkTo(methodOn(PacienteController.class).getPacienteById(id, null)).withRel("paciente"));
+                resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
+                
+                return ResponseEntity.ok(resource);
+            } else {
+                Map<String, String> response = new HashMap<>();
+                response.put("mensaje", "No se encontró el paciente con ID: " + id);
+                EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+                errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
+            }
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(linkTo(methodOn(PacienteController.class).getHistoriaPaciente(id, null, limite)).withRel("primera-pagina"));
+            return ResponseEntity.badRequest().body(errorResource);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error al obtener la historia del paciente: " + e.getMessage());
+            EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
@@ -236,7 +382,7 @@ public class PacienteController {
             
             EntityModel<Map<String, String>> resource = EntityModel.of(response);
             resource.add(linkTo(methodOn(PacienteController.class).cargarPacientesEjemplo()).withSelfRel());
-            resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("ver-pacientes"));
+            resource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("ver-pacientes"));
             resource.add(linkTo(methodOn(PacienteController.class).createPaciente(null)).withRel("crear-paciente"));
             
             return ResponseEntity.ok(resource);
@@ -245,8 +391,40 @@ public class PacienteController {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Error al cargar pacientes de ejemplo: " + e.getMessage());
             EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
-            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes()).withRel("todos-pacientes"));
+            errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResource);
         }
     }
-}
\ No newline at end of file
+    
+    // Paciente con solo los campos de ?fields= y solo los enlaces pedidos
+    private EntityModel<Map<String, Object>> pacienteParcial(Map<String, Object> fila, FieldSelection seleccion) {
+        EntityModel<Map<String, Object>> resource = EntityModel.of(seleccion.recortar(fila));
+        if (seleccion.incluyeRel("self")) {
+            resource.add(linkTo(methodOn(PacienteController.class).getPacienteById((Long) fila.get("id"), null)).withSelfRel());
+        }
+        if (seleccion.incluyeRel("paciente-rut")) {
+            resource.add(linkTo(methodOn(PacienteController.class).getPacienteByRut((String) fila.get("rut"), null)).withRel("paciente-rut"));
+        }
+        if (seleccion.incluyeRel("historia")) {
+            resource.add(linkTo(methodOn(PacienteController.class).getHistoriaPaciente((Long) fila.get("id"), null, 20)).withRel("historia"));
+        }
+        return resource;
+    }
+    
+    private ResponseEntity<?> pacienteNoEncontrado(String mensaje) {
+        Map<String, String> response = new HashMap<>();
+        response.put("mensaje", mensaje);
+        EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+        errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
+        errorResource.add(linkTo(methodOn(PacienteController.class).createPaciente(null)).withRel("crear-paciente"));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResource);
+    }
+    
+    private ResponseEntity<?> camposNoValidos(IllegalArgumentException e) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", e.getMessage());
+        EntityModel<Map<String, String>> errorResource = EntityModel.of(response);
+        errorResource.add(linkTo(methodOn(PacienteController.class).getAllPacientes(null)).withRel("todos-pacientes"));
+        return ResponseEntity.badRequest().body(errorResource);
+    }
+}
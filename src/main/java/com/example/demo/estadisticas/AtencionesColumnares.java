@@ -0,0 +1,343 @@
+package com.example.demo.estadisticas;
+
+import com.example.demo.colecciones.LongIntHashMap;
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.AtencionMedicaScan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// Modelo de lectura columnar de atenciones para estadísticas (atenciones.columnar.enabled): solo las
+// columnas estrechas, en arrays primitivos paralelos (ids, paciente, médico, fecha en segundos y estado
+// codificado en un byte). Un recorrido de un millón de filas toca ~33 MB contiguos en vez de un millón de
+// entidades. Las bajas dejan la fila marcada como borrada y se compacta cuando superan una cuarta parte.
+// Incluye las atenciones archivadas, igual que el rollup diario.
+public class AtencionesColumnares {
+
+    public record Filtro(LocalDateTime desde, LocalDateTime hasta, Long medicoId, String estado) {
+    }
+
+    public record Agregado(long total, Map<String, Long> porEstado, long[] porHora, long[][] porMedico) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(AtencionesColumnares.class);
+
+    private static final byte BORRADA = -1;
+    private static final int FILAS_POR_TAREA = 64 * 1024;
+    private static final int FILAS_MINIMAS_PARALELO = 200_000;
+    private static final long REINTENTO_INICIAL_MS = 5_000;
+    private static final long REINTENTO_MAXIMO_MS = 300_000;
+
+    private final AtencionMedicaScan atencionMedicaScan;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por lock
+    private long[] ids;
+    private long[] pacienteIds;
+    private long[] medicoIds;
+    private long[] fechas;
+    private byte[] estados;
+    private int filas;
+    private int borradas;
+    private final LongIntHashMap filaPorId;
+    private final List<String> diccionarioEstados = new ArrayList<>();
+
+    // Durante la carga, los cambios confirmados se acumulan aquí y se aplican después. null cuando ya cargó
+    // y también entre un intento fallido y el siguiente: el próximo recorrido ya incluye esos cambios
+    private List<AtencionMedicaModificadaEvent> pendientes = new ArrayList<>();
+    private volatile boolean cargado;
+
+    public AtencionesColumnares(AtencionMedicaScan atencionMedicaScan, int capacidadInicial) {
+        this.atencionMedicaScan = atencionMedicaScan;
+        int capacidad = Math.max(16, capacidadInicial);
+        this.ids = new long[capacidad];
+        this.pacienteIds = new long[capacidad];
+        this.medicoIds = new long[capacidad];
+        this.fechas = new long[capacidad];
+        this.estados = new byte[capacidad];
+        this.filaPorId = new LongIntHashMap(capacidad);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        Thread.ofVirtual().name("atenciones-columnares").start(this::cargarConReintentos);
+    }
+
+    // Mientras no carga, EstadisticasService sigue respondiendo desde la base de datos
+    private void cargarConReintentos() {
+        long espera = REINTENTO_INICIAL_MS;
+        while (!cargar()) {
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            espera = Math.min(espera * 2, REINTENTO_MAXIMO_MS);
+        }
+    }
+
+    boolean cargar() {
+        long inicio = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (pendientes == null) {
+                pendientes = new ArrayList<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            atencionMedicaScan.recorrerConArchivo((id, pacienteId, medicoId, fecha, estado) -> {
+                lock.writeLock().lock();
+                try {
+                    guardar(id, pacienteId, medicoId, fecha != null ? segundos(fecha.toLocalDateTime()) : 0, estado);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el almacén columnar de atenciones, se reintentará", e);
+            lock.writeLock().lock();
+            try {
+                pendientes = null;
+                filas = 0;
+                borradas = 0;
+                filaPorId.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return false;
+        }
+        // Los cambios recibidos durante la carga son posteriores a la lectura o la repiten: aplicarlos
+        // como upsert/baja deja cada fila en su último estado
+        lock.writeLock().lock();
+        try {
+            for (AtencionMedicaModificadaEvent evento : pendientes) {
+                aplicar(evento);
+            }
+            pendientes = null;
+            cargado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Almacén columnar de atenciones cargado: {} filas en {} ms", filas,
+                (System.nanoTime() - inicio) / 1_000_000);
+        return true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alModificar(AtencionMedicaModificadaEvent evento) {
+        lock.writeLock().lock();
+        try {
+            if (pendientes != null) {
+                pendientes.add(evento);
+            } else if (cargado) {
+                aplicar(evento);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    public int getFilas() {
+        lock.readLock().lock();
+        try {
+            return filas - borradas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Conteos por estado, por hora del día y por médico de las filas que cumplen el filtro.
+    // Por encima de FILAS_MINIMAS_PARALELO el recorrido se reparte en bloques en el pool común
+    public Agregado agregar(Filtro filtro) {
+        lock.readLock().lock();
+        try {
+            long desde = filtro.desde() != null ? segundos(filtro.desde()) : Long.MIN_VALUE;
+            long hasta = filtro.hasta() != null ? segundos(filtro.hasta()) : Long.MAX_VALUE;
+            long medico = filtro.medicoId() != null ? filtro.medicoId() : 0;
+            int estado = filtro.estado() != null ? diccionarioEstados.indexOf(filtro.estado()) : -2;
+            if (estado == -1) {
+                // Un estado que no aparece en ninguna fila
+                return resultado(new Parcial(diccionarioEstados.size()));
+            }
+
+            int bloques = (filas + FILAS_POR_TAREA - 1) / FILAS_POR_TAREA;
+            IntStream rango = IntStream.range(0, bloques);
+            if (filas >= FILAS_MINIMAS_PARALELO) {
+                rango = rango.parallel();
+            }
+            int estadosConocidos = diccionarioEstados.size();
+            Parcial total = rango
+                    .mapToObj(bloque -> recorrer(bloque * FILAS_POR_TAREA,
+                            Math.min(filas, (bloque + 1) * FILAS_POR_TAREA), desde, hasta, medico, estado,
+                            estadosConocidos))
+                    .reduce(Parcial::combinar)
+                    .orElseGet(() -> new Parcial(estadosConocidos));
+            return resultado(total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Parcial recorrer(int inicio, int fin, long desde, long hasta, long medico, int estado, int estadosConocidos) {
+        Parcial parcial = new Parcial(estadosConocidos);
+        for (int i = inicio; i < fin; i++) {
+            byte codigo = estados[i];
+            long fecha = fechas[i];
+            if (codigo == BORRADA || fecha < desde || fecha >= hasta
+                    || (medico != 0 && medicoIds[i] != medico) || (estado >= 0 && codigo != estado)) {
+                continue;
+            }
+            parcial.total++;
+            parcial.porEstado[codigo]++;
+            parcial.porHora[(int) (Math.floorMod(fecha, 86_400L) / 3_600)]++;
+            parcial.porMedico.addTo(medicoIds[i], 1);
+        }
+        return parcial;
+    }
+
+    private Agregado resultado(Parcial parcial) {
+        Map<String, Long> porEstado = new LinkedHashMap<>();
+        for (int i = 0; i < parcial.porEstado.length; i++) {
+            if (parcial.porEstado[i] > 0) {
+                porEstado.put(diccionarioEstados.get(i), parcial.porEstado[i]);
+            }
+        }
+        long[][] porMedico = new long[parcial.porMedico.size()][];
+        int[] posicion = {0};
+        parcial.porMedico.forEach((medico, cantidad) -> porMedico[posicion[0]++] = new long[] {medico, cantidad});
+        Arrays.sort(porMedico, (a, b) -> Long.compare(b[1], a[1]));
+        return new Agregado(parcial.total, porEstado, parcial.porHora, porMedico);
+    }
+
+    private static final class Parcial {
+
+        long total;
+        final long[] porEstado;
+        final long[] porHora = new long[24];
+        final LongIntHashMap porMedico = new LongIntHashMap(64);
+
+        Parcial(int estados) {
+            this.porEstado = new long[estados];
+        }
+
+        Parcial combinar(Parcial otro) {
+            total += otro.total;
+            for (int i = 0; i < porEstado.length; i++) {
+                porEstado[i] += otro.porEstado[i];
+            }
+            for (int i = 0; i < 24; i++) {
+                porHora[i] += otro.porHora[i];
+            }
+            otro.porMedico.forEach(porMedico::addTo);
+            return this;
+        }
+    }
+
+    // Bajo el write lock
+    private void aplicar(AtencionMedicaModificadaEvent evento) {
+        AtencionMedica actual = evento.getActual();
+        if (actual == null) {
+            borrar(evento.getId());
+            return;
+        }
+        guardar(actual.getId(), actual.getPacienteId() != null ? actual.getPacienteId() : 0,
+                actual.getMedicoId() != null ? actual.getMedicoId() : 0,
+                actual.getFechaAtencion() != null ? segundos(actual.getFechaAtencion()) : 0, actual.getEstado());
+    }
+
+    private void guardar(long id, long pacienteId, long medicoId, long fecha, String estado) {
+        int fila = filaPorId.get(id, -1);
+        if (fila < 0) {
+            if (filas == ids.length) {
+                crecer();
+            }
+            fila = filas++;
+            filaPorId.put(id, fila);
+            ids[fila] = id;
+        }
+        pacienteIds[fila] = pacienteId;
+        medicoIds[fila] = medicoId;
+        fechas[fila] = fecha;
+        estados[fila] = codificar(estado);
+    }
+
+    private void borrar(long id) {
+        int fila = filaPorId.get(id, -1);
+        if (fila < 0) {
+            return;
+        }
+        filaPorId.remove(id);
+        estados[fila] = BORRADA;
+        if (++borradas > filas / 4 && borradas > 1024) {
+            compactar();
+        }
+    }
+
+    private void compactar() {
+        int destino = 0;
+        filaPorId.clear();
+        for (int i = 0; i < filas; i++) {
+            if (estados[i] == BORRADA) {
+                continue;
+            }
+            ids[destino] = ids[i];
+            pacienteIds[destino] = pacienteIds[i];
+            medicoIds[destino] = medicoIds[i];
+            fechas[destino] = fechas[i];
+            estados[destino] = estados[i];
+            filaPorId.put(ids[destino], destino);
+            destino++;
+        }
+        filas = destino;
+        borradas = 0;
+    }
+
+    private void crecer() {
+        int capacidad = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacidad);
+        pacienteIds = Arrays.copyOf(pacienteIds, capacidad);
+        medicoIds = Arrays.copyOf(medicoIds, capacidad);
+        fechas = Arrays.copyOf(fechas, capacidad);
+        estados = Arrays.copyOf(estados, capacidad);
+    }
+
+    // Pocos valores distintos (Programada, Realizada, Cancelada): el código es la posición en el diccionario
+    private byte codificar(String estado) {
+        String valor = estado != null ? estado : "";
+        int codigo = diccionarioEstados.indexOf(valor);
+        if (codigo < 0) {
+            if (diccionarioEstados.size() == Byte.MAX_VALUE) {
+                throw new IllegalStateException("Demasiados estados distintos para el almacén columnar");
+            }
+            diccionarioEstados.add(valor);
+            codigo = diccionarioEstados.size() - 1;
+        }
+        return (byte) codigo;
+    }
+
+    // Hora local de la atención tal cual, codificada como si fuera UTC: la hora del día sale de los segundos
+    private static long segundos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC);
+    }
+}
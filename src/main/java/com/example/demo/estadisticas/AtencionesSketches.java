@@ -0,0 +1,124 @@
+package com.example.demo.estadisticas;
+
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.event.TipoCambio;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.AtencionMedicaScan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Estadísticas aproximadas en memoria: un HyperLogLog de pacientes distintos por médico y un Space-Saving
+// de atenciones por médico para el mes en curso (por fecha de atención). Las atenciones programadas para
+// los meses siguientes se cuentan ya en el Space-Saving de su mes, que pasa a ser el vigente al cambiar de
+// mes; las de más allá de meses-adelantados no llegan a contarse. Se reconstruyen recorriendo
+// atenciones_medicas y el archivo al arrancar y después se alimentan de las escrituras confirmadas.
+// Ninguno de los dos admite bajas: las atenciones eliminadas siguen contando, y un cambio de médico o
+// paciente cuenta la nueva combinación sin descontar la anterior.
+@Component
+public class AtencionesSketches {
+
+    private static final Logger log = LoggerFactory.getLogger(AtencionesSketches.class);
+
+    @Autowired
+    private AtencionMedicaScan atencionMedicaScan;
+
+    @Value("${atenciones.sketches.precision-hll:12}")
+    private int precisionHll;
+
+    @Value("${atenciones.sketches.contadores-top:100}")
+    private int contadoresTop;
+
+    @Value("${atenciones.sketches.meses-adelantados:24}")
+    private int mesesAdelantados;
+
+    private final Map<Long, HyperLogLog> pacientesPorMedico = new ConcurrentHashMap<>();
+    private final Map<YearMonth, SpaceSaving> medicosPorMes = new ConcurrentHashMap<>();
+    private volatile boolean cargando = true;
+
+    // En un hilo aparte para no retrasar el arranque; mientras tanto las respuestas indican cargando=true.
+    // Las escrituras que llegan durante el recorrido se aplican igual: el HyperLogLog es idempotente y en
+    // el top-K a lo sumo se cuentan dos veces las pocas altas de esos segundos.
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        Thread.ofVirtual().name("atenciones-sketches").start(() -> {
+            long inicio = System.nanoTime();
+            try {
+                atencionMedicaScan.recorrerConArchivo((id, pacienteId, medicoId, fecha, estado) ->
+                        agregar(pacienteId, medicoId, fecha != null ? fecha.toLocalDateTime() : null));
+                log.info("Sketches de atenciones reconstruidos en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron reconstruir los sketches de atenciones", e);
+            } finally {
+                cargando = false;
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alModificar(AtencionMedicaModificadaEvent evento) {
+        AtencionMedica actual = evento.getActual();
+        if (actual == null || actual.getPacienteId() == null || actual.getMedicoId() == null) {
+            return;
+        }
+        AtencionMedica anterior = evento.getAnterior();
+        if (evento.getTipo() == TipoCambio.ACTUALIZADO && anterior != null
+                && actual.getMedicoId().equals(anterior.getMedicoId())
+                && actual.getPacienteId().equals(anterior.getPacienteId())) {
+            return;
+        }
+        agregar(actual.getPacienteId(), actual.getMedicoId(), actual.getFechaAtencion());
+    }
+
+    void agregar(long pacienteId, long medicoId, LocalDateTime fecha) {
+        agregar(pacienteId, medicoId, fecha, YearMonth.now());
+    }
+
+    void agregar(long pacienteId, long medicoId, LocalDateTime fecha, YearMonth hoy) {
+        pacientesPorMedico.computeIfAbsent(medicoId, m -> new HyperLogLog(precisionHll)).agregar(pacienteId);
+        if (fecha == null) {
+            return;
+        }
+        YearMonth mes = YearMonth.from(fecha);
+        if (!mes.isBefore(hoy) && !mes.isAfter(hoy.plusMonths(mesesAdelantados))) {
+            medicosPorMes.computeIfAbsent(mes, m -> new SpaceSaving(contadoresTop)).agregar(medicoId);
+        }
+    }
+
+    // Al cambiar de mes se descartan los meses pasados y el del mes nuevo ya trae sus atenciones programadas
+    SpaceSaving topMedicos(YearMonth hoy) {
+        medicosPorMes.keySet().removeIf(mes -> mes.isBefore(hoy));
+        return medicosPorMes.computeIfAbsent(hoy, m -> new SpaceSaving(contadoresTop));
+    }
+
+    public HyperLogLog getPacientesDistintos(long medicoId) {
+        return pacientesPorMedico.get(medicoId);
+    }
+
+    public Map<Long, HyperLogLog> getPacientesDistintosPorMedico() {
+        return pacientesPorMedico;
+    }
+
+    public YearMonth getMes() {
+        return YearMonth.now();
+    }
+
+    public SpaceSaving getTopMedicosMes() {
+        return topMedicos(YearMonth.now());
+    }
+
+    public boolean isCargando() {
+        return cargando;
+    }
+}
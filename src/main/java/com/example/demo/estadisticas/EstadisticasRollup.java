@@ -0,0 +1,75 @@
+package com.example.demo.estadisticas;
+
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.EstadisticasDiariasQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Mantiene estadisticas_diarias: cada alta, cambio o baja de una atención suma o resta 1 en su
+// (día, médico, estado) dentro de la misma transacción. El recálculo periódico rehace una ventana de días
+// alrededor de hoy para corregir lo que no pasó por el servicio (cargas masivas, cambios a mano en la base)
+// y, la primera vez, construye la tabla completa.
+@Component
+public class EstadisticasRollup {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasRollup.class);
+
+    @Autowired
+    private EstadisticasDiariasQueries estadisticasDiariasQueries;
+
+    @Value("${atenciones.rollup.ventana-dias:7}")
+    private int ventanaDias;
+
+    @EventListener
+    public void alModificar(AtencionMedicaModificadaEvent evento) {
+        AtencionMedica anterior = evento.getAnterior();
+        AtencionMedica actual = evento.getActual();
+        if (anterior != null && actual != null && mismaCelda(anterior, actual)) {
+            return;
+        }
+        if (anterior != null) {
+            sumar(anterior, -1);
+        }
+        if (actual != null) {
+            sumar(actual, 1);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${atenciones.rollup.recalculo-inicial-ms:10000}",
+               fixedDelayString = "${atenciones.rollup.recalculo-ms:3600000}")
+    @Transactional
+    public void recalcular() {
+        if (estadisticasDiariasQueries.estaVacia()) {
+            log.info("Tabla estadisticas_diarias vacía: se construye desde atenciones_medicas");
+            estadisticasDiariasQueries.recalcularTodo();
+            return;
+        }
+        LocalDate hoy = LocalDate.now();
+        estadisticasDiariasQueries.recalcular(hoy.minusDays(ventanaDias), hoy.plusDays(ventanaDias + 1L));
+    }
+
+    private void sumar(AtencionMedica atencion, long delta) {
+        if (atencion.getFechaAtencion() == null || atencion.getMedicoId() == null || atencion.getEstado() == null) {
+            return;
+        }
+        estadisticasDiariasQueries.sumar(atencion.getFechaAtencion().toLocalDate(), atencion.getMedicoId(),
+                atencion.getEstado(), delta);
+    }
+
+    private static boolean mismaCelda(AtencionMedica anterior, AtencionMedica actual) {
+        return Objects.equals(anterior.getMedicoId(), actual.getMedicoId())
+                && Objects.equals(anterior.getEstado(), actual.getEstado())
+                && anterior.getFechaAtencion() != null && actual.getFechaAtencion() != null
+                && anterior.getFechaAtencion().toLocalDate().equals(actual.getFechaAtencion().toLocalDate());
+    }
+}
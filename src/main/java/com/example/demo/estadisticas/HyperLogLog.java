@@ -0,0 +1,62 @@
+package com.example.demo.estadisticas;
+
+// Cardinalidad aproximada de un conjunto de longs con 2^precision registros de un byte.
+// Error estándar relativo 1.04 / sqrt(2^precision): con precisión 12 (4 KB) ~1.6 %.
+// Solo admite altas: no se puede quitar un elemento.
+public class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registros;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("La precisión debe estar entre 4 y 18");
+        }
+        this.precision = precision;
+        this.registros = new byte[1 << precision];
+    }
+
+    public synchronized void agregar(long valor) {
+        long hash = mezclar(valor);
+        int indice = (int) (hash >>> (64 - precision));
+        // El bit centinela acota el rango a 64 - precision + 1
+        long resto = (hash << precision) | (1L << (precision - 1));
+        byte rango = (byte) (Long.numberOfLeadingZeros(resto) + 1);
+        if (rango > registros[indice]) {
+            registros[indice] = rango;
+        }
+    }
+
+    public synchronized long estimar() {
+        int m = registros.length;
+        double suma = 0;
+        int ceros = 0;
+        for (byte registro : registros) {
+            suma += 1.0 / (1L << registro);
+            if (registro == 0) {
+                ceros++;
+            }
+        }
+        double alfa = 0.7213 / (1 + 1.079 / m);
+        double estimacion = alfa * m * m / suma;
+        // Corrección para cardinalidades pequeñas (conteo lineal)
+        if (estimacion <= 2.5 * m && ceros > 0) {
+            estimacion = m * Math.log((double) m / ceros);
+        }
+        return Math.round(estimacion);
+    }
+
+    public double getErrorEstandar() {
+        return 1.04 / Math.sqrt(registros.length);
+    }
+
+    // Finalizador de MurmurHash3 (fmix64): reparte ids consecutivos por todo el rango de 64 bits
+    static long mezclar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xff51afd7ed558ccdL;
+        valor ^= valor >>> 33;
+        valor *= 0xc4ceb9fe1a85ec53L;
+        valor ^= valor >>> 33;
+        return valor;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.estadisticas;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Top-K aproximado (Space-Saving, Metwally et al.) con un número fijo de contadores. Cada contador guarda
+// además su error máximo: la frecuencia real está en [cantidad - error, cantidad], y todo elemento con
+// frecuencia real mayor que total / capacidad está garantizado entre los contadores.
+public class SpaceSaving {
+
+    public record Elemento(long clave, long cantidad, long error) {
+    }
+
+    private final int capacidad;
+    private final Map<Long, long[]> contadores;
+    private long total;
+
+    public SpaceSaving(int capacidad) {
+        this.capacidad = capacidad;
+        this.contadores = new HashMap<>(capacidad * 2);
+    }
+
+    public synchronized void agregar(long clave) {
+        total++;
+        long[] contador = contadores.get(clave);
+        if (contador != null) {
+            contador[0]++;
+            return;
+        }
+        if (contadores.size() < capacidad) {
+            contadores.put(clave, new long[] {1, 0});
+            return;
+        }
+        // Se reemplaza el contador mínimo: el nuevo hereda su cantidad como error
+        Long claveMinima = null;
+        long minimo = Long.MAX_VALUE;
+        for (Map.Entry<Long, long[]> entrada : contadores.entrySet()) {
+            if (entrada.getValue()[0] < minimo) {
+                minimo = entrada.getValue()[0];
+                claveMinima = entrada.getKey();
+            }
+        }
+        contadores.remove(claveMinima);
+        contadores.put(clave, new long[] {minimo + 1, minimo});
+    }
+
+    public synchronized List<Elemento> top(int k) {
+        List<Elemento> elementos = new ArrayList<>(contadores.size());
+        contadores.forEach((clave, contador) -> elementos.add(new Elemento(clave, contador[0], contador[1])));
+        elementos.sort((a, b) -> Long.compare(b.cantidad(), a.cantidad()));
+        return elementos.size() > k ? new ArrayList<>(elementos.subList(0, k)) : elementos;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    // Cota del error de cualquier contador: total / capacidad
+    public synchronized long getErrorMaximo() {
+        return total / capacidad;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.event;
+
+import com.example.demo.model.AtencionMedica;
+
+import java.util.Objects;
+
+// Incluye copias del estado anterior y actual (null en creación/eliminación respectivamente)
+public class AtencionMedicaModificadaEvent extends EntidadModificadaEvent {
+
+    private final AtencionMedica anterior;
+    private final AtencionMedica actual;
+
+    public AtencionMedicaModificadaEvent(Long id, TipoCambio tipo, AtencionMedica anterior, AtencionMedica actual) {
+        super(Tabla.ATENCIONES_MEDICAS, id, tipo);
+        this.anterior = anterior;
+        this.actual = actual;
+    }
+
+    public AtencionMedica getAnterior() {
+        return anterior;
+    }
+
+    public AtencionMedica getActual() {
+        return actual;
+    }
+
+    public boolean isCambioEstado() {
+        return anterior != null && actual != null && !Objects.equals(anterior.getEstado(), actual.getEstado());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.event;
+
+// Se publica desde los servicios dentro de la transacción de escritura, antes del commit.
+// id == null: cambio de muchas filas a la vez (archivado por trozos)
+public class EntidadModificadaEvent {
+
+    private final Tabla tabla;
+    private final Long id;
+    private final TipoCambio tipo;
+
+    public EntidadModificadaEvent(Tabla tabla, Long id, TipoCambio tipo) {
+        this.tabla = tabla;
+        this.id = id;
+        this.tipo = tipo;
+    }
+
+    public Tabla getTabla() {
+        return tabla;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public TipoCambio getTipo() {
+        return tipo;
+    }
+
+    @Override
+    public String toString() {
+        return "EntidadModificadaEvent{tabla=" + tabla + ", id=" + id + ", tipo=" + tipo + "}";
+    }
+}
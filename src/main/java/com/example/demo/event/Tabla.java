@@ -0,0 +1,7 @@
+package com.example.demo.event;
+
+public enum Tabla {
+    PACIENTES,
+    MEDICOS,
+    ATENCIONES_MEDICAS
+}
@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+public enum TipoCambio {
+    CREADO,
+    ACTUALIZADO,
+    ELIMINADO,
+    // Filas movidas en bloque a atenciones_medicas_archivo o a los ficheros de segmento
+    ARCHIVADO
+}
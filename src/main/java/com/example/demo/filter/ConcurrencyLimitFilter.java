@@ -0,0 +1,71 @@
+package com.example.demo.filter;
+
+import com.example.demo.concurrency.AdaptiveConcurrencyLimiter;
+import com.example.demo.concurrency.AdaptiveConcurrencyLimiter.Prioridad;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] CUERPO_RECHAZO =
+            "{\"error\":\"Servicio sobrecargado, intente nuevamente en unos segundos\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final String retryAfterSegundos;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, long retryAfterSegundos) {
+        this.limiter = limiter;
+        this.retryAfterSegundos = Long.toString(retryAfterSegundos);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Prioridad prioridad = clasificar(request);
+        if (!limiter.intentarAdquirir(prioridad)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSegundos);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(CUERPO_RECHAZO);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        boolean muestraValida = false;
+        try {
+            chain.doFilter(request, response);
+            muestraValida = !request.isAsyncStarted() && response.getStatus() < 500;
+        } finally {
+            limiter.liberar(System.nanoTime() - inicio, muestraValida);
+        }
+    }
+
+    static Prioridad clasificar(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return Prioridad.ESCRITURA;
+        }
+
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        if (ruta.endsWith("/")) {
+            ruta = ruta.substring(0, ruta.length() - 1);
+        }
+        if (ruta.equals("/atenciones-medicas") || ruta.equals("/pacientes") || ruta.equals("/medicos")
+                || ruta.startsWith("/atenciones-medicas/estadisticas")
+                || ruta.startsWith("/atenciones-medicas/paciente/")
+                || ruta.startsWith("/atenciones-medicas/medico/")
+                || ruta.startsWith("/atenciones-medicas/estado/")) {
+            return Prioridad.LECTURA_MASIVA;
+        }
+        return Prioridad.LECTURA;
+    }
+}
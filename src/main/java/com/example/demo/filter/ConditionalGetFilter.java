@@ -0,0 +1,132 @@
+package com.example.demo.filter;
+
+import com.example.demo.cache.VersionesTabla;
+import com.example.demo.event.Tabla;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Objects;
+
+// ETag fuerte calculado a partir de los contadores de cambio de las tablas que usa la ruta.
+// Si coincide con If-None-Match se responde 304 sin llegar al controlador ni a la base de datos.
+// Los contadores y la época son de esta JVM: con varias instancias tras un balanceador cada una da
+// ETags distintos y no ve las escrituras de las demás, así que solo debe activarse con una instancia.
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+    private static final Tabla[] TODAS = Tabla.values();
+
+    private final VersionesTabla versiones;
+    private final String cacheControl;
+
+    public ConditionalGetFilter(VersionesTabla versiones, String cacheControl) {
+        this.versiones = versiones;
+        this.cacheControl = cacheControl;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Tabla[] tablas = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())
+                ? tablas(request) : null;
+        if (tablas == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String etag = calcularEtag(tablas, request);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (coincide(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        chain.doFilter(request, new SinValidadoresEnError(response));
+    }
+
+    // Tablas cuyo contenido aparece en la respuesta; null si la ruta no admite GET condicional
+    static Tabla[] tablas(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        if (ruta.startsWith("/pacientes")) {
+            return ruta.endsWith("/historia") ? TODAS : new Tabla[] {Tabla.PACIENTES};
+        }
+        if (ruta.startsWith("/medicos")) {
+            return new Tabla[] {Tabla.MEDICOS};
+        }
+        // Las estadísticas cambian sin pasar por los contadores (recálculo del rollup, carga de los
+        // sketches y del almacén columnar, cambio de mes), así que siempre van al controlador
+        if (ruta.equals("/atenciones-medicas/stream") || ruta.startsWith("/atenciones-medicas/estadisticas")) {
+            return null;
+        }
+        if (ruta.startsWith("/atenciones-medicas")) {
+            return request.getParameter("embed") != null ? TODAS : new Tabla[] {Tabla.ATENCIONES_MEDICAS};
+        }
+        return null;
+    }
+
+    private String calcularEtag(Tabla[] tablas, HttpServletRequest request) {
+        StringBuilder etag = new StringBuilder(48).append('"').append(Long.toHexString(versiones.getEpoca()));
+        for (Tabla tabla : tablas) {
+            etag.append('-').append(Long.toHexString(versiones.getVersion(tabla)));
+        }
+        // La misma ruta con otros parámetros u otro Accept es otra representación
+        int variante = Objects.hash(request.getQueryString(), request.getHeader(HttpHeaders.ACCEPT));
+        return etag.append('-').append(Integer.toHexString(variante)).append('"').toString();
+    }
+
+    // If-None-Match: * no cuenta: depende de que el recurso exista y eso solo lo sabe el controlador
+    static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Los errores no deben quedar asociados a un ETag válido ni cachearse
+    private static class SinValidadoresEnError extends HttpServletResponseWrapper {
+
+        SinValidadoresEnError(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            if (sc >= 300) {
+                quitarValidadores();
+            }
+            super.setStatus(sc);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            quitarValidadores();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            quitarValidadores();
+            super.sendError(sc, msg);
+        }
+
+        private void quitarValidadores() {
+            setHeader(HttpHeaders.ETAG, null);
+            setHeader(HttpHeaders.CACHE_CONTROL, null);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.demo.filter;
+
+import com.example.demo.idempotencia.IdempotencyStore;
+import com.example.demo.idempotencia.RespuestaIdempotente;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// POST con cabecera Idempotency-Key: la primera petición se ejecuta y su respuesta queda guardada; los
+// reintentos con la misma clave y el mismo cuerpo reciben esa respuesta sin pasar por el controlador.
+// La clave se aplica por ruta, así que la misma clave en /pacientes y en /medicos son operaciones distintas.
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final int LARGO_MAXIMO_CLAVE = 255;
+
+    private static final byte[] CUERPO_CLAVE_INVALIDA =
+            ("{\"error\":\"La cabecera " + CABECERA + " debe tener entre 1 y " + LARGO_MAXIMO_CLAVE + " caracteres\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] CUERPO_EN_CURSO =
+            "{\"error\":\"Ya hay una petición en curso con esta Idempotency-Key, intente nuevamente en unos segundos\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] CUERPO_REUTILIZADA =
+            "{\"error\":\"La Idempotency-Key ya se usó con una petición distinta\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final IdempotencyStore store;
+
+    public IdempotencyKeyFilter(IdempotencyStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String valor = request.getHeader(CABECERA);
+        if (!"POST".equals(request.getMethod()) || valor == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (valor.isBlank() || valor.length() > LARGO_MAXIMO_CLAVE) {
+            rechazar(response, HttpStatus.BAD_REQUEST, CUERPO_CLAVE_INVALIDA);
+            return;
+        }
+
+        byte[] cuerpo = request.getInputStream().readAllBytes();
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        String clave = ruta + ' ' + valor;
+        String huella = huella(ruta, request.getContentType(), cuerpo);
+
+        if (!store.reservar(clave, huella)) {
+            responderGuardada(store.obtener(clave), huella, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper capturada = new ContentCachingResponseWrapper(response);
+        boolean guardada = false;
+        try {
+            chain.doFilter(new CuerpoLeido(request, cuerpo), capturada);
+            int status = capturada.getStatus();
+            if (esDefinitiva(status) && !request.isAsyncStarted()) {
+                store.guardar(clave, new RespuestaIdempotente(huella, status, capturada.getContentType(),
+                        capturada.getContentAsByteArray()));
+                guardada = true;
+            }
+        } finally {
+            if (!guardada) {
+                store.liberar(clave);
+            }
+            capturada.copyBodyToResponse();
+        }
+    }
+
+    private void responderGuardada(RespuestaIdempotente previa, String huella, HttpServletResponse response)
+            throws IOException {
+        // null: la reserva de la otra petición acaba de expirar o liberarse; el cliente puede reintentar
+        if (previa == null || previa.enCurso()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            rechazar(response, HttpStatus.CONFLICT, CUERPO_EN_CURSO);
+            return;
+        }
+        if (!previa.huella().equals(huella)) {
+            rechazar(response, HttpStatus.UNPROCESSABLE_ENTITY, CUERPO_REUTILIZADA);
+            return;
+        }
+        response.setStatus(previa.status());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (previa.contentType() != null) {
+            response.setContentType(previa.contentType());
+        }
+        byte[] cuerpo = previa.cuerpo() != null ? previa.cuerpo() : new byte[0];
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    // Los 5xx, 408 y 429 dependen del momento: el reintento debe volver a ejecutarse
+    static boolean esDefinitiva(int status) {
+        return status < 500 && status != HttpStatus.REQUEST_TIMEOUT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    static String huella(String ruta, String contentType, byte[] cuerpo) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(ruta.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            if (contentType != null) {
+                sha.update(contentType.getBytes(StandardCharsets.UTF_8));
+            }
+            sha.update((byte) 0);
+            sha.update(cuerpo);
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void rechazar(HttpServletResponse response, HttpStatus status, byte[] cuerpo) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    // El cuerpo ya se leyó para calcular la huella: el controlador lo vuelve a leer desde memoria
+    private static class CuerpoLeido extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        CuerpoLeido(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                private ReadListener oyente;
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Lectura asíncrona sobre el cuerpo en memoria: todo está disponible desde el principio, así
+                // que se avisa una vez de que hay datos y, si el oyente lo leyó entero, del final
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (listener == null) {
+                        throw new NullPointerException("ReadListener nulo");
+                    }
+                    if (oyente != null) {
+                        throw new IllegalStateException("Ya hay un ReadListener");
+                    }
+                    oyente = listener;
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (Throwable t) {
+                        listener.onError(t);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+    }
+}
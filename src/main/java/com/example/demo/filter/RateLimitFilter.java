@@ -0,0 +1,78 @@
+package com.example.demo.filter;
+
+import com.example.demo.concurrency.RateLimiter;
+import com.example.demo.event.Tabla;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Cuota por cliente y controlador. El cliente es la IP remota o, si se configuró una cabecera de confianza
+// (la que pone el gateway con el id de la integración), el valor de esa cabecera.
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int LARGO_MAXIMO_CLIENTE = 128;
+
+    private static final byte[] CUERPO_RECHAZO =
+            "{\"error\":\"Demasiadas peticiones, intente nuevamente más tarde\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter limiter;
+    private final String cabeceraCliente;
+
+    public RateLimitFilter(RateLimiter limiter, String cabeceraCliente) {
+        this.limiter = limiter;
+        this.cabeceraCliente = cabeceraCliente == null || cabeceraCliente.isBlank() ? null : cabeceraCliente;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Tabla tabla = tabla(request.getRequestURI().substring(request.getContextPath().length()));
+        if (tabla == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long esperaNanos = limiter.intentar(tabla, cliente(request));
+        if (esperaNanos > 0) {
+            long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(CUERPO_RECHAZO);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String cliente(HttpServletRequest request) {
+        if (cabeceraCliente != null) {
+            String valor = request.getHeader(cabeceraCliente);
+            if (valor != null && !valor.isEmpty() && valor.length() <= LARGO_MAXIMO_CLIENTE) {
+                return valor;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    static Tabla tabla(String ruta) {
+        if (ruta.startsWith("/atenciones-medicas")) {
+            return Tabla.ATENCIONES_MEDICAS;
+        }
+        if (ruta.startsWith("/pacientes")) {
+            return Tabla.PACIENTES;
+        }
+        if (ruta.startsWith("/medicos")) {
+            return Tabla.MEDICOS;
+        }
+        return null;
+    }
+}
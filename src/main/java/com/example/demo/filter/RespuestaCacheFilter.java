@@ -0,0 +1,111 @@
+package com.example.demo.filter;
+
+import com.example.demo.cache.RespuestaCache;
+import com.example.demo.cache.RespuestaCache.Clave;
+import com.example.demo.cache.RespuestaCache.Respuesta;
+import com.example.demo.cache.VersionesTabla;
+import com.example.demo.event.Tabla;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+// Sirve los GET de detalle (/medicos/{id}, ...) y los listados sin parámetros (/medicos, ...) desde bytes
+// ya serializados. En un fallo captura el cuerpo generado por el controlador y lo guarda para la siguiente vez.
+public class RespuestaCacheFilter extends OncePerRequestFilter {
+
+    private final RespuestaCache cache;
+    private final VersionesTabla versiones;
+    private final int maximoBytesEntrada;
+
+    public RespuestaCacheFilter(RespuestaCache cache, VersionesTabla versiones, int maximoBytesEntrada) {
+        this.cache = cache;
+        this.versiones = versiones;
+        this.maximoBytesEntrada = maximoBytesEntrada;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Clave clave = "GET".equals(request.getMethod()) && request.getQueryString() == null ? clave(request) : null;
+        if (clave == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Respuesta guardada = cache.obtener(clave);
+        if (guardada != null) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(guardada.contentType());
+            response.setContentLength(guardada.cuerpo().length);
+            response.getOutputStream().write(guardada.cuerpo());
+            return;
+        }
+
+        long versionLeida = versiones.getVersion(clave.tabla());
+        ContentCachingResponseWrapper capturada = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, capturada);
+            if (capturada.getStatus() == HttpStatus.OK.value() && !request.isAsyncStarted()
+                    && capturada.getContentSize() <= maximoBytesEntrada && capturada.getContentType() != null) {
+                cache.guardar(clave, new Respuesta(capturada.getContentAsByteArray(), capturada.getContentType()),
+                        versionLeida);
+            }
+        } finally {
+            capturada.copyBodyToResponse();
+        }
+    }
+
+    static Clave clave(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        if (ruta.endsWith("/")) {
+            ruta = ruta.substring(0, ruta.length() - 1);
+        }
+        String variante = variante(request);
+        for (Tabla tabla : Tabla.values()) {
+            String base = ruta(tabla);
+            if (ruta.equals(base)) {
+                return new Clave(tabla, null, variante);
+            }
+            if (ruta.startsWith(base + "/")) {
+                String resto = ruta.substring(base.length() + 1);
+                return esNumero(resto) ? new Clave(tabla, Long.valueOf(resto), variante) : null;
+            }
+        }
+        return null;
+    }
+
+    // Los enlaces HATEOAS son absolutos: el mismo recurso pedido con otro host o proxy genera otros bytes
+    private static String variante(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.ACCEPT) + '|' + request.getHeader(HttpHeaders.HOST)
+                + '|' + request.getHeader("Forwarded") + '|' + request.getHeader("X-Forwarded-Host")
+                + '|' + request.getHeader("X-Forwarded-Proto") + '|' + request.getHeader("X-Forwarded-Port")
+                + '|' + request.getHeader("X-Forwarded-Prefix");
+    }
+
+    private static String ruta(Tabla tabla) {
+        return switch (tabla) {
+            case PACIENTES -> "/pacientes";
+            case MEDICOS -> "/medicos";
+            case ATENCIONES_MEDICAS -> "/atenciones-medicas";
+        };
+    }
+
+    private static boolean esNumero(String valor) {
+        if (valor.isEmpty() || valor.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            if (!Character.isDigit(valor.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
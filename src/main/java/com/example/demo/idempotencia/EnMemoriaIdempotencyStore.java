@@ -0,0 +1,79 @@
+package com.example.demo.idempotencia;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Claves en memoria con TTL, acotadas por número de entradas (se descartan las más antiguas).
+// Sirve para una sola instancia; con varias instancias detrás de un balanceador usar JdbcIdempotencyStore.
+public class EnMemoriaIdempotencyStore implements IdempotencyStore {
+
+    private record Entrada(RespuestaIdempotente respuesta, long expiraEn) {
+    }
+
+    private final long ttlNanos;
+    private final long ttlReservaNanos;
+    private final int maximoEntradas;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+
+    public EnMemoriaIdempotencyStore(long ttlNanos, long ttlReservaNanos, int maximoEntradas) {
+        this.ttlNanos = ttlNanos;
+        this.ttlReservaNanos = ttlReservaNanos;
+        this.maximoEntradas = maximoEntradas;
+    }
+
+    @Override
+    public synchronized RespuestaIdempotente obtener(String clave) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expiraEn() - System.nanoTime() < 0) {
+            entradas.remove(clave);
+            return null;
+        }
+        return entrada.respuesta();
+    }
+
+    @Override
+    public synchronized boolean reservar(String clave, String huella) {
+        if (obtener(clave) != null) {
+            return false;
+        }
+        purgar();
+        entradas.put(clave, new Entrada(new RespuestaIdempotente(huella, 0, null, null),
+                System.nanoTime() + ttlReservaNanos));
+        return true;
+    }
+
+    @Override
+    public synchronized void guardar(String clave, RespuestaIdempotente respuesta) {
+        // remove + put para que quede al final del orden de inserción
+        entradas.remove(clave);
+        entradas.put(clave, new Entrada(respuesta, System.nanoTime() + ttlNanos));
+    }
+
+    @Override
+    public synchronized void liberar(String clave) {
+        entradas.remove(clave);
+    }
+
+    // El orden de inserción es casi el de expiración: basta mirar el principio del mapa.
+    // Lo que se escape aquí lo descarta obtener() al leerlo.
+    private void purgar() {
+        long ahora = System.nanoTime();
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Entrada entrada = it.next().getValue();
+            if (entradas.size() >= maximoEntradas || entrada.expiraEn() - ahora < 0) {
+                it.remove();
+            } else {
+                break;
+            }
+        }
+    }
+
+    public synchronized int getEntradas() {
+        return entradas.size();
+    }
+}
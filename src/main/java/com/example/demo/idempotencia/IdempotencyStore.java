@@ -0,0 +1,17 @@
+package com.example.demo.idempotencia;
+
+// Almacén de claves de idempotencia. reservar es atómico: de dos peticiones simultáneas con la misma
+// clave solo una ejecuta la escritura.
+public interface IdempotencyStore {
+
+    // null si la clave no existe o ya expiró
+    RespuestaIdempotente obtener(String clave);
+
+    // false si la clave ya estaba reservada o guardada
+    boolean reservar(String clave, String huella);
+
+    void guardar(String clave, RespuestaIdempotente respuesta);
+
+    // La petición falló sin un resultado definitivo: el cliente puede reintentar con la misma clave
+    void liberar(String clave);
+}
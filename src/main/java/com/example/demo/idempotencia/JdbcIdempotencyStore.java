@@ -0,0 +1,92 @@
+package com.example.demo.idempotencia;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Claves compartidas entre instancias en la tabla idempotencia_claves. La clave primaria hace atómica la
+// reserva: de dos INSERT simultáneos solo uno gana. Cada operación se confirma sola (fuera de la transacción
+// del controlador), así que la reserva es visible para las demás instancias antes de ejecutar la escritura.
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final String OBTENER =
+            "SELECT huella, status, content_type, cuerpo FROM idempotencia_claves WHERE clave = ? AND expira_en > ?";
+
+    private static final String RESERVAR =
+            "INSERT INTO idempotencia_claves (clave, huella, status, expira_en) VALUES (?, ?, 0, ?)";
+
+    private static final String BORRAR_EXPIRADA =
+            "DELETE FROM idempotencia_claves WHERE clave = ? AND expira_en <= ?";
+
+    private static final String GUARDAR =
+            "UPDATE idempotencia_claves SET status = ?, content_type = ?, cuerpo = ?, expira_en = ? WHERE clave = ?";
+
+    private static final String LIBERAR =
+            "DELETE FROM idempotencia_claves WHERE clave = ? AND status = 0";
+
+    private static final String PURGAR =
+            "DELETE FROM idempotencia_claves WHERE expira_en <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration ttlReserva;
+
+    public JdbcIdempotencyStore(DataSource dataSource, Duration ttl, Duration ttlReserva) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ttl = ttl;
+        this.ttlReserva = ttlReserva;
+    }
+
+    @Override
+    public RespuestaIdempotente obtener(String clave) {
+        List<RespuestaIdempotente> filas = jdbcTemplate.query(OBTENER, (rs, fila) -> new RespuestaIdempotente(
+                rs.getString("huella"),
+                rs.getInt("status"),
+                rs.getString("content_type"),
+                rs.getBytes("cuerpo")), clave, Timestamp.valueOf(LocalDateTime.now()));
+        return filas.isEmpty() ? null : filas.get(0);
+    }
+
+    @Override
+    public boolean reservar(String clave, String huella) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Timestamp expira = Timestamp.valueOf(ahora.plus(ttlReserva));
+        try {
+            jdbcTemplate.update(RESERVAR, clave, huella, expira);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // La fila puede ser de una clave ya expirada que la purga todavía no borró
+            if (jdbcTemplate.update(BORRAR_EXPIRADA, clave, Timestamp.valueOf(ahora)) == 0) {
+                return false;
+            }
+            try {
+                jdbcTemplate.update(RESERVAR, clave, huella, expira);
+                return true;
+            } catch (DuplicateKeyException otra) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void guardar(String clave, RespuestaIdempotente respuesta) {
+        jdbcTemplate.update(GUARDAR, respuesta.status(), respuesta.contentType(), respuesta.cuerpo(),
+                Timestamp.valueOf(LocalDateTime.now().plus(ttl)), clave);
+    }
+
+    @Override
+    public void liberar(String clave) {
+        jdbcTemplate.update(LIBERAR, clave);
+    }
+
+    @Scheduled(fixedDelayString = "${atenciones.idempotencia.purga-ms:60000}")
+    public void purgarExpiradas() {
+        jdbcTemplate.update(PURGAR, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.idempotencia;
+
+// Resultado guardado para una Idempotency-Key. status == 0 mientras la primera petición sigue en curso
+public record RespuestaIdempotente(String huella, int status, String contentType, byte[] cuerpo) {
+
+    public boolean enCurso() {
+        return status == 0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.demo.HttpRequest")
+@Label("Petición HTTP")
+@Description("Petición atendida por los controladores REST")
+@Category({ "MS-AtencionesMedicas", "HTTP" })
+@StackTrace(false)
+public class HttpRequestEvent extends jdk.jfr.Event {
+
+    @Label("Método")
+    public String method;
+
+    @Label("Ruta")
+    public String route;
+
+    @Label("Estado HTTP")
+    public int status;
+}
@@ -0,0 +1,89 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+public class JfrRecordingService {
+
+    @Value("${atenciones.jfr.configuracion:profile}")
+    private String configuracion;
+
+    @Value("${atenciones.jfr.duracion-maxima-segundos:600}")
+    private long duracionMaximaSegundos;
+
+    @Value("${atenciones.jfr.tamano-maximo-mb:200}")
+    private long tamanoMaximoMb;
+
+    private Recording grabacion;
+
+    // Devuelve false si ya hay una grabación en curso
+    public synchronized boolean iniciarGrabacion(Long duracionSegundos) throws IOException, ParseException {
+        if (grabacion != null) {
+            return false;
+        }
+
+        long segundos = duracionSegundos == null || duracionSegundos <= 0
+                ? duracionMaximaSegundos
+                : Math.min(duracionSegundos, duracionMaximaSegundos);
+
+        Recording nueva = new Recording(Configuration.getConfiguration(configuracion));
+        nueva.setName("atenciones-" + Instant.now().toEpochMilli());
+        nueva.enable(HttpRequestEvent.class);
+        nueva.enable(RepositoryCallEvent.class);
+        nueva.setToDisk(true);
+        nueva.setDuration(Duration.ofSeconds(segundos));
+        nueva.setMaxAge(Duration.ofSeconds(segundos));
+        nueva.setMaxSize(tamanoMaximoMb * 1024 * 1024);
+        nueva.start();
+
+        grabacion = nueva;
+        return true;
+    }
+
+    // Detiene la grabación y la vuelca a un archivo temporal; null si no había grabación
+    public synchronized Path detenerGrabacion() throws IOException {
+        if (grabacion == null) {
+            return null;
+        }
+
+        Recording actual = grabacion;
+        grabacion = null;
+        try {
+            if (actual.getState() == RecordingState.RUNNING) {
+                actual.stop();
+            }
+            Path destino = Files.createTempFile(actual.getName() + "-", ".jfr");
+            actual.dump(destino);
+            return destino;
+        } finally {
+            actual.close();
+        }
+    }
+
+    public synchronized Map<String, Object> getEstado() {
+        Map<String, Object> estado = new HashMap<>();
+        estado.put("activa", grabacion != null);
+        if (grabacion != null) {
+            estado.put("nombre", grabacion.getName());
+            estado.put("estado", grabacion.getState().name());
+            estado.put("inicio", grabacion.getStartTime() != null ? grabacion.getStartTime().toString() : null);
+            estado.put("duracionSegundos", grabacion.getDuration() != null ? grabacion.getDuration().getSeconds() : null);
+        }
+        estado.put("duracionMaximaSegundos", duracionMaximaSegundos);
+        estado.put("tamanoMaximoMb", tamanoMaximoMb);
+        return estado;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.demo.RepositoryCall")
+@Label("Llamada a repositorio")
+@Description("Invocación de un método de los repositorios JPA")
+@Category({ "MS-AtencionesMedicas", "Repositorio" })
+@StackTrace(false)
+public class RepositoryCallEvent extends jdk.jfr.Event {
+
+    @Label("Repositorio")
+    public String repository;
+
+    @Label("Método")
+    public String method;
+
+    // -1 cuando el resultado no permite contar filas (por ejemplo un Stream)
+    @Label("Filas")
+    public int rowCount;
+}
@@ -0,0 +1,66 @@
+package com.example.demo.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public class RepositoryJfrInterceptor implements MethodInterceptor {
+
+    private final String repository;
+
+    public RepositoryJfrInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.rowCount = contarFilas(result);
+                event.commit();
+            }
+        }
+    }
+
+    static int contarFilas(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Iterable<?> iterable) {
+            int filas = 0;
+            for (Object ignored : iterable) {
+                filas++;
+            }
+            return filas;
+        }
+        if (result instanceof java.util.stream.BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
@@ -5,7 +5,14 @@ import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "atenciones_medicas")
+@Table(name = "atenciones_medicas",
+       indexes = {
+           @Index(name = "idx_atenciones_fecha", columnList = "fecha_atencion"),
+           // Búsquedas combinadas de /filtrar: igualdad + orden por fecha (AtencionMedicaFiltroQuery.Indice)
+           @Index(name = "idx_atenciones_paciente_fecha", columnList = "paciente_id, fecha_atencion, id"),
+           @Index(name = "idx_atenciones_medico_fecha", columnList = "medico_id, fecha_atencion, id"),
+           @Index(name = "idx_atenciones_estado_fecha", columnList = "estado, fecha_atencion, id")
+       })
 public class AtencionMedica {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "atencion_seq")
@@ -42,7 +49,8 @@ public class AtencionMedica {
     private String observaciones;
     
     @NotBlank(message = "El estado es obligatorio")
-    @Pattern(regexp = "Programada|Realizada|Cancelada", message = "El estado debe ser: Programada, Realizada o Cancelada")
+    @EstadoAtencionValido
+    @Convert(converter = ValoresCanonicos.Convertidor.class)
     @Column(name = "estado", nullable = false, length = 20)
     private String estado;
     
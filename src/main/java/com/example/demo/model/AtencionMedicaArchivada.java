@@ -0,0 +1,90 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Atenciones Realizadas o Canceladas que ArchivadorAtenciones sacó de atenciones_medicas. Conservan el id
+// original y son de solo lectura: se consultan con ?incluirArchivo=true o al pedir una atención por id.
+// Con los segmentos activos, CompactadorArchivo las pasa a ficheros pasado un tiempo y las borra de aquí.
+@Entity
+@Table(name = "atenciones_medicas_archivo",
+       indexes = {
+           @Index(name = "idx_archivo_paciente_fecha", columnList = "paciente_id, fecha_atencion"),
+           @Index(name = "idx_archivo_medico_fecha", columnList = "medico_id, fecha_atencion"),
+           @Index(name = "idx_archivo_estado_fecha", columnList = "estado, fecha_atencion"),
+           @Index(name = "idx_archivo_fecha", columnList = "fecha_atencion"),
+           @Index(name = "idx_archivo_archivada_en", columnList = "archivada_en")
+       })
+public class AtencionMedicaArchivada {
+    @Id
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "paciente_id", nullable = false)
+    private Long pacienteId;
+    
+    @Column(name = "medico_id", nullable = false)
+    private Long medicoId;
+    
+    @Column(name = "fecha_atencion", nullable = false)
+    private LocalDateTime fechaAtencion;
+    
+    @Column(name = "motivo_consulta", nullable = false, length = 500)
+    private String motivoConsulta;
+    
+    @Column(name = "diagnostico", length = 1000)
+    private String diagnostico;
+    
+    @Column(name = "tratamiento", length = 1000)
+    private String tratamiento;
+    
+    @Column(name = "observaciones", length = 1000)
+    private String observaciones;
+    
+    @Convert(converter = ValoresCanonicos.Convertidor.class)
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+    
+    @Column(name = "archivada_en", nullable = false)
+    private LocalDateTime archivadaEn;
+    
+    public AtencionMedicaArchivada() {}
+    
+    // Misma forma que las atenciones activas para que las respuestas no distingan de dónde salen
+    public AtencionMedica toAtencionMedica() {
+        AtencionMedica atencion = new AtencionMedica(pacienteId, medicoId, fechaAtencion, motivoConsulta,
+                diagnostico, tratamiento, observaciones, estado);
+        atencion.setId(id);
+        return atencion;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getPacienteId() { return pacienteId; }
+    public void setPacienteId(Long pacienteId) { this.pacienteId = pacienteId; }
+    
+    public Long getMedicoId() { return medicoId; }
+    public void setMedicoId(Long medicoId) { this.medicoId = medicoId; }
+    
+    public LocalDateTime getFechaAtencion() { return fechaAtencion; }
+    public void setFechaAtencion(LocalDateTime fechaAtencion) { this.fechaAtencion = fechaAtencion; }
+    
+    public String getMotivoConsulta() { return motivoConsulta; }
+    public void setMotivoConsulta(String motivoConsulta) { this.motivoConsulta = motivoConsulta; }
+    
+    public String getDiagnostico() { return diagnostico; }
+    public void setDiagnostico(String diagnostico) { this.diagnostico = diagnostico; }
+    
+    public String getTratamiento() { return tratamiento; }
+    public void setTratamiento(String tratamiento) { this.tratamiento = tratamiento; }
+    
+    public String getObservaciones() { return observaciones; }
+    public void setObservaciones(String observaciones) { this.observaciones = observaciones; }
+    
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+    
+    public LocalDateTime getArchivadaEn() { return archivadaEn; }
+    public void setArchivadaEn(LocalDateTime archivadaEn) { this.archivadaEn = archivadaEn; }
+}
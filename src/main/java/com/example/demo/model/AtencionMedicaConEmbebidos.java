@@ -0,0 +1,39 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Atención con el paciente y/o médico referenciados dentro de _embedded (?embed=paciente,medico).
+// En los listados mantiene la misma relación que EntityModel<AtencionMedica>.
+@Relation(collectionRelation = "atencionMedicaList")
+public class AtencionMedicaConEmbebidos extends RepresentationModel<AtencionMedicaConEmbebidos> {
+
+    private final AtencionMedica atencion;
+    private final Map<String, EntityModel<?>> embebidos = new LinkedHashMap<>();
+
+    public AtencionMedicaConEmbebidos(AtencionMedica atencion) {
+        this.atencion = atencion;
+    }
+
+    @JsonUnwrapped
+    public AtencionMedica getAtencion() {
+        return atencion;
+    }
+
+    @JsonProperty("_embedded")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<String, EntityModel<?>> getEmbebidos() {
+        return embebidos;
+    }
+
+    public void embeber(String rel, EntityModel<?> recurso) {
+        embebidos.put(rel, recurso);
+    }
+}
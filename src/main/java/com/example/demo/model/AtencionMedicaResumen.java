@@ -0,0 +1,11 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+// Proyección para listados: solo las columnas estrechas, sin motivo, diagnóstico, tratamiento ni observaciones
+public record AtencionMedicaResumen(Long id,
+                                    Long pacienteId,
+                                    Long medicoId,
+                                    LocalDateTime fechaAtencion,
+                                    String estado) {
+}
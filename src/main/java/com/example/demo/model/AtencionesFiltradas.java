@@ -0,0 +1,9 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+public record AtencionesFiltradas(List<AtencionMedica> atenciones,
+                                  String indice,
+                                  List<String> filtrosResiduales,
+                                  String siguienteCursor) {
+}
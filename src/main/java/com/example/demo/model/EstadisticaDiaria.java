@@ -0,0 +1,72 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Rollup diario de atenciones por médico y estado. Solo define la tabla: la mantienen EstadisticasRollup
+// (incrementos en la transacción de cada escritura) y su recálculo periódico, ambos por JDBC.
+@Entity
+@Table(name = "estadisticas_diarias",
+       indexes = @Index(name = "idx_estadisticas_medico_dia", columnList = "medico_id, dia"))
+@IdClass(EstadisticaDiaria.Clave.class)
+public class EstadisticaDiaria {
+    @Id
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+    
+    @Id
+    @Column(name = "medico_id", nullable = false)
+    private Long medicoId;
+    
+    @Id
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+    
+    @Column(name = "cantidad", nullable = false)
+    private Long cantidad;
+    
+    public EstadisticaDiaria() {}
+    
+    public LocalDate getDia() { return dia; }
+    public void setDia(LocalDate dia) { this.dia = dia; }
+    
+    public Long getMedicoId() { return medicoId; }
+    public void setMedicoId(Long medicoId) { this.medicoId = medicoId; }
+    
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+    
+    public Long getCantidad() { return cantidad; }
+    public void setCantidad(Long cantidad) { this.cantidad = cantidad; }
+    
+    public static class Clave implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private LocalDate dia;
+        private Long medicoId;
+        private String estado;
+        
+        public Clave() {}
+        
+        public Clave(LocalDate dia, Long medicoId, String estado) {
+            this.dia = dia;
+            this.medicoId = medicoId;
+            this.estado = estado;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave otra)) return false;
+            return Objects.equals(dia, otra.dia) && Objects.equals(medicoId, otra.medicoId)
+                    && Objects.equals(estado, otra.estado);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(dia, medicoId, estado);
+        }
+    }
+}
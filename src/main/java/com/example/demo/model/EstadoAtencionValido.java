@@ -0,0 +1,32 @@
+package com.example.demo.model;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// El estado debe ser uno de ValoresCanonicos.ESTADOS_ATENCION; null se deja a @NotBlank
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = EstadoAtencionValido.Validador.class)
+public @interface EstadoAtencionValido {
+
+    String message() default "El estado debe ser: Programada, Realizada o Cancelada";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validador implements ConstraintValidator<EstadoAtencionValido, String> {
+
+        @Override
+        public boolean isValid(String valor, ConstraintValidatorContext contexto) {
+            return valor == null || ValoresCanonicos.ESTADOS_ATENCION.contains(valor);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.model;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// El género debe ser uno de ValoresCanonicos.GENEROS; null es válido (el género es opcional)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = GeneroValido.Validador.class)
+public @interface GeneroValido {
+
+    String message() default "El género debe ser M, F u O";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validador implements ConstraintValidator<GeneroValido, String> {
+
+        @Override
+        public boolean isValid(String valor, ConstraintValidatorContext contexto) {
+            return valor == null || ValoresCanonicos.GENEROS.contains(valor);
+        }
+    }
+}
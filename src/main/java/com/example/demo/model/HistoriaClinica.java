@@ -0,0 +1,9 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+public record HistoriaClinica(Paciente paciente,
+                              List<AtencionMedica> atenciones,
+                              List<Medico> medicos,
+                              String siguienteCursor) {
+}
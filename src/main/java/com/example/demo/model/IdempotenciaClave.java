@@ -0,0 +1,51 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Solo define la tabla que usa JdbcIdempotencyStore cuando varias instancias comparten las claves;
+// las lecturas y escrituras van por JDBC. status = 0 marca una petición todavía en curso.
+@Entity
+@Table(name = "idempotencia_claves",
+       indexes = @Index(name = "idx_idempotencia_expira", columnList = "expira_en"))
+public class IdempotenciaClave {
+    @Id
+    @Column(name = "clave", length = 300)
+    private String clave;
+    
+    @Column(name = "huella", nullable = false, length = 64)
+    private String huella;
+    
+    @Column(name = "status", nullable = false)
+    private Integer status;
+    
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+    
+    @Lob
+    @Column(name = "cuerpo")
+    private byte[] cuerpo;
+    
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiraEn;
+    
+    public IdempotenciaClave() {}
+    
+    public String getClave() { return clave; }
+    public void setClave(String clave) { this.clave = clave; }
+    
+    public String getHuella() { return huella; }
+    public void setHuella(String huella) { this.huella = huella; }
+    
+    public Integer getStatus() { return status; }
+    public void setStatus(Integer status) { this.status = status; }
+    
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    
+    public byte[] getCuerpo() { return cuerpo; }
+    public void setCuerpo(byte[] cuerpo) { this.cuerpo = cuerpo; }
+    
+    public LocalDateTime getExpiraEn() { return expiraEn; }
+    public void setExpiraEn(LocalDateTime expiraEn) { this.expiraEn = expiraEn; }
+}
@@ -25,7 +25,8 @@ public class Medico {
     @Column(name = "edad")
     private Integer edad;
     
-    @Pattern(regexp = "M|F|O", message = "El género debe ser M, F u O")
+    @GeneroValido
+    @Convert(converter = ValoresCanonicos.Convertidor.class)
     @Column(name = "genero", length = 1)
     private String genero;
     
@@ -42,6 +43,7 @@ public class Medico {
     
     @NotBlank(message = "La especialidad es obligatoria")
     @Size(max = 100, message = "La especialidad no puede exceder los 100 caracteres")
+    @Convert(converter = ValoresCanonicos.Convertidor.class)
     @Column(name = "especialidad", nullable = false, length = 100)
     private String especialidad;
     
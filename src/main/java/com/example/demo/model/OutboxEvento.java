@@ -0,0 +1,59 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Fila del outbox: se inserta en la misma transacción que el cambio de la atención y el relay la marca
+// como procesada tras entregarla. El índice (procesado_en, id) es el que usa el sondeo del relay.
+@Entity
+@Table(name = "outbox_atenciones",
+       indexes = @Index(name = "idx_outbox_pendientes", columnList = "procesado_en, id"))
+public class OutboxEvento {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_atenciones_seq", allocationSize = 1)
+    private Long id;
+    
+    @Column(name = "tipo", nullable = false, length = 20)
+    private String tipo;
+    
+    @Column(name = "atencion_id", nullable = false)
+    private Long atencionId;
+    
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+    
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime creadoEn;
+    
+    @Column(name = "procesado_en")
+    private LocalDateTime procesadoEn;
+    
+    public OutboxEvento() {}
+    
+    public OutboxEvento(String tipo, Long atencionId, String payload, LocalDateTime creadoEn) {
+        this.tipo = tipo;
+        this.atencionId = atencionId;
+        this.payload = payload;
+        this.creadoEn = creadoEn;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+    
+    public Long getAtencionId() { return atencionId; }
+    public void setAtencionId(Long atencionId) { this.atencionId = atencionId; }
+    
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    
+    public LocalDateTime getCreadoEn() { return creadoEn; }
+    public void setCreadoEn(LocalDateTime creadoEn) { this.creadoEn = creadoEn; }
+    
+    public LocalDateTime getProcesadoEn() { return procesadoEn; }
+    public void setProcesadoEn(LocalDateTime procesadoEn) { this.procesadoEn = procesadoEn; }
+}
@@ -25,7 +25,8 @@ public class Paciente {
     @Column(name = "edad")
     private Integer edad;
     
-    @Pattern(regexp = "M|F|O", message = "El género debe ser M, F u O")
+    @GeneroValido
+    @Convert(converter = ValoresCanonicos.Convertidor.class)
     @Column(name = "genero", length = 1)
     private String genero;  
     
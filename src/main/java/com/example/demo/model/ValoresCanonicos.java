@@ -0,0 +1,58 @@
+package com.example.demo.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Instancias compartidas para columnas de texto con pocos valores distintos (estado, género,
+// especialidad). Sin esto cada fila leída trae su propio String: un millón de atenciones son un millón
+// de copias de "Realizada". El pool está acotado para que una columna con muchos valores no crezca sin fin.
+public final class ValoresCanonicos {
+
+    public static final List<String> ESTADOS_ATENCION = List.of("Programada", "Realizada", "Cancelada");
+    public static final List<String> GENEROS = List.of("M", "F", "O");
+
+    private static final int MAXIMO_VALORES = 10_000;
+    private static final ConcurrentHashMap<String, String> VALORES = new ConcurrentHashMap<>();
+
+    static {
+        ESTADOS_ATENCION.forEach(valor -> VALORES.put(valor, valor));
+        GENEROS.forEach(valor -> VALORES.put(valor, valor));
+    }
+
+    private ValoresCanonicos() {
+    }
+
+    // La instancia compartida igual a valor; con el pool lleno, el mismo valor recibido
+    public static String canonico(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String canonico = VALORES.get(valor);
+        if (canonico != null) {
+            return canonico;
+        }
+        if (VALORES.size() >= MAXIMO_VALORES) {
+            return valor;
+        }
+        canonico = VALORES.putIfAbsent(valor, valor);
+        return canonico != null ? canonico : valor;
+    }
+
+    // La columna en la base no cambia: solo se sustituye el String leído por el compartido
+    @Converter
+    public static class Convertidor implements AttributeConverter<String, String> {
+
+        @Override
+        public String convertToDatabaseColumn(String atributo) {
+            return atributo;
+        }
+
+        @Override
+        public String convertToEntityAttribute(String columna) {
+            return canonico(columna);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.outbox;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Añade cada lote al final de un fichero JSON Lines y fuerza el fichero a disco antes de confirmar
+public class ArchivoOutboxSink implements OutboxSink {
+
+    private final Path archivo;
+
+    public ArchivoOutboxSink(Path archivo) {
+        this.archivo = archivo;
+    }
+
+    @Override
+    public synchronized void entregar(List<OutboxMensaje> lote) throws IOException {
+        StringBuilder lineas = new StringBuilder(lote.size() * 256);
+        for (OutboxMensaje mensaje : lote) {
+            // payload ya es JSON: se incrusta tal cual
+            lineas.append("{\"outboxId\":").append(mensaje.id())
+                    .append(",\"tipo\":\"").append(mensaje.tipo())
+                    .append("\",\"atencionId\":").append(mensaje.atencionId())
+                    .append(",\"creadoEn\":\"").append(mensaje.creadoEn())
+                    .append("\",\"payload\":").append(mensaje.payload())
+                    .append("}\n");
+        }
+        try (FileChannel canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(lineas.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                canal.write(bytes);
+            }
+            canal.force(false);
+        }
+    }
+}
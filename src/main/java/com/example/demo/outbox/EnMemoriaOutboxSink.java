@@ -0,0 +1,32 @@
+package com.example.demo.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Conserva los últimos mensajes entregados en memoria (pruebas y entornos sin consumidores)
+public class EnMemoriaOutboxSink implements OutboxSink {
+
+    private final int capacidad;
+    private final Deque<OutboxMensaje> mensajes;
+
+    public EnMemoriaOutboxSink(int capacidad) {
+        this.capacidad = capacidad;
+        this.mensajes = new ArrayDeque<>(Math.min(capacidad, 1024));
+    }
+
+    @Override
+    public synchronized void entregar(List<OutboxMensaje> lote) {
+        for (OutboxMensaje mensaje : lote) {
+            if (mensajes.size() == capacidad) {
+                mensajes.removeFirst();
+            }
+            mensajes.addLast(mensaje);
+        }
+    }
+
+    public synchronized List<OutboxMensaje> getMensajes() {
+        return new ArrayList<>(mensajes);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.demo.outbox;
+
+import java.time.LocalDateTime;
+
+public record OutboxMensaje(long id, String tipo, long atencionId, String payload, LocalDateTime creadoEn) {
+}
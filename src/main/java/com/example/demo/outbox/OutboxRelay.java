@@ -0,0 +1,156 @@
+package com.example.demo.outbox;
+
+import com.example.demo.repository.OutboxRelayQueries;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Drena el outbox por lotes. Varias instancias pueden ejecutarlo a la vez: SKIP LOCKED reparte las filas.
+// La marca de agua (hwm) evita recorrer el índice desde el principio en cada sondeo; solo avanza sobre filas
+// más antiguas que el margen de gracia, porque una transacción larga puede confirmar un id menor más tarde.
+// Cada N sondeos se barre desde el principio para recoger cualquier fila que haya quedado por debajo.
+// Las filas ya entregadas se conservan durante la retención (para auditar o reenviar) y luego se borran.
+public class OutboxRelay implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int MAXIMO_LOTES_POR_CICLO = 20;
+
+    private final OutboxRelayQueries queries;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+    private final Duration gracia;
+    private final int barridoCompletoCada;
+    private final Duration retencion;
+
+    private long hwm;
+    private long sondeos;
+
+    private Counter entregados;
+    private Counter errores;
+    private Counter purgados;
+    private Timer lag;
+    private Timer duracionLote;
+
+    public OutboxRelay(OutboxRelayQueries queries, OutboxSink sink, TransactionTemplate transactionTemplate,
+                       int tamanoLote, Duration gracia, int barridoCompletoCada, Duration retencion) {
+        this.queries = queries;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanoLote = tamanoLote;
+        this.gracia = gracia;
+        this.barridoCompletoCada = barridoCompletoCada;
+        this.retencion = retencion;
+    }
+
+    @Scheduled(fixedDelayString = "${atenciones.outbox.intervalo-ms:500}")
+    public void drenar() {
+        for (int lotes = 0; lotes < MAXIMO_LOTES_POR_CICLO; lotes++) {
+            if (drenarLote() < tamanoLote) {
+                return;
+            }
+        }
+    }
+
+    // Cada borrado confirma por separado; si falla, el siguiente ciclo sigue donde quedó
+    @Scheduled(initialDelayString = "${atenciones.outbox.purga-inicial-ms:60000}",
+               fixedDelayString = "${atenciones.outbox.purga-ms:3600000}")
+    public void purgar() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencion);
+        int borradas;
+        try {
+            do {
+                borradas = queries.purgarProcesados(limite, tamanoLote);
+                if (purgados != null) {
+                    purgados.increment(borradas);
+                }
+            } while (borradas == tamanoLote);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo purgar el outbox, se reintentará: {}", e.getMessage());
+        }
+    }
+
+    int drenarLote() {
+        long desde = ++sondeos % barridoCompletoCada == 0 ? 0 : hwm;
+        long inicio = System.nanoTime();
+        List<OutboxMensaje> lote;
+        try {
+            lote = transactionTemplate.execute(status -> {
+                List<OutboxMensaje> pendientes = queries.bloquearPendientes(desde, tamanoLote);
+                if (!pendientes.isEmpty()) {
+                    entregar(pendientes);
+                    queries.marcarProcesados(pendientes, LocalDateTime.now());
+                }
+                return pendientes;
+            });
+        } catch (RuntimeException e) {
+            if (errores != null) {
+                errores.increment();
+            }
+            log.warn("No se pudo entregar el lote del outbox, se reintentará: {}", e.getMessage());
+            return 0;
+        }
+        if (lote == null || lote.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime limiteGracia = ahora.minus(gracia);
+        for (OutboxMensaje mensaje : lote) {
+            if (mensaje.creadoEn().isBefore(limiteGracia)) {
+                hwm = Math.max(hwm, mensaje.id());
+            }
+            if (lag != null) {
+                lag.record(Duration.between(mensaje.creadoEn(), ahora));
+            }
+        }
+        if (entregados != null) {
+            entregados.increment(lote.size());
+            duracionLote.record(Duration.ofNanos(System.nanoTime() - inicio));
+        }
+        return lote.size();
+    }
+
+    private void entregar(List<OutboxMensaje> pendientes) {
+        try {
+            sink.entregar(pendientes);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    long getHwm() {
+        return hwm;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        entregados = Counter.builder("atenciones.outbox.entregados")
+                .description("Eventos del outbox entregados al destino")
+                .register(registry);
+        errores = Counter.builder("atenciones.outbox.errores")
+                .description("Lotes que fallaron y quedaron pendientes de reintento")
+                .register(registry);
+        purgados = Counter.builder("atenciones.outbox.purgados")
+                .description("Eventos ya entregados borrados al superar la retención")
+                .register(registry);
+        lag = Timer.builder("atenciones.outbox.lag")
+                .description("Tiempo entre la escritura de la atención y la entrega del evento")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        duracionLote = Timer.builder("atenciones.outbox.lote")
+                .description("Duración de cada lote: sondeo, entrega y marcado")
+                .register(registry);
+    }
+}
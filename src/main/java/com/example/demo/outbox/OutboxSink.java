@@ -0,0 +1,10 @@
+package com.example.demo.outbox;
+
+import java.util.List;
+
+// Destino de los eventos del outbox. Se llama dentro de la transacción del relay: si lanza una
+// excepción el lote no se marca como procesado y se reintenta (entrega al menos una vez).
+public interface OutboxSink {
+
+    void entregar(List<OutboxMensaje> lote) throws Exception;
+}
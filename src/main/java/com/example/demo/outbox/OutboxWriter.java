@@ -0,0 +1,86 @@
+package com.example.demo.outbox;
+
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.model.OutboxEvento;
+import com.example.demo.repository.OutboxBatchInsert;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Escribe las filas del outbox dentro de la transacción que modificó la atención: o se confirman
+// ambas o ninguna. Las filas de una transacción se acumulan y se insertan en un solo batch justo
+// antes del commit, así un lote del group commit no paga un NEXTVAL y un INSERT por atención.
+@Component
+public class OutboxWriter {
+
+    @Autowired
+    private OutboxBatchInsert outboxBatchInsert;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @EventListener
+    public void alModificar(AtencionMedicaModificadaEvent evento) {
+        OutboxEvento fila = new OutboxEvento(evento.getTipo().name(), evento.getId(), payload(evento),
+                LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            outboxBatchInsert.insertar(List.of(fila));
+            return;
+        }
+        loteActual().filas.add(fila);
+    }
+
+    // Las sincronizaciones son de la transacción en curso: una REQUIRES_NEW anidada tiene su propio lote
+    private Lote loteActual() {
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacion instanceof Lote lote && lote.writer == this) {
+                return lote;
+            }
+        }
+        Lote lote = new Lote(this);
+        TransactionSynchronizationManager.registerSynchronization(lote);
+        return lote;
+    }
+
+    private String payload(AtencionMedicaModificadaEvent evento) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("tipo", evento.getTipo().name());
+        payload.put("id", evento.getId());
+        payload.put("cambioEstado", evento.isCambioEstado());
+        payload.put("anterior", evento.getAnterior());
+        payload.put("actual", evento.getActual());
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de la atención " + evento.getId(), e);
+        }
+    }
+
+    private static final class Lote implements TransactionSynchronization {
+
+        private final OutboxWriter writer;
+        private final List<OutboxEvento> filas = new ArrayList<>();
+
+        Lote(OutboxWriter writer) {
+            this.writer = writer;
+        }
+
+        // Un fallo aquí revierte la transacción entera, igual que si la fila se hubiese insertado antes
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!filas.isEmpty()) {
+                writer.outboxBatchInsert.insertar(filas);
+            }
+        }
+    }
+}
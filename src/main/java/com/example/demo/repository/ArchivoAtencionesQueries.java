@@ -0,0 +1,85 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AtencionMedica;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Movimiento de atenciones a atenciones_medicas_archivo por trozos. Cada trozo se bloquea con SKIP LOCKED,
+// se copia y se borra en la misma transacción: si falla, nada se mueve y el siguiente ciclo lo reintenta.
+// Como en OutboxRelayQueries, el tamaño del trozo se limita con maxRows porque Oracle no admite
+// FETCH FIRST junto a FOR UPDATE.
+@Repository
+public class ArchivoAtencionesQueries {
+
+    private static final String ARCHIVABLES =
+            "SELECT id FROM atenciones_medicas "
+            + "WHERE fecha_atencion < ? AND estado IN ('Realizada', 'Cancelada') FOR UPDATE SKIP LOCKED";
+
+    private static final String COPIAR =
+            "INSERT INTO atenciones_medicas_archivo (id, paciente_id, medico_id, fecha_atencion, motivo_consulta, "
+            + "diagnostico, tratamiento, observaciones, estado, archivada_en) "
+            + "SELECT id, paciente_id, medico_id, fecha_atencion, motivo_consulta, diagnostico, tratamiento, "
+            + "observaciones, estado, ? FROM atenciones_medicas WHERE id = ?";
+
+    private static final String BORRAR = "DELETE FROM atenciones_medicas WHERE id = ?";
+
+    private static final String PARA_SEGMENTOS =
+            "SELECT id, paciente_id, medico_id, fecha_atencion, motivo_consulta, diagnostico, tratamiento, "
+            + "observaciones, estado FROM atenciones_medicas_archivo WHERE archivada_en < ? FOR UPDATE SKIP LOCKED";
+
+    private static final String BORRAR_ARCHIVADA = "DELETE FROM atenciones_medicas_archivo WHERE id = ?";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ArchivoAtencionesQueries(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Debe llamarse dentro de una transacción: los bloqueos duran hasta el commit
+    public List<Long> bloquearArchivables(LocalDateTime anteriorA, int maximo) {
+        JdbcTemplate trozo = new JdbcTemplate(dataSource);
+        trozo.setMaxRows(maximo);
+        trozo.setFetchSize(maximo);
+        return trozo.queryForList(ARCHIVABLES, Long.class, Timestamp.valueOf(anteriorA));
+    }
+
+    public void mover(List<Long> ids, LocalDateTime archivadaEn) {
+        Timestamp marca = Timestamp.valueOf(archivadaEn);
+        jdbcTemplate.batchUpdate(COPIAR, ids, ids.size(), (ps, id) -> {
+            ps.setTimestamp(1, marca);
+            ps.setLong(2, id);
+        });
+        jdbcTemplate.batchUpdate(BORRAR, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    // Segundo paso, hacia los ficheros de segmento: filas completas de la tabla de archivo, bloqueadas igual
+    public List<AtencionMedica> bloquearParaSegmentos(LocalDateTime archivadaAntesDe, int maximo) {
+        JdbcTemplate trozo = new JdbcTemplate(dataSource);
+        trozo.setMaxRows(maximo);
+        trozo.setFetchSize(maximo);
+        return trozo.query(PARA_SEGMENTOS, (rs, fila) -> {
+            AtencionMedica atencion = new AtencionMedica(
+                    rs.getLong("paciente_id"),
+                    rs.getLong("medico_id"),
+                    rs.getTimestamp("fecha_atencion").toLocalDateTime(),
+                    rs.getString("motivo_consulta"),
+                    rs.getString("diagnostico"),
+                    rs.getString("tratamiento"),
+                    rs.getString("observaciones"),
+                    rs.getString("estado"));
+            atencion.setId(rs.getLong("id"));
+            return atencion;
+        }, Timestamp.valueOf(archivadaAntesDe));
+    }
+
+    public void borrarArchivadas(List<Long> ids) {
+        jdbcTemplate.batchUpdate(BORRAR_ARCHIVADA, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+}
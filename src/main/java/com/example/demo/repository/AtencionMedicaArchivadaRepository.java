@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AtencionMedicaArchivada;
+import com.example.demo.model.AtencionMedicaResumen;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AtencionMedicaArchivadaRepository extends JpaRepository<AtencionMedicaArchivada, Long> {
+    
+    List<AtencionMedicaArchivada> findByPacienteId(Long pacienteId);
+    
+    List<AtencionMedicaArchivada> findByMedicoId(Long medicoId);
+    
+    List<AtencionMedicaArchivada> findByEstado(String estado);
+    
+    List<AtencionMedicaResumen> findResumenByPacienteId(Long pacienteId);
+    
+    List<AtencionMedicaResumen> findResumenByMedicoId(Long medicoId);
+    
+    List<AtencionMedicaResumen> findResumenByEstado(String estado);
+    
+    List<AtencionMedicaArchivada> findByPacienteIdOrderByFechaAtencionDescIdDesc(Long pacienteId, Pageable pageable);
+    
+    @Query("SELECT a FROM AtencionMedicaArchivada a WHERE a.pacienteId = :pacienteId "
+            + "AND (a.fechaAtencion < :fecha OR (a.fechaAtencion = :fecha AND a.id < :id)) "
+            + "ORDER BY a.fechaAtencion DESC, a.id DESC")
+    List<AtencionMedicaArchivada> findHistoriaAnteriorA(@Param("pacienteId") Long pacienteId,
+                                                        @Param("fecha") LocalDateTime fecha,
+                                                        @Param("id") Long id,
+                                                        Pageable pageable);
+}
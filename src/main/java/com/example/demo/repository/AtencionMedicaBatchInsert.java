@@ -0,0 +1,58 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AtencionMedica;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+// Inserción por lotes JDBC para el group commit: los ids se piden a la secuencia en un solo viaje y el
+// INSERT va en un único batch, en vez de un NEXTVAL y un INSERT por atención como hace save().
+@Repository
+public class AtencionMedicaBatchInsert {
+
+    private static final String RESERVAR_IDS =
+            "SELECT atencion_medica_seq.NEXTVAL FROM dual CONNECT BY LEVEL <= ?";
+
+    private static final String INSERTAR =
+            "INSERT INTO atenciones_medicas (id, paciente_id, medico_id, fecha_atencion, motivo_consulta, "
+            + "diagnostico, tratamiento, observaciones, estado) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AtencionMedicaBatchInsert(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public List<Long> reservarIds(int cantidad) {
+        return jdbcTemplate.queryForList(RESERVAR_IDS, Long.class, cantidad);
+    }
+
+    // Las atenciones deben traer ya el id de reservarIds
+    public void insertar(List<AtencionMedica> atenciones) {
+        jdbcTemplate.batchUpdate(INSERTAR, atenciones, atenciones.size(), (ps, atencion) -> {
+            ps.setLong(1, atencion.getId());
+            ps.setLong(2, atencion.getPacienteId());
+            ps.setLong(3, atencion.getMedicoId());
+            ps.setTimestamp(4, Timestamp.valueOf(atencion.getFechaAtencion()));
+            ps.setString(5, atencion.getMotivoConsulta());
+            setTexto(ps, 6, atencion.getDiagnostico());
+            setTexto(ps, 7, atencion.getTratamiento());
+            setTexto(ps, 8, atencion.getObservaciones());
+            ps.setString(9, atencion.getEstado());
+        });
+    }
+
+    private static void setTexto(PreparedStatement ps, int indice, String valor) throws SQLException {
+        if (valor == null) {
+            ps.setNull(indice, Types.VARCHAR);
+        } else {
+            ps.setString(indice, valor);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AtencionMedica;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Búsqueda por varios criterios combinados en una sola sentencia, paginada por clave
+// (fechaAtencion, id) en lugar de OFFSET. Cada combinación se resuelve contra uno de los índices
+// declarados en AtencionMedica; las que no tienen índice se rechazan antes de llegar a Oracle.
+@Repository
+public class AtencionMedicaFiltroQuery {
+
+    // Índices que pueden resolver la búsqueda, de más a menos selectivo. Todos terminan en
+    // (fecha_atencion, id), así que el orden y el cursor salen del propio índice sin ordenar
+    public enum Indice {
+        PACIENTE_FECHA("idx_atenciones_paciente_fecha", "pacienteId"),
+        MEDICO_FECHA("idx_atenciones_medico_fecha", "medicoId"),
+        ESTADO_FECHA("idx_atenciones_estado_fecha", "estado"),
+        FECHA("idx_atenciones_fecha", null);
+
+        private final String nombre;
+        private final String atributo;
+
+        Indice(String nombre, String atributo) {
+            this.nombre = nombre;
+            this.atributo = atributo;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    // Todos opcionales; desde es inclusivo y hasta exclusivo
+    public record Criterios(Long pacienteId, Long medicoId, String estado, LocalDateTime desde, LocalDateTime hasta) {
+
+        Object valor(String atributo) {
+            return switch (atributo) {
+                case "pacienteId" -> pacienteId;
+                case "medicoId" -> medicoId;
+                case "estado" -> estado;
+                default -> throw new IllegalStateException(atributo);
+            };
+        }
+    }
+
+    // Índice que recorre la consulta y criterios de igualdad que Oracle filtra fila a fila sobre él
+    public record Plan(Indice indice, List<String> filtrosResiduales) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public static Plan planificar(Criterios criterios) {
+        Indice elegido = null;
+        for (Indice indice : Indice.values()) {
+            if (indice.atributo != null && criterios.valor(indice.atributo) != null) {
+                elegido = indice;
+                break;
+            }
+        }
+        if (elegido == null) {
+            // Sin igualdades solo queda recorrer idx_atenciones_fecha: exige acotar el rango
+            if (criterios.desde() == null && criterios.hasta() == null) {
+                throw new IllegalArgumentException(
+                        "Indique al menos un criterio: pacienteId, medicoId, estado, desde o hasta");
+            }
+            return new Plan(Indice.FECHA, List.of());
+        }
+
+        List<String> residuales = new ArrayList<>();
+        for (Indice indice : Indice.values()) {
+            if (indice != elegido && indice.atributo != null && criterios.valor(indice.atributo) != null) {
+                residuales.add(indice.atributo);
+            }
+        }
+        return new Plan(elegido, List.copyOf(residuales));
+    }
+
+    // Página ordenada por (fechaAtencion, id); fechaCursor/idCursor son la última fila de la página anterior
+    public List<AtencionMedica> buscar(Criterios criterios, LocalDateTime fechaCursor, Long idCursor,
+                                       boolean ascendente, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AtencionMedica> query = cb.createQuery(AtencionMedica.class);
+        Root<AtencionMedica> root = query.from(AtencionMedica.class);
+        Path<LocalDateTime> fecha = root.get("fechaAtencion");
+        Path<Long> id = root.get("id");
+
+        List<Predicate> predicados = new ArrayList<>();
+        if (criterios.pacienteId() != null) {
+            predicados.add(cb.equal(root.get("pacienteId"), criterios.pacienteId()));
+        }
+        if (criterios.medicoId() != null) {
+            predicados.add(cb.equal(root.get("medicoId"), criterios.medicoId()));
+        }
+        if (criterios.estado() != null) {
+            predicados.add(cb.equal(root.get("estado"), criterios.estado()));
+        }
+        if (criterios.desde() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(fecha, criterios.desde()));
+        }
+        if (criterios.hasta() != null) {
+            predicados.add(cb.lessThan(fecha, criterios.hasta()));
+        }
+        if (fechaCursor != null) {
+            if (ascendente) {
+                predicados.add(cb.or(cb.greaterThan(fecha, fechaCursor),
+                        cb.and(cb.equal(fecha, fechaCursor), cb.greaterThan(id, idCursor))));
+            } else {
+                predicados.add(cb.or(cb.lessThan(fecha, fechaCursor),
+                        cb.and(cb.equal(fecha, fechaCursor), cb.lessThan(id, idCursor))));
+            }
+        }
+
+        query.select(root).where(predicados.toArray(new Predicate[0]));
+        query.orderBy(ascendente ? List.of(cb.asc(fecha), cb.asc(id)) : List.of(cb.desc(fecha), cb.desc(id)));
+        return entityManager.createQuery(query).setMaxResults(limite).getResultList();
+    }
+}
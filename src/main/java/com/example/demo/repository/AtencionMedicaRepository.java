@@ -1,11 +1,14 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.AtencionMedicaResumen;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -23,4 +26,22 @@ public interface AtencionMedicaRepository extends JpaRepository<AtencionMedica,
     @Query("SELECT a FROM AtencionMedica a WHERE a.pacienteId = :pacienteId AND a.estado = :estado")
     List<AtencionMedica> findByPacienteIdAndEstado(@Param("pacienteId") Long pacienteId, 
                                                   @Param("estado") String estado);
+    
+    List<AtencionMedica> findByPacienteIdOrderByFechaAtencionDescIdDesc(Long pacienteId, Pageable pageable);
+    
+    @Query("SELECT a FROM AtencionMedica a WHERE a.pacienteId = :pacienteId "
+            + "AND (a.fechaAtencion < :fecha OR (a.fechaAtencion = :fecha AND a.id < :id)) "
+            + "ORDER BY a.fechaAtencion DESC, a.id DESC")
+    List<AtencionMedica> findHistoriaAnteriorA(@Param("pacienteId") Long pacienteId,
+                                               @Param("fecha") LocalDateTime fecha,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+    
+    List<AtencionMedicaResumen> findAllProjectedBy();
+    
+    List<AtencionMedicaResumen> findResumenByPacienteId(Long pacienteId);
+    
+    List<AtencionMedicaResumen> findResumenByMedicoId(Long medicoId);
+    
+    List<AtencionMedicaResumen> findResumenByEstado(String estado);
 }
\ No newline at end of file
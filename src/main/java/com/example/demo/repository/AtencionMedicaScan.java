@@ -0,0 +1,59 @@
+package com.example.demo.repository;
+
+import com.example.demo.archivo.AlmacenSegmentos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+
+// Recorrido en streaming de las columnas estrechas de atenciones_medicas para reconstruir estructuras en
+// memoria al arrancar. Las filas se entregan de a una, sin crear entidades ni cargar el resultado completo.
+// recorrerConArchivo añade las atenciones archivadas (tabla y, si están activos, ficheros de segmento) para
+// las estadísticas, que siguen contándolas; una atención a medio compactar puede visitarse dos veces.
+@Repository
+public class AtencionMedicaScan {
+
+    @FunctionalInterface
+    public interface Visitante {
+        void visitar(long id, long pacienteId, long medicoId, Timestamp fechaAtencion, String estado);
+    }
+
+    private static final String RECORRER =
+            "SELECT id, paciente_id, medico_id, fecha_atencion, estado FROM atenciones_medicas";
+
+    private static final String RECORRER_CON_ARCHIVO = RECORRER
+            + " UNION ALL SELECT id, paciente_id, medico_id, fecha_atencion, estado FROM atenciones_medicas_archivo";
+
+    private static final int FILAS_POR_VIAJE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Solo existe con atenciones.archivo.segmentos.enabled=true
+    @Autowired(required = false)
+    private AlmacenSegmentos almacenSegmentos;
+
+    public AtencionMedicaScan(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FILAS_POR_VIAJE);
+    }
+
+    public void recorrer(Visitante visitante) {
+        recorrer(RECORRER, visitante);
+    }
+
+    public void recorrerConArchivo(Visitante visitante) {
+        recorrer(RECORRER_CON_ARCHIVO, visitante);
+        if (almacenSegmentos != null) {
+            almacenSegmentos.recorrerTodo(atencion -> visitante.visitar(atencion.getId(), atencion.getPacienteId(),
+                    atencion.getMedicoId(), Timestamp.valueOf(atencion.getFechaAtencion()), atencion.getEstado()));
+        }
+    }
+
+    private void recorrer(String sql, Visitante visitante) {
+        jdbcTemplate.query(sql, rs -> {
+            visitante.visitar(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getTimestamp(4), rs.getString(5));
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class EstadisticasDiariasQueries {
+
+    public record Fila(LocalDate periodo, String estado, long cantidad) {
+    }
+
+    private static final String SUMAR =
+            "MERGE INTO estadisticas_diarias d "
+            + "USING (SELECT ? dia, ? medico_id, ? estado, ? delta FROM dual) s "
+            + "ON (d.dia = s.dia AND d.medico_id = s.medico_id AND d.estado = s.estado) "
+            + "WHEN MATCHED THEN UPDATE SET d.cantidad = d.cantidad + s.delta "
+            + "WHEN NOT MATCHED THEN INSERT (dia, medico_id, estado, cantidad) "
+            + "VALUES (s.dia, s.medico_id, s.estado, s.delta)";
+
+    private static final String INCREMENTAR =
+            "UPDATE estadisticas_diarias SET cantidad = cantidad + ? WHERE dia = ? AND medico_id = ? AND estado = ?";
+
+    private static final String BORRAR_RANGO =
+            "DELETE FROM estadisticas_diarias WHERE dia >= ? AND dia < ?";
+
+    private static final String RECALCULAR_RANGO =
+            "INSERT INTO estadisticas_diarias (dia, medico_id, estado, cantidad) "
+            + "SELECT TRUNC(fecha_atencion), medico_id, estado, COUNT(*) FROM ("
+            + "SELECT fecha_atencion, medico_id, estado FROM atenciones_medicas "
+            + "WHERE fecha_atencion >= ? AND fecha_atencion < ? "
+            + "UNION ALL SELECT fecha_atencion, medico_id, estado FROM atenciones_medicas_archivo "
+            + "WHERE fecha_atencion >= ? AND fecha_atencion < ?) "
+            + "GROUP BY TRUNC(fecha_atencion), medico_id, estado";
+
+    private static final String BORRAR_TODO = "DELETE FROM estadisticas_diarias";
+
+    private static final String RECALCULAR_TODO =
+            "INSERT INTO estadisticas_diarias (dia, medico_id, estado, cantidad) "
+            + "SELECT TRUNC(fecha_atencion), medico_id, estado, COUNT(*) FROM ("
+            + "SELECT fecha_atencion, medico_id, estado FROM atenciones_medicas "
+            + "UNION ALL SELECT fecha_atencion, medico_id, estado FROM atenciones_medicas_archivo) "
+            + "GROUP BY TRUNC(fecha_atencion), medico_id, estado";
+
+    private static final String TOTALES_POR_ESTADO =
+            "SELECT estado, SUM(cantidad) cantidad FROM estadisticas_diarias GROUP BY estado";
+
+    private static final String HAY_FILAS = "SELECT COUNT(*) FROM estadisticas_diarias WHERE ROWNUM = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EstadisticasDiariasQueries(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Dos primeras escrituras simultáneas en la misma celda hacen las dos la rama INSERT del MERGE y la
+    // segunda falla con ORA-00001 al confirmar la primera. Para entonces la fila ya existe: basta con
+    // sumar sobre ella. Oracle solo deshace la sentencia fallida, así que la transacción sigue viva
+    public void sumar(LocalDate dia, Long medicoId, String estado, long delta) {
+        try {
+            jdbcTemplate.update(SUMAR, Date.valueOf(dia), medicoId, estado, delta);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(INCREMENTAR, delta, Date.valueOf(dia), medicoId, estado);
+        }
+    }
+
+    // Rehace los días [desde, hasta) a partir de atenciones_medicas y su archivo (ambas indexadas por
+    // fecha_atencion): archivar una atención no la quita de las estadísticas
+    public void recalcular(LocalDate desde, LocalDate hasta) {
+        Timestamp inicio = Timestamp.valueOf(desde.atStartOfDay());
+        Timestamp fin = Timestamp.valueOf(hasta.atStartOfDay());
+        jdbcTemplate.update(BORRAR_RANGO, Date.valueOf(desde), Date.valueOf(hasta));
+        jdbcTemplate.update(RECALCULAR_RANGO, inicio, fin, inicio, fin);
+    }
+
+    public void recalcularTodo() {
+        jdbcTemplate.update(BORRAR_TODO);
+        jdbcTemplate.update(RECALCULAR_TODO);
+    }
+
+    public boolean estaVacia() {
+        Integer filas = jdbcTemplate.queryForObject(HAY_FILAS, Integer.class);
+        return filas == null || filas == 0;
+    }
+
+    // Totales históricos por estado, archivadas incluidas
+    public Map<String, Long> totalesPorEstado() {
+        Map<String, Long> totales = new LinkedHashMap<>();
+        jdbcTemplate.query(TOTALES_POR_ESTADO, rs -> {
+            totales.put(rs.getString("estado"), rs.getLong("cantidad"));
+        });
+        return totales;
+    }
+
+    // formatoTrunc es el formato de TRUNC de Oracle ('DD', 'IW', 'MM'); va en el SQL y no como parámetro
+    // porque el GROUP BY tiene que repetir exactamente la misma expresión del SELECT
+    public List<Fila> serie(String formatoTrunc, LocalDate desde, LocalDate hasta, Long medicoId, String estado) {
+        String periodo = "TRUNC(dia, '" + formatoTrunc + "')";
+        StringBuilder sql = new StringBuilder("SELECT ").append(periodo).append(" periodo, estado, SUM(cantidad) cantidad ")
+                .append("FROM estadisticas_diarias WHERE dia >= ? AND dia < ?");
+        List<Object> parametros = new ArrayList<>(List.of(Date.valueOf(desde), Date.valueOf(hasta)));
+        if (medicoId != null) {
+            sql.append(" AND medico_id = ?");
+            parametros.add(medicoId);
+        }
+        if (estado != null) {
+            sql.append(" AND estado = ?");
+            parametros.add(estado);
+        }
+        sql.append(" GROUP BY ").append(periodo).append(", estado ORDER BY periodo, estado");
+        return jdbcTemplate.query(sql.toString(), (rs, fila) -> new Fila(
+                rs.getDate("periodo").toLocalDate(),
+                rs.getString("estado"),
+                rs.getLong("cantidad")), parametros.toArray());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.OutboxEvento;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Timestamp;
+import java.util.List;
+
+// Inserción por lotes de las filas del outbox de una transacción: los ids en un solo viaje a la
+// secuencia y un único batch INSERT, igual que AtencionMedicaBatchInsert para las atenciones.
+@Repository
+public class OutboxBatchInsert {
+
+    private static final String RESERVAR_IDS =
+            "SELECT outbox_atenciones_seq.NEXTVAL FROM dual CONNECT BY LEVEL <= ?";
+
+    private static final String INSERTAR =
+            "INSERT INTO outbox_atenciones (id, tipo, atencion_id, payload, creado_en) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxBatchInsert(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void insertar(List<OutboxEvento> eventos) {
+        List<Long> ids = jdbcTemplate.queryForList(RESERVAR_IDS, Long.class, eventos.size());
+        for (int i = 0; i < eventos.size(); i++) {
+            eventos.get(i).setId(ids.get(i));
+        }
+        jdbcTemplate.batchUpdate(INSERTAR, eventos, eventos.size(), (ps, evento) -> {
+            ps.setLong(1, evento.getId());
+            ps.setString(2, evento.getTipo());
+            ps.setLong(3, evento.getAtencionId());
+            // payload es CLOB: con un stream no hay límite de tamaño para setString
+            ps.setCharacterStream(4, new StringReader(evento.getPayload()), evento.getPayload().length());
+            ps.setTimestamp(5, Timestamp.valueOf(evento.getCreadoEn()));
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.repository;
+
+import com.example.demo.outbox.OutboxMensaje;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Consultas del relay en JDBC: Oracle no admite FETCH FIRST junto a FOR UPDATE, así que el lote se
+// limita con maxRows; con SKIP LOCKED Oracle bloquea las filas a medida que se leen, no todo el resultado.
+@Repository
+public class OutboxRelayQueries {
+
+    private static final String PENDIENTES =
+            "SELECT id, tipo, atencion_id, payload, creado_en FROM outbox_atenciones "
+            + "WHERE procesado_en IS NULL AND id > ? ORDER BY id FOR UPDATE SKIP LOCKED";
+
+    private static final String MARCAR_PROCESADO =
+            "UPDATE outbox_atenciones SET procesado_en = ? WHERE id = ?";
+
+    // Recorre idx_outbox_pendientes por su primera columna; ROWNUM acota cada borrado para no
+    // mantener una transacción enorme ni generar todo el undo de golpe
+    private static final String PURGAR_PROCESADOS =
+            "DELETE FROM outbox_atenciones WHERE procesado_en < ? AND ROWNUM <= ?";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxRelayQueries(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Debe llamarse dentro de una transacción: los bloqueos duran hasta el commit
+    public List<OutboxMensaje> bloquearPendientes(long desdeId, int maximo) {
+        JdbcTemplate lote = new JdbcTemplate(dataSource);
+        lote.setMaxRows(maximo);
+        lote.setFetchSize(maximo);
+        return lote.query(PENDIENTES, (rs, fila) -> new OutboxMensaje(
+                rs.getLong("id"),
+                rs.getString("tipo"),
+                rs.getLong("atencion_id"),
+                rs.getString("payload"),
+                rs.getTimestamp("creado_en").toLocalDateTime()), desdeId);
+    }
+
+    public void marcarProcesados(List<OutboxMensaje> mensajes, LocalDateTime procesadoEn) {
+        Timestamp marca = Timestamp.valueOf(procesadoEn);
+        jdbcTemplate.batchUpdate(MARCAR_PROCESADO, mensajes, mensajes.size(), (ps, mensaje) -> {
+            ps.setTimestamp(1, marca);
+            ps.setLong(2, mensaje.id());
+        });
+    }
+
+    public int purgarProcesados(LocalDateTime antesDe, int maximo) {
+        return jdbcTemplate.update(PURGAR_PROCESADOS, Timestamp.valueOf(antesDe), maximo);
+    }
+}
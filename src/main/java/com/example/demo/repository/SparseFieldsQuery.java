@@ -0,0 +1,52 @@
+package com.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Consulta solo las columnas pedidas y devuelve cada fila como mapa atributo -> valor
+@Repository
+public class SparseFieldsQuery {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // atributoFiltro/valorFiltro son opcionales: si se indican se filtra por igualdad
+    public List<Map<String, Object>> buscar(Class<?> entidad, Collection<String> atributos,
+                                            String atributoFiltro, Object valorFiltro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entidad);
+
+        List<Selection<?>> selecciones = new ArrayList<>(atributos.size());
+        for (String atributo : atributos) {
+            selecciones.add(root.get(atributo).alias(atributo));
+        }
+        query.multiselect(selecciones);
+        if (atributoFiltro != null) {
+            query.where(cb.equal(root.get(atributoFiltro), valorFiltro));
+        }
+
+        List<Tuple> tuplas = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> filas = new ArrayList<>(tuplas.size());
+        for (Tuple tupla : tuplas) {
+            Map<String, Object> fila = new LinkedHashMap<>(atributos.size() * 2);
+            for (String atributo : atributos) {
+                fila.put(atributo, tupla.get(atributo));
+            }
+            filas.add(fila);
+        }
+        return filas;
+    }
+}
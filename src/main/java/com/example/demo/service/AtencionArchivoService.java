@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import com.example.demo.archivo.AlmacenSegmentos;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.AtencionMedicaArchivada;
+import com.example.demo.model.AtencionMedicaResumen;
+import com.example.demo.repository.AtencionMedicaArchivadaRepository;
+import com.example.demo.repository.SparseFieldsQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Lecturas sobre las atenciones archivadas: atenciones_medicas_archivo y, si están activos, los ficheros
+// de segmento. Devuelve AtencionMedica para que el controlador trate igual las activas y las archivadas
+@Service
+@Transactional(readOnly = true)
+public class AtencionArchivoService {
+    
+    @Autowired
+    private AtencionMedicaArchivadaRepository atencionMedicaArchivadaRepository;
+    
+    @Autowired
+    private SparseFieldsQuery sparseFieldsQuery;
+    
+    // Solo existe con atenciones.archivo.segmentos.enabled=true
+    @Autowired(required = false)
+    private AlmacenSegmentos almacenSegmentos;
+    
+    public Optional<AtencionMedica> getAtencionById(Long id) {
+        Optional<AtencionMedica> archivada = atencionMedicaArchivadaRepository.findById(id)
+                .map(AtencionMedicaArchivada::toAtencionMedica);
+        if (archivada.isPresent() || almacenSegmentos == null) {
+            return archivada;
+        }
+        return almacenSegmentos.buscarPorId(id);
+    }
+    
+    public List<AtencionMedica> getAtencionesByPacienteId(Long pacienteId) {
+        return conSegmentos(convertir(atencionMedicaArchivadaRepository.findByPacienteId(pacienteId)), "pacienteId", pacienteId);
+    }
+    
+    public List<AtencionMedica> getAtencionesByMedicoId(Long medicoId) {
+        return conSegmentos(convertir(atencionMedicaArchivadaRepository.findByMedicoId(medicoId)), "medicoId", medicoId);
+    }
+    
+    public List<AtencionMedica> getAtencionesByEstado(String estado) {
+        return conSegmentos(convertir(atencionMedicaArchivadaRepository.findByEstado(estado)), "estado", estado);
+    }
+    
+    public List<AtencionMedicaResumen> getAtencionesResumenByPacienteId(Long pacienteId) {
+        return conSegmentosResumen(atencionMedicaArchivadaRepository.findResumenByPacienteId(pacienteId), "pacienteId", pacienteId);
+    }
+    
+    public List<AtencionMedicaResumen> getAtencionesResumenByMedicoId(Long medicoId) {
+        return conSegmentosResumen(atencionMedicaArchivadaRepository.findResumenByMedicoId(medicoId), "medicoId", medicoId);
+    }
+    
+    public List<AtencionMedicaResumen> getAtencionesResumenByEstado(String estado) {
+        return conSegmentosResumen(atencionMedicaArchivadaRepository.findResumenByEstado(estado), "estado", estado);
+    }
+    
+    // Los atributos se llaman igual que en AtencionMedica, así que sirve la misma selección de ?fields=
+    public List<Map<String, Object>> getCampos(Set<String> columnas, String atributoFiltro, Object valorFiltro) {
+        List<Map<String, Object>> filas =
+                sparseFieldsQuery.buscar(AtencionMedicaArchivada.class, columnas, atributoFiltro, valorFiltro);
+        if (almacenSegmentos == null || atributoFiltro == null) {
+            return filas;
+        }
+        List<Map<String, Object>> todas = new ArrayList<>(filas);
+        Set<Object> vistos = new HashSet<>();
+        filas.forEach(fila -> vistos.add(fila.get("id")));
+        for (AtencionMedica atencion : almacenSegmentos.buscar(atributoFiltro, valorFiltro)) {
+            if (!vistos.contains(atencion.getId())) {
+                Map<String, Object> fila = new LinkedHashMap<>(columnas.size() * 2);
+                for (String columna : columnas) {
+                    fila.put(columna, valor(atencion, columna));
+                }
+                todas.add(fila);
+            }
+        }
+        return todas;
+    }
+    
+    // Página de la historia del paciente anterior a (fechaCursor, idCursor), más recientes primero
+    public List<AtencionMedica> getHistoria(Long pacienteId, LocalDateTime fechaCursor, Long idCursor, int limite) {
+        PageRequest pagina = PageRequest.of(0, limite);
+        List<AtencionMedicaArchivada> enTabla = fechaCursor == null
+                ? atencionMedicaArchivadaRepository.findByPacienteIdOrderByFechaAtencionDescIdDesc(pacienteId, pagina)
+                : atencionMedicaArchivadaRepository.findHistoriaAnteriorA(pacienteId, fechaCursor, idCursor, pagina);
+        List<AtencionMedica> historia = convertir(enTabla);
+        if (almacenSegmentos == null) {
+            return historia;
+        }
+        return HistoriaClinicaService.mezclar(historia, almacenSegmentos.historia(pacienteId, fechaCursor, idCursor, limite), limite);
+    }
+    
+    private List<AtencionMedica> conSegmentos(List<AtencionMedica> enTabla, String atributo, Object valor) {
+        if (almacenSegmentos == null) {
+            return enTabla;
+        }
+        Map<Long, AtencionMedica> porId = new LinkedHashMap<>();
+        enTabla.forEach(atencion -> porId.put(atencion.getId(), atencion));
+        almacenSegmentos.buscar(atributo, valor).forEach(atencion -> porId.putIfAbsent(atencion.getId(), atencion));
+        return new ArrayList<>(porId.values());
+    }
+    
+    private List<AtencionMedicaResumen> conSegmentosResumen(List<AtencionMedicaResumen> enTabla, String atributo, Object valor) {
+        if (almacenSegmentos == null) {
+            return enTabla;
+        }
+        Map<Long, AtencionMedicaResumen> porId = new LinkedHashMap<>();
+        enTabla.forEach(resumen -> porId.put(resumen.id(), resumen));
+        for (AtencionMedica atencion : almacenSegmentos.buscar(atributo, valor)) {
+            porId.putIfAbsent(atencion.getId(), new AtencionMedicaResumen(atencion.getId(), atencion.getPacienteId(),
+                    atencion.getMedicoId(), atencion.getFechaAtencion(), atencion.getEstado()));
+        }
+        return new ArrayList<>(porId.values());
+    }
+    
+    private static Object valor(AtencionMedica atencion, String atributo) {
+        return switch (atributo) {
+            case "id" -> atencion.getId();
+            case "pacienteId" -> atencion.getPacienteId();
+            case "medicoId" -> atencion.getMedicoId();
+            case "fechaAtencion" -> atencion.getFechaAtencion();
+            case "motivoConsulta" -> atencion.getMotivoConsulta();
+            case "diagnostico" -> atencion.getDiagnostico();
+            case "tratamiento" -> atencion.getTratamiento();
+            case "observaciones" -> atencion.getObservaciones();
+            case "estado" -> atencion.getEstado();
+            default -> throw new IllegalArgumentException("Campo desconocido: " + atributo);
+        };
+    }
+    
+    private static List<AtencionMedica> convertir(List<AtencionMedicaArchivada> archivadas) {
+        return archivadas.stream().map(AtencionMedicaArchivada::toAtencionMedica).toList();
+    }
+}
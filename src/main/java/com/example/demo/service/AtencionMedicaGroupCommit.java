@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.concurrency.GroupCommitQueue;
+import com.example.demo.model.AtencionMedica;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Alta de atenciones en modo group commit (atenciones.group-commit.enabled): las altas ya validadas
+// se encolan y un único escritor las confirma en lotes, una transacción por lote en vez de una por
+// atención. Cada lote entra por AtencionMedicaService.createAtenciones, así que el outbox, las cachés,
+// el single-flight y el SSE ven lo mismo que con createAtencion.
+public class AtencionMedicaGroupCommit implements MeterBinder {
+
+    private final GroupCommitQueue<AtencionMedica, AtencionMedica> cola;
+    private final long limiteMs;
+
+    public AtencionMedicaGroupCommit(AtencionMedicaService atencionMedicaService,
+                                     int capacidad, int loteMaximo, long esperaMs, long limiteMs) {
+        this.cola = new GroupCommitQueue<>("atenciones-group-commit", atencionMedicaService::createAtenciones,
+                capacidad, loteMaximo, esperaMs);
+        this.limiteMs = limiteMs;
+    }
+
+    // Bloquea hasta que el lote de esta atención se confirma, como mucho limiteMs. Con la cola llena o al
+    // agotarse el plazo lanza RejectedExecutionException. Al agotarse el plazo o interrumpirse el hilo se
+    // cancela el alta: si seguía en la cola el escritor la descarta, pero si su lote ya se estaba
+    // escribiendo puede llegar a confirmarse
+    public AtencionMedica crear(AtencionMedica atencion) throws InterruptedException {
+        CompletableFuture<AtencionMedica> resultado = cola.encolar(atencion);
+        try {
+            return resultado.get(limiteMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (resultado.cancel(false)) {
+                throw new RejectedExecutionException("El alta no se confirmó en " + limiteMs + " ms");
+            }
+            // El lote terminó justo al agotarse el plazo
+            try {
+                return resultado.join();
+            } catch (CompletionException fallo) {
+                throw causa(fallo);
+            }
+        } catch (InterruptedException e) {
+            resultado.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            throw causa(e);
+        }
+    }
+
+    private static RuntimeException causa(Exception e) {
+        if (e.getCause() instanceof RuntimeException causa) {
+            return causa;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    public void iniciar() {
+        cola.iniciar();
+    }
+
+    public void cerrar() throws InterruptedException {
+        cola.cerrar();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cola.bindTo(registry);
+    }
+}
@@ -1,31 +1,84 @@
 package com.example.demo.service;
 
+import com.example.demo.cache.AtencionesIndices;
+import com.example.demo.concurrency.Coalesced;
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.event.TipoCambio;
 import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.AtencionMedicaResumen;
+import com.example.demo.model.AtencionesFiltradas;
+import com.example.demo.repository.AtencionMedicaBatchInsert;
+import com.example.demo.repository.AtencionMedicaFiltroQuery;
+import com.example.demo.repository.AtencionMedicaFiltroQuery.Criterios;
+import com.example.demo.repository.AtencionMedicaFiltroQuery.Plan;
 import com.example.demo.repository.AtencionMedicaRepository;
+import com.example.demo.repository.SparseFieldsQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 @Service
 @Transactional
 public class AtencionMedicaService {
     
+    public static final int LIMITE_FILTRO_MAXIMO = 100;
+    
     @Autowired
     private AtencionMedicaRepository atencionMedicaRepository;
     
+    @Autowired
+    private SparseFieldsQuery sparseFieldsQuery;
+    
+    @Autowired
+    private AtencionMedicaFiltroQuery atencionMedicaFiltroQuery;
+    
+    @Autowired
+    private AtencionMedicaBatchInsert atencionMedicaBatchInsert;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Solo existe con atenciones.indices.enabled=true
+    @Autowired(required = false)
+    private AtencionesIndices atencionesIndices;
+    
+    @Coalesced
     public List<AtencionMedica> getAllAtenciones() {
         return atencionMedicaRepository.findAll();
     }
     
+    @Coalesced
     public Optional<AtencionMedica> getAtencionById(Long id) {
         return atencionMedicaRepository.findById(id);
     }
     
     public AtencionMedica createAtencion(AtencionMedica atencionMedica) {
-        return atencionMedicaRepository.save(atencionMedica);
+        AtencionMedica nuevo = atencionMedicaRepository.save(atencionMedica);
+        eventPublisher.publishEvent(new AtencionMedicaModificadaEvent(nuevo.getId(), TipoCambio.CREADO, null, copiar(nuevo)));
+        return nuevo;
+    }
+    
+    // Un lote del group commit en una sola transacción. Entra por el servicio como cualquier otra escritura,
+    // así el single-flight descarta las lecturas retenidas igual que tras createAtencion
+    public List<AtencionMedica> createAtenciones(List<AtencionMedica> atenciones) {
+        List<Long> ids = atencionMedicaBatchInsert.reservarIds(atenciones.size());
+        for (int i = 0; i < atenciones.size(); i++) {
+            atenciones.get(i).setId(ids.get(i));
+        }
+        atencionMedicaBatchInsert.insertar(atenciones);
+        for (AtencionMedica atencion : atenciones) {
+            eventPublisher.publishEvent(new AtencionMedicaModificadaEvent(atencion.getId(), TipoCambio.CREADO, null, copiar(atencion)));
+        }
+        return atenciones;
     }
     
     public AtencionMedica updateAtencion(Long id, AtencionMedica atencionDetails) {
@@ -33,6 +86,7 @@ public class AtencionMedicaService {
         
         if (optionalAtencion.isPresent()) {
             AtencionMedica atencion = optionalAtencion.get();
+            AtencionMedica anterior = copiar(atencion);
             atencion.setPacienteId(atencionDetails.getPacienteId());
             atencion.setMedicoId(atencionDetails.getMedicoId());
             atencion.setFechaAtencion(atencionDetails.getFechaAtencion());
@@ -42,32 +96,132 @@ public class AtencionMedicaService {
             atencion.setObservaciones(atencionDetails.getObservaciones());
             atencion.setEstado(atencionDetails.getEstado());
             
-            return atencionMedicaRepository.save(atencion);
+            AtencionMedica actualizado = atencionMedicaRepository.save(atencion);
+            eventPublisher.publishEvent(new AtencionMedicaModificadaEvent(id, TipoCambio.ACTUALIZADO, anterior, copiar(actualizado)));
+            return actualizado;
         }
         return null;
     }
     
     public boolean deleteAtencion(Long id) {
         if (atencionMedicaRepository.existsById(id)) {
+            // Ya queda en el contexto de persistencia: deleteById no vuelve a consultarla
+            AtencionMedica anterior = atencionMedicaRepository.findById(id).map(AtencionMedicaService::copiar).orElse(null);
             atencionMedicaRepository.deleteById(id);
+            eventPublisher.publishEvent(new AtencionMedicaModificadaEvent(id, TipoCambio.ELIMINADO, anterior, null));
             return true;
         }
         return false;
     }
     
+    @Coalesced
     public List<AtencionMedica> getAtencionesByPacienteId(Long pacienteId) {
+        if (atencionesIndices != null && atencionesIndices.isCargado() && pacienteId != null) {
+            return cargarPorIds(atencionesIndices.getIdsPorPaciente(pacienteId),
+                    atencion -> pacienteId.equals(atencion.getPacienteId()));
+        }
         return atencionMedicaRepository.findByPacienteId(pacienteId);
     }
     
+    @Coalesced
     public List<AtencionMedica> getAtencionesByMedicoId(Long medicoId) {
+        if (atencionesIndices != null && atencionesIndices.isCargado() && medicoId != null) {
+            return cargarPorIds(atencionesIndices.getIdsPorMedico(medicoId),
+                    atencion -> medicoId.equals(atencion.getMedicoId()));
+        }
         return atencionMedicaRepository.findByMedicoId(medicoId);
     }
     
+    @Coalesced
     public List<AtencionMedica> getAtencionesByEstado(String estado) {
         return atencionMedicaRepository.findByEstado(estado);
     }
     
+    @Coalesced
     public Long countAtencionesByEstado(String estado) {
         return atencionMedicaRepository.countByEstado(estado);
     }
-}
\ No newline at end of file
+    
+    @Coalesced
+    public List<AtencionMedicaResumen> getAllAtencionesResumen() {
+        return atencionMedicaRepository.findAllProjectedBy();
+    }
+    
+    @Coalesced
+    public List<AtencionMedicaResumen> getAtencionesResumenByPacienteId(Long pacienteId) {
+        return atencionMedicaRepository.findResumenByPacienteId(pacienteId);
+    }
+    
+    @Coalesced
+    public List<AtencionMedicaResumen> getAtencionesResumenByMedicoId(Long medicoId) {
+        return atencionMedicaRepository.findResumenByMedicoId(medicoId);
+    }
+    
+    @Coalesced
+    public List<AtencionMedicaResumen> getAtencionesResumenByEstado(String estado) {
+        return atencionMedicaRepository.findResumenByEstado(estado);
+    }
+    
+    // Solo las columnas indicadas; atributoFiltro (opcional) filtra por igualdad con valorFiltro
+    @Coalesced
+    public List<Map<String, Object>> getCampos(Set<String> columnas, String atributoFiltro, Object valorFiltro) {
+        return sparseFieldsQuery.buscar(AtencionMedica.class, columnas, atributoFiltro, valorFiltro);
+    }
+    
+    // Todos los criterios en una sola consulta, paginada con el mismo cursor que la historia clínica.
+    // estricto rechaza las combinaciones que dejan filtros sin índice en vez de solo informarlos
+    @Transactional(readOnly = true)
+    public AtencionesFiltradas filtrar(Criterios criterios, boolean ascendente, String cursor, int limite,
+                                       boolean estricto) {
+        Plan plan = AtencionMedicaFiltroQuery.planificar(criterios);
+        if (estricto && !plan.filtrosResiduales().isEmpty()) {
+            throw new IllegalArgumentException("Ningún índice cubre " + plan.filtrosResiduales()
+                    + " junto con " + plan.indice().getNombre() + "; quite esos criterios o use estricto=false");
+        }
+        
+        int tamanoPagina = Math.max(1, Math.min(limite, LIMITE_FILTRO_MAXIMO));
+        List<AtencionMedica> atenciones;
+        if (cursor == null || cursor.isBlank()) {
+            atenciones = atencionMedicaFiltroQuery.buscar(criterios, null, null, ascendente, tamanoPagina + 1);
+        } else {
+            HistoriaClinicaService.Posicion posicion = HistoriaClinicaService.decodificarCursor(cursor);
+            atenciones = atencionMedicaFiltroQuery.buscar(criterios, posicion.fechaAtencion(), posicion.id(),
+                    ascendente, tamanoPagina + 1);
+        }
+        
+        String siguienteCursor = null;
+        if (atenciones.size() > tamanoPagina) {
+            atenciones = atenciones.subList(0, tamanoPagina);
+            siguienteCursor = HistoriaClinicaService.codificarCursor(atenciones.get(tamanoPagina - 1));
+        }
+        return new AtencionesFiltradas(List.copyOf(atenciones), plan.indice().getNombre(),
+                plan.filtrosResiduales(), siguienteCursor);
+    }
+    
+    // Carga por clave primaria con BatchLoader, en el orden de los ids (ya vienen ordenados). El índice se
+    // actualiza tras el commit: si una atención cambió de paciente/médico entre medias, el filtro la descarta
+    private List<AtencionMedica> cargarPorIds(long[] ids, Predicate<AtencionMedica> coincide) {
+        Map<Long, AtencionMedica> encontradas = BatchLoader.findAllById(atencionMedicaRepository,
+                Arrays.stream(ids).boxed().toList(), AtencionMedica::getId);
+        List<AtencionMedica> atenciones = new ArrayList<>(encontradas.size());
+        for (long id : ids) {
+            AtencionMedica atencion = encontradas.get(id);
+            if (atencion != null && coincide.test(atencion)) {
+                atenciones.add(atencion);
+            }
+        }
+        return atenciones;
+    }
+    
+    // Los eventos llevan copias: la entidad gestionada puede seguir cambiando después de publicarlos
+    static AtencionMedica copiar(AtencionMedica atencion) {
+        if (atencion == null) {
+            return null;
+        }
+        AtencionMedica copia = new AtencionMedica(atencion.getPacienteId(), atencion.getMedicoId(),
+                atencion.getFechaAtencion(), atencion.getMotivoConsulta(), atencion.getDiagnostico(),
+                atencion.getTratamiento(), atencion.getObservaciones(), atencion.getEstado());
+        copia.setId(atencion.getId());
+        return copia;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.service;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Carga entidades por ID con findAllById en lotes: Oracle admite como máximo 1000 elementos en un IN
+public final class BatchLoader {
+
+    public static final int TAMANO_LOTE = 1000;
+
+    private BatchLoader() {
+    }
+
+    public static <T> Map<Long, T> findAllById(JpaRepository<T, Long> repository, Collection<Long> ids,
+            Function<T, Long> idDe) {
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, T> encontrados = new HashMap<>(distintos.size() * 2);
+        for (int desde = 0; desde < distintos.size(); desde += TAMANO_LOTE) {
+            List<Long> lote = distintos.subList(desde, Math.min(desde + TAMANO_LOTE, distintos.size()));
+            for (T entidad : repository.findAllById(lote)) {
+                encontrados.put(idDe.apply(entidad), entidad);
+            }
+        }
+        return encontrados;
+    }
+}
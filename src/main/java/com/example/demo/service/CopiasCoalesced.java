@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.Medico;
+import com.example.demo.model.Paciente;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Copia que recibe cada llamada @Coalesced: el resultado agrupado lo comparten varios hilos y puede
+// contener entidades gestionadas por la transacción del que lo ejecutó. Las entidades se copian
+// separadas del contexto de persistencia y las colecciones quedan de solo lectura. Lo demás
+// (números, textos, proyecciones de Spring Data) ya es de solo lectura y se devuelve tal cual.
+public final class CopiasCoalesced {
+
+    private CopiasCoalesced() {
+    }
+
+    public static Object copiar(Object valor) {
+        if (valor instanceof AtencionMedica atencion) {
+            return AtencionMedicaService.copiar(atencion);
+        }
+        if (valor instanceof Medico medico) {
+            return copiar(medico);
+        }
+        if (valor instanceof Paciente paciente) {
+            return copiar(paciente);
+        }
+        if (valor instanceof Optional<?> opcional) {
+            return opcional.map(CopiasCoalesced::copiar);
+        }
+        if (valor instanceof List<?> lista) {
+            return lista.stream().map(CopiasCoalesced::copiar).toList();
+        }
+        if (valor instanceof Map<?, ?> mapa) {
+            Map<Object, Object> copia = new LinkedHashMap<>();
+            mapa.forEach((clave, elemento) -> copia.put(clave, copiar(elemento)));
+            return Collections.unmodifiableMap(copia);
+        }
+        return valor;
+    }
+
+    private static Medico copiar(Medico medico) {
+        Medico copia = new Medico(medico.getRut(), medico.getNombre(), medico.getEdad(), medico.getGenero(),
+                medico.getTelefono(), medico.getCorreo(), medico.getDireccion(), medico.getEspecialidad());
+        copia.setId(medico.getId());
+        return copia;
+    }
+
+    private static Paciente copiar(Paciente paciente) {
+        Paciente copia = new Paciente(paciente.getRut(), paciente.getNombre(), paciente.getEdad(),
+                paciente.getGenero(), paciente.getTelefono(), paciente.getCorreo(), paciente.getDireccion());
+        copia.setId(paciente.getId());
+        return copia;
+    }
+}
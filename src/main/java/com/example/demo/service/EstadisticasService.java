@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.example.demo.estadisticas.AtencionesColumnares;
+import com.example.demo.estadisticas.AtencionesColumnares.Agregado;
+import com.example.demo.estadisticas.AtencionesColumnares.Filtro;
+import com.example.demo.estadisticas.AtencionesSketches;
+import com.example.demo.estadisticas.HyperLogLog;
+import com.example.demo.estadisticas.SpaceSaving;
+import com.example.demo.repository.EstadisticasDiariasQueries;
+import com.example.demo.repository.EstadisticasDiariasQueries.Fila;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Service
+@Transactional(readOnly = true)
+public class EstadisticasService {
+
+    public enum Granularidad {
+        DIA("DD"),
+        SEMANA("IW"),
+        MES("MM");
+
+        private final String formatoTrunc;
+
+        Granularidad(String formatoTrunc) {
+            this.formatoTrunc = formatoTrunc;
+        }
+
+        public static Granularidad parse(String valor) {
+            for (Granularidad granularidad : values()) {
+                if (granularidad.name().equalsIgnoreCase(valor)) {
+                    return granularidad;
+                }
+            }
+            throw new IllegalArgumentException("Granularidad no válida: " + valor + " (dia, semana o mes)");
+        }
+    }
+
+    @Autowired
+    private EstadisticasDiariasQueries estadisticasDiariasQueries;
+
+    @Autowired
+    private AtencionesSketches atencionesSketches;
+
+    // Solo existe con atenciones.columnar.enabled=true
+    @Autowired(required = false)
+    private AtencionesColumnares atencionesColumnares;
+
+    // Un punto por periodo con el total y el desglose por estado; se lee solo del rollup diario.
+    // Las semanas empiezan en lunes (semana ISO)
+    public List<Map<String, Object>> getSerie(Granularidad granularidad, LocalDate desde, LocalDate hasta,
+                                              Long medicoId, String estado) {
+        List<Map<String, Object>> serie = new ArrayList<>();
+        Map<String, Object> punto = null;
+        LocalDate periodoActual = null;
+        for (Fila fila : estadisticasDiariasQueries.serie(granularidad.formatoTrunc, desde, hasta, medicoId, estado)) {
+            if (fila.cantidad() == 0) {
+                continue;
+            }
+            if (!fila.periodo().equals(periodoActual)) {
+                periodoActual = fila.periodo();
+                punto = new LinkedHashMap<>();
+                punto.put("periodo", periodoActual.toString());
+                punto.put("total", 0L);
+                punto.put("porEstado", new LinkedHashMap<String, Long>());
+                serie.add(punto);
+            }
+            punto.put("total", (Long) punto.get("total") + fila.cantidad());
+            @SuppressWarnings("unchecked")
+            Map<String, Long> porEstado = (Map<String, Long>) punto.get("porEstado");
+            porEstado.put(fila.estado(), fila.cantidad());
+        }
+        return serie;
+    }
+
+    // Pacientes distintos por médico (HyperLogLog) y médicos con más atenciones del mes (Space-Saving).
+    // Cada cifra va con su cota de error; intervalo95 es la estimación ± 2 errores estándar
+    public Map<String, Object> getAproximadas(Long medicoId, int top) {
+        List<Map<String, Object>> pacientesDistintos = new ArrayList<>();
+        if (medicoId != null) {
+            HyperLogLog sketch = atencionesSketches.getPacientesDistintos(medicoId);
+            if (sketch != null) {
+                pacientesDistintos.add(distintos(medicoId, sketch));
+            }
+        } else {
+            new TreeMap<>(atencionesSketches.getPacientesDistintosPorMedico())
+                    .forEach((medico, sketch) -> pacientesDistintos.add(distintos(medico, sketch)));
+        }
+
+        SpaceSaving topMes = atencionesSketches.getTopMedicosMes();
+        List<Map<String, Object>> medicos = new ArrayList<>();
+        for (SpaceSaving.Elemento elemento : topMes.top(top)) {
+            Map<String, Object> medico = new LinkedHashMap<>();
+            medico.put("medicoId", elemento.clave());
+            medico.put("atenciones", elemento.cantidad());
+            medico.put("errorMaximo", elemento.error());
+            medico.put("minimoGarantizado", elemento.cantidad() - elemento.error());
+            medicos.add(medico);
+        }
+        Map<String, Object> topMedicos = new LinkedHashMap<>();
+        topMedicos.put("mes", atencionesSketches.getMes().toString());
+        topMedicos.put("totalAtenciones", topMes.getTotal());
+        topMedicos.put("errorMaximo", topMes.getErrorMaximo());
+        topMedicos.put("medicos", medicos);
+
+        Map<String, Object> aproximadas = new LinkedHashMap<>();
+        aproximadas.put("cargando", atencionesSketches.isCargando());
+        aproximadas.put("pacientesDistintosPorMedico", pacientesDistintos);
+        aproximadas.put("topMedicosMes", topMedicos);
+        return aproximadas;
+    }
+
+    private static Map<String, Object> distintos(long medicoId, HyperLogLog sketch) {
+        long estimacion = sketch.estimar();
+        double error = sketch.getErrorEstandar();
+        Map<String, Object> intervalo = new LinkedHashMap<>();
+        intervalo.put("min", Math.round(estimacion * (1 - 2 * error)));
+        intervalo.put("max", Math.round(estimacion * (1 + 2 * error)));
+
+        Map<String, Object> distintos = new LinkedHashMap<>();
+        distintos.put("medicoId", medicoId);
+        distintos.put("estimacion", estimacion);
+        distintos.put("errorEstandarRelativo", error);
+        distintos.put("intervalo95", intervalo);
+        return distintos;
+    }
+
+    // Total y conteo por estado, archivadas incluidas como en el resto de estadísticas. Del almacén
+    // columnar si está cargado; si no, del rollup diario, que cuenta lo mismo sin recorrer las atenciones
+    public Map<String, Long> getConteosPorEstado() {
+        Map<String, Long> conteos;
+        if (atencionesColumnares != null && atencionesColumnares.isCargado()) {
+            Agregado agregado = atencionesColumnares.agregar(new Filtro(null, null, null, null));
+            conteos = new LinkedHashMap<>(agregado.porEstado());
+        } else {
+            conteos = estadisticasDiariasQueries.totalesPorEstado();
+        }
+        conteos.put("total", conteos.values().stream().mapToLong(Long::longValue).sum());
+        return conteos;
+    }
+
+    // Conteos por estado, hora del día y médico para el rango [desde, hasta); vacío si el almacén
+    // columnar no está activo o todavía carga
+    public Optional<Map<String, Object>> getColumnares(LocalDate desde, LocalDate hasta, Long medicoId,
+                                                       String estado, int topMedicos) {
+        if (atencionesColumnares == null || !atencionesColumnares.isCargado()) {
+            return Optional.empty();
+        }
+        long inicio = System.nanoTime();
+        Agregado agregado = atencionesColumnares.agregar(new Filtro(
+                desde != null ? desde.atStartOfDay() : null, hasta != null ? hasta.atStartOfDay() : null,
+                medicoId, estado));
+        long microsegundos = (System.nanoTime() - inicio) / 1_000;
+
+        List<Long> porHora = new ArrayList<>(24);
+        for (long cantidad : agregado.porHora()) {
+            porHora.add(cantidad);
+        }
+        List<Map<String, Object>> medicos = new ArrayList<>();
+        for (int i = 0; i < Math.min(topMedicos, agregado.porMedico().length); i++) {
+            Map<String, Object> medico = new LinkedHashMap<>();
+            medico.put("medicoId", agregado.porMedico()[i][0]);
+            medico.put("atenciones", agregado.porMedico()[i][1]);
+            medicos.add(medico);
+        }
+
+        Map<String, Object> columnares = new LinkedHashMap<>();
+        columnares.put("total", agregado.total());
+        columnares.put("porEstado", agregado.porEstado());
+        columnares.put("porHora", porHora);
+        columnares.put("topMedicos", medicos);
+        columnares.put("filasEnMemoria", atencionesColumnares.getFilas());
+        columnares.put("microsegundos", microsegundos);
+        return Optional.of(columnares);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.HistoriaClinica;
+import com.example.demo.model.Medico;
+import com.example.demo.model.Paciente;
+import com.example.demo.repository.AtencionMedicaRepository;
+import com.example.demo.repository.MedicoRepository;
+import com.example.demo.repository.PacienteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Historia clínica en un número fijo de consultas: paciente, una página de atenciones y los
+// médicos referenciados en esa página con un único IN. La página mezcla las atenciones activas con las
+// archivadas (tabla de archivo y segmentos), que siguen siendo parte de la historia.
+@Service
+@Transactional(readOnly = true)
+public class HistoriaClinicaService {
+    
+    public static final int LIMITE_MAXIMO = 100;
+    
+    private static final Comparator<AtencionMedica> MAS_RECIENTE_PRIMERO =
+            Comparator.comparing(AtencionMedica::getFechaAtencion).thenComparing(AtencionMedica::getId).reversed();
+    
+    @Autowired
+    private PacienteRepository pacienteRepository;
+    
+    @Autowired
+    private AtencionMedicaRepository atencionMedicaRepository;
+    
+    @Autowired
+    private MedicoRepository medicoRepository;
+    
+    @Autowired
+    private AtencionArchivoService atencionArchivoService;
+    
+    public Optional<HistoriaClinica> getHistoria(Long pacienteId, String cursor, int limite) {
+        Optional<Paciente> paciente = pacienteRepository.findById(pacienteId);
+        if (paciente.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        int tamanoPagina = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        // Se pide una fila extra para saber si hay página siguiente sin hacer un COUNT
+        PageRequest pagina = PageRequest.of(0, tamanoPagina + 1);
+        List<AtencionMedica> activas;
+        List<AtencionMedica> archivadas;
+        if (cursor == null || cursor.isBlank()) {
+            activas = atencionMedicaRepository.findByPacienteIdOrderByFechaAtencionDescIdDesc(pacienteId, pagina);
+            archivadas = atencionArchivoService.getHistoria(pacienteId, null, null, tamanoPagina + 1);
+        } else {
+            Posicion posicion = decodificarCursor(cursor);
+            activas = atencionMedicaRepository.findHistoriaAnteriorA(
+                    pacienteId, posicion.fechaAtencion(), posicion.id(), pagina);
+            archivadas = atencionArchivoService.getHistoria(
+                    pacienteId, posicion.fechaAtencion(), posicion.id(), tamanoPagina + 1);
+        }
+        List<AtencionMedica> atenciones = mezclar(activas, archivadas, tamanoPagina + 1);
+        
+        String siguienteCursor = null;
+        if (atenciones.size() > tamanoPagina) {
+            atenciones = atenciones.subList(0, tamanoPagina);
+            siguienteCursor = codificarCursor(atenciones.get(tamanoPagina - 1));
+        }
+        
+        Set<Long> medicoIds = new LinkedHashSet<>();
+        atenciones.forEach(atencion -> medicoIds.add(atencion.getMedicoId()));
+        List<Medico> medicos = medicoIds.isEmpty() ? List.of() : medicoRepository.findAllById(medicoIds);
+        
+        return Optional.of(new HistoriaClinica(paciente.get(), List.copyOf(atenciones), medicos, siguienteCursor));
+    }
+    
+    // Mezcla dos listas ya ordenadas por (fecha, id) descendente, sin repetir ids, hasta limite elementos
+    static List<AtencionMedica> mezclar(List<AtencionMedica> a, List<AtencionMedica> b, int limite) {
+        if (b.isEmpty()) {
+            return a.size() > limite ? a.subList(0, limite) : a;
+        }
+        List<AtencionMedica> resultado = new ArrayList<>(Math.min(limite, a.size() + b.size()));
+        Set<Long> ids = new HashSet<>();
+        int i = 0;
+        int j = 0;
+        while (resultado.size() < limite && (i < a.size() || j < b.size())) {
+            AtencionMedica siguiente;
+            if (j >= b.size() || (i < a.size() && MAS_RECIENTE_PRIMERO.compare(a.get(i), b.get(j)) <= 0)) {
+                siguiente = a.get(i++);
+            } else {
+                siguiente = b.get(j++);
+            }
+            if (ids.add(siguiente.getId())) {
+                resultado.add(siguiente);
+            }
+        }
+        return resultado;
+    }
+    
+    record Posicion(LocalDateTime fechaAtencion, Long id) {
+    }
+    
+    static String codificarCursor(AtencionMedica atencion) {
+        String valor = atencion.getFechaAtencion() + "|" + atencion.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static Posicion decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf('|');
+            return new Posicion(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor);
+        }
+    }
+}
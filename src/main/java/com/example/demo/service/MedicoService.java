@@ -1,13 +1,21 @@
 package com.example.demo.service;
 
+import com.example.demo.concurrency.Coalesced;
+import com.example.demo.event.EntidadModificadaEvent;
+import com.example.demo.event.Tabla;
+import com.example.demo.event.TipoCambio;
 import com.example.demo.model.Medico;
 import com.example.demo.repository.MedicoRepository;
+import com.example.demo.repository.SparseFieldsQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -16,14 +24,28 @@ public class MedicoService {
     @Autowired
     private MedicoRepository medicoRepository;
     
+    @Autowired
+    private SparseFieldsQuery sparseFieldsQuery;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Coalesced
     public List<Medico> getAllMedicos() {
         return medicoRepository.findAll();
     }
     
+    @Coalesced
     public Optional<Medico> getMedicoById(Long id) {
         return medicoRepository.findById(id);
     }
     
+    // Devuelve solo los encontrados, indexados por ID
+    @Coalesced
+    public Map<Long, Medico> getMedicosByIds(List<Long> ids) {
+        return BatchLoader.findAllById(medicoRepository, ids, Medico::getId);
+    }
+    
     public Medico createMedico(Medico medico) {
         if (medicoRepository.existsByRut(medico.getRut())) {
             throw new RuntimeException("Ya existe un médico con el RUT: " + medico.getRut());
@@ -31,7 +53,9 @@ public class MedicoService {
         if (medicoRepository.existsByCorreo(medico.getCorreo())) {
             throw new RuntimeException("Ya existe un médico con el correo: " + medico.getCorreo());
         }
-        return medicoRepository.save(medico);
+        Medico nuevo = medicoRepository.save(medico);
+        eventPublisher.publishEvent(new EntidadModificadaEvent(Tabla.MEDICOS, nuevo.getId(), TipoCambio.CREADO));
+        return nuevo;
     }
     
     public Medico updateMedico(Long id, Medico medicoDetails) {
@@ -47,7 +71,9 @@ public class MedicoService {
             medico.setDireccion(medicoDetails.getDireccion());
             medico.setEspecialidad(medicoDetails.getEspecialidad());
             
-            return medicoRepository.save(medico);
+            Medico actualizado = medicoRepository.save(medico);
+            eventPublisher.publishEvent(new EntidadModificadaEvent(Tabla.MEDICOS, id, TipoCambio.ACTUALIZADO));
+            return actualizado;
         }
         return null;
     }
@@ -55,12 +81,20 @@ public class MedicoService {
     public boolean deleteMedico(Long id) {
         if (medicoRepository.existsById(id)) {
             medicoRepository.deleteById(id);
+            eventPublisher.publishEvent(new EntidadModificadaEvent(Tabla.MEDICOS, id, TipoCambio.ELIMINADO));
             return true;
         }
         return false;
     }
     
+    @Coalesced
     public Optional<Medico> getMedicoByRut(String rut) {
         return medicoRepository.findByRut(rut);
     }
+    
+    // Solo las columnas indicadas; atributoFiltro (opcional) filtra por igualdad con valorFiltro
+    @Coalesced
+    public List<Map<String, Object>> getCampos(Set<String> columnas, String atributoFiltro, Object valorFiltro) {
+        return sparseFieldsQuery.buscar(Medico.class, columnas, atributoFiltro, valorFiltro);
+    }
 }
\ No newline at end of file
@@ -1,13 +1,21 @@
 package com.example.demo.service;
 
+import com.example.demo.concurrency.Coalesced;
+import com.example.demo.event.EntidadModificadaEvent;
+import com.example.demo.event.Tabla;
+import com.example.demo.event.TipoCambio;
 import com.example.demo.model.Paciente;
 import com.example.demo.repository.PacienteRepository;
+import com.example.demo.repository.SparseFieldsQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -16,14 +24,28 @@ public class PacienteService {
     @Autowired
     private PacienteRepository pacienteRepository;
     
+    @Autowired
+    private SparseFieldsQuery sparseFieldsQuery;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Coalesced
     public List<Paciente> getAllPacientes() {
         return pacienteRepository.findAll();
     }
     
+    @Coalesced
     public Optional<Paciente> getPacienteById(Long id) {
         return pacienteRepository.findById(id);
     }
     
+    // Devuelve solo los encontrados, indexados por ID
+    @Coalesced
+    public Map<Long, Paciente> getPacientesByIds(List<Long> ids) {
+        return BatchLoader.findAllById(pacienteRepository, ids, Paciente::getId);
+    }
+    
     public Paciente createPaciente(Paciente paciente) {
         if (pacienteRepository.existsByRut(paciente.getRut())) {
             throw new RuntimeException("Ya existe un paciente con el RUT: " + paciente.getRut());
@@ -31,7 +53,9 @@ public class PacienteService {
         if (pacienteRepository.existsByCorreo(paciente.getCorreo())) {
             throw new RuntimeException("Ya existe un paciente con el correo: " + paciente.getCorreo());
         }
-        return pacienteRepository.save(paciente);
+        Paciente nuevo = pacienteRepository.save(paciente);
+        eventPublisher.publishEvent(new EntidadModificadaEvent(Tabla.PACIENTES, nuevo.getId(), TipoCambio.CREADO));
+        return nuevo;
     }
     
     public Paciente updatePaciente(Long id, Paciente pacienteDetails) {
@@ -46,7 +70,9 @@ public class PacienteService {
             paciente.setCorreo(pacienteDetails.getCorreo());
             paciente.setDireccion(pacienteDetails.getDireccion());
             
-            return pacienteRepository.save(paciente);
+            Paciente actualizado = pacienteRepository.save(paciente);
+            eventPublisher.publishEvent(new EntidadModificadaEvent(Tabla.PACIENTES, id, TipoCambio.ACTUALIZADO));
+            return actualizado;
         }
         return null;
     }
@@ -54,12 +80,20 @@ public class PacienteService {
     public boolean deletePaciente(Long id) {
         if (pacienteRepository.existsById(id)) {
             pacienteRepository.deleteById(id);
+            eventPublisher.publishEvent(new EntidadModificadaEvent(Tabla.PACIENTES, id, TipoCambio.ELIMINADO));
             return true;
         }
         return false;
     }
     
+    @Coalesced
     public Optional<Paciente> getPacienteByRut(String rut) {
         return pacienteRepository.findByRut(rut);
     }
+    
+    // Solo las columnas indicadas; atributoFiltro (opcional) filtra por igualdad con valorFiltro
+    @Coalesced
+    public List<Map<String, Object>> getCampos(Set<String> columnas, String atributoFiltro, Object valorFiltro) {
+        return sparseFieldsQuery.buscar(Paciente.class, columnas, atributoFiltro, valorFiltro);
+    }
 }
\ No newline at end of file
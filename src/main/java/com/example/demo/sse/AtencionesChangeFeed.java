@@ -0,0 +1,139 @@
+package com.example.demo.sse;
+
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cambios confirmados de atenciones para GET /atenciones-medicas/stream. Guarda los últimos N en un
+// buffer circular para reanudar con Last-Event-ID y reparte cada cambio a las colas de los suscriptores.
+@Component
+public class AtencionesChangeFeed implements MeterBinder {
+
+    private final CambioAtencion[] buffer;
+    private final int capacidadCola;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong desbordes = new AtomicLong();
+    private long siguienteSecuencia = 1;
+
+    public AtencionesChangeFeed(@Value("${atenciones.sse.buffer:1024}") int capacidadBuffer,
+                                @Value("${atenciones.sse.cola:256}") int capacidadCola,
+                                @Value("${atenciones.sse.heartbeat-ms:15000}") long heartbeatMs,
+                                @Value("${atenciones.sse.timeout-ms:1800000}") long timeoutMs) {
+        this.buffer = new CambioAtencion[capacidadBuffer];
+        this.capacidadCola = capacidadCola;
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter suscribir(Long medicoId, String estado, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(emitter, medicoId, estado, capacidadCola, heartbeatMs);
+
+        // Reenvío y alta bajo el mismo candado: ningún cambio se pierde ni se duplica entre ambos
+        synchronized (this) {
+            Long ultimo = parsear(lastEventId);
+            if (ultimo != null && ultimo >= siguienteSecuencia) {
+                // Id de un arranque anterior del servicio
+                suscriptor.ofrecer(CambioAtencion.REINICIO);
+            } else if (ultimo != null && ultimo < siguienteSecuencia - 1) {
+                reenviar(suscriptor, ultimo + 1);
+            }
+            suscriptores.add(suscriptor);
+        }
+
+        emitter.onCompletion(() -> quitar(suscriptor));
+        emitter.onTimeout(() -> quitar(suscriptor));
+        emitter.onError(error -> quitar(suscriptor));
+        Thread.ofVirtual().name("sse-atenciones").start(suscriptor::despachar);
+        return emitter;
+    }
+
+    // Solo cambios confirmados: una transacción revertida no debe llegar a las pantallas
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void alModificar(AtencionMedicaModificadaEvent evento) {
+        CambioAtencion cambio = new CambioAtencion(siguienteSecuencia++, nombre(evento), evento.getId(),
+                evento.getAnterior(), evento.getActual());
+        buffer[(int) (cambio.secuencia() % buffer.length)] = cambio;
+
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.acepta(cambio) && !suscriptor.ofrecer(cambio)) {
+                desbordes.incrementAndGet();
+                quitar(suscriptor);
+            }
+        }
+    }
+
+    private void reenviar(Suscriptor suscriptor, long desde) {
+        long masAntigua = Math.max(1, siguienteSecuencia - buffer.length);
+        List<CambioAtencion> pendientes = new ArrayList<>();
+        for (long secuencia = Math.max(desde, masAntigua); secuencia < siguienteSecuencia; secuencia++) {
+            CambioAtencion cambio = buffer[(int) (secuencia % buffer.length)];
+            if (suscriptor.acepta(cambio)) {
+                pendientes.add(cambio);
+            }
+        }
+        // Ya no están en el buffer o no caben en la cola: que recargue el listado
+        if (desde < masAntigua || pendientes.size() > capacidadCola) {
+            suscriptor.ofrecer(CambioAtencion.REINICIO);
+            return;
+        }
+        pendientes.forEach(suscriptor::ofrecer);
+    }
+
+    private void quitar(Suscriptor suscriptor) {
+        suscriptores.remove(suscriptor);
+        suscriptor.cerrar();
+    }
+
+    private static String nombre(AtencionMedicaModificadaEvent evento) {
+        if (evento.isCambioEstado()) {
+            return "estado-cambiado";
+        }
+        return switch (evento.getTipo()) {
+            case CREADO -> "creado";
+            case ACTUALIZADO -> "actualizado";
+            case ELIMINADO -> "eliminado";
+            case ARCHIVADO -> "archivado";
+        };
+    }
+
+    private static Long parsear(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("atenciones.sse.suscriptores", this, AtencionesChangeFeed::getSuscriptores)
+                .description("Conexiones abiertas al stream de atenciones")
+                .register(registry);
+        FunctionCounter.builder("atenciones.sse.desbordes", desbordes, AtomicLong::get)
+                .description("Suscriptores desconectados por no consumir a tiempo")
+                .register(registry);
+    }
+}
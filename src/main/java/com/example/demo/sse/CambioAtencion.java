@@ -0,0 +1,20 @@
+package com.example.demo.sse;
+
+import com.example.demo.model.AtencionMedica;
+
+// Entrada del buffer circular. secuencia es el id SSE (Last-Event-ID)
+record CambioAtencion(long secuencia, String evento, Long id, AtencionMedica anterior, AtencionMedica actual) {
+
+    // Aviso de que no se pudo reanudar: el cliente debe recargar el listado completo
+    static final CambioAtencion REINICIO = new CambioAtencion(0, "reinicio", null, null, null);
+
+    boolean afecta(Long medicoId, String estado) {
+        return coincide(anterior, medicoId, estado) || coincide(actual, medicoId, estado);
+    }
+
+    private static boolean coincide(AtencionMedica atencion, Long medicoId, String estado) {
+        return atencion != null
+                && (medicoId == null || medicoId.equals(atencion.getMedicoId()))
+                && (estado == null || estado.equals(atencion.getEstado()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.sse;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Una conexión SSE con su propia cola acotada. Un hilo virtual por suscriptor escribe en la conexión,
+// así un cliente lento solo se bloquea a sí mismo; si su cola se llena se le desconecta y al reconectar
+// reanuda desde el buffer con Last-Event-ID.
+class Suscriptor {
+
+    private final SseEmitter emitter;
+    private final Long medicoId;
+    private final String estado;
+    private final BlockingQueue<CambioAtencion> cola;
+    private final long heartbeatMs;
+    private volatile boolean activo = true;
+
+    Suscriptor(SseEmitter emitter, Long medicoId, String estado, int capacidadCola, long heartbeatMs) {
+        this.emitter = emitter;
+        this.medicoId = medicoId;
+        this.estado = estado;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.heartbeatMs = heartbeatMs;
+    }
+
+    boolean acepta(CambioAtencion cambio) {
+        return cambio.afecta(medicoId, estado);
+    }
+
+    // No bloquea: false si la cola está llena
+    boolean ofrecer(CambioAtencion cambio) {
+        return cola.offer(cambio);
+    }
+
+    // El cierre lo completa el hilo de despacho, que es el único que escribe en el emitter
+    void cerrar() {
+        activo = false;
+    }
+
+    void despachar() {
+        try {
+            while (activo) {
+                CambioAtencion cambio = cola.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                if (!activo) {
+                    break;
+                }
+                if (cambio == null) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } else if (cambio == CambioAtencion.REINICIO) {
+                    emitter.send(SseEmitter.event().name(cambio.evento()).data("{}", MediaType.APPLICATION_JSON));
+                } else {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(cambio.secuencia()))
+                            .name(cambio.evento())
+                            .data(cuerpo(cambio), MediaType.APPLICATION_JSON));
+                }
+            }
+            emitter.complete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado o emitter ya completado
+            activo = false;
+        }
+    }
+
+    private static Map<String, Object> cuerpo(CambioAtencion cambio) {
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("id", cambio.id());
+        cuerpo.put("atencion", cambio.actual() != null ? cambio.actual() : cambio.anterior());
+        if (cambio.anterior() != null && cambio.actual() != null) {
+            cuerpo.put("estadoAnterior", cambio.anterior().getEstado());
+        }
+        return cuerpo;
+    }
+}
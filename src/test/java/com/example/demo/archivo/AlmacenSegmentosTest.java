@@ -0,0 +1,222 @@
+package com.example.demo.archivo;
+
+import com.example.demo.model.AtencionMedica;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlmacenSegmentosTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void escribirYReabrir_entoncesEncontrarPorIdDesdeElIndiceDisperso() throws IOException {
+        // Given
+        AlmacenSegmentos almacen = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        almacen.abrir();
+        almacen.escribir(atenciones(1, 500));
+        almacen.cerrar();
+
+        // When
+        AlmacenSegmentos reabierto = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        reabierto.abrir();
+
+        // Then
+        assertEquals(32, reabierto.getBloques());
+        AtencionMedica atencion = reabierto.buscarPorId(321).orElseThrow();
+        assertEquals(2L, atencion.getPacienteId());
+        assertEquals("Diagnóstico de la atención 321", atencion.getDiagnostico());
+        assertNull(atencion.getObservaciones());
+        assertEquals(INICIO.plusHours(321), atencion.getFechaAtencion());
+        assertTrue(reabierto.buscarPorId(501).isEmpty());
+        reabierto.cerrar();
+    }
+
+    @Test
+    void historiaConCursor_entoncesPaginasSinSolapeYMasRecientesPrimero() throws IOException {
+        // Given
+        AlmacenSegmentos almacen = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        almacen.abrir();
+        almacen.escribir(atenciones(1, 400));
+
+        // When
+        List<AtencionMedica> primera = almacen.historia(7, null, null, 5);
+        AtencionMedica ultima = primera.get(4);
+        List<AtencionMedica> segunda = almacen.historia(7, ultima.getFechaAtencion(), ultima.getId(), 5);
+
+        // Then: el paciente 7 tiene las atenciones 6, 46, 86... (id % 40 == 6)
+        assertEquals(List.of(366L, 326L, 286L, 246L, 206L), primera.stream().map(AtencionMedica::getId).toList());
+        assertEquals(List.of(166L, 126L, 86L, 46L, 6L), segunda.stream().map(AtencionMedica::getId).toList());
+        assertEquals(10, almacen.buscar("pacienteId", 7L).size());
+        almacen.cerrar();
+    }
+
+    @Test
+    void reescrituraTrasFallo_entoncesLecturasSinDuplicados() throws IOException {
+        // Given: el mismo trozo escrito dos veces, como tras un commit fallido
+        AlmacenSegmentos almacen = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        almacen.abrir();
+        almacen.escribir(atenciones(1, 80));
+        almacen.escribir(atenciones(1, 80));
+
+        // When
+        List<AtencionMedica> delMedico = almacen.buscar("medicoId", 3L);
+
+        // Then
+        assertEquals(80 / 5, delMedico.size());
+        assertEquals(80 / 5, delMedico.stream().map(AtencionMedica::getId).distinct().count());
+        almacen.cerrar();
+    }
+
+    @Test
+    void bloqueIncompletoAlFinal_entoncesDescartarloAlAbrir() throws IOException {
+        // Given
+        AlmacenSegmentos almacen = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        almacen.abrir();
+        almacen.escribir(atenciones(1, 32));
+        almacen.cerrar();
+        Path segmento = directorio.resolve("nodo-a").resolve("segmento-000001.dat");
+        long tamano = Files.size(segmento);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(tamano - 10);
+        }
+
+        // When
+        AlmacenSegmentos reabierto = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        reabierto.abrir();
+
+        // Then: sobrevive el primer bloque y se puede seguir escribiendo
+        assertEquals(1, reabierto.getBloques());
+        assertTrue(reabierto.buscarPorId(16).isPresent());
+        assertTrue(reabierto.buscarPorId(17).isEmpty());
+        reabierto.escribir(atenciones(17, 32));
+        assertTrue(reabierto.buscarPorId(17).isPresent());
+        reabierto.cerrar();
+    }
+
+    @Test
+    void bloqueDanadoEnMedio_entoncesTruncarDesdeElAlAbrir() throws IOException {
+        // Given: se corrompe un byte de los datos comprimidos del segundo de tres bloques
+        AlmacenSegmentos almacen = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        almacen.abrir();
+        almacen.escribir(atenciones(1, 16));
+        Path segmento = directorio.resolve("nodo-a").resolve("segmento-000001.dat");
+        long inicioSegundo = Files.size(segmento);
+        almacen.escribir(atenciones(17, 32));
+        almacen.escribir(atenciones(33, 48));
+        almacen.cerrar();
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer octeto = ByteBuffer.allocate(1);
+            long posicion = inicioSegundo + SegmentoArchivo.CABECERA_BLOQUE + 4;
+            canal.read(octeto, posicion);
+            octeto.put(0, (byte) (octeto.get(0) ^ 0xFF));
+            canal.write(octeto.rewind(), posicion);
+        }
+
+        // When
+        AlmacenSegmentos reabierto = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        reabierto.abrir();
+
+        // Then
+        assertEquals(1, reabierto.getBloques());
+        assertEquals(inicioSegundo, Files.size(segmento));
+        assertTrue(reabierto.buscarPorId(16).isPresent());
+        assertTrue(reabierto.buscarPorId(40).isEmpty());
+        reabierto.cerrar();
+    }
+
+    @Test
+    void tamanoMaximoSuperado_entoncesRotarSegmento() throws IOException {
+        // Given
+        AlmacenSegmentos almacen = new AlmacenSegmentos(directorio, "nodo-a", 4096, 16, 0);
+        almacen.abrir();
+
+        // When
+        almacen.escribir(atenciones(1, 1000));
+
+        // Then
+        try (var ficheros = Files.list(directorio.resolve("nodo-a"))) {
+            assertTrue(ficheros.filter(ruta -> ruta.getFileName().toString().startsWith("segmento-")).count() > 1);
+        }
+        assertTrue(almacen.buscarPorId(1).isPresent());
+        assertTrue(almacen.buscarPorId(1000).isPresent());
+        almacen.cerrar();
+    }
+
+    @Test
+    void otraInstanciaEscribe_entoncesLeerSusSegmentosDelDirectorioCompartido() throws IOException {
+        // Given
+        AlmacenSegmentos a = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        AlmacenSegmentos b = new AlmacenSegmentos(directorio, "nodo-b", 1024 * 1024, 16, 0);
+        a.abrir();
+        b.abrir();
+
+        // When: cada instancia compacta un trozo distinto después de arrancar las dos
+        a.escribir(atenciones(1, 40));
+        b.escribir(atenciones(41, 80));
+
+        // Then
+        assertTrue(b.buscarPorId(7).isPresent());
+        assertTrue(a.buscarPorId(77).isPresent());
+        assertEquals(80 / 5, a.buscar("medicoId", 3L).size());
+        assertEquals(80 / 5, b.buscar("medicoId", 3L).size());
+        a.cerrar();
+        b.cerrar();
+    }
+
+    @Test
+    void lecturasDentroDelIntervalo_entoncesNoRefrescarHastaQuePase() throws IOException {
+        // Given
+        AlmacenSegmentos a = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        AlmacenSegmentos b = new AlmacenSegmentos(directorio, "nodo-b", 1024 * 1024, 16, 60_000);
+        a.abrir();
+        b.abrir();
+
+        // When
+        a.escribir(atenciones(1, 16));
+
+        // Then: b no vuelve a listar el directorio hasta el siguiente intervalo o un refresco explícito
+        assertTrue(b.buscarPorId(7).isEmpty());
+        b.refrescar();
+        assertTrue(b.buscarPorId(7).isPresent());
+        a.cerrar();
+        b.cerrar();
+    }
+
+    @Test
+    void mismoNodoDosVeces_entoncesRechazarAbrir() throws IOException {
+        // Given
+        AlmacenSegmentos almacen = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        almacen.abrir();
+
+        // When / Then
+        AlmacenSegmentos repetido = new AlmacenSegmentos(directorio, "nodo-a", 1024 * 1024, 16, 0);
+        assertThrows(IllegalStateException.class, repetido::abrir);
+        almacen.cerrar();
+    }
+
+    private static List<AtencionMedica> atenciones(long desde, long hasta) {
+        List<AtencionMedica> atenciones = new ArrayList<>();
+        for (long id = desde; id <= hasta; id++) {
+            AtencionMedica atencion = new AtencionMedica(id % 40 + 1, id % 5 + 1, INICIO.plusHours(id),
+                    "Control", "Diagnóstico de la atención " + id, "Reposo", null, id % 3 == 0 ? "Cancelada" : "Realizada");
+            atencion.setId(id);
+            atenciones.add(atencion);
+        }
+        return atenciones;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.AtencionMedica;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Benchmark manual (no lo ejecuta surefire): tamaño y tiempo de codificación/decodificación de un
+// listado de atenciones en JSON, CBOR y Smile con la misma configuración de Jackson.
+//
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.example.demo.benchmark.BinaryFormatBenchmark
+public class BinaryFormatBenchmark {
+
+    private static final int ATENCIONES = 5_000;
+    private static final int ITERACIONES = 200;
+    private static final TypeReference<List<AtencionMedica>> LISTA = new TypeReference<>() {
+    };
+
+    public static void main(String[] args) throws Exception {
+        List<AtencionMedica> atenciones = generar(ATENCIONES);
+        ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        medir("json", json, atenciones);
+        medir("cbor", json.copyWith(new CBORFactory()), atenciones);
+        medir("smile", json.copyWith(new SmileFactory()), atenciones);
+    }
+
+    private static void medir(String formato, ObjectMapper mapper, List<AtencionMedica> atenciones) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(atenciones);
+        // Calentamiento
+        for (int i = 0; i < ITERACIONES / 4; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(atenciones), LISTA);
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            bytes = mapper.writeValueAsBytes(atenciones);
+        }
+        long codificar = (System.nanoTime() - inicio) / ITERACIONES;
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            mapper.readValue(bytes, LISTA);
+        }
+        long decodificar = (System.nanoTime() - inicio) / ITERACIONES;
+
+        System.out.printf("%-6s bytes=%,10d  codificar=%,8d us  decodificar=%,8d us%n",
+                formato, bytes.length, codificar / 1_000, decodificar / 1_000);
+    }
+
+    private static List<AtencionMedica> generar(int cantidad) {
+        String[] estados = {"Programada", "Realizada", "Cancelada"};
+        List<AtencionMedica> atenciones = new ArrayList<>(cantidad);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        for (int i = 0; i < cantidad; i++) {
+            AtencionMedica atencion = new AtencionMedica();
+            atencion.setId((long) i + 1);
+            atencion.setPacienteId((long) (i % 500) + 1);
+            atencion.setMedicoId((long) (i % 40) + 1);
+            atencion.setFechaAtencion(base.plusMinutes(30L * i));
+            atencion.setMotivoConsulta("Control de rutina " + i);
+            atencion.setDiagnostico("Sin hallazgos relevantes");
+            atencion.setTratamiento("Reposo e hidratación");
+            atencion.setObservaciones("Paciente estable");
+            atencion.setEstado(estados[i % estados.length]);
+            atenciones.add(atencion);
+        }
+        return atenciones;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.concurrency.GroupCommitQueue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Benchmark manual (no lo ejecuta surefire): compara una transacción por alta con GroupCommitQueue
+// frente a una base simulada en la que cada commit cuesta COMMIT_US (el fsync del redo log) y cada
+// fila FILA_US. Muestra el throughput y la latencia añadida (p50/p99) con N clientes concurrentes.
+//
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.example.demo.benchmark.GroupCommitBenchmark
+public class GroupCommitBenchmark {
+
+    private static final long COMMIT_US = 2_000;
+    private static final long FILA_US = 20;
+    private static final int CLIENTES = 200;
+    private static final int ALTAS_POR_CLIENTE = 50;
+    private static final int CONEXIONES = 10;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("una transacción por alta:");
+        medir(new BaseSimulada(CONEXIONES)::commitIndividual);
+
+        for (int espera : new int[] {1, 5, 10}) {
+            BaseSimulada base = new BaseSimulada(CONEXIONES);
+            GroupCommitQueue<Integer, Integer> cola = new GroupCommitQueue<>("benchmark", base::commitLote,
+                    CLIENTES * 2, 100, espera);
+            cola.iniciar();
+            System.out.printf("group commit, espera=%d ms:%n", espera);
+            medir(alta -> cola.encolar(alta).get());
+            System.out.printf("    tamaño medio de lote=%.1f%n", (double) cola.getElementos() / cola.getLotes());
+            cola.cerrar();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Alta {
+        void crear(int alta) throws Exception;
+    }
+
+    private static void medir(Alta alta) throws InterruptedException {
+        long[] latencias = new long[CLIENTES * ALTAS_POR_CLIENTE];
+        CountDownLatch listo = new CountDownLatch(CLIENTES);
+        long inicio = System.nanoTime();
+        for (int c = 0; c < CLIENTES; c++) {
+            int cliente = c;
+            Thread.ofVirtual().start(() -> {
+                try {
+                    for (int i = 0; i < ALTAS_POR_CLIENTE; i++) {
+                        long t0 = System.nanoTime();
+                        alta.crear(i);
+                        latencias[cliente * ALTAS_POR_CLIENTE + i] = System.nanoTime() - t0;
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    listo.countDown();
+                }
+            });
+        }
+        listo.await();
+        long total = System.nanoTime() - inicio;
+        Arrays.sort(latencias);
+        System.out.printf("    altas/s=%,10.0f  p50=%,6d us  p99=%,6d us%n",
+                latencias.length / (total / 1e9),
+                latencias[latencias.length / 2] / 1_000,
+                latencias[(int) (latencias.length * 0.99)] / 1_000);
+    }
+
+    // Pool de conexiones acotado: cada transacción ocupa una conexión mientras dura
+    private static class BaseSimulada {
+
+        private final Semaphore conexiones;
+
+        BaseSimulada(int conexiones) {
+            this.conexiones = new Semaphore(conexiones);
+        }
+
+        void commitIndividual(int alta) throws InterruptedException {
+            conexiones.acquire();
+            try {
+                esperar(FILA_US + COMMIT_US);
+            } finally {
+                conexiones.release();
+            }
+        }
+
+        List<Integer> commitLote(List<Integer> altas) throws InterruptedException {
+            conexiones.acquire();
+            try {
+                esperar(FILA_US * altas.size() + COMMIT_US);
+                return altas;
+            } finally {
+                conexiones.release();
+            }
+        }
+
+        private static void esperar(long micros) {
+            long fin = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(micros);
+            while (System.nanoTime() < fin) {
+                LockSupport.parkNanos(fin - System.nanoTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.ValoresCanonicos;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Benchmark manual (no lo ejecuta surefire): heap retenido por un millón de atenciones cuando cada fila
+// trae su propio String de estado (como lo entrega el driver JDBC) frente a pasar por
+// ValoresCanonicos.Convertidor. Conviene ejecutarlo con un heap fijo, p. ej. -Xms2g -Xmx2g.
+//
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.example.demo.benchmark.InterningHeapBenchmark
+public class InterningHeapBenchmark {
+
+    private static final int FILAS = 1_000_000;
+    private static final byte[][] ESTADOS = {
+            "Programada".getBytes(StandardCharsets.UTF_8),
+            "Realizada".getBytes(StandardCharsets.UTF_8),
+            "Cancelada".getBytes(StandardCharsets.UTF_8)};
+
+    public static void main(String[] args) {
+        ValoresCanonicos.Convertidor convertidor = new ValoresCanonicos.Convertidor();
+
+        long base = heapUsado();
+        List<AtencionMedica> sinCanonicos = cargar(false, convertidor);
+        long conCopias = heapUsado() - base;
+        sinCanonicos = null;
+
+        base = heapUsado();
+        List<AtencionMedica> conCanonicos = cargar(true, convertidor);
+        long compartidos = heapUsado() - base;
+
+        System.out.printf("filas=%,d%n", FILAS);
+        System.out.printf("String por fila:       %,12d bytes (%5.1f bytes/fila)%n", conCopias, (double) conCopias / FILAS);
+        System.out.printf("instancias canónicas:  %,12d bytes (%5.1f bytes/fila)%n", compartidos, (double) compartidos / FILAS);
+        System.out.printf("ahorro:                %,12d bytes%n", conCopias - compartidos);
+        if (conCanonicos.size() != FILAS) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static List<AtencionMedica> cargar(boolean canonicos, ValoresCanonicos.Convertidor convertidor) {
+        List<AtencionMedica> atenciones = new ArrayList<>(FILAS);
+        LocalDateTime fecha = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < FILAS; i++) {
+            // Un String nuevo por fila, como el que construye el driver al leer la columna
+            String estado = new String(ESTADOS[i % ESTADOS.length], StandardCharsets.UTF_8);
+            AtencionMedica atencion = new AtencionMedica((long) (i % 50_000) + 1, (long) (i % 300) + 1, fecha,
+                    "Control", null, null, null, canonicos ? convertidor.convertToEntityAttribute(estado) : estado);
+            atencion.setId((long) i + 1);
+            atenciones.add(atencion);
+        }
+        return atenciones;
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
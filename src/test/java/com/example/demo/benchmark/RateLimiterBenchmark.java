@@ -0,0 +1,62 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.concurrency.RateLimiter;
+import com.example.demo.concurrency.RateLimiter.Cuota;
+import com.example.demo.event.Tabla;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+// Benchmark manual (no lo ejecuta surefire): coste por petición de RateLimiter.intentar con varios hilos
+// repartidos entre muchos clientes, que es lo que añade el filtro a cada petición.
+//
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.example.demo.benchmark.RateLimiterBenchmark
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTES = 10_000;
+    private static final int LLAMADAS_POR_HILO = 5_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<Tabla, Cuota> cuotas = new EnumMap<>(Tabla.class);
+        for (Tabla tabla : Tabla.values()) {
+            cuotas.put(tabla, new Cuota(1_000_000, 1_000_000));
+        }
+        RateLimiter limiter = new RateLimiter(cuotas, 64, 100_000, 300_000);
+        String[] clientes = new String[CLIENTES];
+        for (int i = 0; i < CLIENTES; i++) {
+            clientes[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+
+        // Calentamiento
+        ejecutar(limiter, clientes, 1);
+        for (int hilos : new int[] {1, 4, Runtime.getRuntime().availableProcessors()}) {
+            long nanos = ejecutar(limiter, clientes, hilos);
+            System.out.printf("hilos=%3d  ns/llamada=%6.1f%n", hilos, (double) nanos / LLAMADAS_POR_HILO);
+        }
+    }
+
+    private static long ejecutar(RateLimiter limiter, String[] clientes, int hilos) throws InterruptedException {
+        CountDownLatch listo = new CountDownLatch(hilos);
+        long[] duraciones = new long[hilos];
+        for (int h = 0; h < hilos; h++) {
+            int indice = h;
+            Thread.ofPlatform().start(() -> {
+                Tabla[] tablas = Tabla.values();
+                long inicio = System.nanoTime();
+                for (int i = 0; i < LLAMADAS_POR_HILO; i++) {
+                    limiter.intentar(tablas[i % tablas.length], clientes[(i * 31 + indice) % clientes.length]);
+                }
+                duraciones[indice] = System.nanoTime() - inicio;
+                listo.countDown();
+            });
+        }
+        listo.await();
+        long maximo = 0;
+        for (long duracion : duraciones) {
+            maximo = Math.max(maximo, duracion);
+        }
+        return maximo;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.concurrency.Bulkhead;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Benchmark manual (no lo ejecuta surefire): compara el pool de hilos de plataforma de Tomcat
+// con hilos virtuales + bulkhead frente a un pool de conexiones de 10 con llamadas JDBC simuladas.
+// La mitad de las peticiones no usa la base de datos (E/S de 1 ms), que es donde se nota el cambio.
+//
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.example.demo.benchmark.VirtualThreadBulkheadBenchmark
+public class VirtualThreadBulkheadBenchmark {
+
+    private static final int PETICIONES = 20_000;
+    private static final int HILOS_TOMCAT = 200;
+    private static final int CONEXIONES = 10;
+    private static final long JDBC_MS = 5;
+    private static final long OTRA_ES_MS = 1;
+
+    public static void main(String[] args) throws Exception {
+        // Calentamiento
+        ejecutar("plataforma", Executors.newFixedThreadPool(HILOS_TOMCAT), null, 2_000);
+        ejecutar("virtual", Executors.newVirtualThreadPerTaskExecutor(),
+                new Bulkhead("benchmark", CONEXIONES, 60_000), 2_000);
+
+        imprimir(ejecutar("plataforma", Executors.newFixedThreadPool(HILOS_TOMCAT), null, PETICIONES));
+        imprimir(ejecutar("virtual+bulkhead", Executors.newVirtualThreadPerTaskExecutor(),
+                new Bulkhead("benchmark", CONEXIONES, 60_000), PETICIONES));
+    }
+
+    private static Resultado ejecutar(String modo, ExecutorService executor, Bulkhead bulkhead, int peticiones)
+            throws Exception {
+        Semaphore poolConexiones = new Semaphore(CONEXIONES, true);
+        long[] latencias = new long[peticiones];
+        List<Future<?>> futuros = new ArrayList<>(peticiones);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < peticiones; i++) {
+            final int indice = i;
+            final long encolada = System.nanoTime();
+            futuros.add(executor.submit(() -> {
+                if (indice % 2 == 1) {
+                    Thread.sleep(OTRA_ES_MS);
+                    latencias[indice] = System.nanoTime() - encolada;
+                    return null;
+                }
+                if (bulkhead != null) {
+                    bulkhead.adquirir();
+                }
+                try {
+                    poolConexiones.acquire();
+                    try {
+                        Thread.sleep(JDBC_MS);
+                    } finally {
+                        poolConexiones.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (bulkhead != null) {
+                        bulkhead.liberar();
+                    }
+                }
+                latencias[indice] = System.nanoTime() - encolada;
+                return null;
+            }));
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get();
+        }
+        long total = System.nanoTime() - inicio;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        Arrays.sort(latencias);
+        return new Resultado(modo, peticiones * 1e9 / total,
+                latencias[(int) (peticiones * 0.50)] / 1e6,
+                latencias[(int) (peticiones * 0.99)] / 1e6);
+    }
+
+    private static void imprimir(Resultado resultado) {
+        System.out.printf("%-18s %10.0f req/s   p50 %8.1f ms   p99 %8.1f ms%n",
+                resultado.modo(), resultado.throughput(), resultado.p50Ms(), resultado.p99Ms());
+    }
+
+    private record Resultado(String modo, double throughput, double p50Ms, double p99Ms) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.event.TipoCambio;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.AtencionMedicaScan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AtencionesIndicesTest {
+
+    private AtencionesIndices indices;
+
+    @BeforeEach
+    void setUp() {
+        AtencionMedicaScan scan = mock(AtencionMedicaScan.class);
+        doAnswer(invocacion -> {
+            AtencionMedicaScan.Visitante visitante = invocacion.getArgument(0);
+            for (long id = 10; id >= 1; id--) {
+                visitante.visitar(id, id % 2 == 0 ? 100L : 200L, 7L, null, "Realizada");
+            }
+            return null;
+        }).when(scan).recorrer(any());
+        indices = new AtencionesIndices(scan, 16);
+    }
+
+    @Test
+    void cargaCompleta_entoncesIdsOrdenadosPorPacienteYMedico() {
+        // When
+        indices.cargar();
+
+        // Then
+        assertTrue(indices.isCargado());
+        assertArrayEquals(new long[] {2, 4, 6, 8, 10}, indices.getIdsPorPaciente(100L));
+        assertArrayEquals(new long[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, indices.getIdsPorMedico(7L));
+        assertArrayEquals(new long[0], indices.getIdsPorPaciente(999L));
+    }
+
+    @Test
+    void cambioDePacienteYBaja_entoncesMoverYQuitarElId() {
+        // Given
+        indices.cargar();
+        long[] antes = indices.getIdsPorPaciente(100L);
+
+        // When
+        indices.alModificar(new AtencionMedicaModificadaEvent(4L, TipoCambio.ACTUALIZADO,
+                atencion(4L, 100L), atencion(4L, 200L)));
+        indices.alModificar(new AtencionMedicaModificadaEvent(6L, TipoCambio.ELIMINADO, atencion(6L, 100L), null));
+
+        // Then
+        assertArrayEquals(new long[] {2, 8, 10}, indices.getIdsPorPaciente(100L));
+        assertArrayEquals(new long[] {1, 3, 4, 5, 7, 9}, indices.getIdsPorPaciente(200L));
+        assertArrayEquals(new long[] {1, 2, 3, 4, 5, 7, 8, 9, 10}, indices.getIdsPorMedico(7L));
+        // Los arrays ya entregados no cambian
+        assertArrayEquals(new long[] {2, 4, 6, 8, 10}, antes);
+    }
+
+    @Test
+    void cargaFallida_entoncesNoAcumularCambiosYReintentarDesdeCero() {
+        // Given: el primer recorrido falla a mitad
+        AtencionMedicaScan scan = mock(AtencionMedicaScan.class);
+        doAnswer(invocacion -> {
+            AtencionMedicaScan.Visitante visitante = invocacion.getArgument(0);
+            visitante.visitar(1L, 100L, 7L, null, "Realizada");
+            throw new IllegalStateException("conexión perdida");
+        }).doAnswer(invocacion -> {
+            AtencionMedicaScan.Visitante visitante = invocacion.getArgument(0);
+            visitante.visitar(2L, 100L, 7L, null, "Realizada");
+            return null;
+        }).when(scan).recorrer(any());
+        AtencionesIndices conFallo = new AtencionesIndices(scan, 16);
+
+        // When
+        boolean primero = conFallo.cargar();
+        conFallo.alModificar(new AtencionMedicaModificadaEvent(3L, TipoCambio.CREADO, null, atencion(3L, 100L)));
+        boolean segundo = conFallo.cargar();
+
+        // Then: el cambio entre intentos lo trae el segundo recorrido, no una cola sin vaciar
+        assertFalse(primero);
+        assertTrue(segundo);
+        assertTrue(conFallo.isCargado());
+        assertArrayEquals(new long[] {2}, conFallo.getIdsPorPaciente(100L));
+    }
+
+    private static AtencionMedica atencion(Long id, Long pacienteId) {
+        AtencionMedica atencion = new AtencionMedica();
+        atencion.setId(id);
+        atencion.setPacienteId(pacienteId);
+        atencion.setMedicoId(7L);
+        return atencion;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.cache;
+
+import com.example.demo.cache.RespuestaCache.Clave;
+import com.example.demo.cache.RespuestaCache.Respuesta;
+import com.example.demo.event.EntidadModificadaEvent;
+import com.example.demo.event.Tabla;
+import com.example.demo.event.TipoCambio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RespuestaCacheTest {
+
+    private static final String JSON = "application/hal+json";
+
+    private VersionesTabla versiones;
+    private RespuestaCache cache;
+
+    @BeforeEach
+    void setUp() {
+        versiones = new VersionesTabla();
+        cache = new RespuestaCache(versiones, 3, 1024, TimeUnit.MINUTES.toNanos(1));
+    }
+
+    @Test
+    void modificarEntidad_entoncesInvalidarSoloSuDetalleYLosListadosDeSuTabla() {
+        // Given
+        Clave medico1 = new Clave(Tabla.MEDICOS, 1L, JSON);
+        Clave medico2 = new Clave(Tabla.MEDICOS, 2L, JSON);
+        Clave medicos = new Clave(Tabla.MEDICOS, null, JSON);
+        cache.guardar(medico1, respuesta("{\"id\":1}"), 0);
+        cache.guardar(medico2, respuesta("{\"id\":2}"), 0);
+        cache.guardar(medicos, respuesta("[]"), 0);
+
+        // When
+        cache.alModificar(new EntidadModificadaEvent(Tabla.MEDICOS, 1L, TipoCambio.ACTUALIZADO));
+
+        // Then
+        assertNull(cache.obtener(medico1));
+        assertNull(cache.obtener(medicos));
+        assertArrayEquals("{\"id\":2}".getBytes(), cache.obtener(medico2).cuerpo());
+    }
+
+    @Test
+    void archivarTrozo_entoncesInvalidarDetallesYListadosDeLaTabla() {
+        // Given
+        Clave atencion1 = new Clave(Tabla.ATENCIONES_MEDICAS, 1L, JSON);
+        Clave atenciones = new Clave(Tabla.ATENCIONES_MEDICAS, null, JSON);
+        Clave medico1 = new Clave(Tabla.MEDICOS, 1L, JSON);
+        cache.guardar(atencion1, respuesta("{\"id\":1}"), 0);
+        cache.guardar(atenciones, respuesta("[]"), 0);
+        cache.guardar(medico1, respuesta("{\"id\":1}"), 0);
+
+        // When
+        cache.alModificar(new EntidadModificadaEvent(Tabla.ATENCIONES_MEDICAS, null, TipoCambio.ARCHIVADO));
+
+        // Then
+        assertNull(cache.obtener(atencion1));
+        assertNull(cache.obtener(atenciones));
+        assertNotNull(cache.obtener(medico1));
+    }
+
+    @Test
+    void guardarTrasCambioConcurrente_entoncesNoGuardarRespuestaObsoleta() {
+        // Given: la respuesta se generó con la versión 0 y la tabla cambió mientras tanto
+        long versionLeida = versiones.getVersion(Tabla.PACIENTES);
+        versiones.alModificar(new EntidadModificadaEvent(Tabla.PACIENTES, 1L, TipoCambio.ACTUALIZADO));
+
+        // When
+        cache.guardar(new Clave(Tabla.PACIENTES, 1L, JSON), respuesta("{\"id\":1}"), versionLeida);
+
+        // Then
+        assertEquals(0, cache.getEntradas());
+    }
+
+    @Test
+    void superarLimiteDeEntradas_entoncesDescartarLaMenosUsada() {
+        // Given
+        for (long id = 1; id <= 3; id++) {
+            cache.guardar(new Clave(Tabla.PACIENTES, id, JSON), respuesta("{}"), 0);
+        }
+        cache.obtener(new Clave(Tabla.PACIENTES, 1L, JSON));
+
+        // When
+        cache.guardar(new Clave(Tabla.PACIENTES, 4L, JSON), respuesta("{}"), 0);
+
+        // Then
+        assertEquals(3, cache.getEntradas());
+        assertNotNull(cache.obtener(new Clave(Tabla.PACIENTES, 1L, JSON)));
+        assertNull(cache.obtener(new Clave(Tabla.PACIENTES, 2L, JSON)));
+        assertEquals(6, cache.getBytes());
+    }
+
+    @Test
+    void entradaCaducada_entoncesNoServirlaYLiberarSusBytes() throws Exception {
+        // Given
+        cache = new RespuestaCache(versiones, 3, 1024, TimeUnit.MILLISECONDS.toNanos(20));
+        Clave medicos = new Clave(Tabla.MEDICOS, null, JSON);
+        cache.guardar(medicos, respuesta("[]"), 0);
+        assertNotNull(cache.obtener(medicos));
+
+        // When
+        Thread.sleep(40);
+
+        // Then
+        assertNull(cache.obtener(medicos));
+        assertEquals(0, cache.getEntradas());
+        assertEquals(0, cache.getBytes());
+    }
+
+    private static Respuesta respuesta(String cuerpo) {
+        return new Respuesta(cuerpo.getBytes(), JSON);
+    }
+}
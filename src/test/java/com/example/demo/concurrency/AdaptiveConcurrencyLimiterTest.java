@@ -0,0 +1,68 @@
+package com.example.demo.concurrency;
+
+import com.example.demo.concurrency.AdaptiveConcurrencyLimiter.Prioridad;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void limiteAlcanzado_entoncesLecturasMasivasSeRechazanAntesQueEscrituras() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 0);
+        for (int i = 0; i < 7; i++) {
+            assertTrue(limiter.intentarAdquirir(Prioridad.ESCRITURA));
+        }
+
+        // When / Then
+        assertFalse(limiter.intentarAdquirir(Prioridad.LECTURA_MASIVA));
+        assertTrue(limiter.intentarAdquirir(Prioridad.LECTURA));
+        assertTrue(limiter.intentarAdquirir(Prioridad.ESCRITURA));
+        assertTrue(limiter.intentarAdquirir(Prioridad.ESCRITURA));
+        assertFalse(limiter.intentarAdquirir(Prioridad.ESCRITURA));
+        assertEquals(1, limiter.getRechazos(Prioridad.LECTURA_MASIVA));
+        assertEquals(1, limiter.getRechazos(Prioridad.ESCRITURA));
+    }
+
+    @Test
+    void latenciaSube_entoncesLimiteBaja() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 100, 1.5, 0);
+        ocupar(limiter, 20, TimeUnit.MILLISECONDS.toNanos(10), 20);
+        int limiteEstable = limiter.getLimite();
+
+        // When
+        ocupar(limiter, limiteEstable, TimeUnit.MILLISECONDS.toNanos(100), 20);
+
+        // Then
+        assertTrue(limiter.getLimite() < limiteEstable);
+    }
+
+    @Test
+    void latenciaEstableConCarga_entoncesLimiteCrece() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 100, 1.5, 0);
+
+        // When
+        ocupar(limiter, 20, TimeUnit.MILLISECONDS.toNanos(10), 20);
+
+        // Then
+        assertTrue(limiter.getLimite() > 20);
+    }
+
+    // Ocupa el límite con peticiones concurrentes y las libera con la latencia indicada
+    private void ocupar(AdaptiveConcurrencyLimiter limiter, int peticiones, long rttNanos, int ventanas) {
+        for (int v = 0; v < ventanas; v++) {
+            int adquiridas = 0;
+            while (adquiridas < peticiones && limiter.intentarAdquirir(Prioridad.ESCRITURA)) {
+                adquiridas++;
+            }
+            for (int i = 0; i < adquiridas; i++) {
+                limiter.liberar(rttNanos, true);
+            }
+        }
+    }
+}
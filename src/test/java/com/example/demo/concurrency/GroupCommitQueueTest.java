@@ -0,0 +1,96 @@
+package com.example.demo.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupCommitQueueTest {
+
+    @Test
+    void variosElementosEncolados_entoncesEscribirlosEnUnMismoLote() throws Exception {
+        // Given
+        GroupCommitQueue<Integer, Integer> cola = new GroupCommitQueue<>("test",
+                elementos -> elementos.stream().map(e -> e * 10).toList(), 100, 50, 200);
+        List<CompletableFuture<Integer>> resultados = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            resultados.add(cola.encolar(i));
+        }
+
+        // When
+        cola.iniciar();
+
+        // Then
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i * 10, resultados.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, cola.getLotes());
+        assertEquals(20, cola.getElementos());
+        cola.cerrar();
+    }
+
+    @Test
+    void loteConUnElementoInvalido_entoncesSoloFallaEseElemento() throws Exception {
+        // Given
+        GroupCommitQueue<Integer, Integer> cola = new GroupCommitQueue<>("test", elementos -> {
+            if (elementos.contains(-1)) {
+                throw new IllegalArgumentException("negativo");
+            }
+            return elementos;
+        }, 100, 50, 200);
+        CompletableFuture<Integer> valido = cola.encolar(1);
+        CompletableFuture<Integer> invalido = cola.encolar(-1);
+        CompletableFuture<Integer> otroValido = cola.encolar(2);
+
+        // When
+        cola.iniciar();
+
+        // Then
+        assertEquals(1, valido.get(5, TimeUnit.SECONDS));
+        assertEquals(2, otroValido.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> invalido.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        cola.cerrar();
+    }
+
+    @Test
+    void elementoCanceladoAntesDelLote_entoncesNoEscribirlo() throws Exception {
+        // Given
+        List<Integer> escritos = new ArrayList<>();
+        GroupCommitQueue<Integer, Integer> cola = new GroupCommitQueue<>("test", elementos -> {
+            escritos.addAll(elementos);
+            return elementos;
+        }, 100, 50, 200);
+        CompletableFuture<Integer> abandonado = cola.encolar(1);
+        CompletableFuture<Integer> esperado = cola.encolar(2);
+        abandonado.cancel(false);
+
+        // When
+        cola.iniciar();
+
+        // Then
+        assertEquals(2, esperado.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(2), escritos);
+        cola.cerrar();
+    }
+
+    @Test
+    void colaLlena_entoncesRechazarSinEsperar() {
+        // Given
+        GroupCommitQueue<Integer, Integer> cola = new GroupCommitQueue<>("test", elementos -> elementos, 1, 10, 5);
+        cola.encolar(1);
+
+        // When
+        CompletableFuture<Integer> rechazado = cola.encolar(2);
+
+        // Then
+        ExecutionException e = assertThrows(ExecutionException.class, rechazado::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+}
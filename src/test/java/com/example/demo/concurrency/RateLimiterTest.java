@@ -0,0 +1,89 @@
+package com.example.demo.concurrency;
+
+import com.example.demo.concurrency.RateLimiter.Cuota;
+import com.example.demo.event.Tabla;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void rafagaAgotada_entoncesRechazarHastaQueSeRepongaUnToken() {
+        // Given
+        RateLimiter limiter = limiter(10, 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.intentar(Tabla.MEDICOS, "cliente-a", 0));
+        }
+
+        // When
+        long espera = limiter.intentar(Tabla.MEDICOS, "cliente-a", 0);
+
+        // Then
+        assertEquals(SEGUNDO / 10, espera);
+        assertEquals(0, limiter.intentar(Tabla.MEDICOS, "cliente-a", SEGUNDO / 10));
+        assertEquals(1, limiter.getRechazos(Tabla.MEDICOS));
+        assertTrue(limiter.getCercaLimite(Tabla.MEDICOS) > 0);
+    }
+
+    @Test
+    void otroClienteUOtraRuta_entoncesTienenSuPropioBucket() {
+        // Given
+        RateLimiter limiter = limiter(1, 1);
+        assertEquals(0, limiter.intentar(Tabla.MEDICOS, "cliente-a", 0));
+
+        // When / Then
+        assertTrue(limiter.intentar(Tabla.MEDICOS, "cliente-a", 0) > 0);
+        assertEquals(0, limiter.intentar(Tabla.MEDICOS, "cliente-b", 0));
+        assertEquals(0, limiter.intentar(Tabla.PACIENTES, "cliente-a", 0));
+    }
+
+    @Test
+    void bucketsInactivos_entoncesPurgarlos() {
+        // Given
+        RateLimiter limiter = limiter(10, 5);
+        long haceUnaHora = System.nanoTime() - TimeUnit.HOURS.toNanos(1);
+        limiter.intentar(Tabla.MEDICOS, "cliente-a", haceUnaHora);
+        limiter.intentar(Tabla.MEDICOS, "cliente-b", System.nanoTime());
+
+        // When
+        limiter.purgarInactivos();
+
+        // Then
+        assertEquals(1, limiter.getBuckets());
+    }
+
+    @Test
+    void tramosLlenos_entoncesClientesNuevosCompartenElBucketDeDesborde() {
+        // Given: dos tramos con sitio para un solo cliente cada uno
+        Map<Tabla, Cuota> cuotas = new EnumMap<>(Tabla.class);
+        cuotas.put(Tabla.MEDICOS, new Cuota(1, 1));
+        RateLimiter limiter = new RateLimiter(cuotas, 2, 2, 60_000);
+
+        // When: diez clientes distintos, una petición cada uno
+        int aceptadas = 0;
+        for (int i = 0; i < 10; i++) {
+            if (limiter.intentar(Tabla.MEDICOS, "cliente-" + i, 0) == 0) {
+                aceptadas++;
+            }
+        }
+
+        // Then: como mucho un bucket propio y el de desborde por tramo
+        assertTrue(aceptadas <= 4);
+        assertTrue(limiter.getRechazos(Tabla.MEDICOS) >= 6);
+    }
+
+    private static RateLimiter limiter(double porSegundo, int rafaga) {
+        Map<Tabla, Cuota> cuotas = new EnumMap<>(Tabla.class);
+        for (Tabla tabla : Tabla.values()) {
+            cuotas.put(tabla, new Cuota(porSegundo, rafaga));
+        }
+        return new RateLimiter(cuotas, 4, 1000, 60_000);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightInterceptorTest {
+
+    @Transactional
+    public static class Servicio {
+
+        final AtomicInteger lecturas = new AtomicInteger();
+
+        @Coalesced
+        public int leer() {
+            return lecturas.incrementAndGet();
+        }
+
+        @Transactional(readOnly = true)
+        public int filtrar() {
+            return 0;
+        }
+
+        public void guardar() {
+        }
+    }
+
+    private Servicio servicio;
+    private Servicio proxy;
+
+    @BeforeEach
+    void setUp() {
+        servicio = new Servicio();
+        ProxyFactory proxyFactory = new ProxyFactory(servicio);
+        proxyFactory.addAdvice(new SingleFlightInterceptor(TimeUnit.MINUTES.toNanos(1), resultado -> resultado));
+        proxy = (Servicio) proxyFactory.getProxy();
+    }
+
+    @Test
+    void lecturaSoloLecturaSinAgrupar_entoncesNoInvalidar() {
+        // When
+        proxy.leer();
+        proxy.filtrar();
+        int segunda = proxy.leer();
+
+        // Then: la segunda lectura sale del resultado guardado
+        assertEquals(1, segunda);
+        assertEquals(1, servicio.lecturas.get());
+    }
+
+    @Test
+    void escritura_entoncesInvalidarLasLecturasGuardadas() {
+        // When
+        proxy.leer();
+        proxy.guardar();
+        int segunda = proxy.leer();
+
+        // Then
+        assertEquals(2, segunda);
+        assertEquals(2, servicio.lecturas.get());
+    }
+}
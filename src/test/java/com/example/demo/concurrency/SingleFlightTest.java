@@ -0,0 +1,90 @@
+package com.example.demo.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    void llamadasConcurrentesIdenticas_entoncesUnaSolaEjecucion() throws Exception {
+        // Given
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // When
+        Future<Object> primera = executor.submit(() -> ejecutarBloqueando(singleFlight, ejecuciones, liberar));
+        while (ejecuciones.get() == 0) {
+            Thread.sleep(1);
+        }
+        Future<Object> segunda = executor.submit(() -> ejecutarBloqueando(singleFlight, ejecuciones, liberar));
+        while (singleFlight.getAgrupadas() == 0) {
+            Thread.sleep(1);
+        }
+        liberar.countDown();
+
+        // Then
+        assertEquals("resultado", primera.get(5, TimeUnit.SECONDS));
+        assertEquals("resultado", segunda.get(5, TimeUnit.SECONDS));
+        assertEquals(1, ejecuciones.get());
+        assertEquals(1, singleFlight.getEjecuciones());
+        executor.shutdownNow();
+    }
+
+    @Test
+    void resultadoConTtl_entoncesSeReutilizaHastaInvalidar() throws Throwable {
+        // Given
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger ejecuciones = new AtomicInteger();
+        long ttl = TimeUnit.MINUTES.toNanos(1);
+
+        // When
+        singleFlight.ejecutar("clave", ttl, ejecuciones::incrementAndGet);
+        singleFlight.ejecutar("clave", ttl, ejecuciones::incrementAndGet);
+        singleFlight.invalidar();
+        Object tercera = singleFlight.ejecutar("clave", ttl, ejecuciones::incrementAndGet);
+
+        // Then
+        assertEquals(2, tercera);
+        assertEquals(1, singleFlight.getAciertosTtl());
+    }
+
+    @Test
+    void sinTtl_entoncesCadaLlamadaSecuencialEjecuta() throws Throwable {
+        // Given
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // When
+        singleFlight.ejecutar("clave", 0, ejecuciones::incrementAndGet);
+        singleFlight.ejecutar("clave", 0, ejecuciones::incrementAndGet);
+
+        // Then
+        assertEquals(2, ejecuciones.get());
+        assertEquals(0, singleFlight.getAciertosTtl());
+    }
+
+    private Object ejecutarBloqueando(SingleFlight singleFlight, AtomicInteger ejecuciones, CountDownLatch liberar)
+            throws Exception {
+        try {
+            return singleFlight.ejecutar("clave", 0, () -> {
+                ejecuciones.incrementAndGet();
+                liberar.await();
+                return "resultado";
+            });
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
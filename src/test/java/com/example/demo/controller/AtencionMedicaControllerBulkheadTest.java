@@ -0,0 +1,116 @@
+package com.example.demo.controller;
+
+import com.example.demo.concurrency.Bulkhead;
+import com.example.demo.config.BulkheadConfig;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.service.AtencionArchivoService;
+import com.example.demo.service.AtencionMedicaService;
+import com.example.demo.service.EstadisticasService;
+import com.example.demo.service.MedicoService;
+import com.example.demo.service.PacienteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Con el bulkhead real: el único permiso lo tiene el test y los servicios simulados lo piden como haría
+// BulkheadInterceptor, así que se rechazan sin esperar. Los @Value de BulkheadConfig se resuelven al crear sus
+// post-procesadores, antes de que el slice tenga resolvedor de placeholders: de ahí el auto-configuration
+@WebMvcTest(AtencionMedicaController.class)
+@Import(BulkheadConfig.class)
+@ImportAutoConfiguration(PropertyPlaceholderAutoConfiguration.class)
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "atenciones.bulkhead.permisos=1",
+        "atenciones.bulkhead.espera-maxima-ms=0"
+})
+public class AtencionMedicaControllerBulkheadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Bulkhead databaseBulkhead;
+
+    @MockBean
+    private AtencionMedicaService atencionMedicaService;
+
+    @MockBean
+    private PacienteService pacienteService;
+
+    @MockBean
+    private MedicoService medicoService;
+
+    @MockBean
+    private EstadisticasService estadisticasService;
+
+    @MockBean
+    private AtencionArchivoService atencionArchivoService;
+
+    @BeforeEach
+    void setUp() {
+        databaseBulkhead.adquirir();
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseBulkhead.liberar();
+    }
+
+    @Test
+    void getAtencionPorIdConBulkheadLleno_entoncesRetornarServiceUnavailableConRetryAfter() throws Exception {
+
+        when(atencionMedicaService.getAtencionById(1L)).thenAnswer(invocacion -> {
+            databaseBulkhead.adquirir();
+            return Optional.of(new AtencionMedica());
+        });
+
+        mockMvc.perform(get("/atenciones-medicas/1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error", containsString("Se agotó la espera")));
+    }
+
+    @Test
+    void createAtencionConBulkheadLleno_entoncesRetornarServiceUnavailableConRetryAfter() throws Exception {
+
+        AtencionMedica atencionMedica = new AtencionMedica();
+        atencionMedica.setPacienteId(1L);
+        atencionMedica.setMedicoId(1L);
+        atencionMedica.setFechaAtencion(LocalDateTime.of(2024, 1, 15, 10, 30));
+        atencionMedica.setMotivoConsulta("Control");
+        atencionMedica.setEstado("Programada");
+        when(atencionMedicaService.createAtencion(any(AtencionMedica.class))).thenAnswer(invocacion -> {
+            databaseBulkhead.adquirir();
+            return invocacion.getArgument(0);
+        });
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        mockMvc.perform(post("/atenciones-medicas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(atencionMedica)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.AtencionMedicaResumen;
+import com.example.demo.model.AtencionesFiltradas;
+import com.example.demo.model.Paciente;
+import com.example.demo.service.AtencionArchivoService;
 import com.example.demo.service.AtencionMedicaService;
+import com.example.demo.service.EstadisticasService;
+import com.example.demo.service.EstadisticasService.Granularidad;
+import com.example.demo.service.MedicoService;
+import com.example.demo.service.PacienteService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,15 +21,23 @@ import org.springframework.hateoas.EntityModel;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +51,18 @@ public class AtencionMedicaControllerTest {
     @MockBean
     private AtencionMedicaService atencionMedicaService;
 
+    @MockBean
+    private PacienteService pacienteService;
+
+    @MockBean
+    private MedicoService medicoService;
+
+    @MockBean
+    private EstadisticasService estadisticasService;
+
+    @MockBean
+    private AtencionArchivoService atencionArchivoService;
+
     private AtencionMedica atencionMedica;
     private ObjectMapper objectMapper;
 
@@ -263,10 +291,7 @@ public class AtencionMedicaControllerTest {
     @Test
     void getEstadisticas_entoncesRetornarEstadisticasConEnlaces() throws Exception {
 
-        when(atencionMedicaService.getAllAtenciones()).thenReturn(Arrays.asList(atencionMedica));
-        when(atencionMedicaService.countAtencionesByEstado("Realizada")).thenReturn(1L);
-        when(atencionMedicaService.countAtencionesByEstado("Programada")).thenReturn(0L);
-        when(atencionMedicaService.countAtencionesByEstado("Cancelada")).thenReturn(0L);
+        when(estadisticasService.getConteosPorEstado()).thenReturn(Map.of("total", 1L, "Realizada", 1L));
 
         mockMvc.perform(get("/atenciones-medicas/estadisticas")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -279,10 +304,97 @@ public class AtencionMedicaControllerTest {
                 .andExpect(jsonPath("$._links.todas-atenciones.href", containsString("/atenciones-medicas")))
                 .andExpect(jsonPath("$._links.atenciones-realizadas.href", containsString("/atenciones-medicas/estado/Realizada")));
         
-        verify(atencionMedicaService, times(1)).getAllAtenciones();
-        verify(atencionMedicaService, times(1)).countAtencionesByEstado("Realizada");
-        verify(atencionMedicaService, times(1)).countAtencionesByEstado("Programada");
-        verify(atencionMedicaService, times(1)).countAtencionesByEstado("Cancelada");
+        verify(estadisticasService, times(1)).getConteosPorEstado();
+        verify(atencionMedicaService, never()).getAllAtenciones();
+    }
+
+    @Test
+    void getEstadisticasSeriesPorSemana_entoncesLeerDelRollupConEnlaces() throws Exception {
+
+        // Given
+        Map<String, Object> punto = Map.of("periodo", "2024-01-15", "total", 3L,
+                "porEstado", Map.of("Realizada", 2L, "Programada", 1L));
+        when(estadisticasService.getSerie(Granularidad.SEMANA, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), 1L, null))
+                .thenReturn(List.of(punto));
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas/estadisticas/series")
+                .param("granularidad", "semana")
+                .param("medicoId", "1")
+                .param("desde", "2024-01-01")
+                .param("hasta", "2024-02-01")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularidad", is("semana")))
+                .andExpect(jsonPath("$.series[0].periodo", is("2024-01-15")))
+                .andExpect(jsonPath("$.series[0].total", is(3)))
+                .andExpect(jsonPath("$.series[0].porEstado.Realizada", is(2)))
+                .andExpect(jsonPath("$._links.self.href", containsString("/atenciones-medicas/estadisticas/series")))
+                .andExpect(jsonPath("$._links.atenciones-medico.href", containsString("/atenciones-medicas/medico/1")));
+
+        verify(atencionMedicaService, never()).getAllAtenciones();
+    }
+
+    @Test
+    void getEstadisticasSeriesConGranularidadInvalida_entoncesRetornarBadRequest() throws Exception {
+
+        mockMvc.perform(get("/atenciones-medicas/estadisticas/series").param("granularidad", "hora")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("Granularidad no válida")));
+
+        verify(estadisticasService, never()).getSerie(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getEstadisticasSeriesConEstadoInvalido_entoncesRetornarBadRequest() throws Exception {
+
+        mockMvc.perform(get("/atenciones-medicas/estadisticas/series").param("estado", "Pendiente")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("Estado no válido")));
+
+        verify(estadisticasService, never()).getSerie(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getEstadisticasAproximadas_entoncesRetornarSketchesConEnlaces() throws Exception {
+
+        // Given
+        Map<String, Object> aproximadas = Map.of("cargando", false,
+                "pacientesDistintosPorMedico", List.of(Map.of("medicoId", 1L, "estimacion", 42L)));
+        when(estadisticasService.getAproximadas(1L, 5)).thenReturn(aproximadas);
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas/estadisticas/aproximadas").param("medicoId", "1").param("top", "5")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cargando", is(false)))
+                .andExpect(jsonPath("$.pacientesDistintosPorMedico[0].estimacion", is(42)))
+                .andExpect(jsonPath("$._links.self.href", containsString("/atenciones-medicas/estadisticas/aproximadas")))
+                .andExpect(jsonPath("$._links.series.href", containsString("/atenciones-medicas/estadisticas/series")));
+
+        verify(atencionMedicaService, never()).getAllAtenciones();
+    }
+
+    @Test
+    void getEstadisticasConAlmacenColumnar_entoncesNoConsultarLaBase() throws Exception {
+
+        // Given
+        when(estadisticasService.getConteosPorEstado())
+                .thenReturn(Map.of("total", 4L, "Realizada", 3L, "Cancelada", 1L));
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas/estadisticas")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(4)))
+                .andExpect(jsonPath("$.realizadas", is(3)))
+                .andExpect(jsonPath("$.programadas", is(0)))
+                .andExpect(jsonPath("$.porcentajeRealizadas", is(75.0)));
+
+        verify(atencionMedicaService, never()).getAllAtenciones();
+        verify(atencionMedicaService, never()).countAtencionesByEstado(anyString());
     }
 
     @Test
@@ -317,4 +429,184 @@ public class AtencionMedicaControllerTest {
         
         verify(atencionMedicaService, times(1)).getAllAtenciones();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTodasLasAtencionesVistaResumen_entoncesRetornarSoloColumnasEstrechas() throws Exception {
+
+        AtencionMedicaResumen resumen = new AtencionMedicaResumen(1L, 1L, 1L, LocalDateTime.of(2024, 1, 15, 10, 30), "Realizada");
+        when(atencionMedicaService.getAllAtencionesResumen()).thenReturn(Arrays.asList(resumen));
+
+        mockMvc.perform(get("/atenciones-medicas").param("view", "summary")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.atencionMedicaResumenList[0].id", is(1)))
+                .andExpect(jsonPath("$._embedded.atencionMedicaResumenList[0].estado", is("Realizada")))
+                .andExpect(jsonPath("$._embedded.atencionMedicaResumenList[0].motivoConsulta").doesNotExist())
+                .andExpect(jsonPath("$._embedded.atencionMedicaResumenList[0]._links.self.href", containsString("/atenciones-medicas/1")))
+                .andExpect(jsonPath("$._links.vista-completa.href", containsString("/atenciones-medicas")));
+
+        verify(atencionMedicaService, times(1)).getAllAtencionesResumen();
+        verify(atencionMedicaService, never()).getAllAtenciones();
+    }
+
+    @Test
+    void getTodasLasAtencionesConEmbedPaciente_entoncesIncluirPacienteConUnaSolaConsulta() throws Exception {
+
+        // Given: dos atenciones del mismo paciente
+        AtencionMedica otraAtencion = new AtencionMedica();
+        otraAtencion.setId(2L);
+        otraAtencion.setPacienteId(1L);
+        otraAtencion.setMedicoId(2L);
+        otraAtencion.setEstado("Programada");
+        Paciente paciente = new Paciente();
+        paciente.setId(1L);
+        paciente.setNombre("Juan Pérez");
+        when(atencionMedicaService.getAllAtenciones()).thenReturn(Arrays.asList(atencionMedica, otraAtencion));
+        when(pacienteService.getPacientesByIds(List.of(1L))).thenReturn(Map.of(1L, paciente));
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas").param("embed", "paciente")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.atencionMedicaList[0].id", is(1)))
+                .andExpect(jsonPath("$._embedded.atencionMedicaList[0]._embedded.paciente.nombre", is("Juan Pérez")))
+                .andExpect(jsonPath("$._embedded.atencionMedicaList[0]._embedded.paciente._links.self.href", containsString("/pacientes/1")))
+                .andExpect(jsonPath("$._embedded.atencionMedicaList[1]._embedded.paciente.nombre", is("Juan Pérez")))
+                .andExpect(jsonPath("$._embedded.atencionMedicaList[1]._embedded.medico").doesNotExist());
+
+        verify(pacienteService, times(1)).getPacientesByIds(List.of(1L));
+        verify(medicoService, never()).getMedicosByIds(any());
+    }
+
+    @Test
+    void getAtencionPorIdConEmbedInvalido_entoncesRetornarBadRequest() throws Exception {
+
+        mockMvc.perform(get("/atenciones-medicas/1").param("embed", "receta")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("Valor no válido en embed: receta")));
+
+        verify(atencionMedicaService, never()).getAtencionById(anyLong());
+    }
+
+    @Test
+    void filtrarPorMedicoYEstado_entoncesRetornarPaginaConIndiceYEnlaceSiguiente() throws Exception {
+
+        // Given
+        when(atencionMedicaService.filtrar(any(), eq(false), isNull(), eq(1), eq(false)))
+                .thenReturn(new AtencionesFiltradas(List.of(atencionMedica), "idx_atenciones_medico_fecha",
+                        List.of("estado"), "c2lndWllbnRl"));
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas/filtrar").param("medicoId", "1").param("estado", "Realizada")
+                .param("limite", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.atenciones[0].id", is(1)))
+                .andExpect(jsonPath("$.indice", is("idx_atenciones_medico_fecha")))
+                .andExpect(jsonPath("$.filtrosResiduales[0]", is("estado")))
+                .andExpect(jsonPath("$.siguienteCursor", is("c2lndWllbnRl")))
+                .andExpect(jsonPath("$._links.siguiente.href", containsString("cursor=c2lndWllbnRl")));
+    }
+
+    @Test
+    void filtrarConOrdenInvalido_entoncesRetornarBadRequestSinConsultar() throws Exception {
+
+        mockMvc.perform(get("/atenciones-medicas/filtrar").param("pacienteId", "1").param("orden", "fecha")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("orden debe ser asc o desc")));
+
+        verify(atencionMedicaService, never()).filtrar(any(), anyBoolean(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void getAtencionPorIdArchivada_entoncesRetornarlaSinEnlacesDeModificacion() throws Exception {
+
+        // Given: ya no está en atenciones_medicas
+        when(atencionMedicaService.getAtencionById(1L)).thenReturn(Optional.empty());
+        when(atencionArchivoService.getAtencionById(1L)).thenReturn(Optional.of(atencionMedica));
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas/1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$._links.self.href", containsString("/atenciones-medicas/1")))
+                .andExpect(jsonPath("$._links.actualizar-atencion").doesNotExist())
+                .andExpect(jsonPath("$._links.eliminar-atencion").doesNotExist());
+    }
+
+    @Test
+    void getAtencionesPorPacienteIncluyendoArchivo_entoncesUnirActivasYArchivadas() throws Exception {
+
+        // Given
+        AtencionMedica archivada = new AtencionMedica();
+        archivada.setId(2L);
+        archivada.setPacienteId(1L);
+        archivada.setMedicoId(1L);
+        archivada.setEstado("Realizada");
+        when(atencionMedicaService.getAtencionesByPacienteId(1L)).thenReturn(List.of(atencionMedica));
+        when(atencionArchivoService.getAtencionesByPacienteId(1L)).thenReturn(List.of(archivada));
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas/paciente/1").param("incluirArchivo", "true")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.atencionMedicaList", hasSize(2)))
+                .andExpect(jsonPath("$._embedded.atencionMedicaList[1].id", is(2)))
+                .andExpect(jsonPath("$._links.self.href", containsString("incluirArchivo=true")));
+    }
+
+    @Test
+    void getAtencionesPorPacienteIncluyendoArchivoConDuplicado_entoncesUnaSolaVezLaActiva() throws Exception {
+
+        // Given: un lote del archivador se confirmó entre las dos lecturas
+        AtencionMedica archivada = new AtencionMedica();
+        archivada.setId(1L);
+        archivada.setPacienteId(1L);
+        archivada.setMedicoId(1L);
+        archivada.setEstado("Cancelada");
+        when(atencionMedicaService.getAtencionesByPacienteId(1L)).thenReturn(List.of(atencionMedica));
+        when(atencionArchivoService.getAtencionesByPacienteId(1L)).thenReturn(List.of(archivada));
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas/paciente/1").param("incluirArchivo", "true")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.atencionMedicaList", hasSize(1)))
+                .andExpect(jsonPath("$._embedded.atencionMedicaList[0].estado", is("Realizada")));
+    }
+
+    @Test
+    void getCamposPorPacienteIncluyendoArchivoSinId_entoncesDeduplicarYNoDevolverId() throws Exception {
+
+        // Given
+        Set<String> columnas = new LinkedHashSet<>(List.of("estado", "id"));
+        when(atencionMedicaService.getCampos(columnas, "pacienteId", 1L))
+                .thenReturn(List.of(Map.of("estado", "Realizada", "id", 1L)));
+        when(atencionArchivoService.getCampos(columnas, "pacienteId", 1L))
+                .thenReturn(List.of(Map.of("estado", "Cancelada", "id", 1L), Map.of("estado", "Cancelada", "id", 2L)));
+
+        // When/Then
+        mockMvc.perform(get("/atenciones-medicas/paciente/1").param("fields", "estado").param("incluirArchivo", "true")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.linkedHashMapList", hasSize(2)))
+                .andExpect(jsonPath("$._embedded.linkedHashMapList[0].estado", is("Realizada")))
+                .andExpect(jsonPath("$._embedded.linkedHashMapList[0].id").doesNotExist());
+    }
+
+    @Test
+    void getAtencionesPorPacienteSinArchivo_entoncesNoConsultarArchivo() throws Exception {
+
+        when(atencionMedicaService.getAtencionesByPacienteId(1L)).thenReturn(List.of(atencionMedica));
+
+        mockMvc.perform(get("/atenciones-medicas/paciente/1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.atencionMedicaList", hasSize(1)));
+
+        verify(atencionArchivoService, never()).getAtencionesByPacienteId(anyLong());
+    }
+}
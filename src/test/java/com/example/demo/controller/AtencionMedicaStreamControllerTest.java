@@ -0,0 +1,79 @@
+package com.example.demo.controller;
+
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.event.TipoCambio;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.sse.AtencionesChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AtencionMedicaStreamController.class)
+@Import(AtencionesChangeFeed.class)
+public class AtencionMedicaStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AtencionesChangeFeed atencionesChangeFeed;
+
+    @Test
+    void streamConLastEventId_entoncesReenviarSoloLosCambiosPosterioresDelMedico() throws Exception {
+        // Given: tres cambios confirmados, el tercero de otro médico
+        atencionesChangeFeed.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.CREADO, null, atencion(1L, 7L, "Programada")));
+        atencionesChangeFeed.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ACTUALIZADO,
+                atencion(1L, 7L, "Programada"), atencion(1L, 7L, "Realizada")));
+        atencionesChangeFeed.alModificar(new AtencionMedicaModificadaEvent(2L, TipoCambio.CREADO, null, atencion(2L, 8L, "Programada")));
+
+        // When: reconecta tras haber recibido el primero
+        MvcResult resultado = mockMvc.perform(get("/atenciones-medicas/stream")
+                        .param("medicoId", "7")
+                        .header("Last-Event-ID", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String cuerpo = esperarContenido(resultado.getResponse(), "estadoAnterior");
+        assertThat(cuerpo, containsString("id:2"));
+        assertThat(cuerpo, containsString("\"estadoAnterior\":\"Programada\""));
+        assertThat(cuerpo, not(containsString("id:1\n")));
+        assertThat(cuerpo, not(containsString("id:3")));
+    }
+
+    @Test
+    void streamConEstadoInvalido_entoncesRetornarBadRequest() throws Exception {
+
+        mockMvc.perform(get("/atenciones-medicas/stream").param("estado", "Pendiente"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static AtencionMedica atencion(Long id, Long medicoId, String estado) {
+        AtencionMedica atencion = new AtencionMedica(1L, medicoId, LocalDateTime.of(2024, 1, 15, 10, 30),
+                "Control", null, null, null, estado);
+        atencion.setId(id);
+        return atencion;
+    }
+
+    // El despacho corre en su propio hilo virtual: se espera a que escriba el evento
+    private static String esperarContenido(MockHttpServletResponse respuesta, String texto) throws Exception {
+        long limite = System.nanoTime() + 5_000_000_000L;
+        String cuerpo = respuesta.getContentAsString();
+        while (!cuerpo.contains(texto) && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            cuerpo = respuesta.getContentAsString();
+        }
+        return cuerpo;
+    }
+}
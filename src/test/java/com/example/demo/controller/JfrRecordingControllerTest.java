@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.jfr.JfrRecordingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(JfrRecordingController.class)
+public class JfrRecordingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JfrRecordingService jfrRecordingService;
+
+    @Test
+    void iniciarGrabacion_entoncesRetornarCreatedConEstadoYEnlaces() throws Exception {
+        // Given
+        when(jfrRecordingService.iniciarGrabacion(60L)).thenReturn(true);
+        when(jfrRecordingService.getEstado()).thenReturn(Map.of("activa", true, "duracionSegundos", 60));
+
+        // When & Then
+        mockMvc.perform(post("/admin/jfr/iniciar").param("duracionSegundos", "60"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.activa", is(true)))
+                .andExpect(jsonPath("$._links.detener-grabacion.href", containsString("/admin/jfr/detener")));
+    }
+
+    @Test
+    void iniciarGrabacionConOtraEnCurso_entoncesRetornarConflict() throws Exception {
+        // Given
+        when(jfrRecordingService.iniciarGrabacion(any())).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(post("/admin/jfr/iniciar"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Ya existe una grabación JFR en curso")));
+
+        verify(jfrRecordingService, never()).getEstado();
+    }
+
+    @Test
+    void detenerGrabacionSinGrabacionEnCurso_entoncesRetornarNotFound() throws Exception {
+        // Given
+        when(jfrRecordingService.detenerGrabacion()).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(post("/admin/jfr/detener"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$._links.iniciar-grabacion.href", containsString("/admin/jfr/iniciar")));
+    }
+
+    @Test
+    void detenerGrabacion_entoncesDescargarArchivoYBorrarlo(@TempDir Path directorio) throws Exception {
+        // Given
+        Path archivo = Files.write(directorio.resolve("atenciones-1.jfr"), new byte[] {1, 2, 3});
+        when(jfrRecordingService.detenerGrabacion()).thenReturn(archivo);
+
+        // When & Then
+        mockMvc.perform(post("/admin/jfr/detener"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(header().string("Content-Disposition", containsString("atenciones-1.jfr")))
+                .andExpect(content().bytes(new byte[] {1, 2, 3}));
+        assertFalse(Files.exists(archivo));
+    }
+}
@@ -1,21 +1,27 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.BinaryFormatsConfig;
 import com.example.demo.model.Medico;
 import com.example.demo.service.MedicoService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -24,6 +30,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(MedicoController.class)
+@Import(BinaryFormatsConfig.class)
 public class MedicoControllerTest {
 
     @Autowired
@@ -299,4 +306,39 @@ public class MedicoControllerTest {
         
         verify(medicoService, never()).createMedico(any(Medico.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getMedicosPorIds_entoncesRetornarEnOrdenConNoEncontrados() throws Exception {
+
+        when(medicoService.getMedicosByIds(Arrays.asList(999L, 1L))).thenReturn(Map.of(1L, medico));
+
+        mockMvc.perform(get("/medicos").param("ids", "999,1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.solicitados", is(2)))
+                .andExpect(jsonPath("$.noEncontrados", is(1)))
+                .andExpect(jsonPath("$.resultados[0].id", is(999)))
+                .andExpect(jsonPath("$.resultados[0].encontrado", is(false)))
+                .andExpect(jsonPath("$.resultados[1].encontrado", is(true)))
+                .andExpect(jsonPath("$.resultados[1].medico.id", is(1)));
+
+        verify(medicoService, times(1)).getMedicosByIds(Arrays.asList(999L, 1L));
+        verify(medicoService, never()).getAllMedicos();
+    }
+
+    @Test
+    void getMedicoPorIdConAcceptCbor_entoncesRetornarCborConEnlacesHal() throws Exception {
+
+        when(medicoService.getMedicoById(1L)).thenReturn(Optional.of(medico));
+
+        byte[] cuerpo = mockMvc.perform(get("/medicos/1")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode medicoCbor = new ObjectMapper(new CBORFactory()).readTree(cuerpo);
+        assertThat(medicoCbor.path("nombre").asText(), is("Dr. Carlos Martínez"));
+        assertThat(medicoCbor.path("_links").path("self").path("href").asText(), containsString("/medicos/1"));
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.demo.controller;
 
+import com.example.demo.model.HistoriaClinica;
 import com.example.demo.model.Paciente;
+import com.example.demo.service.HistoriaClinicaService;
 import com.example.demo.service.PacienteService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -16,8 +18,11 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +41,9 @@ public class PacienteControllerTest {
     @MockBean
     private PacienteService pacienteService;
 
+    @MockBean
+    private HistoriaClinicaService historiaClinicaService;
+
     private Paciente paciente;
     private ObjectMapper objectMapper;
 
@@ -277,6 +285,99 @@ public class PacienteControllerTest {
         verify(pacienteService, times(1)).getAllPacientes();
     }
 
+    @Test
+    void getHistoriaPacienteExistente_entoncesRetornarHistoriaConEnlaceSiguiente() throws Exception {
+
+        HistoriaClinica historia = new HistoriaClinica(paciente, Collections.emptyList(), Collections.emptyList(), "c2lndWllbnRl");
+        when(historiaClinicaService.getHistoria(1L, null, 20)).thenReturn(Optional.of(historia));
+
+        mockMvc.perform(get("/pacientes/1/historia")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paciente.nombre", is("Juan Pérez")))
+                .andExpect(jsonPath("$.atenciones", hasSize(0)))
+                .andExpect(jsonPath("$.siguienteCursor", is("c2lndWllbnRl")))
+                .andExpect(jsonPath("$._links.self.href", containsString("/pacientes/1/historia")))
+                .andExpect(jsonPath("$._links.siguiente.href", containsString("cursor=c2lndWllbnRl")))
+                .andExpect(jsonPath("$._links.paciente.href", containsString("/pacientes/1")));
+
+        verify(historiaClinicaService, times(1)).getHistoria(1L, null, 20);
+    }
+
+    @Test
+    void getHistoriaPacienteNoExistente_entoncesRetornarNotFound() throws Exception {
+
+        when(historiaClinicaService.getHistoria(999L, null, 20)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/pacientes/999/historia")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.mensaje", containsString("No se encontró")));
+    }
+
+    @Test
+    void getHistoriaConCursorInvalido_entoncesRetornarBadRequest() throws Exception {
+
+        when(historiaClinicaService.getHistoria(1L, "xx", 20)).thenThrow(new IllegalArgumentException("Cursor no válido: xx"));
+
+        mockMvc.perform(get("/pacientes/1/historia").param("cursor", "xx")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("Cursor no válido")));
+    }
+
+    @Test
+    void getPacientesPorIds_entoncesRetornarEnOrdenConNoEncontrados() throws Exception {
+
+        when(pacienteService.getPacientesByIds(Arrays.asList(999L, 1L))).thenReturn(Map.of(1L, paciente));
+
+        mockMvc.perform(get("/pacientes").param("ids", "999,1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.solicitados", is(2)))
+                .andExpect(jsonPath("$.noEncontrados", is(1)))
+                .andExpect(jsonPath("$.resultados[0].id", is(999)))
+                .andExpect(jsonPath("$.resultados[0].encontrado", is(false)))
+                .andExpect(jsonPath("$.resultados[1].encontrado", is(true)))
+                .andExpect(jsonPath("$.resultados[1].paciente.id", is(1)));
+
+        verify(pacienteService, times(1)).getPacientesByIds(Arrays.asList(999L, 1L));
+        verify(pacienteService, never()).getAllPacientes();
+    }
+
+    @Test
+    void getPacientePorIdConFields_entoncesRetornarSoloCamposYEnlacesPedidos() throws Exception {
+
+        // Given: se pide el nombre y el enlace self, que necesita el id
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("nombre", "Juan Pérez");
+        fila.put("id", 1L);
+        when(pacienteService.getCampos(Set.of("nombre", "id"), "id", 1L)).thenReturn(List.of(fila));
+
+        // When/Then
+        mockMvc.perform(get("/pacientes/1").param("fields", "nombre,_links.self")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre", is("Juan Pérez")))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.rut").doesNotExist())
+                .andExpect(jsonPath("$._links.self.href", containsString("/pacientes/1")))
+                .andExpect(jsonPath("$._links['paciente-rut']").doesNotExist());
+
+        verify(pacienteService, never()).getPacienteById(anyLong());
+    }
+
+    @Test
+    void getPacientesConCampoInexistente_entoncesRetornarBadRequest() throws Exception {
+
+        mockMvc.perform(get("/pacientes").param("fields", "nombre,clave")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("Campo no válido en fields: clave")));
+
+        verify(pacienteService, never()).getCampos(any(), any(), any());
+    }
+
     @AfterAll
     static void finalizarPruebas() {
         System.out.println("Finalizando todas las pruebas de PacienteController");
@@ -0,0 +1,109 @@
+package com.example.demo.estadisticas;
+
+import com.example.demo.estadisticas.AtencionesColumnares.Agregado;
+import com.example.demo.estadisticas.AtencionesColumnares.Filtro;
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.event.TipoCambio;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.AtencionMedicaScan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AtencionesColumnaresTest {
+
+    private AtencionesColumnares columnares;
+
+    @BeforeEach
+    void setUp() {
+        AtencionMedicaScan scan = mock(AtencionMedicaScan.class);
+        doAnswer(invocacion -> {
+            AtencionMedicaScan.Visitante visitante = invocacion.getArgument(0);
+            visitante.visitar(1L, 10L, 100L, Timestamp.valueOf(LocalDateTime.of(2024, 1, 15, 9, 30)), "Realizada");
+            visitante.visitar(2L, 11L, 100L, Timestamp.valueOf(LocalDateTime.of(2024, 1, 16, 10, 0)), "Programada");
+            visitante.visitar(3L, 12L, 200L, Timestamp.valueOf(LocalDateTime.of(2024, 2, 1, 9, 0)), "Realizada");
+            return null;
+        }).when(scan).recorrerConArchivo(any());
+        columnares = new AtencionesColumnares(scan, 2);
+    }
+
+    @Test
+    void cargaCompleta_entoncesAgregarPorEstadoHoraYMedico() {
+        // When
+        columnares.cargar();
+        Agregado agregado = columnares.agregar(new Filtro(null, null, null, null));
+
+        // Then
+        assertTrue(columnares.isCargado());
+        assertEquals(3, agregado.total());
+        assertEquals(Map.of("Realizada", 2L, "Programada", 1L), agregado.porEstado());
+        assertEquals(2, agregado.porHora()[9]);
+        assertEquals(1, agregado.porHora()[10]);
+        assertArrayEquals(new long[] {100L, 2L}, agregado.porMedico()[0]);
+    }
+
+    @Test
+    void cambiosDuranteYDespuesDeLaCarga_entoncesReflejarElUltimoEstado() {
+        // Given: un cambio confirmado antes de terminar la carga
+        columnares.alModificar(new AtencionMedicaModificadaEvent(2L, TipoCambio.ACTUALIZADO, null,
+                atencion(2L, 100L, LocalDateTime.of(2024, 1, 16, 10, 0), "Cancelada")));
+        columnares.cargar();
+
+        // When
+        columnares.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ELIMINADO, null, null));
+        columnares.alModificar(new AtencionMedicaModificadaEvent(4L, TipoCambio.CREADO, null,
+                atencion(4L, 200L, LocalDateTime.of(2024, 1, 20, 15, 0), "Programada")));
+        Agregado enero = columnares.agregar(new Filtro(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 1, 0, 0), null, null));
+        Agregado medico200 = columnares.agregar(new Filtro(null, null, 200L, "Programada"));
+
+        // Then
+        assertEquals(3, columnares.getFilas());
+        assertEquals(2, enero.total());
+        assertEquals(Map.of("Cancelada", 1L, "Programada", 1L), enero.porEstado());
+        assertEquals(1, medico200.total());
+        assertEquals(0, columnares.agregar(new Filtro(null, null, null, "Inexistente")).total());
+    }
+
+    @Test
+    void cargaFallidaAMitad_entoncesDescartarFilasParcialesYReintentar() {
+        // Given: el primer recorrido entrega una fila y falla
+        AtencionMedicaScan scan = mock(AtencionMedicaScan.class);
+        doAnswer(invocacion -> {
+            AtencionMedicaScan.Visitante visitante = invocacion.getArgument(0);
+            visitante.visitar(1L, 10L, 100L, Timestamp.valueOf(LocalDateTime.of(2024, 1, 15, 9, 30)), "Realizada");
+            throw new IllegalStateException("conexión perdida");
+        }).doAnswer(invocacion -> {
+            AtencionMedicaScan.Visitante visitante = invocacion.getArgument(0);
+            visitante.visitar(2L, 11L, 100L, Timestamp.valueOf(LocalDateTime.of(2024, 1, 16, 10, 0)), "Programada");
+            return null;
+        }).when(scan).recorrerConArchivo(any());
+        AtencionesColumnares conFallo = new AtencionesColumnares(scan, 2);
+
+        // When
+        boolean primero = conFallo.cargar();
+        boolean cargadoTrasFallo = conFallo.isCargado();
+        conFallo.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ELIMINADO, null, null));
+        boolean segundo = conFallo.cargar();
+
+        // Then
+        assertFalse(primero);
+        assertFalse(cargadoTrasFallo);
+        assertTrue(segundo);
+        assertEquals(1, conFallo.getFilas());
+        assertEquals(Map.of("Programada", 1L), conFallo.agregar(new Filtro(null, null, null, null)).porEstado());
+    }
+
+    private static AtencionMedica atencion(Long id, Long medicoId, LocalDateTime fecha, String estado) {
+        AtencionMedica atencion = new AtencionMedica(1L, medicoId, fecha, "Control", null, null, null, estado);
+        atencion.setId(id);
+        return atencion;
+    }
+}
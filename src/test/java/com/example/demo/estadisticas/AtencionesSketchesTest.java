@@ -0,0 +1,55 @@
+package com.example.demo.estadisticas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AtencionesSketchesTest {
+
+    private static final YearMonth ENERO = YearMonth.of(2024, 1);
+    private static final YearMonth FEBRERO = YearMonth.of(2024, 2);
+
+    private AtencionesSketches sketches;
+
+    @BeforeEach
+    void setUp() {
+        sketches = new AtencionesSketches();
+        ReflectionTestUtils.setField(sketches, "precisionHll", 12);
+        ReflectionTestUtils.setField(sketches, "contadoresTop", 10);
+        ReflectionTestUtils.setField(sketches, "mesesAdelantados", 2);
+    }
+
+    @Test
+    void atencionProgramadaParaElMesSiguiente_entoncesContarAlCambiarDeMes() {
+        // Given: en enero se agenda una atención para febrero
+        sketches.agregar(1L, 100L, LocalDateTime.of(2024, 1, 10, 9, 0), ENERO);
+        sketches.agregar(2L, 200L, LocalDateTime.of(2024, 2, 5, 9, 0), ENERO);
+
+        // When
+        SpaceSaving enero = sketches.topMedicos(ENERO);
+        SpaceSaving febrero = sketches.topMedicos(FEBRERO);
+
+        // Then
+        assertEquals(1, enero.getTotal());
+        assertEquals(100L, enero.top(1).get(0).clave());
+        assertEquals(1, febrero.getTotal());
+        assertEquals(200L, febrero.top(1).get(0).clave());
+    }
+
+    @Test
+    void atencionPasadaOMasAllaDelHorizonte_entoncesNoContarEnElTop() {
+        // When
+        sketches.agregar(1L, 100L, LocalDateTime.of(2023, 12, 20, 9, 0), ENERO);
+        sketches.agregar(2L, 100L, LocalDateTime.of(2024, 4, 1, 9, 0), ENERO);
+
+        // Then
+        assertEquals(0, sketches.topMedicos(ENERO).getTotal());
+        assertEquals(0, sketches.topMedicos(YearMonth.of(2024, 4)).getTotal());
+        assertTrue(sketches.getPacientesDistintos(100L).estimar() >= 1);
+    }
+}
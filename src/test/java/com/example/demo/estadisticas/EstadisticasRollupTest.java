@@ -0,0 +1,118 @@
+package com.example.demo.estadisticas;
+
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.event.TipoCambio;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.EstadisticasDiariasQueries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EstadisticasRollupTest {
+
+    private static final LocalDateTime MANANA = LocalDateTime.of(2024, 1, 15, 9, 30);
+
+    @Mock
+    private EstadisticasDiariasQueries estadisticasDiariasQueries;
+
+    @InjectMocks
+    private EstadisticasRollup estadisticasRollup;
+
+    @Test
+    void altaDeAtencion_entoncesSumarUnoEnSuCelda() {
+        // When
+        estadisticasRollup.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.CREADO,
+                null, atencion(100L, MANANA, "Programada")));
+
+        // Then
+        verify(estadisticasDiariasQueries).sumar(LocalDate.of(2024, 1, 15), 100L, "Programada", 1);
+        verifyNoMoreInteractions(estadisticasDiariasQueries);
+    }
+
+    @Test
+    void bajaDeAtencion_entoncesRestarUnoEnSuCelda() {
+        // When
+        estadisticasRollup.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ELIMINADO,
+                atencion(100L, MANANA, "Realizada"), null));
+
+        // Then
+        verify(estadisticasDiariasQueries).sumar(LocalDate.of(2024, 1, 15), 100L, "Realizada", -1);
+        verifyNoMoreInteractions(estadisticasDiariasQueries);
+    }
+
+    @Test
+    void cambioDentroDeLaMismaCelda_entoncesNoTocarLaTabla() {
+        // When: otra hora del mismo día, mismo médico y estado
+        estadisticasRollup.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ACTUALIZADO,
+                atencion(100L, MANANA, "Realizada"), atencion(100L, MANANA.plusHours(5), "Realizada")));
+
+        // Then
+        verifyNoInteractions(estadisticasDiariasQueries);
+    }
+
+    @Test
+    void cambioDeEstado_entoncesRestarEnLaAnteriorYSumarEnLaActual() {
+        // When
+        estadisticasRollup.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ACTUALIZADO,
+                atencion(100L, MANANA, "Programada"), atencion(100L, MANANA, "Realizada")));
+
+        // Then
+        verify(estadisticasDiariasQueries).sumar(LocalDate.of(2024, 1, 15), 100L, "Programada", -1);
+        verify(estadisticasDiariasQueries).sumar(LocalDate.of(2024, 1, 15), 100L, "Realizada", 1);
+        verifyNoMoreInteractions(estadisticasDiariasQueries);
+    }
+
+    @Test
+    void cambioDeDiaYMedico_entoncesMoverLaCuentaDeCelda() {
+        // When
+        estadisticasRollup.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ACTUALIZADO,
+                atencion(100L, MANANA, "Programada"), atencion(200L, MANANA.plusDays(1), "Programada")));
+
+        // Then
+        verify(estadisticasDiariasQueries).sumar(LocalDate.of(2024, 1, 15), 100L, "Programada", -1);
+        verify(estadisticasDiariasQueries).sumar(LocalDate.of(2024, 1, 16), 200L, "Programada", 1);
+        verifyNoMoreInteractions(estadisticasDiariasQueries);
+    }
+
+    @Test
+    void camposNulos_entoncesIgnorarEsaCelda() {
+        // When: la versión anterior no tenía médico y la actual no tiene fecha
+        estadisticasRollup.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ACTUALIZADO,
+                atencion(null, MANANA, "Programada"), atencion(100L, null, "Programada")));
+        estadisticasRollup.alModificar(new AtencionMedicaModificadaEvent(2L, TipoCambio.CREADO,
+                null, atencion(100L, MANANA, null)));
+
+        // Then
+        verifyNoInteractions(estadisticasDiariasQueries);
+    }
+
+    @Test
+    void anteriorConCamposNulos_entoncesSumarSoloLaActual() {
+        // When
+        estadisticasRollup.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ACTUALIZADO,
+                atencion(100L, null, "Programada"), atencion(100L, MANANA, "Programada")));
+
+        // Then
+        verify(estadisticasDiariasQueries).sumar(LocalDate.of(2024, 1, 15), 100L, "Programada", 1);
+        verify(estadisticasDiariasQueries, never()).sumar(any(), any(), any(), eq(-1L));
+    }
+
+    private static AtencionMedica atencion(Long medicoId, LocalDateTime fecha, String estado) {
+        AtencionMedica atencion = new AtencionMedica();
+        atencion.setId(1L);
+        atencion.setPacienteId(10L);
+        atencion.setMedicoId(medicoId);
+        atencion.setFechaAtencion(fecha);
+        atencion.setEstado(estado);
+        return atencion;
+    }
+}
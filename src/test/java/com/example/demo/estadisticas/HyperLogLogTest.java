@@ -0,0 +1,39 @@
+package com.example.demo.estadisticas;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    void cienMilValoresDistintos_entoncesEstimacionDentroDeTresErroresEstandar() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog(12);
+
+        // When
+        for (long i = 1; i <= 100_000; i++) {
+            sketch.agregar(i);
+        }
+
+        // Then
+        double errorRelativo = Math.abs(sketch.estimar() - 100_000) / 100_000.0;
+        assertTrue(errorRelativo < 3 * sketch.getErrorEstandar(), "error relativo " + errorRelativo);
+    }
+
+    @Test
+    void valoresRepetidosYPocosDistintos_entoncesContarCadaUnoUnaVez() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog(12);
+
+        // When
+        for (int vuelta = 0; vuelta < 50; vuelta++) {
+            for (long paciente = 1; paciente <= 20; paciente++) {
+                sketch.agregar(paciente);
+            }
+        }
+
+        // Then
+        assertEquals(20, sketch.estimar());
+    }
+}
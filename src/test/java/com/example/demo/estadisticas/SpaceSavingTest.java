@@ -0,0 +1,39 @@
+package com.example.demo.estadisticas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpaceSavingTest {
+
+    @Test
+    void masElementosQueContadores_entoncesLosFrecuentesQuedanConSuCotaDeError() {
+        // Given
+        SpaceSaving sketch = new SpaceSaving(10);
+
+        // When: tres médicos frecuentes entre 500 médicos con una sola atención
+        for (int i = 0; i < 300; i++) {
+            sketch.agregar(1);
+            if (i % 2 == 0) {
+                sketch.agregar(2);
+            }
+            if (i % 3 == 0) {
+                sketch.agregar(3);
+            }
+        }
+        for (long medico = 100; medico < 600; medico++) {
+            sketch.agregar(medico);
+        }
+        List<SpaceSaving.Elemento> top = sketch.top(3);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), top.stream().map(SpaceSaving.Elemento::clave).toList());
+        assertEquals(300, top.get(0).cantidad());
+        for (SpaceSaving.Elemento elemento : top) {
+            assertTrue(elemento.error() <= sketch.getErrorMaximo());
+        }
+        assertEquals(1050, sketch.getTotal());
+    }
+}
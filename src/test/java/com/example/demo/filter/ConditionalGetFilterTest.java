@@ -0,0 +1,91 @@
+package com.example.demo.filter;
+
+import com.example.demo.cache.VersionesTabla;
+import com.example.demo.event.EntidadModificadaEvent;
+import com.example.demo.event.Tabla;
+import com.example.demo.event.TipoCambio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConditionalGetFilterTest {
+
+    private VersionesTabla versiones;
+    private ConditionalGetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        versiones = new VersionesTabla();
+        filter = new ConditionalGetFilter(versiones, "private, max-age=0, must-revalidate");
+    }
+
+    @Test
+    void getConEtagVigente_entoncesRetornarNotModifiedSinLlamarAlControlador() throws Exception {
+        // Given
+        MockHttpServletResponse primera = ejecutar("/medicos", null, new MockFilterChain());
+        String etag = primera.getHeader("ETag");
+
+        // When
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse segunda = ejecutar("/medicos", etag, chain);
+
+        // Then
+        assertEquals(304, segunda.getStatus());
+        assertEquals(etag, segunda.getHeader("ETag"));
+        assertEquals("private, max-age=0, must-revalidate", segunda.getHeader("Cache-Control"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void getTrasModificarLaTabla_entoncesRetornarNuevoEtag() throws Exception {
+        // Given
+        String etag = ejecutar("/medicos", null, new MockFilterChain()).getHeader("ETag");
+        String etagPacientes = ejecutar("/pacientes/1", null, new MockFilterChain()).getHeader("ETag");
+
+        // When
+        versiones.alModificar(new EntidadModificadaEvent(Tabla.MEDICOS, 1L, TipoCambio.ACTUALIZADO));
+        MockHttpServletResponse medicos = ejecutar("/medicos", etag, new MockFilterChain());
+        MockHttpServletResponse pacientes = ejecutar("/pacientes/1", etagPacientes, new MockFilterChain());
+
+        // Then
+        assertEquals(200, medicos.getStatus());
+        assertNotEquals(etag, medicos.getHeader("ETag"));
+        assertEquals(304, pacientes.getStatus());
+    }
+
+    @Test
+    void coincideConListaYEtagDebil_entoncesRetornarTrue() {
+        assertTrue(ConditionalGetFilter.coincide("\"a\", W/\"b\"", "\"b\""));
+        assertFalse(ConditionalGetFilter.coincide("*", "\"b\""));
+        assertFalse(ConditionalGetFilter.coincide("\"a\"", "\"b\""));
+        assertFalse(ConditionalGetFilter.coincide(null, "\"b\""));
+    }
+
+    @Test
+    void getDeEstadisticas_entoncesSinEtagYSiemprePasarAlControlador() throws Exception {
+        // Given
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        MockHttpServletResponse response = ejecutar("/atenciones-medicas/estadisticas/series", "*", chain);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("ETag"));
+        assertNotNull(chain.getRequest());
+    }
+
+    private MockHttpServletResponse ejecutar(String uri, String ifNoneMatch, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
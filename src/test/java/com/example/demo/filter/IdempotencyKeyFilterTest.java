@@ -0,0 +1,155 @@
+package com.example.demo.filter;
+
+import com.example.demo.idempotencia.EnMemoriaIdempotencyStore;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyKeyFilterTest {
+
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+    private IdempotencyKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyKeyFilter(new EnMemoriaIdempotencyStore(
+                Duration.ofHours(1).toNanos(), Duration.ofMinutes(1).toNanos(), 100));
+    }
+
+    @Test
+    void postRepetidoConLaMismaClave_entoncesRetornarRespuestaGuardadaSinEjecutar() throws Exception {
+        // Given
+        MockHttpServletResponse primera = ejecutar("/medicos", "clave-1", "{\"rut\":\"1-9\"}", 201);
+
+        // When
+        MockHttpServletResponse segunda = ejecutar("/medicos", "clave-1", "{\"rut\":\"1-9\"}", 201);
+
+        // Then
+        assertEquals(1, ejecuciones.get());
+        assertEquals(201, segunda.getStatus());
+        assertEquals(primera.getContentAsString(), segunda.getContentAsString());
+        assertEquals("{\"eco\":{\"rut\":\"1-9\"}}", segunda.getContentAsString());
+        assertEquals("true", segunda.getHeader(IdempotencyKeyFilter.CABECERA_REPETIDA));
+    }
+
+    @Test
+    void claveReutilizadaConOtroCuerpo_entoncesRetornarUnprocessableEntity() throws Exception {
+        // Given
+        ejecutar("/medicos", "clave-1", "{\"rut\":\"1-9\"}", 201);
+
+        // When
+        MockHttpServletResponse response = ejecutar("/medicos", "clave-1", "{\"rut\":\"2-7\"}", 201);
+
+        // Then
+        assertEquals(422, response.getStatus());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void primeraRespuestaConError5xx_entoncesPermitirReintento() throws Exception {
+        // Given
+        ejecutar("/pacientes", "clave-1", "{}", 500);
+
+        // When
+        MockHttpServletResponse response = ejecutar("/pacientes", "clave-1", "{}", 201);
+
+        // Then
+        assertEquals(201, response.getStatus());
+        assertEquals(2, ejecuciones.get());
+        assertNull(response.getHeader(IdempotencyKeyFilter.CABECERA_REPETIDA));
+    }
+
+    @Test
+    void mismaClaveEnOtraRutaOSinCabecera_entoncesEjecutarCadaVez() throws Exception {
+        // When
+        ejecutar("/pacientes", "clave-1", "{}", 201);
+        ejecutar("/medicos", "clave-1", "{}", 201);
+        ejecutar("/medicos", null, "{}", 201);
+        ejecutar("/medicos", null, "{}", 201);
+
+        // Then
+        assertEquals(4, ejecuciones.get());
+    }
+
+    @Test
+    void cuerpoLeidoConReadListener_entoncesEntregarloYAvisarDelFinal() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/medicos");
+        request.setContent("{\"rut\":\"1-9\"}".getBytes(StandardCharsets.UTF_8));
+        request.addHeader(IdempotencyKeyFilter.CABECERA, "clave-1");
+        ByteArrayOutputStream leido = new ByteArrayOutputStream();
+        List<String> avisos = new ArrayList<>();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                ServletInputStream entrada = req.getInputStream();
+                entrada.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        avisos.add("datos");
+                        byte[] buffer = new byte[4];
+                        int n;
+                        while (entrada.isReady() && (n = entrada.read(buffer)) != -1) {
+                            leido.write(buffer, 0, n);
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        avisos.add("fin");
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        avisos.add("error");
+                    }
+                });
+                resp.setStatus(201);
+            }
+        }));
+
+        // Then
+        assertEquals("{\"rut\":\"1-9\"}", leido.toString(StandardCharsets.UTF_8));
+        assertEquals(List.of("datos", "fin"), avisos);
+    }
+
+    private MockHttpServletResponse ejecutar(String uri, String clave, String cuerpo, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType("application/json");
+        request.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+        if (clave != null) {
+            request.addHeader(IdempotencyKeyFilter.CABECERA, clave);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                ejecuciones.incrementAndGet();
+                String leido = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                resp.setStatus(status);
+                resp.setContentType("application/json");
+                resp.getOutputStream().write(("{\"eco\":" + leido + "}").getBytes(StandardCharsets.UTF_8));
+            }
+        }));
+        return response;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValoresCanonicosTest {
+
+    @Test
+    void estadoLeidoComoStringNuevo_entoncesDevolverInstanciaCompartida() {
+        // Given
+        ValoresCanonicos.Convertidor convertidor = new ValoresCanonicos.Convertidor();
+        String leido = new String("Realizada");
+
+        // When
+        String convertido = convertidor.convertToEntityAttribute(leido);
+
+        // Then
+        assertEquals("Realizada", convertido);
+        assertSame(ValoresCanonicos.ESTADOS_ATENCION.get(1), convertido);
+    }
+
+    @Test
+    void especialidadNoPrecargada_entoncesMismaInstanciaEnLecturasSiguientes() {
+        // Given
+        String primera = ValoresCanonicos.canonico(new String("Cardiología"));
+
+        // When
+        String segunda = ValoresCanonicos.canonico(new String("Cardiología"));
+
+        // Then
+        assertSame(primera, segunda);
+        assertNull(ValoresCanonicos.canonico(null));
+    }
+
+    @Test
+    void validadores_entoncesAceptarValoresConocidosYNull() {
+        // Given
+        EstadoAtencionValido.Validador estado = new EstadoAtencionValido.Validador();
+        GeneroValido.Validador genero = new GeneroValido.Validador();
+
+        // Then
+        assertTrue(estado.isValid("Programada", null));
+        assertTrue(estado.isValid(null, null));
+        assertFalse(estado.isValid("programada", null));
+        assertTrue(genero.isValid("F", null));
+        assertFalse(genero.isValid("X", null));
+    }
+}
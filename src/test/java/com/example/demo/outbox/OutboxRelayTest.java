@@ -0,0 +1,100 @@
+package com.example.demo.outbox;
+
+import com.example.demo.repository.OutboxRelayQueries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @Mock
+    private OutboxRelayQueries queries;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EnMemoriaOutboxSink sink;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        sink = new EnMemoriaOutboxSink(100);
+        relay = new OutboxRelay(queries, sink, new TransactionTemplate(transactionManager),
+                10, Duration.ofSeconds(60), 100, Duration.ofDays(7));
+    }
+
+    @Test
+    void drenarLote_entoncesEntregarMarcarYAvanzarHwmSoloConFilasAntiguas() {
+        // Given: una fila fuera del margen de gracia y otra recién escrita
+        LocalDateTime ahora = LocalDateTime.now();
+        List<OutboxMensaje> pendientes = List.of(
+                new OutboxMensaje(5, "CREADO", 1, "{}", ahora.minusMinutes(5)),
+                new OutboxMensaje(9, "ACTUALIZADO", 1, "{}", ahora));
+        when(queries.bloquearPendientes(0, 10)).thenReturn(pendientes);
+
+        // When
+        int entregados = relay.drenarLote();
+
+        // Then
+        assertEquals(2, entregados);
+        assertEquals(pendientes, sink.getMensajes());
+        assertEquals(5, relay.getHwm());
+        verify(queries, times(1)).marcarProcesados(eq(pendientes), any(LocalDateTime.class));
+    }
+
+    @Test
+    void drenarLoteConFalloDelDestino_entoncesNoMarcarComoProcesados() throws Exception {
+        // Given
+        OutboxSink sinkConFallo = lote -> {
+            throw new IOException("disco lleno");
+        };
+        relay = new OutboxRelay(queries, sinkConFallo, new TransactionTemplate(transactionManager),
+                10, Duration.ofSeconds(60), 100, Duration.ofDays(7));
+        when(queries.bloquearPendientes(0, 10)).thenReturn(
+                List.of(new OutboxMensaje(1, "CREADO", 1, "{}", LocalDateTime.now().minusMinutes(5))));
+
+        // When
+        int entregados = relay.drenarLote();
+
+        // Then
+        assertEquals(0, entregados);
+        assertEquals(0, relay.getHwm());
+        verify(queries, never()).marcarProcesados(anyList(), any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void purgar_entoncesBorrarPorTrozosSoloLoEntregadoAntesDeLaRetencion() {
+        // Given: el primer trozo sale lleno y el segundo no
+        when(queries.purgarProcesados(any(LocalDateTime.class), eq(10))).thenReturn(10, 3);
+        LocalDateTime antes = LocalDateTime.now().minusDays(7);
+
+        // When
+        relay.purgar();
+
+        // Then
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(queries, times(2)).purgarProcesados(limite.capture(), anyInt());
+        assertFalse(limite.getValue().isBefore(antes));
+        assertTrue(limite.getValue().isBefore(LocalDateTime.now().minusDays(6)));
+        verify(queries, never()).bloquearPendientes(anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.outbox;
+
+import com.example.demo.event.AtencionMedicaModificadaEvent;
+import com.example.demo.event.TipoCambio;
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.OutboxEvento;
+import com.example.demo.repository.OutboxBatchInsert;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxWriterTest {
+
+    @Mock
+    private OutboxBatchInsert outboxBatchInsert;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private OutboxWriter outboxWriter;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void variosEventosEnUnaTransaccion_entoncesUnSoloBatchAntesDelCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        outboxWriter.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.CREADO, null, atencion(1L)));
+        outboxWriter.alModificar(new AtencionMedicaModificadaEvent(2L, TipoCambio.CREADO, null, atencion(2L)));
+
+        // Then: nada se escribe hasta el commit, y entonces todo junto
+        verify(outboxBatchInsert, never()).insertar(anyList());
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxEvento>> filas = ArgumentCaptor.forClass(List.class);
+        verify(outboxBatchInsert, times(1)).insertar(filas.capture());
+        assertEquals(List.of(1L, 2L), filas.getValue().stream().map(OutboxEvento::getAtencionId).toList());
+        assertTrue(filas.getValue().get(0).getPayload().contains("\"tipo\":\"CREADO\""));
+    }
+
+    @Test
+    void eventoSinTransaccion_entoncesInsertarAlMomento() {
+
+        outboxWriter.alModificar(new AtencionMedicaModificadaEvent(1L, TipoCambio.ELIMINADO, atencion(1L), null));
+
+        verify(outboxBatchInsert, times(1)).insertar(anyList());
+    }
+
+    private static AtencionMedica atencion(Long id) {
+        AtencionMedica atencion = new AtencionMedica(1L, 1L, LocalDateTime.of(2024, 1, 15, 10, 30),
+                "Control", null, null, null, "Programada");
+        atencion.setId(id);
+        return atencion;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.repository;
+
+import com.example.demo.repository.AtencionMedicaFiltroQuery.Criterios;
+import com.example.demo.repository.AtencionMedicaFiltroQuery.Indice;
+import com.example.demo.repository.AtencionMedicaFiltroQuery.Plan;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AtencionMedicaFiltroQueryTest {
+
+    @Test
+    void pacienteMedicoYEstado_entoncesRecorrerIndicePacienteYFiltrarElResto() {
+        // Given
+        Criterios criterios = new Criterios(1L, 2L, "Realizada", null, null);
+
+        // When
+        Plan plan = AtencionMedicaFiltroQuery.planificar(criterios);
+
+        // Then
+        assertEquals(Indice.PACIENTE_FECHA, plan.indice());
+        assertEquals(List.of("medicoId", "estado"), plan.filtrosResiduales());
+    }
+
+    @Test
+    void estadoConRango_entoncesIndiceEstadoSinResiduales() {
+        // Given
+        Criterios criterios = new Criterios(null, null, "Programada",
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        // When
+        Plan plan = AtencionMedicaFiltroQuery.planificar(criterios);
+
+        // Then
+        assertEquals(Indice.ESTADO_FECHA, plan.indice());
+        assertTrue(plan.filtrosResiduales().isEmpty());
+    }
+
+    @Test
+    void soloRangoDeFechas_entoncesIndiceFecha() {
+        // Given
+        Criterios criterios = new Criterios(null, null, null, LocalDateTime.of(2024, 1, 1, 0, 0), null);
+
+        // When
+        Plan plan = AtencionMedicaFiltroQuery.planificar(criterios);
+
+        // Then
+        assertEquals(Indice.FECHA, plan.indice());
+        assertEquals("idx_atenciones_fecha", plan.indice().getNombre());
+    }
+
+    @Test
+    void sinCriterios_entoncesRechazar() {
+        // Given
+        Criterios criterios = new Criterios(null, null, null, null, null);
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> AtencionMedicaFiltroQuery.planificar(criterios));
+    }
+}
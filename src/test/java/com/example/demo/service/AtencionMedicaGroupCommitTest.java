@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AtencionMedica;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class AtencionMedicaGroupCommitTest {
+
+    @Test
+    void loteQueNoConfirmaEnElPlazo_entoncesRechazarParaResponder503() throws Exception {
+        // Given: el primer lote se queda bloqueado y la segunda alta espera en la cola
+        AtencionMedicaService service = mock(AtencionMedicaService.class);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(service.createAtenciones(anyList())).thenAnswer(invocacion -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return invocacion.getArgument(0);
+        });
+        AtencionMedicaGroupCommit groupCommit = new AtencionMedicaGroupCommit(service, 10, 1, 0, 50);
+        groupCommit.iniciar();
+        Thread primera = Thread.ofVirtual().start(() -> assertThrows(RejectedExecutionException.class,
+                () -> groupCommit.crear(new AtencionMedica())));
+
+        // When / Then
+        assertThrows(RejectedExecutionException.class, () -> groupCommit.crear(new AtencionMedica()));
+        primera.join();
+        liberar.countDown();
+        groupCommit.cerrar();
+        // La segunda se canceló mientras seguía en la cola: el escritor no llega a confirmarla
+        verify(service, times(1)).createAtenciones(anyList());
+    }
+
+    @Test
+    void loteConfirmadoDentroDelPlazo_entoncesDevolverLaAtencion() throws Exception {
+        // Given
+        AtencionMedicaService service = mock(AtencionMedicaService.class);
+        when(service.createAtenciones(anyList())).thenAnswer(invocacion -> invocacion.getArgument(0));
+        AtencionMedicaGroupCommit groupCommit = new AtencionMedicaGroupCommit(service, 10, 10, 0, 5000);
+        groupCommit.iniciar();
+        AtencionMedica atencion = new AtencionMedica();
+
+        // When
+        AtencionMedica creada = groupCommit.crear(atencion);
+
+        // Then
+        assertSame(atencion, creada);
+        verify(service).createAtenciones(List.of(atencion));
+        groupCommit.cerrar();
+    }
+}
@@ -1,7 +1,10 @@
 // Archivo: src/test/java/com/example/demo/service/AtencionMedicaServiceTest.java
 package com.example.demo.service;
 
+import com.example.demo.cache.AtencionesIndices;
+import com.example.demo.event.EntidadModificadaEvent;
 import com.example.demo.model.AtencionMedica;
+import com.example.demo.repository.AtencionMedicaBatchInsert;
 import com.example.demo.repository.AtencionMedicaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -25,6 +29,15 @@ public class AtencionMedicaServiceTest {
     @Mock
     private AtencionMedicaRepository atencionMedicaRepository;
 
+    @Mock
+    private AtencionMedicaBatchInsert atencionMedicaBatchInsert;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AtencionesIndices atencionesIndices;
+
     @InjectMocks
     private AtencionMedicaService atencionMedicaService;
 
@@ -84,6 +97,25 @@ public class AtencionMedicaServiceTest {
         assertNotNull(resultado);
         assertEquals("Realizada", resultado.getEstado());
         verify(atencionMedicaRepository, times(1)).save(atencionMedica);
+        verify(eventPublisher, times(1)).publishEvent(any(EntidadModificadaEvent.class));
+    }
+
+    @Test
+    void createAtencionesEnLote_entoncesAsignarIdsYPublicarUnEventoPorAtencion() {
+        // Given
+        AtencionMedica otra = AtencionMedicaService.copiar(atencionMedica);
+        List<AtencionMedica> lote = Arrays.asList(atencionMedica, otra);
+        when(atencionMedicaBatchInsert.reservarIds(2)).thenReturn(List.of(10L, 11L));
+
+        // When
+        List<AtencionMedica> resultado = atencionMedicaService.createAtenciones(lote);
+
+        // Then
+        assertEquals(10L, resultado.get(0).getId());
+        assertEquals(11L, resultado.get(1).getId());
+        verify(atencionMedicaBatchInsert, times(1)).insertar(lote);
+        verify(atencionMedicaRepository, never()).save(any(AtencionMedica.class));
+        verify(eventPublisher, times(2)).publishEvent(any(EntidadModificadaEvent.class));
     }
 
     @Test
@@ -133,4 +165,22 @@ public class AtencionMedicaServiceTest {
         verify(atencionMedicaRepository, times(1)).existsById(999L);
         verify(atencionMedicaRepository, never()).deleteById(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAtencionesPorPacienteConIndiceCargado_entoncesCargarPorIdSinConsultarPorPaciente() {
+        // Given: el índice aún tiene la atención 3, que ya pasó a otro paciente
+        AtencionMedica movida = new AtencionMedica();
+        movida.setId(3L);
+        movida.setPacienteId(2L);
+        when(atencionesIndices.isCargado()).thenReturn(true);
+        when(atencionesIndices.getIdsPorPaciente(1L)).thenReturn(new long[] {1L, 3L});
+        when(atencionMedicaRepository.findAllById(List.of(1L, 3L))).thenReturn(Arrays.asList(movida, atencionMedica));
+
+        // When
+        List<AtencionMedica> resultado = atencionMedicaService.getAtencionesByPacienteId(1L);
+
+        // Then
+        assertEquals(List.of(atencionMedica), resultado);
+        verify(atencionMedicaRepository, never()).findByPacienteId(any());
+    }
+}
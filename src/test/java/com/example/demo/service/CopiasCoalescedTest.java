@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AtencionMedica;
+import com.example.demo.model.Medico;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CopiasCoalescedTest {
+
+    @Test
+    void listaDeAtenciones_entoncesCopiasSeparadasEnListaDeSoloLectura() {
+        // Given
+        AtencionMedica compartida = new AtencionMedica(1L, 2L, LocalDateTime.of(2024, 1, 15, 10, 30),
+                "Control", null, null, null, "Programada");
+        compartida.setId(7L);
+        List<AtencionMedica> resultado = new ArrayList<>(List.of(compartida));
+
+        // When
+        @SuppressWarnings("unchecked")
+        List<AtencionMedica> primera = (List<AtencionMedica>) CopiasCoalesced.copiar(resultado);
+        @SuppressWarnings("unchecked")
+        List<AtencionMedica> segunda = (List<AtencionMedica>) CopiasCoalesced.copiar(resultado);
+        primera.get(0).setEstado("Cancelada");
+
+        // Then
+        assertNotSame(compartida, primera.get(0));
+        assertNotSame(primera.get(0), segunda.get(0));
+        assertEquals(7L, segunda.get(0).getId());
+        assertEquals("Programada", segunda.get(0).getEstado());
+        assertEquals("Programada", compartida.getEstado());
+        assertThrows(UnsupportedOperationException.class, () -> primera.add(compartida));
+    }
+
+    @Test
+    void mapaYOpcional_entoncesCopiarLasEntidadesQueContienen() {
+        // Given
+        Medico medico = new Medico("12345678-9", "Ana Pérez", 45, "F", null, null, null, "Cardiología");
+        medico.setId(3L);
+        Map<Long, Medico> porId = new HashMap<>(Map.of(3L, medico));
+
+        // When
+        @SuppressWarnings("unchecked")
+        Map<Long, Medico> mapa = (Map<Long, Medico>) CopiasCoalesced.copiar(porId);
+        @SuppressWarnings("unchecked")
+        Optional<Medico> opcional = (Optional<Medico>) CopiasCoalesced.copiar(Optional.of(medico));
+
+        // Then
+        assertNotSame(medico, mapa.get(3L));
+        assertEquals("Ana Pérez", mapa.get(3L).getNombre());
+        assertNotSame(medico, opcional.orElseThrow());
+        assertThrows(UnsupportedOperationException.class, () -> mapa.remove(3L));
+        assertEquals(5L, CopiasCoalesced.copiar(5L));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.estadisticas.AtencionesColumnares;
+import com.example.demo.estadisticas.AtencionesColumnares.Agregado;
+import com.example.demo.estadisticas.AtencionesSketches;
+import com.example.demo.repository.EstadisticasDiariasQueries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EstadisticasServiceTest {
+
+    @Mock
+    private EstadisticasDiariasQueries estadisticasDiariasQueries;
+
+    @Mock
+    private AtencionesSketches atencionesSketches;
+
+    @Mock
+    private AtencionesColumnares atencionesColumnares;
+
+    @InjectMocks
+    private EstadisticasService estadisticasService;
+
+    @Test
+    void getConteosConColumnarCargando_entoncesSumarElRollupConArchivadas() {
+        // Given
+        when(atencionesColumnares.isCargado()).thenReturn(false);
+        when(estadisticasDiariasQueries.totalesPorEstado())
+                .thenReturn(new LinkedHashMap<>(Map.of("Realizada", 7L, "Programada", 2L)));
+
+        // When
+        Map<String, Long> conteos = estadisticasService.getConteosPorEstado();
+
+        // Then
+        assertEquals(9L, conteos.get("total"));
+        assertEquals(7L, conteos.get("Realizada"));
+        verify(atencionesColumnares, never()).agregar(any());
+    }
+
+    @Test
+    void getConteosConColumnarCargado_entoncesNoLeerElRollup() {
+        // Given
+        when(atencionesColumnares.isCargado()).thenReturn(true);
+        when(atencionesColumnares.agregar(any())).thenReturn(
+                new Agregado(4, Map.of("Realizada", 3L, "Cancelada", 1L), new long[24], new long[0][]));
+
+        // When
+        Map<String, Long> conteos = estadisticasService.getConteosPorEstado();
+
+        // Then
+        assertEquals(4L, conteos.get("total"));
+        assertEquals(1L, conteos.get("Cancelada"));
+        verify(estadisticasDiariasQueries, never()).totalesPorEstado();
+    }
+}